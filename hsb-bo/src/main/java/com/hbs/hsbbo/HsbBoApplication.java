@@ -1,5 +1,6 @@
 package com.hbs.hsbbo;
 
+import com.hbs.hsbbo.common.config.httpConfig.OutboundHttpProperties;
 import com.hbs.hsbbo.common.util.FileStorageProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -8,7 +9,7 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 
 @EnableScheduling   // 스케줄링 활성화
 @SpringBootApplication
-@EnableConfigurationProperties(FileStorageProperties.class)
+@EnableConfigurationProperties({FileStorageProperties.class, OutboundHttpProperties.class})
 public class HsbBoApplication {
 
 	public static void main(String[] args) {
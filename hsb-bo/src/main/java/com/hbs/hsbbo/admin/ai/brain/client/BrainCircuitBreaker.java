@@ -0,0 +1,165 @@
+package com.hbs.hsbbo.admin.ai.brain.client;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Brain 서버 단위 서킷 브레이커 (호출 수 기준 슬라이딩 윈도우)
+ *
+ * - CLOSED : 최근 windowSize 건 중 실패율이 failureRateThreshold(%) 이상이면 OPEN (minimumCalls 건 이상일 때만)
+ * - OPEN   : 호출을 보내지 않고 즉시 거절, openDuration 이 지나면 HALF_OPEN
+ * - HALF_OPEN : halfOpenCalls 건만 시험 호출 → 모두 성공하면 CLOSED, 하나라도 실패하면 다시 OPEN
+ * - 백그라운드 health 프로브(BrainHealthProbe)가 성공하면 openDuration 을 기다리지 않고 바로 CLOSED
+ *
+ * 호출자는 tryAcquire() 가 true 면 onSuccess / onFailure / release 중 정확히 하나를 호출해야 한다.
+ */
+@Slf4j
+public class BrainCircuitBreaker {
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    public record Snapshot(State state, int bufferedCalls, int failedCalls, double failureRate,
+                           long notPermittedCalls, long openedCount, String lastTransitionReason) {
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openMillis;
+    private final int halfOpenCalls;
+
+    // 링버퍼: true = 실패
+    private final boolean[] window;
+    private int head;
+    private int count;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenInFlight;
+    private int halfOpenSuccesses;
+    private String lastTransitionReason = "init";
+
+    private final LongAdder notPermitted = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    public BrainCircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold,
+                               Duration openDuration, int halfOpenCalls) {
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openMillis = openDuration.toMillis();
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.window = new boolean[this.windowSize];
+    }
+
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt < openMillis) {
+                    notPermitted.increment();
+                    return false;
+                }
+                transition(State.HALF_OPEN, "open duration elapsed");
+                // fall through
+            case HALF_OPEN:
+            default:
+                if (halfOpenInFlight >= halfOpenCalls) {
+                    notPermitted.increment();
+                    return false;
+                }
+                halfOpenInFlight++;
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            releaseHalfOpen();
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                close("half-open calls succeeded");
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            releaseHalfOpen();
+            open("half-open call failed");
+            return;
+        }
+        if (state == State.OPEN) return;
+
+        record(true);
+        if (count >= minimumCalls && failureRate() >= failureRateThreshold) {
+            open(String.format("failure rate %.1f%% (%d/%d)", failureRate(), failures, count));
+        }
+    }
+
+    /** 결과를 판단하지 않고 허가만 반납 (취소, 호출자 측 오류 등) */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN) releaseHalfOpen();
+    }
+
+    public synchronized void close(String reason) {
+        if (state == State.CLOSED) return;
+        transition(State.CLOSED, reason);
+    }
+
+    public synchronized void open(String reason) {
+        if (state == State.OPEN) return;
+        transition(State.OPEN, reason);
+        openedAt = System.currentTimeMillis();
+        opened.increment();
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(state, count, failures, failureRate(),
+                notPermitted.sum(), opened.sum(), lastTransitionReason);
+    }
+
+    /* =========================
+     * Helpers
+     * ========================= */
+    private void record(boolean failed) {
+        if (count == windowSize) {
+            if (window[head]) failures--;
+        } else {
+            count++;
+        }
+        window[head] = failed;
+        if (failed) failures++;
+        head = (head + 1) % windowSize;
+    }
+
+    private double failureRate() {
+        return count == 0 ? 0.0 : failures * 100.0 / count;
+    }
+
+    private void releaseHalfOpen() {
+        if (halfOpenInFlight > 0) halfOpenInFlight--;
+    }
+
+    private void transition(State next, String reason) {
+        log.warn("[brain-circuit] {} -> {} ({})", state, next, reason);
+        state = next;
+        lastTransitionReason = reason;
+        head = 0;
+        count = 0;
+        failures = 0;
+        halfOpenInFlight = 0;
+        halfOpenSuccesses = 0;
+    }
+}
@@ -9,14 +9,23 @@ import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainDeleteIndexResponse;
 import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainHealthResponse;
 import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainIngestResponse;
 import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainVectorStoreCreateResponse;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
 
 public interface BrainClient {
     BrainHealthResponse health();
 
     BrainChatResponse chat(BrainChatRequest request);
 
+    // 논블로킹 버전 (요청 스레드를 점유하지 않음)
+    Mono<BrainChatResponse> chatAsync(BrainChatRequest request);
+
     BrainIngestResponse ingest(BrainIngestRequest request);
 
+    // 파일 본문을 multipart 로 스트리밍 전송 (Brain 이 BO 디스크를 볼 수 없을 때, hsbs.brain.ingest-transport=MULTIPART)
+    BrainIngestResponse ingestFile(BrainIngestRequest request, Path file);
+
     BrainDeleteIndexResponse deleteIndex(BrainDeleteIndexRequest request);
 
     BrainVectorStoreCreateResponse createVectorStore(BrainVectorStoreCreateRequest request);
@@ -0,0 +1,130 @@
+package com.hbs.hsbbo.admin.ai.brain.client;
+
+import com.hbs.hsbbo.admin.ai.brain.config.HsbsBrainProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Brain 호출 보호 장치 묶음: 서킷 브레이커 1개(서버 단위) + 작업별 벌크헤드(동시 호출 한도)
+ *
+ * - 벌크헤드는 대기하지 않는다 (가득 차면 즉시 BULKHEAD_FULL) → 느린 ingest 가 위젯 chat 슬롯을 잡아먹지 않도록 작업별로 분리
+ * - 상태/거절 수는 actuator health(brain 컴포넌트)와 micrometer(hsbs.brain.*)로 노출
+ */
+public class BrainResilience {
+
+    public enum Operation {
+        CHAT, INGEST, DELETE_INDEX, VECTOR_STORE
+    }
+
+    public enum Outcome {
+        SUCCESS, FAILURE, IGNORED
+    }
+
+    public record BulkheadSnapshot(int maxConcurrent, int inUse, long bulkheadRejected, long circuitRejected) {
+    }
+
+    private final BrainCircuitBreaker circuitBreaker;
+    private final Map<Operation, Bulkhead> bulkheads = new EnumMap<>(Operation.class);
+
+    private static final class Bulkhead {
+        private final int max;
+        private final Semaphore permits;
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder circuitRejected = new LongAdder();
+
+        Bulkhead(int max) {
+            this.max = Math.max(1, max);
+            this.permits = new Semaphore(this.max);
+        }
+    }
+
+    public BrainResilience(HsbsBrainProperties.Resilience props, MeterRegistry meterRegistry) {
+        this.circuitBreaker = new BrainCircuitBreaker(
+                props.getWindowSize(),
+                props.getMinimumCalls(),
+                props.getFailureRateThreshold(),
+                props.getOpenDuration(),
+                props.getHalfOpenCalls()
+        );
+        bulkheads.put(Operation.CHAT, new Bulkhead(props.getChatConcurrency()));
+        bulkheads.put(Operation.INGEST, new Bulkhead(props.getIngestConcurrency()));
+        bulkheads.put(Operation.DELETE_INDEX, new Bulkhead(props.getDeleteIndexConcurrency()));
+        // vector store 생성은 ingest 직전에만 호출되므로 ingest 한도를 그대로 쓴다
+        bulkheads.put(Operation.VECTOR_STORE, new Bulkhead(props.getIngestConcurrency()));
+
+        // 0 = CLOSED, 1 = HALF_OPEN, 2 = OPEN
+        Gauge.builder("hsbs.brain.circuit.state", circuitBreaker, cb -> cb.state().ordinal())
+                .register(meterRegistry);
+        for (Map.Entry<Operation, Bulkhead> e : bulkheads.entrySet()) {
+            String op = e.getKey().name().toLowerCase();
+            Bulkhead b = e.getValue();
+            Gauge.builder("hsbs.brain.bulkhead.in_use", b, x -> x.max - x.permits.availablePermits())
+                    .tag("operation", op)
+                    .register(meterRegistry);
+            FunctionCounter.builder("hsbs.brain.rejected", b.rejected, LongAdder::sum)
+                    .tag("operation", op).tag("reason", "bulkhead_full")
+                    .register(meterRegistry);
+            FunctionCounter.builder("hsbs.brain.rejected", b.circuitRejected, LongAdder::sum)
+                    .tag("operation", op).tag("reason", "circuit_open")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * 호출 허가 (서킷 → 벌크헤드 순). 거절이면 BrainUnavailableException
+     * 허가를 받았으면 호출 종료 시 complete(...) 를 반드시 한 번 호출한다.
+     */
+    public void acquire(Operation op) {
+        Bulkhead b = bulkheads.get(op);
+        if (!circuitBreaker.tryAcquire()) {
+            b.circuitRejected.increment();
+            throw new BrainUnavailableException(BrainUnavailableException.Reason.CIRCUIT_OPEN, op);
+        }
+        if (!b.permits.tryAcquire()) {
+            circuitBreaker.release();
+            b.rejected.increment();
+            throw new BrainUnavailableException(BrainUnavailableException.Reason.BULKHEAD_FULL, op);
+        }
+    }
+
+    /** 호출 종료: 벌크헤드 반납 + 결과를 서킷에 반영 (취소/호출자 측 오류는 IGNORED) */
+    public void complete(Operation op, Outcome outcome) {
+        bulkheads.get(op).permits.release();
+        switch (outcome) {
+            case SUCCESS -> circuitBreaker.onSuccess();
+            case FAILURE -> circuitBreaker.onFailure();
+            default -> circuitBreaker.release();
+        }
+    }
+
+    /** 실패 판정: 4xx(408/429 제외)는 Brain 이 정상 응답한 것이므로 서킷 실패로 세지 않는다 */
+    public static Outcome outcomeOf(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof WebClientResponseException ex) {
+                int status = ex.getStatusCode().value();
+                return (status >= 500 || status == 408 || status == 429) ? Outcome.FAILURE : Outcome.SUCCESS;
+            }
+            if (t.getCause() == t) break;
+        }
+        return Outcome.FAILURE;
+    }
+
+    public BrainCircuitBreaker circuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public Map<Operation, BulkheadSnapshot> bulkheads() {
+        Map<Operation, BulkheadSnapshot> out = new LinkedHashMap<>();
+        bulkheads.forEach((op, b) -> out.put(op, new BulkheadSnapshot(
+                b.max, b.max - b.permits.availablePermits(), b.rejected.sum(), b.circuitRejected.sum())));
+        return out;
+    }
+}
@@ -0,0 +1,29 @@
+package com.hbs.hsbbo.admin.ai.brain.client;
+
+/**
+ * Brain 호출을 보내지 않고 즉시 거절한 경우 (서킷 OPEN / 동시 호출 한도 초과)
+ * - 업스트림 오류가 아니라 BO 쪽 보호 장치에 의한 실패 → KbJob 은 TRANSIENT 로 재시도된다.
+ */
+public class BrainUnavailableException extends RuntimeException {
+
+    public enum Reason {
+        CIRCUIT_OPEN, BULKHEAD_FULL
+    }
+
+    private final Reason reason;
+    private final BrainResilience.Operation operation;
+
+    public BrainUnavailableException(Reason reason, BrainResilience.Operation operation) {
+        super("Brain 호출 거절: " + reason + " (" + operation + ")");
+        this.reason = reason;
+        this.operation = operation;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public BrainResilience.Operation getOperation() {
+        return operation;
+    }
+}
@@ -11,12 +11,23 @@ import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainDeleteIndexResponse;
 import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainHealthResponse;
 import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainIngestResponse;
 import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainVectorStoreCreateResponse;
+import io.netty.buffer.PooledByteBufAllocator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.nio.file.Path;
+
 @RequiredArgsConstructor
 @Slf4j
 public class FastApiBrainClient implements BrainClient{
@@ -25,6 +36,9 @@ public class FastApiBrainClient implements BrainClient{
     private final HsbsBrainProperties props;
     private final ObjectMapper objectMapper;
 
+    // 파일 업로드용 버퍼: Netty pooled direct 버퍼 → 파일 내용이 힙에 올라오지 않고, 전송 후 풀로 반환
+    private static final DataBufferFactory FILE_BUFFER_FACTORY = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+
     @Override
     public BrainHealthResponse health() {
         try {
@@ -33,6 +47,8 @@ public class FastApiBrainClient implements BrainClient{
                     .header("X-HSBS-Internal-Token", props.getApiKey())
                     .retrieve()
                     .bodyToMono(BrainHealthResponse.class)
+                    // 프로브용: responseTimeout(ingest 기준)까지 기다리지 않는다
+                    .timeout(props.getResilience().getHealthTimeout())
                     .onErrorResume(WebClientResponseException.class, ex ->
                             Mono.error(new RuntimeException(
                                     "Brain health check failed: " + ex.getStatusCode() + " " + safeBody(ex.getResponseBodyAsString()), ex
@@ -47,23 +63,28 @@ public class FastApiBrainClient implements BrainClient{
     @Override
     public BrainChatResponse chat(BrainChatRequest request) {
         try {
-            return webClient.post()
-                    .uri("/chat") // FastAPI 쪽에서 /v1/brain/chat 이면 baseUrl에 /v1 포함
-                    .header("X-HSBS-Internal-Token", props.getApiKey())
-                    .bodyValue(request)
-                    .retrieve()
-                    .bodyToMono(BrainChatResponse.class)
-                    .onErrorResume(WebClientResponseException.class, ex -> {
-                        // 필요하면 로깅 + fallback 처리
-                        // ex.getStatusCode(), ex.getResponseBodyAsString() 등
-                        return Mono.error(ex);
-                    })
-                    .block();
-            } catch (Exception e) {
+            // 블로킹 경로도 chat-timeout 까지만 기다린다 (서블릿 스레드 무한 점유 방지)
+            return chatAsync(request).block(props.getResilience().getChatTimeout());
+        } catch (Exception e) {
             throw new RuntimeException("Brain 서버 호출 실패", e);
         }
     }
 
+    @Override
+    public Mono<BrainChatResponse> chatAsync(BrainChatRequest request) {
+        return webClient.post()
+                .uri("/chat") // FastAPI 쪽에서 /v1/brain/chat 이면 baseUrl에 /v1 포함
+                .header("X-HSBS-Internal-Token", props.getApiKey())
+                .bodyValue(request)
+                .retrieve()
+                .bodyToMono(BrainChatResponse.class)
+                .onErrorResume(WebClientResponseException.class, ex ->
+                        Mono.error(new RuntimeException(
+                                "Brain chat 실패: " + ex.getStatusCode() + " " + safeBody(ex.getResponseBodyAsString()), ex
+                        ))
+                );
+    }
+
     @Override
     public BrainIngestResponse ingest(BrainIngestRequest request) {
         try {
@@ -80,39 +101,81 @@ public class FastApiBrainClient implements BrainClient{
                     )
                     .block();
 
-            log.info("[Brain ingest RAW] {}", safeBody(raw));
-
-            BrainIngestResponse resp = objectMapper.readValue(raw, BrainIngestResponse.class);
-            // ID 분리 반영 (file_ / vsf_)
-            String openaiFileId = safe(resp.getOpenaiFileId());
-            String vsFileId = safe(resp.getVectorStoreFileId());
+            return readIngestResponse(raw);
 
-            log.info("[Brain ingest DTO] ok={} ingestId={} vsId={} openaiFileId={} vectorStoreFileId={} msg={}",
-                    resp.isOk(),
-                    resp.getIngestId(),
-                    resp.getVectorStoreId(),
-                    openaiFileId,
-                    vsFileId,
-                    resp.getMessage()
-            );
+        } catch (Exception e) {
+            throw new RuntimeException("Brain 서버 ingest 호출 실패", e);
+        }
+    }
 
-            // 필요하면 summaryText도 일부만
-            if (resp.getSummaryText() != null) {
-                log.info("[Brain ingest summary] {}", safeBody(resp.getSummaryText()));
-            }
+    @Override
+    public BrainIngestResponse ingestFile(BrainIngestRequest request, Path file) {
+        try {
+            MultipartBodyBuilder body = new MultipartBodyBuilder();
+            // meta: ingest 요청 JSON (filePath 대신 file 파트를 사용)
+            body.part("meta", objectMapper.writeValueAsString(request), MediaType.APPLICATION_JSON);
+            // file: ingestBufferSize 단위로 읽으면서 바로 전송 (Content-Length 없이 chunked)
+            Flux<DataBuffer> content = DataBufferUtils.read(file, FILE_BUFFER_FACTORY,
+                    (int) props.getIngestBufferSize().toBytes());
+            body.asyncPart("file", content, DataBuffer.class)
+                    .filename(request.getOriginalFileName() != null
+                            ? request.getOriginalFileName()
+                            : file.getFileName().toString())
+                    .contentType(request.getMimeType() != null
+                            ? MediaType.parseMediaType(request.getMimeType())
+                            : MediaType.APPLICATION_OCTET_STREAM);
 
-            log.info("[Brain ingest welcome] title={}, intro={}, questions={}, keywords={}",
-                    resp.getWelcomeTitle(),
-                    resp.getWelcomeIntro(),
-                    resp.getWelcomeQuestions(),
-                    resp.getWelcomeKeywords()
-            );
+            String raw = webClient.post()
+                    .uri("/kb/ingest-file")
+                    .header("X-HSBS-Internal-Token", props.getApiKey())
+                    .contentType(MediaType.MULTIPART_FORM_DATA)
+                    .body(BodyInserters.fromMultipartData(body.build()))
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .onErrorResume(WebClientResponseException.class, ex ->
+                            Mono.error(new RuntimeException(
+                                    "Brain ingest(file) 실패: " + ex.getStatusCode() + " " + safeBody(ex.getResponseBodyAsString()), ex
+                            ))
+                    )
+                    .block();
 
-            return resp;
+            return readIngestResponse(raw);
 
         } catch (Exception e) {
-            throw new RuntimeException("Brain 서버 ingest 호출 실패", e);
+            throw new RuntimeException("Brain 서버 ingest(파일 전송) 호출 실패", e);
+        }
+    }
+
+    private BrainIngestResponse readIngestResponse(String raw) throws Exception {
+        log.info("[Brain ingest RAW] {}", safeBody(raw));
+
+        BrainIngestResponse resp = objectMapper.readValue(raw, BrainIngestResponse.class);
+        // ID 분리 반영 (file_ / vsf_)
+        String openaiFileId = safe(resp.getOpenaiFileId());
+        String vsFileId = safe(resp.getVectorStoreFileId());
+
+        log.info("[Brain ingest DTO] ok={} ingestId={} vsId={} openaiFileId={} vectorStoreFileId={} msg={}",
+                resp.isOk(),
+                resp.getIngestId(),
+                resp.getVectorStoreId(),
+                openaiFileId,
+                vsFileId,
+                resp.getMessage()
+        );
+
+        // 필요하면 summaryText도 일부만
+        if (resp.getSummaryText() != null) {
+            log.info("[Brain ingest summary] {}", safeBody(resp.getSummaryText()));
         }
+
+        log.info("[Brain ingest welcome] title={}, intro={}, questions={}, keywords={}",
+                resp.getWelcomeTitle(),
+                resp.getWelcomeIntro(),
+                resp.getWelcomeQuestions(),
+                resp.getWelcomeKeywords()
+        );
+
+        return resp;
     }
 
     @Override
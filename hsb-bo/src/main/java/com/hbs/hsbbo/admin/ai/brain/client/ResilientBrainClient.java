@@ -0,0 +1,101 @@
+package com.hbs.hsbbo.admin.ai.brain.client;
+
+import com.hbs.hsbbo.admin.ai.brain.client.BrainResilience.Operation;
+import com.hbs.hsbbo.admin.ai.brain.client.BrainResilience.Outcome;
+import com.hbs.hsbbo.admin.ai.brain.dto.request.BrainChatRequest;
+import com.hbs.hsbbo.admin.ai.brain.dto.request.BrainDeleteIndexRequest;
+import com.hbs.hsbbo.admin.ai.brain.dto.request.BrainIngestRequest;
+import com.hbs.hsbbo.admin.ai.brain.dto.request.BrainVectorStoreCreateRequest;
+import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainChatResponse;
+import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainDeleteIndexResponse;
+import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainHealthResponse;
+import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainIngestResponse;
+import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainVectorStoreCreateResponse;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * BrainClient 데코레이터: 서킷 브레이커 + 작업별 벌크헤드 + chat 호출 타임아웃
+ *
+ * - 서킷 OPEN / 벌크헤드 초과면 HTTP 를 보내지 않고 즉시 BrainUnavailableException
+ * - chat 은 hsbs.brain.resilience.chat-timeout 으로 끊는다 (responseTimeout 은 ingest 기준이라 길다)
+ * - health() 는 보호 대상이 아니다 (서킷을 닫는 프로브가 써야 하므로 그대로 위임)
+ */
+@RequiredArgsConstructor
+public class ResilientBrainClient implements BrainClient {
+
+    private final BrainClient delegate;
+    private final BrainResilience resilience;
+    private final Duration chatTimeout;
+
+    @Override
+    public BrainHealthResponse health() {
+        return delegate.health();
+    }
+
+    @Override
+    public BrainChatResponse chat(BrainChatRequest request) {
+        try {
+            return chatAsync(request).block(chatTimeout);
+        } catch (BrainUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Brain 서버 호출 실패", e);
+        }
+    }
+
+    @Override
+    public Mono<BrainChatResponse> chatAsync(BrainChatRequest request) {
+        return Mono.defer(() -> {
+            resilience.acquire(Operation.CHAT);
+            AtomicReference<Outcome> outcome = new AtomicReference<>(Outcome.IGNORED);
+            return delegate.chatAsync(request)
+                    .timeout(chatTimeout)
+                    .doOnSuccess(r -> outcome.set(Outcome.SUCCESS))
+                    .doOnError(e -> outcome.set(BrainResilience.outcomeOf(e)))
+                    .doFinally(signal -> resilience.complete(Operation.CHAT,
+                            signal == SignalType.CANCEL ? Outcome.IGNORED : outcome.get()));
+        });
+    }
+
+    @Override
+    public BrainIngestResponse ingest(BrainIngestRequest request) {
+        return guarded(Operation.INGEST, () -> delegate.ingest(request));
+    }
+
+    @Override
+    public BrainIngestResponse ingestFile(BrainIngestRequest request, Path file) {
+        return guarded(Operation.INGEST, () -> delegate.ingestFile(request, file));
+    }
+
+    @Override
+    public BrainDeleteIndexResponse deleteIndex(BrainDeleteIndexRequest request) {
+        return guarded(Operation.DELETE_INDEX, () -> delegate.deleteIndex(request));
+    }
+
+    @Override
+    public BrainVectorStoreCreateResponse createVectorStore(BrainVectorStoreCreateRequest request) {
+        return guarded(Operation.VECTOR_STORE, () -> delegate.createVectorStore(request));
+    }
+
+    private <T> T guarded(Operation op, Supplier<T> call) {
+        resilience.acquire(op);
+        Outcome outcome = Outcome.IGNORED;
+        try {
+            T result = call.get();
+            outcome = Outcome.SUCCESS;
+            return result;
+        } catch (RuntimeException e) {
+            outcome = BrainResilience.outcomeOf(e);
+            throw e;
+        } finally {
+            resilience.complete(op, outcome);
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.hbs.hsbbo.admin.ai.brain.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hbs.hsbbo.admin.ai.brain.client.BrainClient;
+import com.hbs.hsbbo.admin.ai.brain.client.BrainResilience;
 import com.hbs.hsbbo.admin.ai.brain.client.FastApiBrainClient;
+import com.hbs.hsbbo.admin.ai.brain.client.ResilientBrainClient;
 import com.hbs.hsbbo.admin.ai.brain.dto.request.BrainChatRequest;
 import com.hbs.hsbbo.admin.ai.brain.dto.request.BrainDeleteIndexRequest;
 import com.hbs.hsbbo.admin.ai.brain.dto.request.BrainIngestRequest;
@@ -12,14 +14,18 @@ import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainDeleteIndexResponse;
 import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainHealthResponse;
 import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainIngestResponse;
 import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainVectorStoreCreateResponse;
+import com.hbs.hsbbo.common.config.httpConfig.OutboundHttpClientFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import reactor.netty.http.client.HttpClient;
 
+import java.nio.file.Path;
 import java.time.Duration;
 
 @Configuration
@@ -30,27 +36,37 @@ public class BrainConfig {
     private final HsbsBrainProperties props;
 
     @Bean
-    public WebClient brainWebClient() {
-        HttpClient httpClient = HttpClient.create()
+    public WebClient brainWebClient(OutboundHttpClientFactory httpClientFactory) {
+        // brain 커넥션 풀 (hsbs.http.clients.brain)
+        HttpClient httpClient = httpClientFactory.httpClient(OutboundHttpClientFactory.BRAIN)
                 .responseTimeout(Duration.ofMillis(props.getTimeoutMs()));
 
         return WebClient.builder()
                 .baseUrl(props.getBaseUrl())
                 .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(httpClientFactory.exchangeFilter(OutboundHttpClientFactory.BRAIN))
                 .build();
     }
 
     @Bean
-    public WebClient hsbsBrainWebClient() {
+    public WebClient hsbsBrainWebClient(OutboundHttpClientFactory httpClientFactory) {
         return WebClient.builder()
                 .baseUrl(props.getBaseUrl())
+                // brainWebClient 와 같은 풀을 공유
+                .clientConnector(new ReactorClientHttpConnector(httpClientFactory.httpClient(OutboundHttpClientFactory.BRAIN)))
+                .filter(httpClientFactory.exchangeFilter(OutboundHttpClientFactory.BRAIN))
                 // 내부 통신 키: FastAPI에서도 동일하게 검사하는 X-API-KEY 헤더를 기본값으로 둔다.
                 .defaultHeader("X-API-KEY", props.getApiKey() == null ? "" : props.getApiKey())
                 .build();
     }
 
     @Bean
-    public BrainClient brainClient(WebClient brainWebClient, ObjectMapper objectMapper) {
+    public BrainResilience brainResilience(MeterRegistry meterRegistry) {
+        return new BrainResilience(props.getResilience(), meterRegistry);
+    }
+
+    @Bean
+    public BrainClient brainClient(WebClient brainWebClient, ObjectMapper objectMapper, BrainResilience brainResilience) {
         if (!props.isEnabled()) {
             // Brain 연동을 끈 환경에서는 동일한 인터페이스를 유지하되, 호출 시점에 명확하게 실패시킨다.
             return new BrainClient() {
@@ -64,11 +80,21 @@ public class BrainConfig {
                     throw disabled();
                 }
 
+                @Override
+                public Mono<BrainChatResponse> chatAsync(BrainChatRequest request) {
+                    return Mono.error(disabled());
+                }
+
                 @Override
                 public BrainIngestResponse ingest(BrainIngestRequest request) {
                     throw disabled();
                 }
 
+                @Override
+                public BrainIngestResponse ingestFile(BrainIngestRequest request, Path file) {
+                    throw disabled();
+                }
+
                 @Override
                 public BrainDeleteIndexResponse deleteIndex(BrainDeleteIndexRequest request) {
                     throw disabled();
@@ -84,6 +110,11 @@ public class BrainConfig {
                 }
             };
         }
-        return new FastApiBrainClient(brainWebClient, props, objectMapper);
+        BrainClient client = new FastApiBrainClient(brainWebClient, props, objectMapper);
+        if (!props.getResilience().isEnabled()) {
+            return client;
+        }
+        // 서킷 브레이커 + 작업별 벌크헤드 + chat 타임아웃
+        return new ResilientBrainClient(client, brainResilience, props.getResilience().getChatTimeout());
     }
 }
@@ -3,6 +3,9 @@ package com.hbs.hsbbo.admin.ai.brain.config;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
 
 @Getter
 @Setter
@@ -12,5 +15,36 @@ public class HsbsBrainProperties {
     private String apiKey;  // 내부 통신용 API 키 (헤더에 실어 보낼 값)
     private boolean enabled = true; // Brain 연동 on/off 스위치
     private Integer timeoutMs = 15000;
+    // FILE 문서 ingest 전달 방식: PATH = filePath 만 넘김(같은 디스크 필요), MULTIPART = 파일 본문을 스트리밍 업로드
+    private IngestTransport ingestTransport = IngestTransport.PATH;
+    private DataSize ingestMaxFileSize = DataSize.ofMegabytes(50);  // 업로드 한도(spring.servlet.multipart)와 동일
+    private DataSize ingestBufferSize = DataSize.ofKilobytes(64);   // 파일을 나눠 읽는 버퍼 크기
+    private Resilience resilience = new Resilience();
+
+    public enum IngestTransport {
+        PATH, MULTIPART
+    }
 
+    /** 서킷 브레이커 / 벌크헤드 / health 프로브 (ResilientBrainClient, BrainHealthProbe) */
+    @Getter
+    @Setter
+    public static class Resilience {
+        private boolean enabled = true;
+        // 슬라이딩 윈도우 (최근 호출 수 기준)
+        private int windowSize = 20;
+        private int minimumCalls = 10;
+        private double failureRateThreshold = 50.0;  // %
+        private Duration openDuration = Duration.ofSeconds(30);
+        private int halfOpenCalls = 3;
+        // 작업별 동시 호출 한도 (초과 시 대기 없이 거절)
+        private int chatConcurrency = 64;
+        private int ingestConcurrency = 8;
+        private int deleteIndexConcurrency = 4;
+        // chat 호출 타임아웃 (timeoutMs 는 ingest 까지 고려한 값이라 길다)
+        // complete4 대체 라우터의 brain-budget(기본 15초)보다 짧아야 타임아웃이 서킷에 실패로 집계된다
+        private Duration chatTimeout = Duration.ofSeconds(12);
+        // 백그라운드 health 프로브: 성공하면 서킷 CLOSED, 연속 실패 시 OPEN
+        private Duration healthTimeout = Duration.ofSeconds(3);
+        private int healthFailureThreshold = 2;
+    }
 }
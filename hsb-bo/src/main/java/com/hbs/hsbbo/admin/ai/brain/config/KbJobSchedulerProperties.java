@@ -1,10 +1,14 @@
 package com.hbs.hsbbo.admin.ai.brain.config;
 
+import com.hbs.hsbbo.admin.ai.kb.worker.KbJobErrorClass;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 @Getter
 @Setter
 @Component
@@ -29,4 +33,40 @@ public class KbJobSchedulerProperties {
     // 0 disables idle logs. N logs once every N idle ticks.
     private int idleLogEvery = 0;
 
+    // Executor: concurrent workers per node and max jobs claimed per UPDATE.
+    private int workerCount = 4;
+    private int claimBatchSize = 10;
+    // In-process hand-off queue for freshly enqueued job ids (overflow falls back to polling).
+    private int inboxCapacity = 1000;
+
+    // Lease: renewed by heartbeat while a job runs; the reaper returns expired RUNNING jobs to READY.
+    private long leaseMs = 180000;
+    private long heartbeatIntervalMs = 30000;
+    private long reaperIntervalMs = 60000;
+
+    // Retry: exponential backoff through scheduled_at (base * 2^(attempt-1), capped).
+    private long retryBaseDelayMs = 30000;
+    private long retryMaxDelayMs = 3600000;
+    private Map<KbJobErrorClass, Integer> maxAttempts = new EnumMap<>(Map.of(
+            KbJobErrorClass.INVALID, 1,
+            KbJobErrorClass.REJECTED, 2,
+            KbJobErrorClass.TRANSIENT, 5,
+            KbJobErrorClass.LEASE_EXPIRED, 3
+    ));
+
+    // Duration stats (KbJobDurationStats): per-docType window, DB seed size and refresh period.
+    private int statsWindow = 200;
+    private int statsSeedLimit = 5000;
+    private long statsRefreshMs = 600000;
+
+    public int maxAttemptsOf(KbJobErrorClass errorClass) {
+        Integer n = maxAttempts.get(errorClass);
+        return (n == null) ? 1 : Math.max(1, n);
+    }
+
+    public long retryDelayMs(int attempt) {
+        int shift = Math.min(Math.max(0, attempt - 1), 20);
+        return Math.min(retryMaxDelayMs, retryBaseDelayMs << shift);
+    }
+
 }
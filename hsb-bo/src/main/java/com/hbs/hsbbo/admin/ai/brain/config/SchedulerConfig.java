@@ -1,5 +1,6 @@
 package com.hbs.hsbbo.admin.ai.brain.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.TaskScheduler;
@@ -7,10 +8,15 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 @Configuration
 public class SchedulerConfig {
+    /**
+     * 공용 @Scheduled 풀
+     * - job 처리는 KbJobExecutor 워커 풀, lease heartbeat/reaper 는 KbJobExecutor 전용 스레드에서 실행
+     * - 여기선 폴링 tick + flush/헬스체크/통계 갱신 등 (@Scheduled 약 8개) → 한 작업이 느려도 나머지가 밀리지 않도록 작업 수만큼
+     */
     @Bean
-    public TaskScheduler taskScheduler() {
+    public TaskScheduler taskScheduler(@Value("${hsbs.scheduler.pool-size:8}") int poolSize) {
         ThreadPoolTaskScheduler ts = new ThreadPoolTaskScheduler();
-        ts.setPoolSize(1);               // 단일 워커면 1 추천
+        ts.setPoolSize(Math.max(2, poolSize));
         ts.setThreadNamePrefix("kbjob-");
         ts.initialize();
         return ts;
@@ -0,0 +1,27 @@
+package com.hbs.hsbbo.admin.ai.brain.dto.model.response;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+/**
+ * Brain ingest 가 파싱/청킹한 결과 청크 (응답에 있으면 BO 가 kb_chunk 로 저장)
+ */
+@Getter
+@Setter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BrainChunk {
+    private String text;
+    private String section;
+
+    @JsonProperty("page")
+    @JsonAlias({"page_no", "pageNo"})
+    private Integer page;
+
+    @JsonProperty("tokenCount")
+    @JsonAlias("token_count")
+    private Integer tokenCount;
+}
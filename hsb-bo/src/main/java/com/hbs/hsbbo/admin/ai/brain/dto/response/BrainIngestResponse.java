@@ -2,6 +2,7 @@ package com.hbs.hsbbo.admin.ai.brain.dto.response;
 
 import com.fasterxml.jackson.annotation.JsonAlias;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.hbs.hsbbo.admin.ai.brain.dto.model.response.BrainChunk;
 import lombok.*;
 
 import java.util.List;
@@ -56,6 +57,9 @@ public class BrainIngestResponse {
 
     private List<String> tags;
 
+    // 파싱/청킹 결과 (Brain 이 내려주는 경우에만, 없으면 BO 가 요약/미리보기로 로컬 청킹)
+    private List<BrainChunk> chunks;
+
     /**
      * 운영/파싱 메타
      */
@@ -0,0 +1,49 @@
+package com.hbs.hsbbo.admin.ai.brain.health;
+
+import com.hbs.hsbbo.admin.ai.brain.client.BrainCircuitBreaker;
+import com.hbs.hsbbo.admin.ai.brain.client.BrainResilience;
+import com.hbs.hsbbo.admin.ai.brain.config.HsbsBrainProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/health 의 brain 컴포넌트: 서킷 상태, 작업별 동시 호출/거절 수, 마지막 프로브 결과
+ *
+ * - Brain 장애여도 BO 자체는 요청을 처리(즉시 실패/대체 응답)하므로 항상 UP 으로 보고한다.
+ *   (DOWN 이면 로드밸런서가 BO 인스턴스를 빼버린다) 실제 상태는 details.circuit.state 로 확인
+ */
+@Component
+@RequiredArgsConstructor
+public class BrainHealthIndicator implements HealthIndicator {
+
+    private final BrainResilience brainResilience;
+    private final BrainHealthProbe brainHealthProbe;
+    private final HsbsBrainProperties props;
+
+    @Override
+    public Health health() {
+        BrainCircuitBreaker.Snapshot cb = brainResilience.circuitBreaker().snapshot();
+
+        Map<String, Object> circuit = new LinkedHashMap<>();
+        circuit.put("state", cb.state());
+        circuit.put("bufferedCalls", cb.bufferedCalls());
+        circuit.put("failedCalls", cb.failedCalls());
+        circuit.put("failureRate", Math.round(cb.failureRate() * 10) / 10.0);
+        circuit.put("notPermittedCalls", cb.notPermittedCalls());
+        circuit.put("openedCount", cb.openedCount());
+        circuit.put("lastTransition", cb.lastTransitionReason());
+
+        return Health.up()
+                .withDetail("enabled", props.isEnabled())
+                .withDetail("resilienceEnabled", props.getResilience().isEnabled())
+                .withDetail("circuit", circuit)
+                .withDetail("bulkheads", brainResilience.bulkheads())
+                .withDetail("probe", brainHealthProbe.status())
+                .build();
+    }
+}
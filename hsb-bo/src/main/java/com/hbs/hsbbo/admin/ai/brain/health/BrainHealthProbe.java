@@ -0,0 +1,68 @@
+package com.hbs.hsbbo.admin.ai.brain.health;
+
+import com.hbs.hsbbo.admin.ai.brain.client.BrainCircuitBreaker;
+import com.hbs.hsbbo.admin.ai.brain.client.BrainClient;
+import com.hbs.hsbbo.admin.ai.brain.client.BrainResilience;
+import com.hbs.hsbbo.admin.ai.brain.config.HsbsBrainProperties;
+import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainHealthResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Brain /health 백그라운드 프로브 (hsbs.brain.resilience.health-interval-ms)
+ *
+ * - 성공: 서킷이 OPEN/HALF_OPEN 이면 바로 CLOSED (배포 후 복구 시 openDuration 을 기다리지 않음)
+ * - 연속 healthFailureThreshold 회 실패: CLOSED 여도 OPEN → 실제 요청이 타임아웃을 다 채우기 전에 빠르게 실패
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BrainHealthProbe {
+
+    private final BrainClient brainClient;
+    private final BrainResilience brainResilience;
+    private final HsbsBrainProperties props;
+
+    private volatile int consecutiveFailures;
+    private volatile LocalDateTime lastProbeAt;
+    private volatile boolean lastProbeOk;
+    private volatile String lastProbeError;
+
+    public record Status(LocalDateTime lastProbeAt, boolean lastProbeOk, String lastProbeError, int consecutiveFailures) {
+    }
+
+    @Scheduled(fixedDelayString = "${hsbs.brain.resilience.health-interval-ms:10000}",
+            initialDelayString = "${hsbs.brain.resilience.health-interval-ms:10000}")
+    public void probe() {
+        if (!props.isEnabled() || !props.getResilience().isEnabled()) return;
+
+        BrainCircuitBreaker breaker = brainResilience.circuitBreaker();
+        lastProbeAt = LocalDateTime.now();
+        try {
+            BrainHealthResponse res = brainClient.health();
+            if (res == null || !res.isOk()) {
+                throw new IllegalStateException(res == null ? "empty health response" : "status=" + res.getStatus());
+            }
+            consecutiveFailures = 0;
+            lastProbeOk = true;
+            lastProbeError = null;
+            breaker.close("health probe ok");
+        } catch (Exception e) {
+            int failures = ++consecutiveFailures;
+            lastProbeOk = false;
+            lastProbeError = e.toString();
+            log.debug("[brain-health] probe failed ({} in a row): {}", failures, e.toString());
+            if (failures >= props.getResilience().getHealthFailureThreshold()) {
+                breaker.open("health probe failed " + failures + " times");
+            }
+        }
+    }
+
+    public Status status() {
+        return new Status(lastProbeAt, lastProbeOk, lastProbeError, consecutiveFailures);
+    }
+}
@@ -0,0 +1,127 @@
+package com.hbs.hsbbo.admin.ai.brain.support;
+
+import com.hbs.hsbbo.admin.ai.brain.dto.model.request.BrainMessage;
+import com.hbs.hsbbo.admin.ai.brain.dto.model.request.BrainMeta;
+import com.hbs.hsbbo.admin.ai.brain.dto.model.request.BrainOptions;
+import com.hbs.hsbbo.admin.ai.brain.dto.model.request.BrainRagOptions;
+import com.hbs.hsbbo.admin.ai.brain.dto.request.BrainChatRequest;
+import com.hbs.hsbbo.admin.ai.kb.service.KnowledgeContextService;
+import com.hbs.hsbbo.admin.ai.promptprofile.domain.entity.PromptProfile;
+import com.hbs.hsbbo.admin.ai.sitekey.domain.entity.SiteKey;
+import com.hbs.hsbbo.admin.ai.widgetconfig.domain.entity.WidgetConfig;
+import com.hbs.hsbbo.user.ai.dto.ChatWithPromptProfileRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ChatWithPromptProfileRequest → BrainChatRequest (system/guardrail/style/policies + KB 지문 + 질문)
+ *
+ * - complete4 와 환영 질문 답변 사전 생성(WelcomeAnswerService)이 같은 조립 규칙을 쓰도록 분리
+ */
+@Component
+@RequiredArgsConstructor
+public class BrainChatRequestFactory {
+
+    private final KnowledgeContextService knowledgeContextService;
+
+    public BrainChatRequest build(
+            SiteKey keyInfo,
+            PromptProfile profile,
+            WidgetConfig widgetConfig,
+            ChatWithPromptProfileRequest ppReq,
+            String ip,
+            String ua
+    ) {
+        List<BrainMessage> brainMessages = new ArrayList<>();
+
+        // 1) PromptProfile 기반 system 메시지
+        StringBuilder systemBuf = new StringBuilder();
+
+        if (ppReq.getSystemTpl() != null && !ppReq.getSystemTpl().isBlank()) {
+            systemBuf.append(ppReq.getSystemTpl().trim());
+        } else {
+            systemBuf.append("You are a helpful assistant.");
+        }
+
+        if (ppReq.getGuardrailTpl() != null && !ppReq.getGuardrailTpl().isBlank()) {
+            systemBuf.append("\n\n[Guardrail]\n").append(ppReq.getGuardrailTpl().trim());
+        }
+
+        if (ppReq.getStyleJson() != null && !ppReq.getStyleJson().isBlank()) {
+            systemBuf.append("\n\n[Style JSON]\n").append(ppReq.getStyleJson().trim());
+        }
+
+        if (ppReq.getPoliciesJson() != null && !ppReq.getPoliciesJson().isBlank()) {
+            systemBuf.append("\n\n[Policies JSON]\n").append(ppReq.getPoliciesJson().trim());
+        }
+
+        brainMessages.add(
+                BrainMessage.builder()
+                        .role("system")
+                        .content(systemBuf.toString())
+                        .build()
+        );
+
+        // 2) context 있으면 별도 user 메시지로
+        if (ppReq.getContext() != null && !ppReq.getContext().isBlank()) {
+            brainMessages.add(
+                    BrainMessage.builder()
+                            .role("user")
+                            .content("Context:\n" + ppReq.getContext().trim())
+                            .build()
+            );
+        }
+
+        // 3) 실제 사용자 질문
+        brainMessages.add(
+                BrainMessage.builder()
+                        .role("user")
+                        .content(ppReq.getUserPrompt())
+                        .build()
+        );
+
+        BrainOptions options = BrainOptions.builder()
+                .model(ppReq.getModel())
+                .temperature(ppReq.getTemperature() == null ? null : ppReq.getTemperature().doubleValue())
+                .topP(ppReq.getTopP() == null ? null : ppReq.getTopP().doubleValue())
+                .maxTokens(ppReq.getMaxTokens())
+                .build();
+
+        BrainMeta meta = BrainMeta.builder()
+                .userIp(ip)
+                .userAgent(ua)
+                .locale(null)         // 필요하면 userReq에서 locale 뽑아서 세팅
+                .channel("widget")    // SaaS 위젯 채널
+                .build();
+
+        // 질문과 관련된 청크만 토큰 예산 안에서 선택 (청크가 없으면 문서 요약 기반)
+        // 검색 방식(RetrievalMode)에 따라 Brain 측 OpenAI Vector Store 검색 여부도 결정
+        KnowledgeContextService.KnowledgeContext kc = knowledgeContextService.resolve(
+                profile, ppReq.getUserPrompt(), keyInfo.getId());
+        String knowledgeContext = kc.text();
+
+        return BrainChatRequest.builder()
+                .tenantId(profile.getTenantId())
+                .siteKey(keyInfo.getSiteKey())
+                .promptProfileId(profile.getId())
+                .widgetConfigId(widgetConfig.getId())
+                .conversationId(null)                              // TODO: 프론트에서 전달 시 매핑
+                .knowledgeContext(knowledgeContext.isEmpty() ? null : knowledgeContext)
+                .messages(brainMessages)
+                .options(options)
+                .chatType(
+                        ppReq.getChatType() != null && !ppReq.getChatType().isBlank()
+                                ? ppReq.getChatType()
+                                : "knowledge"
+                )
+                .memoryPolicy(ppReq.getMemoryPolicy())
+                .persona(ppReq.getPersona())
+                .category(ppReq.getCategory())
+                .rag(kc.remoteRetrieval() == null ? null : BrainRagOptions.builder().enabled(kc.remoteRetrieval()).build())
+                .meta(meta)
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+package com.hbs.hsbbo.admin.ai.kb.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 문서 청크 (ingest 시 생성, 키워드/벡터 검색 단위)
+ * - 문서 재인덱싱 시 문서 단위로 통째로 교체, DELETE_INDEX 시 삭제
+ */
+@Entity
+@Table(name = "kb_chunk")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KbChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "kb_document_id", nullable = false)
+    private Long kbDocumentId;
+
+    // 검색 색인 단위(kb_source)로 바로 적재하기 위한 비정규화 컬럼
+    @Column(name = "kb_source_id", nullable = false)
+    private Long kbSourceId;
+
+    // 문서 내 순번 (0부터)
+    @Column(name = "chunk_no", nullable = false)
+    private Integer chunkNo;
+
+    @Column(name = "section", length = 255)
+    private String section;
+
+    @Column(name = "page_no")
+    private Integer pageNo;
+
+    @Column(name = "content", nullable = false, columnDefinition = "mediumtext")
+    private String content;
+
+    // 프롬프트 토큰 수 근사치
+    @Column(name = "token_count", nullable = false)
+    private Integer tokenCount;
+
+    @Column(name = "reg_date")
+    private LocalDateTime regDate;
+}
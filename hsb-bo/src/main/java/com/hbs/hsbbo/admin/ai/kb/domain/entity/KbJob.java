@@ -57,6 +57,17 @@ public class KbJob extends AuditBase {
     @Column(name = "finished_at")
     private LocalDateTime finishedAt;
 
+    // 선점(claim) 식별자: 같은 UPDATE 로 함께 선점된 job 묶음 / 완료 반영 시 소유 확인용
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    // 임대(lease): 처리 중인 노드와 만료 시각. 처리 중엔 heartbeat 로 연장, 만료되면 reaper 가 READY 로 되돌림
+    @Column(name = "lease_owner", length = 100)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
     @PrePersist
     protected void onCreate() {
         // AuditBase.prePersist()가 자동 호출되진 않으니 필요하면 수동 호출
@@ -0,0 +1,60 @@
+package com.hbs.hsbbo.admin.ai.kb.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 환영 질문(kb_document.welcome_questions_json) 사전 생성 답변
+ * - (사이트키, 기본 프롬프트 프로필, 문서) 단위로 ingest 성공 / 프로필 수정 후 통째로 교체
+ * - index_version = 생성 당시 kb_document.indexed_at → 재인덱싱되면 값이 달라져 조회에서 빠진다.
+ * - profile_version = 생성 당시 prompt_profile.version
+ */
+@Entity
+@Table(name = "kb_welcome_answer")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KbWelcomeAnswer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "kb_document_id", nullable = false)
+    private Long kbDocumentId;
+
+    @Column(name = "site_key_id", nullable = false)
+    private Long siteKeyId;
+
+    @Column(name = "prompt_profile_id", nullable = false)
+    private Long promptProfileId;
+
+    @Column(name = "profile_version")
+    private Integer profileVersion;
+
+    @Column(name = "index_version", nullable = false)
+    private LocalDateTime indexVersion;
+
+    @Column(name = "question", nullable = false, length = 500)
+    private String question;
+
+    // QuestionNormalizer 결과 (요청 프롬프트와 비교하는 키)
+    @Column(name = "question_norm", nullable = false, length = 500)
+    private String questionNorm;
+
+    @Column(name = "answer", nullable = false, columnDefinition = "mediumtext")
+    private String answer;
+
+    @Column(name = "model", length = 100)
+    private String model;
+
+    @Column(name = "total_tokens")
+    private Integer totalTokens;
+
+    @Column(name = "reg_date")
+    private LocalDateTime regDate;
+}
@@ -0,0 +1,37 @@
+package com.hbs.hsbbo.admin.ai.kb.repository;
+
+import com.hbs.hsbbo.admin.ai.kb.retrieval.IndexedChunk;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * kb_chunk 배치 INSERT (문서 1개 청크 수십~수백 건을 한 번에)
+ * - IDENTITY 키라 JPA saveAll 은 건별 INSERT 가 되므로 JDBC 배치 사용
+ * - 호출자(KbJobWorker)의 트랜잭션 안에서 기존 청크 삭제 후 호출
+ */
+@Repository
+@RequiredArgsConstructor
+public class KbChunkJdbcRepository {
+
+    private final JdbcTemplate jdbc;
+    private static final int BATCH = 1000;
+
+    public void insertBatch(Long kbSourceId, List<IndexedChunk> chunks) {
+        for (int from = 0; from < chunks.size(); from += BATCH) {
+            List<Object[]> args = new ArrayList<>();
+            for (IndexedChunk c : chunks.subList(from, Math.min(from + BATCH, chunks.size()))) {
+                args.add(new Object[]{
+                        c.documentId(), kbSourceId, c.chunkNo(), c.section(), c.pageNo(), c.content(), c.tokenCount()
+                });
+            }
+            jdbc.batchUpdate("""
+                    INSERT INTO kb_chunk (kb_document_id, kb_source_id, chunk_no, section, page_no, content, token_count, reg_date)
+                    VALUES (?, ?, ?, ?, ?, ?, ?, NOW())
+                    """, args);
+        }
+    }
+}
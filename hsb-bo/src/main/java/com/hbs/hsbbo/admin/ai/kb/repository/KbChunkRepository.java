@@ -0,0 +1,47 @@
+package com.hbs.hsbbo.admin.ai.kb.repository;
+
+import com.hbs.hsbbo.admin.ai.kb.domain.entity.KbChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface KbChunkRepository extends JpaRepository<KbChunk, Long> {
+
+    /** 검색 색인 적재용: kb_source 의 사용 중인 문서 청크 전체 */
+    @Query("""
+        select c
+          from KbChunk c
+         where c.kbSourceId = :kbSourceId
+           and exists (
+                select 1
+                  from KbDocument d
+                 where d.id = c.kbDocumentId
+                   and d.delTf = 'N'
+                   and d.useTf = 'Y'
+           )
+         order by c.kbDocumentId asc, c.chunkNo asc
+    """)
+    List<KbChunk> findActiveBySourceId(@Param("kbSourceId") Long kbSourceId);
+
+    /** 벡터 색인 파일 유효성 확인용: [청크 수, 최대 청크 id] (사용 중인 문서 기준) */
+    @Query("""
+        select count(c), coalesce(max(c.id), 0)
+          from KbChunk c
+         where c.kbSourceId = :kbSourceId
+           and exists (
+                select 1
+                  from KbDocument d
+                 where d.id = c.kbDocumentId
+                   and d.delTf = 'N'
+                   and d.useTf = 'Y'
+           )
+    """)
+    List<Object[]> findActiveStatsBySourceId(@Param("kbSourceId") Long kbSourceId);
+
+    @Modifying
+    @Query("delete from KbChunk c where c.kbDocumentId = :kbDocumentId")
+    int deleteByKbDocumentId(@Param("kbDocumentId") Long kbDocumentId);
+}
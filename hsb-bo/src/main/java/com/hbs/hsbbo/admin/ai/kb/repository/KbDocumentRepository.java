@@ -56,6 +56,14 @@ public interface KbDocumentRepository extends JpaRepository<KbDocument, Long> {
             """)
     List<KbDocument> findByIdInAndDelTfAndUseTf(@Param("ids") List<Long> ids);
 
+    /** 지문 캐시 버전용: 사용 중 문서 수 / 최종 수정·인덱싱 시각 / 버전 합 */
+    @Query("""
+            SELECT COUNT(d), MAX(d.upDate), MAX(d.indexedAt), COALESCE(SUM(d.version), 0)
+              FROM KbDocument d
+             WHERE d.id IN :ids AND d.delTf = 'N' AND d.useTf = 'Y'
+            """)
+    List<Object[]> findVersionStatsByIdIn(@Param("ids") List<Long> ids);
+
 }
 
 
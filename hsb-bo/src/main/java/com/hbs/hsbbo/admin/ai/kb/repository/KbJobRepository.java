@@ -9,25 +9,158 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface KbJobRepository extends JpaRepository<KbJob, Long> {
     Optional<KbJob> findTopByKbDocumentIdOrderByIdDesc(Long kbDocumentId);
 
+    /** 문서 id 묶음별 최신 job 1건씩 (목록 화면용, 문서 수와 무관하게 쿼리 1번) */
+    @Query("""
+        select j
+          from KbJob j
+         where j.id in (
+                select max(j2.id)
+                  from KbJob j2
+                 where j2.kbDocumentId in :kbDocumentIds
+                 group by j2.kbDocumentId
+         )
+    """)
+    List<KbJob> findLatestByKbDocumentIds(@Param("kbDocumentIds") Collection<Long> kbDocumentIds);
+
     boolean existsByKbDocumentIdAndJobTypeAndJobStatusInAndDelTf(
             Long kbDocumentId, KbJobType jobType, List<KbJobStatus> statuses, String delTf
     );
 
+    /**
+     * READY job 을 최대 limit 건 한 번에 선점 (READY -> RUNNING, claim_token + lease 기록)
+     * - 단일 UPDATE 라 여러 워커/노드가 동시에 호출해도 같은 job 을 두 번 가져가지 않음
+     * - soft delete 이후 벡터스토어 정리가 밀리지 않도록 DELETE_INDEX 를 먼저 가져감
+     * - scheduled_at 이 미래인 job(재시도 대기)은 건너뜀
+     * - 선점 결과는 findByClaimToken 으로 조회
+     */
     @Modifying
-    @Query("""
-        update KbJob j
-           set j.jobStatus = com.hbs.hsbbo.admin.ai.kb.domain.type.KbJobStatus.RUNNING,
-               j.startedAt = CURRENT_TIMESTAMP
-         where j.id = :id
-           and j.jobStatus = com.hbs.hsbbo.admin.ai.kb.domain.type.KbJobStatus.READY
-    """)
-    int lockJob(@Param("id") Long id);
+    @Query(value = """
+        update kb_job
+           set job_status = 'RUNNING',
+               started_at = NOW(),
+               finished_at = null,
+               claim_token = :token,
+               lease_owner = :owner,
+               lease_expires_at = NOW() + INTERVAL :leaseSeconds SECOND
+         where job_status = 'READY'
+           and job_type in ('DELETE_INDEX', 'INGEST')
+           and del_tf = 'N'
+           and use_tf = 'Y'
+           and (scheduled_at is null or scheduled_at <= NOW())
+         order by case when job_type = 'DELETE_INDEX' then 0 else 1 end, reg_date asc
+         limit :limit
+    """, nativeQuery = true)
+    int claimReadyJobs(
+            @Param("token") String token,
+            @Param("owner") String owner,
+            @Param("leaseSeconds") long leaseSeconds,
+            @Param("limit") int limit
+    );
+
+    /** 방금 등록된 job(in-process 큐로 전달된 id)을 우선 선점 */
+    @Modifying
+    @Query(value = """
+        update kb_job
+           set job_status = 'RUNNING',
+               started_at = NOW(),
+               finished_at = null,
+               claim_token = :token,
+               lease_owner = :owner,
+               lease_expires_at = NOW() + INTERVAL :leaseSeconds SECOND
+         where id in (:ids)
+           and job_status = 'READY'
+           and del_tf = 'N'
+           and use_tf = 'Y'
+           and (scheduled_at is null or scheduled_at <= NOW())
+    """, nativeQuery = true)
+    int claimJobsByIds(
+            @Param("token") String token,
+            @Param("owner") String owner,
+            @Param("leaseSeconds") long leaseSeconds,
+            @Param("ids") List<Long> ids
+    );
+
+    /** heartbeat: 이 노드가 처리 중인 job 의 lease 연장 (이미 회수된 job 은 갱신되지 않음) */
+    @Modifying
+    @Query(value = """
+        update kb_job
+           set lease_expires_at = NOW() + INTERVAL :leaseSeconds SECOND
+         where id in (:ids)
+           and lease_owner = :owner
+           and job_status = 'RUNNING'
+    """, nativeQuery = true)
+    int renewLeases(
+            @Param("ids") List<Long> ids,
+            @Param("owner") String owner,
+            @Param("leaseSeconds") long leaseSeconds
+    );
+
+    /** 정상 종료 시 끝내지 못한 job 을 바로 READY 로 반납 (시도 횟수는 올리지 않음) */
+    @Modifying
+    @Query(value = """
+        update kb_job
+           set job_status = 'READY',
+               claim_token = null,
+               lease_owner = null,
+               lease_expires_at = null,
+               scheduled_at = NOW()
+         where id in (:ids)
+           and lease_owner = :owner
+           and job_status = 'RUNNING'
+    """, nativeQuery = true)
+    int releaseLeases(@Param("ids") List<Long> ids, @Param("owner") String owner);
+
+    /**
+     * reaper 1단계: lease 가 만료된 RUNNING 중 시도 횟수를 다 쓴 job 은 FAILED
+     * - lease 컬럼 도입 전에 RUNNING 이 된 행(lease_expires_at null)은 started_at 기준으로 판단
+     */
+    @Modifying
+    @Query(value = """
+        update kb_job
+           set last_error = CONCAT('lease expired (owner=', COALESCE(lease_owner, '-'), ')'),
+               job_status = 'FAILED',
+               finished_at = NOW(),
+               try_count = try_count + 1,
+               lease_expires_at = null
+         where job_status = 'RUNNING'
+           and (lease_expires_at < NOW()
+                or (lease_expires_at is null and started_at < NOW() - INTERVAL :leaseSeconds SECOND))
+           and try_count + 1 >= :maxAttempts
+    """, nativeQuery = true)
+    int failExpiredLeases(@Param("leaseSeconds") long leaseSeconds, @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * reaper 2단계: 나머지 만료 job 은 backoff 후 READY 로 되돌림
+     * - MySQL 은 SET 을 왼쪽부터 적용 → scheduled_at 은 증가 전 try_count 로 계산 (base * 2^(attempt-1))
+     */
+    @Modifying
+    @Query(value = """
+        update kb_job
+           set last_error = CONCAT('lease expired (owner=', COALESCE(lease_owner, '-'), ')'),
+               scheduled_at = NOW() + INTERVAL LEAST(:maxDelaySeconds, :baseDelaySeconds * POW(2, LEAST(try_count, 20))) SECOND,
+               try_count = try_count + 1,
+               job_status = 'READY',
+               claim_token = null,
+               lease_owner = null,
+               lease_expires_at = null
+         where job_status = 'RUNNING'
+           and (lease_expires_at < NOW()
+                or (lease_expires_at is null and started_at < NOW() - INTERVAL :leaseSeconds SECOND))
+    """, nativeQuery = true)
+    int requeueExpiredLeases(
+            @Param("leaseSeconds") long leaseSeconds,
+            @Param("baseDelaySeconds") long baseDelaySeconds,
+            @Param("maxDelaySeconds") long maxDelaySeconds
+    );
+
+    List<KbJob> findByClaimTokenOrderByIdAsc(String claimToken);
 
     @Query("""
         select j
@@ -40,22 +173,12 @@ public interface KbJobRepository extends JpaRepository<KbJob, Long> {
     """)
     List<KbJob> findReadyIngestJobs(Pageable pageable);
 
-    @Query("""
-        select j
-          from KbJob j
-         where j.jobStatus = com.hbs.hsbbo.admin.ai.kb.domain.type.KbJobStatus.READY
-           and j.jobType in :jobTypes
-           and j.delTf = 'N'
-           and j.useTf = 'Y'
-         order by j.regDate asc
-    """)
-    List<KbJob> findReadyJobs(
-            @Param("jobTypes") List<KbJobType> jobTypes,
-            Pageable pageable
-    );
-
+    /**
+     * KbJobDurationStats 초기 적재용: 최근 성공 INGEST 소요시간 (doc_type, seconds)
+     * - 통계 캐시가 문서 목록 조회마다 AVG 집계를 돌리지 않도록 기동/주기 갱신 때만 사용
+     */
     @Query(value = """
-        select avg(timestampdiff(second, j.started_at, j.finished_at))
+        select d.doc_type, timestampdiff(second, j.started_at, j.finished_at)
           from kb_job j
           join kb_document d on d.id = j.kb_document_id
          where j.job_type = 'INGEST'
@@ -64,8 +187,9 @@ public interface KbJobRepository extends JpaRepository<KbJob, Long> {
            and j.finished_at is not null
            and j.del_tf = 'N'
            and d.del_tf = 'N'
-           and (:docType is null or d.doc_type = :docType)
+         order by j.finished_at desc
+         limit :limit
     """, nativeQuery = true)
-    Double findAverageSuccessDurationSecondsByDocType(@Param("docType") String docType);
+    List<Object[]> findRecentSuccessDurations(@Param("limit") int limit);
 
 }
@@ -0,0 +1,54 @@
+package com.hbs.hsbbo.admin.ai.kb.repository;
+
+import com.hbs.hsbbo.admin.ai.kb.domain.entity.KbWelcomeAnswer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface KbWelcomeAnswerRepository extends JpaRepository<KbWelcomeAnswer, Long> {
+
+    /** 서빙용: 문서가 사용 중이고 생성 이후 재인덱싱되지 않은(indexed_at 일치) 답변만 */
+    @Query("""
+        select a
+          from KbWelcomeAnswer a
+         where a.siteKeyId = :siteKeyId
+           and a.promptProfileId = :promptProfileId
+           and exists (
+                select 1
+                  from KbDocument d
+                 where d.id = a.kbDocumentId
+                   and d.delTf = 'N'
+                   and d.useTf = 'Y'
+                   and d.indexedAt = a.indexVersion
+           )
+         order by a.id asc
+    """)
+    List<KbWelcomeAnswer> findServable(
+            @Param("siteKeyId") Long siteKeyId,
+            @Param("promptProfileId") Long promptProfileId
+    );
+
+    @Modifying
+    @Query("""
+        delete from KbWelcomeAnswer a
+         where a.kbDocumentId = :kbDocumentId
+           and a.siteKeyId = :siteKeyId
+           and a.promptProfileId = :promptProfileId
+    """)
+    int deleteByTarget(
+            @Param("kbDocumentId") Long kbDocumentId,
+            @Param("siteKeyId") Long siteKeyId,
+            @Param("promptProfileId") Long promptProfileId
+    );
+
+    @Modifying
+    @Query("delete from KbWelcomeAnswer a where a.promptProfileId = :promptProfileId")
+    int deleteByPromptProfileId(@Param("promptProfileId") Long promptProfileId);
+
+    @Modifying
+    @Query("delete from KbWelcomeAnswer a where a.kbDocumentId = :kbDocumentId")
+    int deleteByKbDocumentId(@Param("kbDocumentId") Long kbDocumentId);
+}
@@ -0,0 +1,243 @@
+package com.hbs.hsbbo.admin.ai.kb.retrieval;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * kb_source 1개 분량의 메모리 역색인 + BM25 점수 (k1=1.2, b=0.75)
+ *
+ * - 청크마다 내부 번호(ordinal)를 붙이고, term → (ordinal, tf) 포스팅을 배열로 보관
+ * - 문서 단위 증분 갱신: putDocument(교체) / removeDocument
+ *   · 삭제는 tombstone 처리 후 df/길이 통계만 즉시 보정, 죽은 항목이 살아있는 수를 넘으면 포스팅 재구성
+ * - 검색은 읽기 락, 갱신은 쓰기 락 (갱신은 ingest/삭제 때만 발생)
+ */
+public final class Bm25Index {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int COMPACT_MIN_DEAD = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final List<Entry> entries = new ArrayList<>();          // ordinal → entry (삭제 시 null)
+    private final Map<Long, int[]> ordinalsByDocument = new HashMap<>();
+
+    private int live;
+    private int dead;
+    private long totalLength;
+
+    public record Hit(IndexedChunk chunk, double score) {
+    }
+
+    private record Entry(IndexedChunk chunk, int length, String[] terms) {
+    }
+
+    private static final class Postings {
+        int[] ordinals = new int[4];
+        int[] tfs = new int[4];
+        int size;
+        int df;     // 살아있는 청크 기준 문서 빈도
+
+        void add(int ordinal, int tf) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                tfs = Arrays.copyOf(tfs, size * 2);
+            }
+            ordinals[size] = ordinal;
+            tfs[size] = tf;
+            size++;
+            df++;
+        }
+    }
+
+    // ========================= 갱신 =========================
+
+    /** 문서의 청크를 통째로 교체 (재인덱싱 포함) */
+    public void putDocument(long documentId, List<IndexedChunk> chunks) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(documentId);
+            if (chunks == null || chunks.isEmpty()) return;
+
+            int[] ords = new int[chunks.size()];
+            for (int i = 0; i < chunks.size(); i++) {
+                ords[i] = addLocked(chunks.get(i));
+            }
+            ordinalsByDocument.put(documentId, ords);
+        } finally {
+            compactIfNeededLocked();
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeDocument(long documentId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(documentId);
+        } finally {
+            compactIfNeededLocked();
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int addLocked(IndexedChunk chunk) {
+        List<String> tokens = KbTokenizer.tokenize(chunk.content());
+        Map<String, Integer> tf = new LinkedHashMap<>();
+        for (String t : tokens) tf.merge(t, 1, Integer::sum);
+
+        int ordinal = entries.size();
+        entries.add(new Entry(chunk, tokens.size(), tf.keySet().toArray(new String[0])));
+        for (Map.Entry<String, Integer> e : tf.entrySet()) {
+            postings.computeIfAbsent(e.getKey(), k -> new Postings()).add(ordinal, e.getValue());
+        }
+        live++;
+        totalLength += tokens.size();
+        return ordinal;
+    }
+
+    private void removeLocked(long documentId) {
+        int[] ords = ordinalsByDocument.remove(documentId);
+        if (ords == null) return;
+        for (int ord : ords) {
+            Entry e = entries.get(ord);
+            if (e == null) continue;
+            for (String term : e.terms()) {
+                Postings p = postings.get(term);
+                if (p != null) p.df--;
+            }
+            entries.set(ord, null);
+            live--;
+            dead++;
+            totalLength -= e.length();
+        }
+    }
+
+    private void compactIfNeededLocked() {
+        if (dead >= COMPACT_MIN_DEAD && dead > live) {
+            compactLocked();
+        }
+    }
+
+    /** 살아있는 청크만으로 포스팅을 다시 만든다 (ordinal 재부여) */
+    private void compactLocked() {
+        List<Entry> alive = new ArrayList<>(live);
+        for (Entry e : entries) if (e != null) alive.add(e);
+
+        Map<Long, List<IndexedChunk>> byDoc = new LinkedHashMap<>();
+        for (Entry e : alive) {
+            byDoc.computeIfAbsent(e.chunk().documentId(), k -> new ArrayList<>()).add(e.chunk());
+        }
+
+        postings.clear();
+        entries.clear();
+        ordinalsByDocument.clear();
+        live = 0;
+        dead = 0;
+        totalLength = 0;
+
+        byDoc.forEach((docId, chunks) -> {
+            int[] ords = new int[chunks.size()];
+            for (int i = 0; i < chunks.size(); i++) ords[i] = addLocked(chunks.get(i));
+            ordinalsByDocument.put(docId, ords);
+        });
+    }
+
+    // ========================= 검색 =========================
+
+    /**
+     * BM25 상위 k 개 (점수 내림차순)
+     *
+     * @param documentFilter 허용할 documentId (null 이면 전체)
+     */
+    public List<Hit> search(String query, int k, LongPredicate documentFilter) {
+        List<String> terms = KbTokenizer.tokenize(query);
+        if (terms.isEmpty() || k <= 0) return List.of();
+
+        lock.readLock().lock();
+        try {
+            if (live == 0) return List.of();
+
+            double avgdl = (double) totalLength / live;
+            float[] scores = new float[entries.size()];
+            int[] touched = new int[Math.min(entries.size(), 1024)];
+            int touchedCount = 0;
+
+            for (String term : new LinkedHashSet<>(terms)) {
+                Postings p = postings.get(term);
+                if (p == null || p.df <= 0) continue;
+
+                double idf = Math.log(1.0 + (live - p.df + 0.5) / (p.df + 0.5));
+                for (int i = 0; i < p.size; i++) {
+                    int ord = p.ordinals[i];
+                    Entry e = entries.get(ord);
+                    if (e == null) continue;
+                    if (documentFilter != null && !documentFilter.test(e.chunk().documentId())) continue;
+
+                    int tf = p.tfs[i];
+                    double norm = K1 * (1 - B + B * e.length() / avgdl);
+                    float s = (float) (idf * (tf * (K1 + 1)) / (tf + norm));
+                    if (scores[ord] == 0f) {
+                        if (touchedCount == touched.length) touched = Arrays.copyOf(touched, touchedCount * 2);
+                        touched[touchedCount++] = ord;
+                    }
+                    scores[ord] += s;
+                }
+            }
+
+            PriorityQueue<Integer> heap = new PriorityQueue<>(k + 1, (a, b) -> Float.compare(scores[a], scores[b]));
+            for (int i = 0; i < touchedCount; i++) {
+                int ord = touched[i];
+                if (heap.size() < k) {
+                    heap.add(ord);
+                } else if (scores[ord] > scores[heap.peek()]) {
+                    heap.poll();
+                    heap.add(ord);
+                }
+            }
+
+            Hit[] hits = new Hit[heap.size()];
+            for (int i = hits.length - 1; i >= 0; i--) {
+                int ord = heap.poll();
+                hits[i] = new Hit(entries.get(ord).chunk(), scores[ord]);
+            }
+            return List.of(hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** (documentId, chunkNo) 청크 조회. 없으면 null */
+    public IndexedChunk get(long documentId, int chunkNo) {
+        lock.readLock().lock();
+        try {
+            int[] ords = ordinalsByDocument.get(documentId);
+            if (ords == null) return null;
+            for (int ord : ords) {
+                Entry e = entries.get(ord);
+                if (e != null && e.chunk().chunkNo() == chunkNo) return e.chunk();
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 살아있는 청크 수 */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.hbs.hsbbo.admin.ai.kb.retrieval;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 청크/질문 텍스트 → 임베딩 벡터
+ *
+ * - 같은 provider 로 만든 벡터끼리만 비교 가능 (dimension 이 바뀌면 벡터 색인은 재구성됨)
+ * - 구현체는 hsbs.kb.retrieval.embedding-provider 로 선택
+ */
+public interface EmbeddingProvider {
+
+    /** 로그/색인 파일 식별용 이름 */
+    String name();
+
+    int dimension();
+
+    float[] embed(String text);
+
+    /**
+     * 벡터가 의미 유사도를 담는지 (false 면 어휘 겹침 기반)
+     *
+     * - 답변 캐시 SEMANTIC 단계처럼 "다른 질문에 같은 답"을 돌려주는 용도는 true 인 provider 에서만 켠다.
+     */
+    default boolean semantic() {
+        return true;
+    }
+
+    default List<float[]> embedAll(List<String> texts) {
+        List<float[]> out = new ArrayList<>(texts.size());
+        for (String t : texts) out.add(embed(t));
+        return out;
+    }
+}
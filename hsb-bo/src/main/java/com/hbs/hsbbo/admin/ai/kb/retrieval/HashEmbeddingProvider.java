@@ -0,0 +1,77 @@
+package com.hbs.hsbbo.admin.ai.kb.retrieval;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 외부 호출 없는 결정적 임베딩 (feature hashing)
+ *
+ * - KbTokenizer 토큰(영문 단어 / 한글 bigram)을 64bit FNV-1a 로 해시 → 차원 index + 부호
+ * - 가중치 1 + ln(tf), 마지막에 L2 정규화
+ * - 의미 유사도가 아닌 어휘 겹침 기반이지만 BM25 와 다른 정규화/부분 매칭 특성이 있어 하이브리드에 보탬이 되고,
+ *   네트워크 없이 색인/검색 경로 전체를 재현 가능하게 돌릴 수 있다.
+ */
+@Component
+@ConditionalOnProperty(name = "hsbs.kb.retrieval.embedding-provider", havingValue = "hash", matchIfMissing = true)
+public class HashEmbeddingProvider implements EmbeddingProvider {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int dimension;
+
+    public HashEmbeddingProvider(@Value("${hsbs.kb.retrieval.embedding-dim:256}") int dimension) {
+        if (dimension <= 0) throw new IllegalArgumentException("embedding-dim must be positive");
+        this.dimension = dimension;
+    }
+
+    @Override
+    public String name() {
+        return "hash-" + dimension;
+    }
+
+    /** 토큰 해시 버킷 → 단어만 겹쳐도 유사도가 높다 */
+    @Override
+    public boolean semantic() {
+        return false;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] v = new float[dimension];
+        List<String> tokens = KbTokenizer.tokenize(text);
+        if (tokens.isEmpty()) return v;
+
+        Map<String, Integer> tf = new HashMap<>();
+        for (String t : tokens) tf.merge(t, 1, Integer::sum);
+
+        for (Map.Entry<String, Integer> e : tf.entrySet()) {
+            long h = fnv1a(e.getKey());
+            int idx = (int) Long.remainderUnsigned(h >>> 1, dimension);
+            float w = (float) (1.0 + Math.log(e.getValue()));
+            v[idx] += ((h & 1L) == 0) ? w : -w;
+        }
+        HnswGraph.normalize(v, 0, dimension);
+        return v;
+    }
+
+    private static long fnv1a(String s) {
+        long h = FNV_OFFSET;
+        for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+            h ^= (b & 0xff);
+            h *= FNV_PRIME;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,518 @@
+package com.hbs.hsbbo.admin.ai.kb.retrieval;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * kb_source 1개 분량의 HNSW(Hierarchical Navigable Small World) 근사 최근접 이웃 그래프
+ *
+ * - 유사도: L2 정규화 벡터의 내적(= 코사인). 추가 시 한 번 더 정규화
+ * - 노드 = 청크 1개 (documentId, chunkNo) / 레벨 l 의 이웃 수 상한: l=0 은 2M, 그 외 M
+ * - 이웃 선택은 논문의 heuristic(다양성 우선) + 남는 칸은 가까운 순으로 채움
+ * - 문서 삭제/교체는 tombstone → 탐색에는 쓰이지만 결과에서 제외. 죽은 노드가 많아지면 compact() 로 재구성
+ * - 레벨 난수는 고정 시드 → 같은 입력 순서면 같은 그래프
+ * - save/load: 파일 1개에 헤더 + 노드(벡터/이웃)를 memory-mapped 로 기록/적재
+ */
+public final class HnswGraph {
+
+    private static final int MAGIC = 0x484E5357;   // "HNSW"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 4 * 7 + 8;
+    private static final int COMPACT_MIN_DEAD = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final int dimension;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final Random random = new Random(42);
+
+    private float[] vectors = new float[0];
+    private long[] documentIds = new long[0];
+    private int[] chunkNos = new int[0];
+    private int[][][] links = new int[0][][];     // node → level → [size, id...]
+    private final BitSet deleted = new BitSet();
+    private final Map<Long, int[]> nodesByDocument = new HashMap<>();
+
+    private int count;
+    private int live;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+    private long stamp;
+
+    public record Hit(long documentId, int chunkNo, double score) {
+    }
+
+    private record Candidate(int node, float similarity) {
+    }
+
+    public HnswGraph(int dimension, int m, int efConstruction) {
+        if (dimension <= 0) throw new IllegalArgumentException("dimension must be positive");
+        this.dimension = dimension;
+        this.m = Math.max(2, m);
+        this.maxM0 = this.m * 2;
+        this.efConstruction = Math.max(this.m, efConstruction);
+        this.levelMultiplier = 1.0 / Math.log(this.m);
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /** 저장 시점의 원본(kb_chunk) 상태 표식. 적재 후 DB 와 비교해 재구성 여부 판단 */
+    public long stamp() {
+        return stamp;
+    }
+
+    public void stamp(long stamp) {
+        this.stamp = stamp;
+    }
+
+    /** 살아있는 노드 수 */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========================= 갱신 =========================
+
+    /** 문서의 청크 벡터를 통째로 교체 */
+    public void putDocument(long documentId, List<Integer> chunkNos, List<float[]> vectors) {
+        if (chunkNos.size() != vectors.size()) {
+            throw new IllegalArgumentException("chunkNos/vectors size mismatch");
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(documentId);
+            if (vectors.isEmpty()) return;
+
+            int[] nodes = new int[vectors.size()];
+            for (int i = 0; i < vectors.size(); i++) {
+                nodes[i] = insertLocked(documentId, chunkNos.get(i), vectors.get(i));
+            }
+            nodesByDocument.put(documentId, nodes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeDocument(long documentId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(documentId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** tombstone 이 살아있는 노드보다 많으면 true */
+    public boolean needsCompaction() {
+        lock.readLock().lock();
+        try {
+            int dead = count - live;
+            return dead >= COMPACT_MIN_DEAD && dead > live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** 살아있는 노드만으로 새 그래프 생성 (원본은 그대로) */
+    public HnswGraph compact() {
+        lock.readLock().lock();
+        try {
+            HnswGraph fresh = new HnswGraph(dimension, m, efConstruction);
+            fresh.stamp = stamp;
+            for (Map.Entry<Long, int[]> e : nodesByDocument.entrySet()) {
+                List<Integer> nos = new ArrayList<>();
+                List<float[]> vs = new ArrayList<>();
+                for (int node : e.getValue()) {
+                    nos.add(chunkNos[node]);
+                    vs.add(Arrays.copyOfRange(vectors, node * dimension, (node + 1) * dimension));
+                }
+                fresh.putDocument(e.getKey(), nos, vs);
+            }
+            return fresh;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(long documentId) {
+        int[] nodes = nodesByDocument.remove(documentId);
+        if (nodes == null) return;
+        for (int node : nodes) {
+            if (!deleted.get(node)) {
+                deleted.set(node);
+                live--;
+            }
+        }
+    }
+
+    private int insertLocked(long documentId, int chunkNo, float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("vector dimension " + vector.length + " != " + dimension);
+        }
+        int node = count;
+        ensureCapacity(node + 1);
+
+        System.arraycopy(vector, 0, vectors, node * dimension, dimension);
+        normalize(vectors, node * dimension, dimension);
+        documentIds[node] = documentId;
+        chunkNos[node] = chunkNo;
+
+        int level = randomLevel();
+        links[node] = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            links[node][l] = new int[capacity(l) + 1];
+        }
+        count++;
+        live++;
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return node;
+        }
+
+        int offset = node * dimension;
+        int cur = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            cur = greedyClosest(vectors, offset, cur, l);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Candidate> candidates = searchLayer(vectors, offset, cur, efConstruction, l);
+            int[] selected = selectNeighbors(candidates, m);
+            setLinks(node, l, selected, selected.length);
+            for (int i = 0; i < selected.length; i++) {
+                connect(selected[i], node, l);
+            }
+            cur = candidates.get(0).node();
+        }
+
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+        return node;
+    }
+
+    /** 이웃 nb 에 node 를 역방향 연결. 가득 차면 heuristic 으로 다시 고른다 */
+    private void connect(int nb, int node, int level) {
+        int[] list = links[nb][level];
+        int size = list[0];
+        int cap = capacity(level);
+        if (size < cap) {
+            list[size + 1] = node;
+            list[0] = size + 1;
+            return;
+        }
+
+        int nbOffset = nb * dimension;
+        List<Candidate> all = new ArrayList<>(size + 1);
+        for (int i = 1; i <= size; i++) {
+            int o = list[i];
+            all.add(new Candidate(o, dot(vectors, nbOffset, vectors, o * dimension, dimension)));
+        }
+        all.add(new Candidate(node, dot(vectors, nbOffset, vectors, node * dimension, dimension)));
+        all.sort(Comparator.comparingDouble(Candidate::similarity).reversed());
+
+        int[] selected = selectNeighbors(all, cap);
+        setLinks(nb, level, selected, selected.length);
+    }
+
+    /**
+     * 다양성 heuristic: 후보 c 가 이미 고른 이웃 r 보다 기준점에 더 가까울 때만 채택
+     * (후보는 유사도 내림차순). 남는 칸은 버린 후보를 가까운 순으로 채움
+     */
+    private int[] selectNeighbors(List<Candidate> candidates, int max) {
+        int[] out = new int[Math.min(max, candidates.size())];
+        int n = 0;
+        List<Candidate> skipped = new ArrayList<>();
+
+        for (Candidate c : candidates) {
+            if (n == out.length) break;
+            boolean keep = true;
+            int cOffset = c.node() * dimension;
+            for (int i = 0; i < n; i++) {
+                float toSelected = dot(vectors, cOffset, vectors, out[i] * dimension, dimension);
+                if (toSelected > c.similarity()) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) out[n++] = c.node();
+            else skipped.add(c);
+        }
+        for (int i = 0; i < skipped.size() && n < out.length; i++) {
+            out[n++] = skipped.get(i).node();
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private void setLinks(int node, int level, int[] ids, int n) {
+        int[] list = links[node][level];
+        System.arraycopy(ids, 0, list, 1, n);
+        list[0] = n;
+    }
+
+    // ========================= 검색 =========================
+
+    /**
+     * 유사도 상위 k 개 (점수 내림차순)
+     *
+     * @param ef             탐색 폭 (클수록 정확/느림, k 이상으로 보정)
+     * @param documentFilter 허용할 documentId (null 이면 전체)
+     */
+    public List<Hit> search(float[] query, int k, int ef, LongPredicate documentFilter) {
+        if (query == null || query.length != dimension || k <= 0) return List.of();
+
+        float[] q = Arrays.copyOf(query, dimension);
+        normalize(q, 0, dimension);
+
+        lock.readLock().lock();
+        try {
+            if (live == 0) return List.of();
+
+            int cur = entryPoint;
+            for (int l = maxLevel; l > 0; l--) {
+                cur = greedyClosest(q, 0, cur, l);
+            }
+
+            // 필터/tombstone 으로 모자라면 탐색 폭을 넓혀 다시 시도
+            int width = Math.max(ef, k);
+            List<Hit> out = new ArrayList<>(k);
+            while (true) {
+                out.clear();
+                List<Candidate> found = searchLayer(q, 0, cur, width, 0);
+                for (Candidate c : found) {
+                    if (deleted.get(c.node())) continue;
+                    long docId = documentIds[c.node()];
+                    if (documentFilter != null && !documentFilter.test(docId)) continue;
+                    out.add(new Hit(docId, chunkNos[c.node()], c.similarity()));
+                    if (out.size() == k) break;
+                }
+                if (out.size() == k || width >= count) break;
+                width = Math.min(count, width * 4);
+            }
+            return List.copyOf(out);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int greedyClosest(float[] q, int qOffset, int start, int level) {
+        int cur = start;
+        float best = dot(q, qOffset, vectors, cur * dimension, dimension);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] list = links[cur][level];
+            for (int i = 1; i <= list[0]; i++) {
+                int nb = list[i];
+                float s = dot(q, qOffset, vectors, nb * dimension, dimension);
+                if (s > best) {
+                    best = s;
+                    cur = nb;
+                    improved = true;
+                }
+            }
+        }
+        return cur;
+    }
+
+    /** 레벨 하나에서 ef 폭 best-first 탐색 → 유사도 내림차순 후보 */
+    private List<Candidate> searchLayer(float[] q, int qOffset, int start, int ef, int level) {
+        BitSet visited = new BitSet(count);
+        PriorityQueue<Candidate> frontier =
+                new PriorityQueue<>(Comparator.comparingDouble(Candidate::similarity).reversed());
+        PriorityQueue<Candidate> results =
+                new PriorityQueue<>(ef + 1, Comparator.comparingDouble(Candidate::similarity));
+
+        Candidate first = new Candidate(start, dot(q, qOffset, vectors, start * dimension, dimension));
+        visited.set(start);
+        frontier.add(first);
+        results.add(first);
+
+        while (!frontier.isEmpty()) {
+            Candidate c = frontier.poll();
+            if (results.size() >= ef && c.similarity() < results.peek().similarity()) break;
+
+            int[][] nodeLinks = links[c.node()];
+            if (level >= nodeLinks.length) continue;
+            int[] list = nodeLinks[level];
+            for (int i = 1; i <= list[0]; i++) {
+                int nb = list[i];
+                if (visited.get(nb)) continue;
+                visited.set(nb);
+
+                float s = dot(q, qOffset, vectors, nb * dimension, dimension);
+                if (results.size() < ef || s > results.peek().similarity()) {
+                    Candidate nc = new Candidate(nb, s);
+                    frontier.add(nc);
+                    results.add(nc);
+                    if (results.size() > ef) results.poll();
+                }
+            }
+        }
+
+        Candidate[] sorted = results.toArray(new Candidate[0]);
+        Arrays.sort(sorted, Comparator.comparingDouble(Candidate::similarity).reversed());
+        return Arrays.asList(sorted);
+    }
+
+    // ========================= 저장/적재 =========================
+
+    /** 임시 파일에 memory-mapped 로 기록한 뒤 원자적으로 교체 */
+    public void save(Path path) throws IOException {
+        lock.readLock().lock();
+        try {
+            long bytes = HEADER_BYTES;
+            for (int node = 0; node < count; node++) {
+                bytes += 8 + 4 + 4 + 4L * dimension;
+                for (int[] list : links[node]) bytes += 4L * (list[0] + 1);
+            }
+            if (bytes > Integer.MAX_VALUE) {
+                throw new IOException("hnsw index too large to map: " + bytes + " bytes");
+            }
+
+            Files.createDirectories(path.getParent());
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+                buf.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(dimension).putInt(m)
+                        .putInt(count).putInt(entryPoint).putInt(maxLevel).putLong(stamp);
+                for (int node = 0; node < count; node++) {
+                    buf.putLong(documentIds[node]);
+                    buf.putInt(chunkNos[node]);
+                    buf.putInt(deleted.get(node) ? -(links[node].length) : links[node].length);
+                    int offset = node * dimension;
+                    for (int i = 0; i < dimension; i++) buf.putFloat(vectors[offset + i]);
+                    for (int[] list : links[node]) {
+                        buf.putInt(list[0]);
+                        for (int i = 1; i <= list[0]; i++) buf.putInt(list[i]);
+                    }
+                }
+                buf.force();
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 파일을 memory-mapped 로 읽어 그래프 복원
+     *
+     * @return 파일이 없거나 형식/차원이 다르면 null (호출자가 재구성)
+     */
+    public static HnswGraph load(Path path, int expectedDimension, int efConstruction) throws IOException {
+        if (!Files.isRegularFile(path)) return null;
+
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) return null;
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            if (buf.getInt() != MAGIC || buf.getInt() != FORMAT_VERSION) return null;
+            int dim = buf.getInt();
+            int m = buf.getInt();
+            if (dim != expectedDimension) return null;
+
+            HnswGraph g = new HnswGraph(dim, m, efConstruction);
+            int count = buf.getInt();
+            g.entryPoint = buf.getInt();
+            g.maxLevel = buf.getInt();
+            g.stamp = buf.getLong();
+            g.ensureCapacity(count);
+
+            Map<Long, List<Integer>> byDocument = new HashMap<>();
+            for (int node = 0; node < count; node++) {
+                g.documentIds[node] = buf.getLong();
+                g.chunkNos[node] = buf.getInt();
+                int levels = buf.getInt();
+                boolean dead = levels < 0;
+                levels = Math.abs(levels);
+
+                buf.asFloatBuffer().get(g.vectors, node * dim, dim);
+                buf.position(buf.position() + 4 * dim);
+
+                g.links[node] = new int[levels][];
+                for (int l = 0; l < levels; l++) {
+                    int n = buf.getInt();
+                    int[] list = new int[g.capacity(l) + 1];
+                    list[0] = n;
+                    for (int i = 1; i <= n; i++) list[i] = buf.getInt();
+                    g.links[node][l] = list;
+                }
+
+                if (dead) {
+                    g.deleted.set(node);
+                } else {
+                    byDocument.computeIfAbsent(g.documentIds[node], k -> new ArrayList<>()).add(node);
+                    g.live++;
+                }
+            }
+            g.count = count;
+            byDocument.forEach((docId, nodes) ->
+                    g.nodesByDocument.put(docId, nodes.stream().mapToInt(Integer::intValue).toArray()));
+            return g;
+        }
+    }
+
+    // ========================= 내부 =========================
+
+    private int capacity(int level) {
+        return level == 0 ? maxM0 : m;
+    }
+
+    private int randomLevel() {
+        double u = 1.0 - random.nextDouble();   // (0, 1]
+        return (int) Math.floor(-Math.log(u) * levelMultiplier);
+    }
+
+    private void ensureCapacity(int nodes) {
+        if (nodes <= documentIds.length) return;
+        int cap = Math.max(nodes, Math.max(16, documentIds.length * 2));
+        vectors = Arrays.copyOf(vectors, cap * dimension);
+        documentIds = Arrays.copyOf(documentIds, cap);
+        chunkNos = Arrays.copyOf(chunkNos, cap);
+        links = Arrays.copyOf(links, cap);
+    }
+
+    private static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float s = 0f;
+        for (int i = 0; i < length; i++) s += a[aOffset + i] * b[bOffset + i];
+        return s;
+    }
+
+    static void normalize(float[] v, int offset, int length) {
+        double norm = 0;
+        for (int i = 0; i < length; i++) norm += v[offset + i] * v[offset + i];
+        if (norm == 0) return;
+        float inv = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < length; i++) v[offset + i] *= inv;
+    }
+}
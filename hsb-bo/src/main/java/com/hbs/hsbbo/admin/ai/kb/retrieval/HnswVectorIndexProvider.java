@@ -0,0 +1,252 @@
+package com.hbs.hsbbo.admin.ai.kb.retrieval;
+
+import com.hbs.hsbbo.admin.ai.kb.domain.entity.KbChunk;
+import com.hbs.hsbbo.admin.ai.kb.repository.KbChunkRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * JVM 내 HNSW 벡터 색인 (kb_source 별 그래프 1개, memory-mapped 파일로 영속화)
+ *
+ * - 파일: {vector-dir}/site-{siteKeyId}/source-{kbSourceId}.hnsw → 사이트키별 디렉터리로 격리
+ * - 처음 접근 시 파일을 적재하고, 파일이 없거나 kb_chunk 상태(stamp)와 다르면 kb_chunk 를 임베딩해 재구성
+ * - index-ttl 이 지난 그래프는 다음 접근 때 stamp 를 다시 확인 (다른 노드에서 처리된 변경 반영),
+ *   그동안 접근이 없으면 flush 후 메모리에서 내림
+ * - 갱신은 메모리 그래프에 즉시, 파일은 vector-flush-ms 주기 + 종료 시 기록
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "hsbs.kb.retrieval.vector-index", havingValue = "hnsw", matchIfMissing = true)
+public class HnswVectorIndexProvider implements VectorIndexProvider {
+
+    private final KbChunkRepository kbChunkRepository;
+    private final EmbeddingProvider embeddingProvider;
+    private final Path baseDir;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+    private final long ttlMs;
+
+    private final Map<KbIndexScope, Holder> holders = new ConcurrentHashMap<>();
+
+    private static final class Holder {
+        volatile HnswGraph graph;
+        volatile boolean dirty;
+        volatile long checkedAt;
+        volatile long accessedAt;
+    }
+
+    public HnswVectorIndexProvider(
+            KbChunkRepository kbChunkRepository,
+            EmbeddingProvider embeddingProvider,
+            @Value("${hsbs.kb.retrieval.vector-dir:${java.io.tmpdir}/hsbs-kb-vectors}") String vectorDir,
+            @Value("${hsbs.kb.retrieval.hnsw-m:16}") int m,
+            @Value("${hsbs.kb.retrieval.hnsw-ef-construction:100}") int efConstruction,
+            @Value("${hsbs.kb.retrieval.hnsw-ef-search:100}") int efSearch,
+            @Value("${hsbs.kb.retrieval.index-ttl:PT30M}") Duration ttl
+    ) {
+        this.kbChunkRepository = kbChunkRepository;
+        this.embeddingProvider = embeddingProvider;
+        this.baseDir = Path.of(vectorDir);
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.efSearch = efSearch;
+        this.ttlMs = ttl.toMillis();
+    }
+
+    @Override
+    public String name() {
+        return "hnsw";
+    }
+
+    @Override
+    public List<Hit> search(KbIndexScope scope, float[] query, int k, LongPredicate documentFilter) {
+        HnswGraph graph = holder(scope).graph;
+        List<HnswGraph.Hit> found = graph.search(query, k, efSearch, documentFilter);
+
+        List<Hit> out = new ArrayList<>(found.size());
+        for (HnswGraph.Hit h : found) out.add(new Hit(h.documentId(), h.chunkNo(), h.score()));
+        return out;
+    }
+
+    @Override
+    public void upsert(KbIndexScope scope, long documentId, List<IndexedChunk> chunks, List<float[]> vectors) {
+        Holder h = holder(scope);
+        synchronized (h) {
+            List<Integer> chunkNos = new ArrayList<>(chunks.size());
+            for (IndexedChunk c : chunks) chunkNos.add(c.chunkNo());
+            h.graph.putDocument(documentId, chunkNos, vectors);
+            afterWrite(scope, h);
+        }
+    }
+
+    @Override
+    public void remove(KbIndexScope scope, long documentId) {
+        Holder h = holder(scope);
+        synchronized (h) {
+            h.graph.removeDocument(documentId);
+            afterWrite(scope, h);
+        }
+    }
+
+    private void afterWrite(KbIndexScope scope, Holder h) {
+        if (h.graph.needsCompaction()) {
+            h.graph = h.graph.compact();
+        }
+        // 이 노드의 변경은 이미 반영됐으므로 현재 DB 상태를 stamp 로 기록
+        h.graph.stamp(currentStamp(scope.kbSourceId()));
+        h.dirty = true;
+    }
+
+    // ========================= 적재/재구성 =========================
+
+    private Holder holder(KbIndexScope scope) {
+        Holder h = holders.get(scope);
+        if (h == null) {
+            // 파일 적재/재구성(임베딩)은 느리므로 CHM compute 밖에서 수행 → 다른 scope 의 같은 bin 을 막지 않음
+            // 동시에 처음 접근하면 중복 적재될 수 있으나 먼저 게시된 Holder 만 사용
+            Holder opened = open(scope);
+            Holder prev = holders.putIfAbsent(scope, opened);
+            h = (prev != null) ? prev : opened;
+        }
+        long now = System.currentTimeMillis();
+        h.accessedAt = now;
+
+        if (now - h.checkedAt > ttlMs) {
+            synchronized (h) {
+                if (now - h.checkedAt > ttlMs) {
+                    long stamp = currentStamp(scope.kbSourceId());
+                    if (stamp != h.graph.stamp()) {
+                        log.info("[kb-vector] stale graph, rebuilding scope={}", scope);
+                        h.graph = rebuild(scope, stamp);
+                        h.dirty = true;
+                    }
+                    h.checkedAt = now;
+                }
+            }
+        }
+        return h;
+    }
+
+    private Holder open(KbIndexScope scope) {
+        long stamp = currentStamp(scope.kbSourceId());
+        Path path = pathOf(scope);
+
+        HnswGraph graph = null;
+        try {
+            graph = HnswGraph.load(path, embeddingProvider.dimension(), efConstruction);
+        } catch (IOException | RuntimeException e) {
+            log.warn("[kb-vector] load failed, rebuilding. path={}, err={}", path, e.toString());
+        }
+
+        Holder h = new Holder();
+        if (graph != null && graph.stamp() == stamp) {
+            log.info("[kb-vector] loaded scope={}, nodes={}", scope, graph.size());
+            h.graph = graph;
+        } else {
+            h.graph = rebuild(scope, stamp);
+            h.dirty = true;
+        }
+        h.checkedAt = System.currentTimeMillis();
+        return h;
+    }
+
+    private HnswGraph rebuild(KbIndexScope scope, long stamp) {
+        long started = System.currentTimeMillis();
+        List<KbChunk> rows = kbChunkRepository.findActiveBySourceId(scope.kbSourceId());
+
+        Map<Long, List<KbChunk>> byDocument = new LinkedHashMap<>();
+        for (KbChunk c : rows) {
+            byDocument.computeIfAbsent(c.getKbDocumentId(), k -> new ArrayList<>()).add(c);
+        }
+
+        HnswGraph graph = new HnswGraph(embeddingProvider.dimension(), m, efConstruction);
+        byDocument.forEach((docId, chunks) -> {
+            List<Integer> chunkNos = new ArrayList<>(chunks.size());
+            List<String> texts = new ArrayList<>(chunks.size());
+            for (KbChunk c : chunks) {
+                chunkNos.add(c.getChunkNo());
+                texts.add(c.getContent());
+            }
+            graph.putDocument(docId, chunkNos, embeddingProvider.embedAll(texts));
+        });
+        graph.stamp(stamp);
+
+        log.info("[kb-vector] rebuilt scope={}, embedding={}, documents={}, chunks={} ({} ms)",
+                scope, embeddingProvider.name(), byDocument.size(), rows.size(),
+                System.currentTimeMillis() - started);
+        return graph;
+    }
+
+    private long currentStamp(Long kbSourceId) {
+        List<Object[]> rows = kbChunkRepository.findActiveStatsBySourceId(kbSourceId);
+        if (rows.isEmpty()) return 0L;
+        Object[] r = rows.get(0);
+        long count = r[0] == null ? 0L : ((Number) r[0]).longValue();
+        long maxId = r[1] == null ? 0L : ((Number) r[1]).longValue();
+        return maxId * 31L + count;
+    }
+
+    private Path pathOf(KbIndexScope scope) {
+        return baseDir
+                .resolve("site-" + scope.siteKeyId())
+                .resolve("source-" + scope.kbSourceId() + ".hnsw");
+    }
+
+    // ========================= 파일 기록 =========================
+
+    @Scheduled(fixedDelayString = "${hsbs.kb.retrieval.vector-flush-ms:30000}",
+            initialDelayString = "${hsbs.kb.retrieval.vector-flush-ms:30000}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<KbIndexScope, Holder> e : holders.entrySet()) {
+            KbIndexScope scope = e.getKey();
+            Holder h = e.getValue();
+            synchronized (h) {
+                if (h.dirty) {
+                    try {
+                        h.graph.save(pathOf(scope));
+                        h.dirty = false;
+                    } catch (IOException | RuntimeException ex) {
+                        log.warn("[kb-vector] save failed scope={}: {}", scope, ex.toString());
+                        continue;
+                    }
+                }
+                // 오래 안 쓰인 그래프는 메모리에서 내림 (다음 접근 때 파일에서 적재)
+                if (now - h.accessedAt > ttlMs) {
+                    holders.remove(scope, h);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Map.Entry<KbIndexScope, Holder> e : holders.entrySet()) {
+            Holder h = e.getValue();
+            synchronized (h) {
+                if (!h.dirty) continue;
+                try {
+                    h.graph.save(pathOf(e.getKey()));
+                    h.dirty = false;
+                } catch (IOException | RuntimeException ex) {
+                    log.warn("[kb-vector] save on shutdown failed scope={}: {}", e.getKey(), ex.toString());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.hbs.hsbbo.admin.ai.kb.retrieval;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * BM25(KbChunkIndex) + 벡터(VectorIndexProvider) 하이브리드 검색
+ *
+ * - 양쪽에서 후보를 hybrid-candidates 개씩 뽑아 RRF(Reciprocal Rank Fusion)로 합산: Σ 1 / (rrf-k + rank)
+ *   → 점수 척도가 다른 두 검색기를 정규화 없이 섞을 수 있음
+ * - 벡터 점수가 vector-min-score 미만인 후보는 버림 (관련 없는 청크가 "결과 있음"으로 잡히지 않도록)
+ * - 벡터 색인 오류 시 BM25 결과만 사용
+ */
+@Slf4j
+@Component
+public class HybridKbRetriever {
+
+    private final KbChunkIndex kbChunkIndex;
+    private final EmbeddingProvider embeddingProvider;
+    private final VectorIndexProvider vectorIndexProvider;
+    private final int candidates;
+    private final int rrfK;
+    private final double vectorMinScore;
+
+    public HybridKbRetriever(
+            KbChunkIndex kbChunkIndex,
+            EmbeddingProvider embeddingProvider,
+            VectorIndexProvider vectorIndexProvider,
+            @Value("${hsbs.kb.retrieval.hybrid-candidates:30}") int candidates,
+            @Value("${hsbs.kb.retrieval.rrf-k:60}") int rrfK,
+            @Value("${hsbs.kb.retrieval.vector-min-score:0.1}") double vectorMinScore
+    ) {
+        this.kbChunkIndex = kbChunkIndex;
+        this.embeddingProvider = embeddingProvider;
+        this.vectorIndexProvider = vectorIndexProvider;
+        this.candidates = Math.max(1, candidates);
+        this.rrfK = Math.max(1, rrfK);
+        this.vectorMinScore = vectorMinScore;
+    }
+
+    private static final class Fused {
+        final IndexedChunk chunk;
+        double score;
+
+        Fused(IndexedChunk chunk) {
+            this.chunk = chunk;
+        }
+    }
+
+    /**
+     * @param scopes      검색할 (사이트키, kb_source) 목록
+     * @param documentIds 허용 문서 (프로필에 연결된 문서)
+     * @return RRF 점수 상위 k 개
+     */
+    public List<RetrievalHit> retrieve(Collection<KbIndexScope> scopes, String query, int k, Set<Long> documentIds) {
+        if (scopes.isEmpty() || query == null || query.isBlank() || k <= 0) return List.of();
+
+        int n = Math.max(k, candidates);
+        Map<Long, Fused> fused = new HashMap<>();
+
+        // 1) BM25
+        List<Long> sourceIds = scopes.stream().map(KbIndexScope::kbSourceId).toList();
+        List<Bm25Index.Hit> keywordHits = kbChunkIndex.search(sourceIds, query, n, documentIds);
+        for (int rank = 0; rank < keywordHits.size(); rank++) {
+            IndexedChunk c = keywordHits.get(rank).chunk();
+            fused.computeIfAbsent(key(c.documentId(), c.chunkNo()), x -> new Fused(c)).score += rrf(rank);
+        }
+
+        // 2) 벡터
+        try {
+            List<ScopedHit> vectorHits = searchVectors(scopes, query, n, documentIds);
+            for (int rank = 0; rank < vectorHits.size(); rank++) {
+                ScopedHit sh = vectorHits.get(rank);
+                long key = key(sh.hit().documentId(), sh.hit().chunkNo());
+                Fused f = fused.get(key);
+                if (f == null) {
+                    IndexedChunk c = kbChunkIndex.find(sh.kbSourceId(), sh.hit().documentId(), sh.hit().chunkNo());
+                    if (c == null) continue;   // 벡터 색인에만 남은 청크 (BM25 쪽이 최신)
+                    f = new Fused(c);
+                    fused.put(key, f);
+                }
+                f.score += rrf(rank);
+            }
+        } catch (Exception e) {
+            log.warn("[kb-retrieval] vector search failed, using BM25 only: {}", e.toString());
+        }
+
+        List<Fused> sorted = new ArrayList<>(fused.values());
+        sorted.sort(Comparator.comparingDouble((Fused f) -> f.score).reversed());
+
+        List<RetrievalHit> out = new ArrayList<>(Math.min(k, sorted.size()));
+        for (int i = 0; i < sorted.size() && i < k; i++) {
+            out.add(new RetrievalHit(sorted.get(i).chunk, sorted.get(i).score));
+        }
+        return out;
+    }
+
+    private record ScopedHit(Long kbSourceId, VectorIndexProvider.Hit hit) {
+    }
+
+    private List<ScopedHit> searchVectors(Collection<KbIndexScope> scopes, String query, int n, Set<Long> documentIds) {
+        float[] q = embeddingProvider.embed(query);
+
+        List<ScopedHit> merged = new ArrayList<>();
+        for (KbIndexScope scope : scopes) {
+            for (VectorIndexProvider.Hit h : vectorIndexProvider.search(scope, q, n, documentIds::contains)) {
+                if (h.score() >= vectorMinScore) merged.add(new ScopedHit(scope.kbSourceId(), h));
+            }
+        }
+        merged.sort(Comparator.comparingDouble((ScopedHit sh) -> sh.hit().score()).reversed());
+        return merged.size() > n ? merged.subList(0, n) : merged;
+    }
+
+    private double rrf(int rank) {
+        return 1.0 / (rrfK + rank + 1);
+    }
+
+    private static long key(long documentId, int chunkNo) {
+        return (documentId << 20) ^ chunkNo;
+    }
+}
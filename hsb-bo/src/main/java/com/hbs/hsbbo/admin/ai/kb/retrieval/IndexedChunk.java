@@ -0,0 +1,18 @@
+package com.hbs.hsbbo.admin.ai.kb.retrieval;
+
+/**
+ * 검색 색인에 올라가는 청크 1개 (kb_chunk 1행과 대응)
+ *
+ * @param section    문서 내 섹션/제목 (없으면 null)
+ * @param pageNo     원본 페이지 번호 (없으면 null)
+ * @param tokenCount 프롬프트 토큰 수 근사치 (TokenEstimator)
+ */
+public record IndexedChunk(
+        long documentId,
+        int chunkNo,
+        String section,
+        Integer pageNo,
+        String content,
+        int tokenCount
+) {
+}
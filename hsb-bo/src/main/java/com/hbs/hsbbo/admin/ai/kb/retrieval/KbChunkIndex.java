@@ -0,0 +1,152 @@
+package com.hbs.hsbbo.admin.ai.kb.retrieval;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hbs.hsbbo.admin.ai.kb.domain.entity.KbChunk;
+import com.hbs.hsbbo.admin.ai.kb.repository.KbChunkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * kb_source 별 BM25 색인 캐시
+ *
+ * - 처음 검색되는 kb_source 는 kb_chunk 를 한 번에 읽어 색인 생성 (이후 메모리 검색만)
+ * - 이 노드의 ingest/삭제 완료 시 KbJobWorker 가 onDocumentIndexed/onDocumentRemoved 로 증분 반영
+ * - expireAfterWrite 는 다른 노드에서 처리된 변경을 반영하기 위한 안전망
+ * - 적재(DB 읽기) 도중 도착한 증분은 PendingLoad 에 쌓아 두었다가 적재가 끝난 색인에 순서대로 재적용
+ *   (적재 중에는 getIfPresent 가 null 이라 그냥 버리면 방금 ingest 한 문서가 TTL 까지 빠짐)
+ */
+@Slf4j
+@Component
+public class KbChunkIndex {
+
+    private final KbChunkRepository kbChunkRepository;
+    private final Cache<Long, Bm25Index> indexes;
+    private final Map<Long, PendingLoad> loading = new ConcurrentHashMap<>();
+
+    public KbChunkIndex(
+            KbChunkRepository kbChunkRepository,
+            @Value("${hsbs.kb.retrieval.index-max-sources:200}") long maxSources,
+            @Value("${hsbs.kb.retrieval.index-ttl:PT30M}") Duration ttl
+    ) {
+        this.kbChunkRepository = kbChunkRepository;
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(maxSources)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * 여러 kb_source 를 검색해 점수 상위 k 개 (허용 문서로 제한)
+     */
+    public List<Bm25Index.Hit> search(Collection<Long> kbSourceIds, String query, int k, Set<Long> documentIds) {
+        List<Bm25Index.Hit> merged = new ArrayList<>();
+        for (Long sourceId : kbSourceIds) {
+            if (sourceId == null) continue;
+            Bm25Index index = index(sourceId);
+            merged.addAll(index.search(query, k, documentIds::contains));
+        }
+        if (kbSourceIds.size() > 1) {
+            merged.sort(Comparator.comparingDouble(Bm25Index.Hit::score).reversed());
+        }
+        return merged.size() > k ? merged.subList(0, k) : merged;
+    }
+
+    /** 청크 본문 조회 (벡터 검색 결과를 본문으로 바꿀 때) */
+    public IndexedChunk find(Long kbSourceId, long documentId, int chunkNo) {
+        if (kbSourceId == null) return null;
+        return index(kbSourceId).get(documentId, chunkNo);
+    }
+
+    /** ingest 완료: 색인이 메모리에 있을 때만 교체 (없으면 다음 검색 때 DB 에서 적재) */
+    public void onDocumentIndexed(Long kbSourceId, Long kbDocumentId, List<IndexedChunk> chunks) {
+        apply(kbSourceId, index -> index.putDocument(kbDocumentId, chunks));
+    }
+
+    public void onDocumentRemoved(Long kbSourceId, Long kbDocumentId) {
+        apply(kbSourceId, index -> index.removeDocument(kbDocumentId));
+    }
+
+    private void apply(Long kbSourceId, Consumer<Bm25Index> update) {
+        if (kbSourceId == null) return;
+        Bm25Index index = indexes.getIfPresent(kbSourceId);
+        if (index != null) {
+            update.accept(index);
+            return;
+        }
+        PendingLoad pending = loading.get(kbSourceId);
+        if (pending != null) pending.offer(update);
+    }
+
+    private Bm25Index index(Long kbSourceId) {
+        Bm25Index index = indexes.get(kbSourceId, this::load);
+        // 캐시에 게시된 뒤에는 getIfPresent 로 바로 반영되므로 대기열 정리
+        loading.computeIfPresent(kbSourceId, (k, p) -> p.target == index ? null : p);
+        return index;
+    }
+
+    private Bm25Index load(Long kbSourceId) {
+        long started = System.currentTimeMillis();
+        PendingLoad pending = new PendingLoad();
+        loading.put(kbSourceId, pending);
+
+        List<KbChunk> rows;
+        try {
+            rows = kbChunkRepository.findActiveBySourceId(kbSourceId);
+        } catch (RuntimeException e) {
+            loading.remove(kbSourceId, pending);
+            throw e;
+        }
+
+        Map<Long, List<IndexedChunk>> byDocument = new LinkedHashMap<>();
+        for (KbChunk c : rows) {
+            byDocument.computeIfAbsent(c.getKbDocumentId(), k -> new ArrayList<>())
+                    .add(new IndexedChunk(c.getKbDocumentId(), c.getChunkNo(), c.getSection(), c.getPageNo(),
+                            c.getContent(), c.getTokenCount() == null ? 0 : c.getTokenCount()));
+        }
+
+        Bm25Index index = new Bm25Index();
+        byDocument.forEach(index::putDocument);
+        int replayed = pending.publish(index);
+
+        log.info("[kb-index] loaded kbSourceId={}, documents={}, chunks={}, replayed={} ({} ms)",
+                kbSourceId, byDocument.size(), rows.size(), replayed, System.currentTimeMillis() - started);
+        return index;
+    }
+
+    /**
+     * 적재 중 도착한 증분 대기열
+     * - publish 전: 대기열에 순서대로 보관 / publish 후: 적재된 색인에 바로 적용
+     *   (캐시에 게시되기 직전 틈에 온 증분도 target 으로 반영됨)
+     * - putDocument/removeDocument 는 문서 단위 교체라 DB 스냅샷과 겹쳐 재적용돼도 결과 동일
+     */
+    private static final class PendingLoad {
+        private final List<Consumer<Bm25Index>> updates = new ArrayList<>();
+        private volatile Bm25Index target;
+
+        synchronized void offer(Consumer<Bm25Index> update) {
+            if (target != null) update.accept(target);
+            else updates.add(update);
+        }
+
+        synchronized int publish(Bm25Index index) {
+            updates.forEach(u -> u.accept(index));
+            target = index;
+            int n = updates.size();
+            updates.clear();
+            return n;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.hbs.hsbbo.admin.ai.kb.retrieval;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 텍스트 → 청크 분할 (Brain 이 청크를 내려주지 않을 때의 로컬 fallback)
+ *
+ * - 문단(빈 줄) 단위로 모으다가 목표 토큰 수를 넘기면 끊음
+ * - 한 문단이 목표의 2배를 넘으면 문장 경계(. ? ! 。 줄바꿈)에서 다시 자름
+ * - 마크다운 제목(# ...) 줄은 이후 청크의 section 으로 기록
+ */
+public final class KbChunker {
+
+    private KbChunker() {
+    }
+
+    public static List<IndexedChunk> split(long documentId, String text, int targetTokens) {
+        List<IndexedChunk> out = new ArrayList<>();
+        if (text == null || text.isBlank()) return out;
+
+        int target = Math.max(50, targetTokens);
+        String section = null;
+        StringBuilder buf = new StringBuilder();
+        int bufTokens = 0;
+        String bufSection = null;
+
+        for (String para : text.split("\\n\\s*\\n")) {
+            String p = para.strip();
+            if (p.isEmpty()) continue;
+
+            if (p.startsWith("#")) {
+                int nl = p.indexOf('\n');
+                String heading = (nl < 0 ? p : p.substring(0, nl)).replaceFirst("^#+\\s*", "").strip();
+                if (!heading.isEmpty()) {
+                    // 제목이 바뀌면 이전 청크는 닫는다
+                    if (buf.length() > 0) {
+                        add(out, documentId, bufSection, buf, bufTokens);
+                        buf.setLength(0);
+                        bufTokens = 0;
+                    }
+                    section = heading;
+                }
+                if (nl < 0) continue;
+                p = p.substring(nl + 1).strip();
+                if (p.isEmpty()) continue;
+            }
+
+            for (String piece : pieces(p, target)) {
+                int t = TokenEstimator.estimate(piece);
+                if (buf.length() > 0 && bufTokens + t > target) {
+                    add(out, documentId, bufSection, buf, bufTokens);
+                    buf.setLength(0);
+                    bufTokens = 0;
+                }
+                if (buf.length() == 0) bufSection = section;
+                else buf.append("\n\n");
+                buf.append(piece);
+                bufTokens += t;
+            }
+        }
+        if (buf.length() > 0) {
+            add(out, documentId, bufSection, buf, bufTokens);
+        }
+        return out;
+    }
+
+    /** 너무 긴 문단은 문장 단위로 잘라 목표 크기 근처로 */
+    private static List<String> pieces(String para, int target) {
+        if (TokenEstimator.estimate(para) <= target * 2) return List.of(para);
+
+        List<String> out = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        int curTokens = 0;
+        for (String sentence : para.split("(?<=[.?!。])\\s+|\\n")) {
+            String s = sentence.strip();
+            if (s.isEmpty()) continue;
+            int t = TokenEstimator.estimate(s);
+            if (cur.length() > 0 && curTokens + t > target) {
+                out.add(cur.toString());
+                cur.setLength(0);
+                curTokens = 0;
+            }
+            if (cur.length() > 0) cur.append(' ');
+            cur.append(s);
+            curTokens += t;
+        }
+        if (cur.length() > 0) out.add(cur.toString());
+        return out;
+    }
+
+    private static void add(List<IndexedChunk> out, long documentId, String section, StringBuilder buf, int tokens) {
+        out.add(new IndexedChunk(documentId, out.size(), section, null, buf.toString(), tokens));
+    }
+}
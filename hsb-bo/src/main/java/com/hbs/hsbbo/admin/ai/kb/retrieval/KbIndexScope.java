@@ -0,0 +1,16 @@
+package com.hbs.hsbbo.admin.ai.kb.retrieval;
+
+/**
+ * 검색 색인 격리 단위: 사이트키 + kb_source
+ *
+ * kb_source 는 사이트키에 소속되므로, 호출 측이 자기 사이트키의 소스로만 scope 를 만들면
+ * 다른 사이트키(테넌트)의 청크는 색인 단계에서 섞이지 않는다.
+ */
+public record KbIndexScope(Long siteKeyId, Long kbSourceId) {
+
+    public KbIndexScope {
+        if (siteKeyId == null || kbSourceId == null) {
+            throw new IllegalArgumentException("siteKeyId/kbSourceId는 필수입니다.");
+        }
+    }
+}
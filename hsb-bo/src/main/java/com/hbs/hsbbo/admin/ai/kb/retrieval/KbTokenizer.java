@@ -0,0 +1,66 @@
+package com.hbs.hsbbo.admin.ai.kb.retrieval;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 키워드 검색용 토크나이저 (색인/질의 공통)
+ *
+ * - 영문/숫자: 소문자 단어 단위 (1글자 영문은 버림, 숫자는 유지)
+ * - 한글: 형태소 분석기 없이 음절 bigram ("환불은" → "환불", "불은")
+ *   → 조사/어미가 붙어도 어간 bigram 이 겹쳐 매칭됨. 1음절 단어는 그대로 사용
+ * - 그 외 문자(공백/기호)는 구분자
+ */
+public final class KbTokenizer {
+
+    private KbTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null || text.isEmpty()) return out;
+
+        int n = text.length();
+        int i = 0;
+        while (i < n) {
+            char c = text.charAt(i);
+            if (isHangul(c)) {
+                int start = i;
+                while (i < n && isHangul(text.charAt(i))) i++;
+                emitHangul(text, start, i, out);
+            } else if (Character.isLetterOrDigit(c)) {
+                int start = i;
+                while (i < n) {
+                    char d = text.charAt(i);
+                    if (isHangul(d) || !Character.isLetterOrDigit(d)) break;
+                    i++;
+                }
+                emitWord(text.substring(start, i), out);
+            } else {
+                i++;
+            }
+        }
+        return out;
+    }
+
+    private static void emitHangul(String text, int start, int end, List<String> out) {
+        int len = end - start;
+        if (len == 1) {
+            out.add(text.substring(start, end));
+            return;
+        }
+        for (int k = start; k + 2 <= end; k++) {
+            out.add(text.substring(k, k + 2));
+        }
+    }
+
+    private static void emitWord(String word, List<String> out) {
+        if (word.length() == 1 && !Character.isDigit(word.charAt(0))) return;
+        out.add(word.toLowerCase(Locale.ROOT));
+    }
+
+    private static boolean isHangul(char c) {
+        return (c >= '가' && c <= '힣') || (c >= 'ㄱ' && c <= 'ㆎ');
+    }
+}
@@ -0,0 +1,5 @@
+package com.hbs.hsbbo.admin.ai.kb.retrieval;
+
+/** 검색 결과 청크 + 점수 (하이브리드는 RRF 점수) */
+public record RetrievalHit(IndexedChunk chunk, double score) {
+}
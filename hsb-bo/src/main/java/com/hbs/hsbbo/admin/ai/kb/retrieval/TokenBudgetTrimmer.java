@@ -0,0 +1,69 @@
+package com.hbs.hsbbo.admin.ai.kb.retrieval;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 지문 블록을 토큰 예산(TokenEstimator 기준) 안으로 맞춘다.
+ *
+ * - 블록은 우선순위 순서로 받아 앞에서부터 통째로 담고,
+ *   처음으로 넘치는 블록은 남은 예산이 MIN_PARTIAL_TOKENS 이상일 때만 문장/줄 경계에서 잘라 담은 뒤 멈춘다.
+ * - 구분자 토큰도 예산에 포함
+ */
+public final class TokenBudgetTrimmer {
+
+    private static final int MIN_PARTIAL_TOKENS = 40;
+    private static final String ELLIPSIS = " …";
+
+    private TokenBudgetTrimmer() {
+    }
+
+    public static List<String> fit(List<String> blocks, String separator, int budget) {
+        List<String> out = new ArrayList<>();
+        int sepTokens = TokenEstimator.estimate(separator);
+        int used = 0;
+
+        for (String block : blocks) {
+            int cost = TokenEstimator.estimate(block) + (out.isEmpty() ? 0 : sepTokens);
+            if (used + cost <= budget) {
+                out.add(block);
+                used += cost;
+                continue;
+            }
+            int remaining = budget - used - (out.isEmpty() ? 0 : sepTokens);
+            if (remaining >= MIN_PARTIAL_TOKENS) {
+                out.add(truncate(block, remaining));
+            }
+            break;
+        }
+        return out;
+    }
+
+    /** maxTokens 이하로 자르되, 가능하면 뒤쪽 절반 안의 문장/줄 경계에서 끊는다 */
+    public static String truncate(String text, int maxTokens) {
+        if (text == null || TokenEstimator.estimate(text) <= maxTokens) return text;
+
+        int limit = Math.max(0, maxTokens - TokenEstimator.estimate(ELLIPSIS));
+        int ascii = 0;
+        int other = 0;
+        int end = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) ascii++;
+            else if (!Character.isLowSurrogate(c)) other++;
+            if ((ascii + 3) / 4 + other > limit) break;
+            end = i + 1;
+        }
+        if (end > 0 && Character.isHighSurrogate(text.charAt(end - 1))) end--;
+
+        int cut = end;
+        for (int i = end - 1; i > end / 2; i--) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '.' || c == '?' || c == '!' || c == '。') {
+                cut = i + 1;
+                break;
+            }
+        }
+        return text.substring(0, cut).stripTrailing() + ELLIPSIS;
+    }
+}
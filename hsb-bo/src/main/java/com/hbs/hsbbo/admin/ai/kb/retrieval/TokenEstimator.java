@@ -0,0 +1,25 @@
+package com.hbs.hsbbo.admin.ai.kb.retrieval;
+
+/**
+ * 프롬프트 토큰 수 근사치 (토큰 예산 계산용, 실제 tokenizer 없이)
+ *
+ * - ASCII 는 약 4글자당 1토큰, 그 외(한글 등)는 1글자당 1토큰으로 계산
+ * - 실제 BPE 보다 약간 크게 잡히도록 한 보수적 추정 → 예산 초과를 막는 쪽으로 오차
+ */
+public final class TokenEstimator {
+
+    private TokenEstimator() {
+    }
+
+    public static int estimate(String text) {
+        if (text == null || text.isEmpty()) return 0;
+        int ascii = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) ascii++;
+            else if (!Character.isLowSurrogate(c)) other++;
+        }
+        return (ascii + 3) / 4 + other;
+    }
+}
@@ -0,0 +1,26 @@
+package com.hbs.hsbbo.admin.ai.kb.retrieval;
+
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * 청크 벡터 색인 (kb_source 단위, KbIndexScope 로 사이트키 격리)
+ *
+ * - upsert/remove 는 문서 단위 (ingest/삭제 완료 후 KbChunkService 가 호출)
+ * - 구현체는 hsbs.kb.retrieval.vector-index 로 선택
+ */
+public interface VectorIndexProvider {
+
+    record Hit(long documentId, int chunkNo, double score) {
+    }
+
+    String name();
+
+    /** 문서의 청크 벡터 교체 (chunks 와 vectors 는 같은 순서) */
+    void upsert(KbIndexScope scope, long documentId, List<IndexedChunk> chunks, List<float[]> vectors);
+
+    void remove(KbIndexScope scope, long documentId);
+
+    /** 유사도 상위 k 개 (점수 내림차순) */
+    List<Hit> search(KbIndexScope scope, float[] query, int k, LongPredicate documentFilter);
+}
@@ -0,0 +1,42 @@
+package com.hbs.hsbbo.admin.ai.kb.service;
+
+import com.hbs.hsbbo.admin.ai.promptprofile.domain.entity.PromptProfile;
+
+/**
+ * 관리자 측에서 위젯 챗 답변 캐시를 다루는 창구
+ *
+ * - 구현체(user.ai.support.AnswerCache)는 위젯 챗 쪽에 있고, admin 서비스는 이 인터페이스만 의존한다.
+ * - 무효화는 호출한 트랜잭션이 커밋된 뒤에 반영된다.
+ */
+public interface AnswerCacheControl {
+
+    /** 관리자 통계용 설정/적중 현황 (이 노드, 기동 이후 누적) */
+    record Snapshot(
+            boolean semanticEnabled,
+            double semanticThreshold,
+            String embeddingProvider,
+            String ttl,
+            long exactEntries,
+            long semanticScopes,
+            long lookups,
+            long exactHits,
+            long semanticHits
+    ) {
+    }
+
+    Snapshot snapshot();
+
+    void evictByPromptProfileId(Long promptProfileId);
+
+    void evictAll();
+
+    /** 같은 질문이면 같은 답이 기대되는 요청인지 (단발성 memoryPolicy + 호출자 context 없음) */
+    static boolean stateless(PromptProfile profile, String userContext) {
+        if (profile == null) return false;
+        String memoryPolicy = profile.getMemoryPolicy();
+        if (memoryPolicy != null && !memoryPolicy.isBlank() && !"short".equalsIgnoreCase(memoryPolicy.trim())) {
+            return false;
+        }
+        return userContext == null || userContext.isBlank();
+    }
+}
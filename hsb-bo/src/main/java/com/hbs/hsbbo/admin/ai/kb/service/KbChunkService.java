@@ -0,0 +1,142 @@
+package com.hbs.hsbbo.admin.ai.kb.service;
+
+import com.hbs.hsbbo.admin.ai.brain.dto.model.response.BrainChunk;
+import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainIngestResponse;
+import com.hbs.hsbbo.admin.ai.kb.domain.entity.KbDocument;
+import com.hbs.hsbbo.admin.ai.kb.repository.KbChunkJdbcRepository;
+import com.hbs.hsbbo.admin.ai.kb.repository.KbChunkRepository;
+import com.hbs.hsbbo.admin.ai.kb.repository.KbSourceRepository;
+import com.hbs.hsbbo.admin.ai.kb.retrieval.EmbeddingProvider;
+import com.hbs.hsbbo.admin.ai.kb.retrieval.IndexedChunk;
+import com.hbs.hsbbo.admin.ai.kb.retrieval.KbChunkIndex;
+import com.hbs.hsbbo.admin.ai.kb.retrieval.KbChunker;
+import com.hbs.hsbbo.admin.ai.kb.retrieval.KbIndexScope;
+import com.hbs.hsbbo.admin.ai.kb.retrieval.TokenEstimator;
+import com.hbs.hsbbo.admin.ai.kb.retrieval.VectorIndexProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * kb_chunk 저장 + 메모리 검색 색인 반영
+ *
+ * - ingest 응답에 Brain 청크가 있으면 그대로 사용 (section/page 포함)
+ * - 없으면 요약 + 원문 미리보기를 로컬 청킹 (KbChunker)
+ * - replace/delete 는 호출자(KbJobWorker) 트랜잭션 안에서, 색인 반영(after*)은 커밋 후 호출
+ *   · BM25 색인 + 벡터 색인(임베딩 후 upsert). 벡터 색인 실패는 로그만 (다음 적재 때 kb_chunk 로 재구성)
+ */
+@Service
+@Slf4j
+public class KbChunkService {
+
+    private final KbChunkRepository kbChunkRepository;
+    private final KbChunkJdbcRepository kbChunkJdbcRepository;
+    private final KbChunkIndex kbChunkIndex;
+    private final KbSourceRepository kbSourceRepository;
+    private final EmbeddingProvider embeddingProvider;
+    private final VectorIndexProvider vectorIndexProvider;
+    private final int chunkTokens;
+
+    public KbChunkService(
+            KbChunkRepository kbChunkRepository,
+            KbChunkJdbcRepository kbChunkJdbcRepository,
+            KbChunkIndex kbChunkIndex,
+            KbSourceRepository kbSourceRepository,
+            EmbeddingProvider embeddingProvider,
+            VectorIndexProvider vectorIndexProvider,
+            @Value("${hsbs.kb.retrieval.chunk-tokens:300}") int chunkTokens
+    ) {
+        this.kbChunkRepository = kbChunkRepository;
+        this.kbChunkJdbcRepository = kbChunkJdbcRepository;
+        this.kbChunkIndex = kbChunkIndex;
+        this.kbSourceRepository = kbSourceRepository;
+        this.embeddingProvider = embeddingProvider;
+        this.vectorIndexProvider = vectorIndexProvider;
+        this.chunkTokens = chunkTokens;
+    }
+
+    /** ingest 응답 → 청크 목록 */
+    public List<IndexedChunk> chunksOf(KbDocument doc, BrainIngestResponse res) {
+        List<IndexedChunk> out = new ArrayList<>();
+        List<BrainChunk> brainChunks = res.getChunks();
+
+        if (brainChunks != null && !brainChunks.isEmpty()) {
+            for (BrainChunk c : brainChunks) {
+                if (c == null || c.getText() == null || c.getText().isBlank()) continue;
+                String text = c.getText().strip();
+                int tokens = (c.getTokenCount() != null && c.getTokenCount() > 0)
+                        ? c.getTokenCount()
+                        : TokenEstimator.estimate(text);
+                out.add(new IndexedChunk(doc.getId(), out.size(), truncate(c.getSection(), 255), c.getPage(), text, tokens));
+            }
+            return out;
+        }
+
+        // Brain 이 청크를 주지 않으면 요약 + 미리보기 텍스트로 대체
+        StringBuilder text = new StringBuilder();
+        if (res.getSummaryText() != null && !res.getSummaryText().isBlank()) {
+            text.append(res.getSummaryText().strip());
+        }
+        if (res.getRawPreview() != null && !res.getRawPreview().isBlank()) {
+            if (text.length() > 0) text.append("\n\n");
+            text.append(res.getRawPreview().strip());
+        }
+        return KbChunker.split(doc.getId(), text.toString(), chunkTokens);
+    }
+
+    /** 문서 청크 교체 (트랜잭션 안) */
+    public void replace(KbDocument doc, List<IndexedChunk> chunks) {
+        kbChunkRepository.deleteByKbDocumentId(doc.getId());
+        kbChunkJdbcRepository.insertBatch(doc.getKbSourceId(), chunks);
+    }
+
+    /** 문서 청크 삭제 (트랜잭션 안) */
+    public void delete(KbDocument doc) {
+        kbChunkRepository.deleteByKbDocumentId(doc.getId());
+    }
+
+    /** 커밋 후: 메모리 색인 반영 */
+    public void afterReplaced(KbDocument doc, List<IndexedChunk> chunks) {
+        kbChunkIndex.onDocumentIndexed(doc.getKbSourceId(), doc.getId(), chunks);
+
+        KbIndexScope scope = scopeOf(doc);
+        if (scope != null) {
+            try {
+                List<String> texts = chunks.stream().map(IndexedChunk::content).toList();
+                vectorIndexProvider.upsert(scope, doc.getId(), chunks, embeddingProvider.embedAll(texts));
+            } catch (Exception e) {
+                log.warn("[kb-chunk] vector upsert failed docId={}: {}", doc.getId(), e.toString());
+            }
+        }
+        log.info("[kb-chunk] indexed docId={}, chunks={}", doc.getId(), chunks.size());
+    }
+
+    public void afterDeleted(KbDocument doc) {
+        kbChunkIndex.onDocumentRemoved(doc.getKbSourceId(), doc.getId());
+
+        KbIndexScope scope = scopeOf(doc);
+        if (scope != null) {
+            try {
+                vectorIndexProvider.remove(scope, doc.getId());
+            } catch (Exception e) {
+                log.warn("[kb-chunk] vector remove failed docId={}: {}", doc.getId(), e.toString());
+            }
+        }
+    }
+
+    private KbIndexScope scopeOf(KbDocument doc) {
+        if (doc.getKbSourceId() == null) return null;
+        return kbSourceRepository.findById(doc.getKbSourceId())
+                .map(src -> new KbIndexScope(src.getSiteKeyId(), src.getId()))
+                .orElse(null);
+    }
+
+    private static String truncate(String s, int max) {
+        if (s == null) return null;
+        String t = s.strip();
+        return t.length() > max ? t.substring(0, max) : t;
+    }
+}
@@ -10,7 +10,7 @@ import com.hbs.hsbbo.admin.ai.kb.dto.response.KbDocumentListResponse;
 import com.hbs.hsbbo.admin.ai.kb.dto.response.KbDocumentResponse;
 import com.hbs.hsbbo.admin.ai.kb.repository.KbDocumentRepository;
 import com.hbs.hsbbo.admin.ai.kb.repository.KbJobRepository;
-import com.hbs.hsbbo.admin.ai.kb.worker.KbJobScheduler;
+import com.hbs.hsbbo.admin.ai.kb.worker.KbJobExecutor;
 import com.hbs.hsbbo.common.exception.CommonException.NotFoundException;
 import com.hbs.hsbbo.common.util.FileUtil;
 import lombok.RequiredArgsConstructor;
@@ -31,6 +31,8 @@ import java.time.LocalDateTime;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -38,11 +40,15 @@ import java.util.Map;
 @Slf4j
 public class KbDocumentService {
     private final KbDocumentRepository kbDocumentRepository;
-    private final KbJobScheduler kbJobScheduler;
+    private final KbJobExecutor kbJobExecutor;
     private final FileUtil fileUtil;
 
     private final KbJobRepository kbJobRepository;
     private final ObjectMapper objectMapper;
+    private final KbJobDurationStats kbJobDurationStats;
+    private final KnowledgeContextCache knowledgeContextCache;
+
+    private static final int MIN_SAMPLES_FOR_PERCENTILE = 10;
 
     // 목록
     @Transactional(readOnly = true)
@@ -70,8 +76,15 @@ public class KbDocumentService {
                 pageable
         );
 
+        // 최신 job 은 페이지 단위로 한 번에 조회 (문서별 조회 N+1 방지)
+        List<Long> documentIds = result.getContent().stream().map(KbDocument::getId).toList();
+        Map<Long, KbJob> latestJobs = documentIds.isEmpty()
+                ? Map.of()
+                : kbJobRepository.findLatestByKbDocumentIds(documentIds).stream()
+                        .collect(Collectors.toMap(KbJob::getKbDocumentId, Function.identity(), (a, b) -> a));
+
         List<KbDocumentResponse> items = result.getContent().stream()
-                .map(this::toResponseWithLatestJob)
+                .map(doc -> toResponse(doc, latestJobs.get(doc.getId())))
                 .toList();
 
         return KbDocumentListResponse.of(
@@ -265,6 +278,7 @@ public class KbDocumentService {
         }
 
         e.setUpAdm(actor);
+        e.setUpDate(LocalDateTime.now());   // 지문 캐시 버전(KnowledgeContextCache 키)에 반영
         kbDocumentRepository.save(e);
 
         // 10. 비동기 작업 실행
@@ -273,6 +287,8 @@ public class KbDocumentService {
             enqueueIngestJob(e, actor);
         }
 
+        // 제목/태그/사용여부 등이 지문에 들어가므로 커밋 후 프로필 지문 캐시 제거
+        knowledgeContextCache.evictByDocumentId(e.getId());
         return e.getId();
     }
 
@@ -283,9 +299,11 @@ public class KbDocumentService {
         resetIndexFields(e);
         e.setDocStatus("INDEXING");
         e.setUpAdm(actor);
+        e.setUpDate(LocalDateTime.now());
         kbDocumentRepository.save(e);
 
         enqueueIngestJob(e, actor);
+        knowledgeContextCache.evictByDocumentId(e.getId());
         return e.getId();
     }
 
@@ -296,6 +314,8 @@ public class KbDocumentService {
 
         e.setUseTf("Y".equals(e.getUseTf()) ? "N" : "Y");
         e.setUpAdm(actor);
+        e.setUpDate(LocalDateTime.now());
+        knowledgeContextCache.evictByDocumentId(e.getId());
         return e.getId();
     }
 
@@ -313,6 +333,7 @@ public class KbDocumentService {
         } else {
             e.setDocStatus("DELETED");
         }
+        knowledgeContextCache.evictByDocumentId(e.getId());
         return e.getId();
     }
 
@@ -408,6 +429,10 @@ public class KbDocumentService {
     private KbDocumentResponse toResponseWithLatestJob(KbDocument document) {
         KbJob latestJob = kbJobRepository.findTopByKbDocumentIdOrderByIdDesc(document.getId())
                 .orElse(null);
+        return toResponse(document, latestJob);
+    }
+
+    private KbDocumentResponse toResponse(KbDocument document, KbJob latestJob) {
         KbDocumentResponse response = KbDocumentResponse.from(document, latestJob);
         enrichJobTiming(response, document, latestJob);
         return response;
@@ -416,10 +441,12 @@ public class KbDocumentService {
     private void enrichJobTiming(KbDocumentResponse response, KbDocument document, KbJob latestJob) {
         if (response == null) return;
 
-        Long averageSeconds = roundedAverageSeconds(normalize(document.getDocType()));
+        // docType 별 소요시간 통계는 메모리 캐시에서 (DB 집계 없음)
+        KbJobDurationStats.Snapshot stats = kbJobDurationStats.of(normalize(document.getDocType()));
+        Long averageSeconds = roundedAverageSeconds(stats);
         response.setAverageJobDurationSeconds(averageSeconds);
 
-        DurationRange range = estimateDurationRange(document, averageSeconds);
+        DurationRange range = estimateDurationRange(document, averageSeconds, stats);
         response.setEstimatedDurationMinSeconds(range.minSeconds());
         response.setEstimatedDurationMaxSeconds(range.maxSeconds());
 
@@ -437,10 +464,10 @@ public class KbDocumentService {
         response.setLatestJobProgressPercent(resolveProgressPercent(latestJob, elapsedSeconds, averageSeconds));
     }
 
-    private Long roundedAverageSeconds(String docType) {
-        Double avg = kbJobRepository.findAverageSuccessDurationSecondsByDocType(docType);
+    private Long roundedAverageSeconds(KbJobDurationStats.Snapshot stats) {
+        Long avg = stats.meanSeconds();
         if (avg == null || avg <= 0) return null;
-        return Math.max(1L, Math.round(avg));
+        return Math.max(1L, avg);
     }
 
     private Long calculateElapsedSeconds(KbJob job) {
@@ -485,7 +512,13 @@ public class KbDocumentService {
         };
     }
 
-    private DurationRange estimateDurationRange(KbDocument document, Long averageSeconds) {
+    private DurationRange estimateDurationRange(KbDocument document, Long averageSeconds, KbJobDurationStats.Snapshot stats) {
+        // 표본이 충분하면 평균 배수 대신 실제 분포(p25 ~ p90)를 사용
+        if (stats.count() >= MIN_SAMPLES_FOR_PERCENTILE && stats.p25Seconds() != null && stats.p90Seconds() != null) {
+            long min = Math.max(30L, stats.p25Seconds());
+            long max = Math.max(min + 30L, stats.p90Seconds());
+            return new DurationRange(min, max);
+        }
         if (averageSeconds != null && averageSeconds > 0) {
             long min = Math.max(30L, Math.round(averageSeconds * 0.7));
             long max = Math.max(min + 30L, Math.round(averageSeconds * 1.4));
@@ -556,12 +589,12 @@ public class KbDocumentService {
             job.setRegAdm(actor);
             job.setUpAdm(actor);
 
-            kbJobRepository.save(job);
+            Long jobId = kbJobRepository.save(job).getId();
             TransactionSynchronizationManager.registerSynchronization(
                     new TransactionSynchronization() {
                         @Override
                         public void afterCommit() {
-                            kbJobScheduler.wakeUpNow();
+                            kbJobExecutor.submit(jobId);
                         }
                     }
             );
@@ -608,13 +641,13 @@ public class KbDocumentService {
             job.setRegAdm(actor);
             job.setUpAdm(actor);
 
-            kbJobRepository.save(job);
-            // 트랜잭션 커밋 이후에만 깨우기
+            Long jobId = kbJobRepository.save(job).getId();
+            // 트랜잭션 커밋 이후에만 executor 에 전달 (폴링은 fallback)
             TransactionSynchronizationManager.registerSynchronization(
                     new TransactionSynchronization() {
                         @Override
                         public void afterCommit() {
-                            kbJobScheduler.wakeUpNow();
+                            kbJobExecutor.submit(jobId);
                         }
                     }
             );
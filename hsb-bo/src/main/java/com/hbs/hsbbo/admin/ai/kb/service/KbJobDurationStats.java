@@ -0,0 +1,129 @@
+package com.hbs.hsbbo.admin.ai.kb.service;
+
+import com.hbs.hsbbo.admin.ai.brain.config.KbJobSchedulerProperties;
+import com.hbs.hsbbo.admin.ai.kb.repository.KbJobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * docType 별 INGEST 소요시간 통계 (문서 목록의 평균/예상 소요시간 표시용)
+ *
+ * - docType 마다 최근 stats-window 건의 소요시간(초)을 링버퍼로 보관 → 평균 / p25 / p90
+ * - 기동 시 + stats-refresh-ms 주기로 최근 성공 job 을 한 번에 읽어 재구성 (다른 노드 처리분 반영)
+ * - 이 노드에서 job 이 끝나면 KbJobWorker 가 record() 로 즉시 반영
+ * → 목록 조회 때마다 kb_job x kb_document AVG 집계를 돌리지 않음
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class KbJobDurationStats {
+
+    // docType 미지정(전체) 통계 키
+    private static final String ALL = "*";
+
+    public static final Snapshot EMPTY = new Snapshot(0, null, null, null);
+
+    private final KbJobRepository kbJobRepository;
+    private final KbJobSchedulerProperties props;
+
+    private volatile Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    /** count: 표본 수 / 나머지는 초 단위 (표본 없으면 null) */
+    public record Snapshot(int count, Long meanSeconds, Long p25Seconds, Long p90Seconds) {}
+
+    /** docType 이 null 이면 전체 통계 */
+    public Snapshot of(String docType) {
+        Window w = windows.get(key(docType));
+        return (w == null) ? EMPTY : w.snapshot();
+    }
+
+    /** 이 노드에서 INGEST 성공 시 호출 */
+    public void record(String docType, long seconds) {
+        if (seconds < 0) return;
+        add(windows, key(docType), seconds);
+        add(windows, ALL, seconds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${hsbs.kb.job.stats-refresh-ms:600000}",
+            initialDelayString = "${hsbs.kb.job.stats-refresh-ms:600000}")
+    public void reload() {
+        try {
+            List<Object[]> rows = kbJobRepository.findRecentSuccessDurations(Math.max(1, props.getStatsSeedLimit()));
+            Map<String, Window> rebuilt = new ConcurrentHashMap<>();
+
+            // 최신순으로 오므로 역순으로 넣어야 링버퍼에 최근 표본이 남는다.
+            for (int i = rows.size() - 1; i >= 0; i--) {
+                Object[] r = rows.get(i);
+                if (r[1] == null) continue;
+                long seconds = Math.max(0L, ((Number) r[1]).longValue());
+                add(rebuilt, key((String) r[0]), seconds);
+                add(rebuilt, ALL, seconds);
+            }
+            windows = rebuilt;
+            log.debug("[kb-job-stats] reloaded {} samples, docTypes={}", rows.size(), rebuilt.keySet());
+        } catch (Exception e) {
+            log.warn("[kb-job-stats] reload failed, keeping previous stats: {}", e.toString());
+        }
+    }
+
+    private void add(Map<String, Window> target, String key, long seconds) {
+        target.computeIfAbsent(key, k -> new Window(Math.max(1, props.getStatsWindow()))).add(seconds);
+    }
+
+    private static String key(String docType) {
+        if (docType == null || docType.isBlank()) return ALL;
+        return docType.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /** 최근 N 건 링버퍼. 스냅샷은 변경 후 첫 조회 때만 다시 계산 */
+    private static final class Window {
+        private final long[] samples;
+        private int next;
+        private int size;
+        private long sum;
+        private Snapshot cached;
+
+        Window(int capacity) {
+            this.samples = new long[capacity];
+        }
+
+        synchronized void add(long seconds) {
+            if (size == samples.length) {
+                sum -= samples[next];
+            } else {
+                size++;
+            }
+            samples[next] = seconds;
+            sum += seconds;
+            next = (next + 1) % samples.length;
+            cached = null;
+        }
+
+        synchronized Snapshot snapshot() {
+            if (cached != null) return cached;
+            if (size == 0) return EMPTY;
+
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            long mean = Math.round((double) sum / size);
+            cached = new Snapshot(size, mean, percentile(sorted, 0.25), percentile(sorted, 0.90));
+            return cached;
+        }
+
+        private static long percentile(long[] sorted, double q) {
+            int idx = (int) Math.ceil(q * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, idx))];
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.hbs.hsbbo.admin.ai.kb.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hbs.hsbbo.admin.ai.kb.retrieval.KbIndexScope;
+import com.hbs.hsbbo.common.util.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 프로필 단위 지식 지문 캐시
+ *
+ * - 키: (promptProfileId, siteKeyId, kb_document_ids JSON, 토큰 예산, 문서 버전) → 프로필 문서 구성/예산이 바뀌면 자연히 다른 키
+ *   · 문서 버전 = 대상 문서의 수 / 최종 수정·인덱싱 시각 / version 합 → 다른 노드에서 재인덱싱·수정돼도 TTL 을 기다리지 않음
+ *   · 문서 버전은 kb_document_ids JSON 별로 version-ttl(기본 5초) 동안 따로 캐시 → 요청마다 JSON 파싱/집계 쿼리를 하지 않고,
+ *     다른 노드의 변경은 길어야 version-ttl 뒤에 보인다 (이 노드의 변경은 evict 로 즉시)
+ * - 값: 문서 ID 파싱 + 사용 중 문서/소스 조회 + 태그 파싱 + 요약 지문 조합(예산 내 trim) 결과
+ *   → 방문자마다 같은 조회/조합을 반복하지 않는다. (질문 기반 청크 선택은 요청마다 수행)
+ * - 문서가 재인덱싱/삭제/사용여부 변경되면 KbJobWorker / KbDocumentService 가 evictByDocumentId 로 비운다.
+ *   트랜잭션 안이면 커밋 이후에 비워서, 커밋 전 데이터로 다시 채워지는 경합을 막는다.
+ * - expireAfterWrite 는 다른 노드에서 처리된 변경을 반영하기 위한 안전망
+ * - generation: 비울 때마다 1씩 증가 → 지문에 의존하는 상위 캐시(AnswerCache)가 키에 포함해 함께 무효화
+ */
+@Slf4j
+@Component
+public class KnowledgeContextCache {
+
+    private final Cache<Key, ProfileKnowledge> cache;
+    private final Cache<String, DocumentsVersion> versions;
+
+    public record Key(Long promptProfileId, Long siteKeyId, String kbDocumentIdsJson, int tokenBudget, long documentsVersion) {
+    }
+
+    /**
+     * @param ids     kb_document_ids 파싱 결과 (null 제외)
+     * @param version 대상 문서 상태 요약값 (문서가 없으면 0)
+     */
+    public record DocumentsVersion(List<Long> ids, long version) {
+    }
+
+    /**
+     * @param requestedIds 프로필에 연결된 문서 ID 전체 (사용 안 함/다른 사이트키 문서 포함, evict 기준)
+     * @param titles      문서 ID → 제목 (청크 헤더용)
+     * @param documentIds 호출 사이트키 소속 + 사용 중인 문서
+     * @param scopes      검색 대상 (사이트키, kb_source)
+     * @param summary     요약 기반 지문 (예산 내로 trim 완료)
+     */
+    public record ProfileKnowledge(
+            Set<Long> requestedIds,
+            Map<Long, String> titles,
+            Set<Long> documentIds,
+            Set<KbIndexScope> scopes,
+            String summary
+    ) {
+        public boolean isEmpty() {
+            return documentIds.isEmpty();
+        }
+    }
+
+    public KnowledgeContextCache(
+            @Value("${hsbs.kb.context.cache-max-size:2000}") long maxSize,
+            @Value("${hsbs.kb.context.cache-ttl:PT10M}") Duration ttl,
+            @Value("${hsbs.kb.context.version-ttl:PT5S}") Duration versionTtl
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(versionTtl)
+                .build();
+    }
+
+    public ProfileKnowledge get(Key key, Function<Key, ProfileKnowledge> loader) {
+        return cache.get(key, loader);
+    }
+
+    /** kb_document_ids JSON → 문서 ID / 문서 버전 (version-ttl 동안 재사용) */
+    public DocumentsVersion version(String kbDocumentIdsJson, Function<String, DocumentsVersion> loader) {
+        return versions.get(kbDocumentIdsJson, loader);
+    }
+
+    /** 문서가 포함된 프로필 지문 전부 제거 */
+    public void evictByDocumentId(Long kbDocumentId) {
+        if (kbDocumentId == null) return;
+        TransactionUtil.afterCommit(() -> {
+            versions.asMap().values().removeIf(v -> v.ids().contains(kbDocumentId));
+            boolean removed = cache.asMap().values().removeIf(v -> v.requestedIds().contains(kbDocumentId));
+            if (removed) log.debug("[kb-context-cache] evicted by kbDocumentId={}", kbDocumentId);
+        });
+    }
+
+    public void evictAll() {
+        TransactionUtil.afterCommit(() -> {
+            versions.invalidateAll();
+            cache.invalidateAll();
+        });
+    }
+}
@@ -3,30 +3,219 @@ package com.hbs.hsbbo.admin.ai.kb.service;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hbs.hsbbo.admin.ai.kb.domain.entity.KbDocument;
+import com.hbs.hsbbo.admin.ai.kb.domain.entity.KbSource;
 import com.hbs.hsbbo.admin.ai.kb.repository.KbDocumentRepository;
-import lombok.RequiredArgsConstructor;
+import com.hbs.hsbbo.admin.ai.kb.repository.KbSourceRepository;
+import com.hbs.hsbbo.admin.ai.kb.retrieval.HybridKbRetriever;
+import com.hbs.hsbbo.admin.ai.kb.retrieval.KbIndexScope;
+import com.hbs.hsbbo.admin.ai.kb.retrieval.RetrievalHit;
+import com.hbs.hsbbo.admin.ai.kb.retrieval.TokenBudgetTrimmer;
+import com.hbs.hsbbo.admin.ai.kb.retrieval.TokenEstimator;
+import com.hbs.hsbbo.admin.ai.kb.service.KnowledgeContextCache.ProfileKnowledge;
+import com.hbs.hsbbo.admin.ai.promptprofile.domain.entity.PromptProfile;
+import com.hbs.hsbbo.admin.ai.promptprofile.domain.type.RetrievalMode;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * BO가 "어떤 문서를 쓸지" 정한 뒤, kb_document를 조회해
  * index_summary·tags_json으로 지문을 조합한 문자열(knowledgeContext)을 만든다.
  * Brain은 이 문자열만 받아 system 프롬프트 앞에 붙인다.
+ *
+ * 질문이 주어지면 프로필의 검색 방식(RetrievalMode)에 따라
+ * 문서 전체 요약 대신 로컬 하이브리드 검색(BM25 + 벡터) 상위 청크만 토큰 예산 안에서 고른다.
+ * (청크가 아직 없거나 매칭되는 청크가 없으면 기존 요약 기반 지문으로 fallback)
+ * 토큰 예산은 프로필 kb_context_token_budget, 없으면 hsbs.kb.retrieval.token-budget
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class KnowledgeContextService {
 
     private final KbDocumentRepository kbDocumentRepository;
+    private final KbSourceRepository kbSourceRepository;
     private final ObjectMapper objectMapper;
+    private final HybridKbRetriever hybridKbRetriever;
+    private final KnowledgeContextCache knowledgeContextCache;
+    private final int topK;
+    private final int tokenBudget;
 
     private static final String DOC_SEPARATOR = "\n\n---\n\n";
 
+    /**
+     * @param text            조합된 지문 (없으면 "")
+     * @param remoteRetrieval Brain 측 OpenAI Vector Store 검색을 켤지 여부
+     *                        (null 이면 rag 옵션을 보내지 않음 → Brain 기본 동작, OPENAI_ONLY/KB 없음)
+     */
+    public record KnowledgeContext(String text, Boolean remoteRetrieval) {
+        static final KnowledgeContext EMPTY = new KnowledgeContext("", null);
+    }
+
+    public KnowledgeContextService(
+            KbDocumentRepository kbDocumentRepository,
+            KbSourceRepository kbSourceRepository,
+            ObjectMapper objectMapper,
+            HybridKbRetriever hybridKbRetriever,
+            KnowledgeContextCache knowledgeContextCache,
+            @Value("${hsbs.kb.retrieval.top-k:8}") int topK,
+            @Value("${hsbs.kb.retrieval.token-budget:1500}") int tokenBudget
+    ) {
+        this.kbDocumentRepository = kbDocumentRepository;
+        this.kbSourceRepository = kbSourceRepository;
+        this.objectMapper = objectMapper;
+        this.hybridKbRetriever = hybridKbRetriever;
+        this.knowledgeContextCache = knowledgeContextCache;
+        this.topK = Math.max(1, topK);
+        this.tokenBudget = Math.max(100, tokenBudget);
+    }
+
+    /**
+     * 질문 기반 지문: 프로필 문서 중 호출 사이트키 소속 문서만 대상으로,
+     * 질문과 관련된 청크 상위 top-k 를 프로필 토큰 예산 안에서 조합
+     *
+     * 문서 구성/요약 지문은 KnowledgeContextCache 에서 가져오고, 청크 검색만 요청마다 수행한다.
+     *
+     * @param profile   프롬프트 프로필 (kb_document_ids, retrieval_mode, kb_context_token_budget)
+     * @param query     사용자 질문 (비어 있으면 요약 기반 지문)
+     * @param siteKeyId 호출 사이트키 (다른 사이트키의 kb_source 문서는 제외)
+     */
+    public KnowledgeContext resolve(PromptProfile profile, String query, Long siteKeyId) {
+        if (profile == null) {
+            return KnowledgeContext.EMPTY;
+        }
+        String json = profile.getKbDocumentIdsJson();
+        if (json == null || json.isBlank()) {
+            return KnowledgeContext.EMPTY;
+        }
+
+        int budget = budgetOf(profile);
+        ProfileKnowledge pk = knowledgeContextCache.get(
+                new KnowledgeContextCache.Key(profile.getId(), siteKeyId, json, budget, documentsVersion(profile)),
+                this::loadProfileKnowledge);
+        if (pk.isEmpty()) {
+            return KnowledgeContext.EMPTY;
+        }
+
+        // 모드를 명시적으로 고른 프로필만 로컬 검색 / rag 지정 (기존 행·미지정은 OPENAI_ONLY = 기존 동작 그대로)
+        RetrievalMode m = (profile.getRetrievalMode() == null) ? RetrievalMode.OPENAI_ONLY : profile.getRetrievalMode();
+        if (m == RetrievalMode.OPENAI_ONLY) {
+            return new KnowledgeContext(pk.summary(), null);
+        }
+        boolean remoteOnMiss = (m == RetrievalMode.HYBRID_LOCAL_FIRST);
+        if (query == null || query.isBlank()) {
+            return new KnowledgeContext(pk.summary(), remoteOnMiss);
+        }
+
+        List<RetrievalHit> hits;
+        try {
+            hits = hybridKbRetriever.retrieve(pk.scopes(), query, topK, pk.documentIds());
+        } catch (Exception e) {
+            log.warn("[kb-context] chunk search failed, fallback to summaries: {}", e.toString());
+            return new KnowledgeContext(pk.summary(), remoteOnMiss);
+        }
+
+        int sepTokens = TokenEstimator.estimate(DOC_SEPARATOR);
+        List<String> parts = new ArrayList<>();
+        int used = 0;
+        for (RetrievalHit hit : hits) {
+            String block = formatChunk(pk.titles().get(hit.chunk().documentId()), hit);
+            int tokens = TokenEstimator.estimate(block) + (parts.isEmpty() ? 0 : sepTokens);
+            // 예산을 넘기는 청크는 건너뛰고 더 작은 다음 청크를 시도
+            if (used + tokens > budget) continue;
+            parts.add(block);
+            used += tokens;
+        }
+        if (parts.isEmpty()) {
+            return new KnowledgeContext(pk.summary(), remoteOnMiss);
+        }
+
+        log.debug("[kb-context] mode={}, selected {} of {} chunks (~{}/{} tokens)", m, parts.size(), hits.size(), used, budget);
+        return new KnowledgeContext(String.join(DOC_SEPARATOR, parts), false);
+    }
+
+    private int budgetOf(PromptProfile profile) {
+        Integer b = profile.getKbContextTokenBudget();
+        return (b != null && b > 0) ? Math.max(100, b) : tokenBudget;
+    }
+
+    /**
+     * 프로필 대상 문서의 버전 (문서 수정/재인덱싱/사용여부 변경 시 바뀜, KB 문서가 없으면 0)
+     *
+     * - 지문 캐시뿐 아니라 지문에 의존하는 답변 캐시(AnswerCache, WelcomeAnswerCache) 키에도 쓴다.
+     * - KnowledgeContextCache 가 version-ttl 동안 들고 있으므로 요청마다 파싱/집계하지 않는다.
+     */
+    public long documentsVersion(PromptProfile profile) {
+        if (profile == null) return 0L;
+        String json = profile.getKbDocumentIdsJson();
+        if (json == null || json.isBlank()) return 0L;
+        return knowledgeContextCache.version(json, this::loadDocumentsVersion).version();
+    }
+
+    /** 버전 캐시 미스: ID 파싱 + PK IN 집계 1회 */
+    private KnowledgeContextCache.DocumentsVersion loadDocumentsVersion(String kbDocumentIdsJson) {
+        List<Long> ids = parseIdList(kbDocumentIdsJson).stream().filter(Objects::nonNull).toList();
+        if (ids.isEmpty()) return new KnowledgeContextCache.DocumentsVersion(List.of(), 0L);
+
+        List<Object[]> rows = kbDocumentRepository.findVersionStatsByIdIn(ids);
+        if (rows.isEmpty()) return new KnowledgeContextCache.DocumentsVersion(ids, 0L);
+        Object[] r = rows.get(0);
+        long v = r[0] == null ? 0L : ((Number) r[0]).longValue();
+        v = 31 * v + epochMillis((LocalDateTime) r[1]);
+        v = 31 * v + epochMillis((LocalDateTime) r[2]);
+        v = 31 * v + (r[3] == null ? 0L : ((Number) r[3]).longValue());
+        return new KnowledgeContextCache.DocumentsVersion(ids, v);
+    }
+
+    private static long epochMillis(LocalDateTime t) {
+        return t == null ? 0L : t.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /** 캐시 미스: 문서 ID 파싱 → 사용 중 문서/소스 조회 → 사이트키 필터 → 요약 지문(예산 내) 조합 */
+    private ProfileKnowledge loadProfileKnowledge(KnowledgeContextCache.Key key) {
+        List<Long> ids = parseIdList(key.kbDocumentIdsJson()).stream().filter(Objects::nonNull).toList();
+        if (ids.isEmpty()) {
+            return new ProfileKnowledge(Set.of(), Map.of(), Set.of(), Set.of(), "");
+        }
+
+        List<KbDocument> docs = kbDocumentRepository.findByIdInAndDelTfAndUseTf(ids);
+        Map<Long, Long> siteKeyBySource = kbSourceRepository.findAllById(
+                        docs.stream().map(KbDocument::getKbSourceId).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(KbSource::getId, KbSource::getSiteKeyId));
+        Long siteKeyId = key.siteKeyId();
+        docs = docs.stream()
+                .filter(d -> siteKeyBySource.containsKey(d.getKbSourceId()))
+                .filter(d -> siteKeyId == null || siteKeyId.equals(siteKeyBySource.get(d.getKbSourceId())))
+                .toList();
+
+        Map<Long, String> titles = new HashMap<>();
+        Set<KbIndexScope> scopes = new LinkedHashSet<>();
+        for (KbDocument d : docs) {
+            titles.put(d.getId(), d.getTitle() != null ? d.getTitle().trim() : "");
+            scopes.add(new KbIndexScope(siteKeyBySource.get(d.getKbSourceId()), d.getKbSourceId()));
+        }
+
+        String summary = String.join(DOC_SEPARATOR,
+                TokenBudgetTrimmer.fit(summaryBlocks(ids, docs), DOC_SEPARATOR, key.tokenBudget()));
+
+        log.debug("[kb-context-cache] loaded promptProfileId={}, siteKeyId={}, documents={}/{}, summary~{} tokens",
+                key.promptProfileId(), siteKeyId, docs.size(), ids.size(), TokenEstimator.estimate(summary));
+        return new ProfileKnowledge(Set.copyOf(ids), Map.copyOf(titles), Set.copyOf(titles.keySet()),
+                Collections.unmodifiableSet(scopes), summary);
+    }
+
     /**
      * 프로필에 설정된 KB 문서 ID 목록(JSON 문자열)으로 지문 문자열을 조합한다.
      *
@@ -55,6 +244,11 @@ public class KnowledgeContextService {
         if (docs.isEmpty()) {
             return "";
         }
+        return String.join(DOC_SEPARATOR, summaryBlocks(documentIds, docs));
+    }
+
+    /** 조회된 문서들을 documentIds 순서대로 문서별 요약 블록으로 */
+    private List<String> summaryBlocks(List<Long> documentIds, List<KbDocument> docs) {
         // ID 순서 유지: documentIds 순서대로 정렬
         var byId = docs.stream().collect(Collectors.toMap(KbDocument::getId, d -> d));
         List<String> parts = new ArrayList<>();
@@ -79,7 +273,22 @@ public class KnowledgeContextService {
                 parts.add(block.toString());
             }
         }
-        return String.join(DOC_SEPARATOR, parts);
+        return parts;
+    }
+
+    private String formatChunk(String title, RetrievalHit hit) {
+        StringBuilder header = new StringBuilder();
+        if (title != null && !title.isEmpty()) header.append(title);
+        if (hit.chunk().section() != null && !hit.chunk().section().isBlank()) {
+            if (header.length() > 0) header.append(" > ");
+            header.append(hit.chunk().section().trim());
+        }
+        if (hit.chunk().pageNo() != null) {
+            header.append(" (p.").append(hit.chunk().pageNo()).append(")");
+        }
+
+        String body = hit.chunk().content().trim();
+        return header.length() > 0 ? "[" + header + "]\n" + body : body;
     }
 
     private List<Long> parseIdList(String json) {
@@ -0,0 +1,101 @@
+package com.hbs.hsbbo.admin.ai.kb.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hbs.hsbbo.admin.ai.kb.domain.entity.KbWelcomeAnswer;
+import com.hbs.hsbbo.admin.ai.kb.repository.KbWelcomeAnswerRepository;
+import com.hbs.hsbbo.admin.ai.promptprofile.domain.entity.PromptProfile;
+import com.hbs.hsbbo.common.util.QuestionNormalizer;
+import com.hbs.hsbbo.common.util.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * (사이트키, 프로필 id/version, 프로필 문서 버전) → 정규화 질문 → 사전 생성 환영 답변
+ *
+ * - complete3/complete4 가 LLM 호출 전에 조회 → 환영 질문을 그대로 누른 경우 즉시 응답
+ * - 프로필 문서 버전: KnowledgeContextService.documentsVersion (프로필이 참조하는 문서의 DB 상태 요약)
+ *   → 그 프로필의 문서가 재인덱싱/삭제되면 어느 노드에서 바뀌었든 새 키로 다시 로딩,
+ *   로딩 쿼리는 indexed_at 이 달라진 문서의 답변을 제외한다.
+ * - 답변 재생성 완료 / 프로필 수정 시 WelcomeAnswerService·PromptProfileService 가 evict
+ * - expireAfterWrite 는 다른 노드에서 재생성된 답변을 반영하기 위한 안전망
+ */
+@Slf4j
+@Component
+public class WelcomeAnswerCache {
+
+    private final KbWelcomeAnswerRepository kbWelcomeAnswerRepository;
+    private final KnowledgeContextService knowledgeContextService;
+    private final Cache<Key, Map<String, Answer>> cache;
+    private final boolean enabled;
+
+    public record Key(Long siteKeyId, Long promptProfileId, Integer profileVersion, long knowledgeVersion) {
+    }
+
+    public record Answer(String question, String answer, String model) {
+    }
+
+    public WelcomeAnswerCache(
+            KbWelcomeAnswerRepository kbWelcomeAnswerRepository,
+            KnowledgeContextService knowledgeContextService,
+            @Value("${hsbs.kb.welcome-answer.enabled:false}") boolean enabled,
+            @Value("${hsbs.kb.welcome-answer.cache-max-size:1000}") long maxSize,
+            @Value("${hsbs.kb.welcome-answer.cache-ttl:PT10M}") Duration ttl
+    ) {
+        this.kbWelcomeAnswerRepository = kbWelcomeAnswerRepository;
+        this.knowledgeContextService = knowledgeContextService;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /** 사전 생성 답변 조회 (비활성/미생성/불일치면 null) */
+    public Answer find(Long siteKeyId, PromptProfile profile, String prompt) {
+        if (!enabled || siteKeyId == null || profile == null || profile.getId() == null) return null;
+        String normalized = QuestionNormalizer.normalize(prompt);
+        if (normalized.isEmpty()) return null;
+
+        Key key = new Key(siteKeyId, profile.getId(), profile.getVersion(),
+                knowledgeContextService.documentsVersion(profile));
+        return cache.get(key, this::load).get(normalized);
+    }
+
+    public void evict(Long siteKeyId, Long promptProfileId) {
+        if (siteKeyId == null || promptProfileId == null) return;
+        TransactionUtil.afterCommit(() -> cache.asMap().keySet().removeIf(
+                k -> siteKeyId.equals(k.siteKeyId()) && promptProfileId.equals(k.promptProfileId())));
+    }
+
+    public void evictByPromptProfileId(Long promptProfileId) {
+        if (promptProfileId == null) return;
+        TransactionUtil.afterCommit(() -> cache.asMap().keySet().removeIf(k -> promptProfileId.equals(k.promptProfileId())));
+    }
+
+    /* =========================
+     * Helpers
+     * ========================= */
+    private Map<String, Answer> load(Key key) {
+        Map<String, Answer> answers = new HashMap<>();
+        for (KbWelcomeAnswer a : kbWelcomeAnswerRepository.findServable(key.siteKeyId(), key.promptProfileId())) {
+            if (!Objects.equals(a.getProfileVersion(), key.profileVersion())) continue;
+            // 같은 질문이 여러 문서에 있으면 먼저 생성된 답변 유지
+            answers.putIfAbsent(a.getQuestionNorm(), new Answer(a.getQuestion(), a.getAnswer(), a.getModel()));
+        }
+        log.debug("[welcome-answer] loaded siteKeyId={}, promptProfileId={}, answers={}",
+                key.siteKeyId(), key.promptProfileId(), answers.size());
+        return answers.isEmpty() ? Map.of() : Collections.unmodifiableMap(answers);
+    }
+}
@@ -0,0 +1,288 @@
+package com.hbs.hsbbo.admin.ai.kb.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hbs.hsbbo.admin.ai.brain.client.BrainClient;
+import com.hbs.hsbbo.admin.ai.brain.dto.model.response.BrainUsage;
+import com.hbs.hsbbo.admin.ai.brain.dto.request.BrainChatRequest;
+import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainChatResponse;
+import com.hbs.hsbbo.admin.ai.brain.support.BrainChatRequestFactory;
+import com.hbs.hsbbo.admin.ai.kb.domain.entity.KbDocument;
+import com.hbs.hsbbo.admin.ai.kb.domain.entity.KbSource;
+import com.hbs.hsbbo.admin.ai.kb.domain.entity.KbWelcomeAnswer;
+import com.hbs.hsbbo.admin.ai.kb.repository.KbDocumentRepository;
+import com.hbs.hsbbo.admin.ai.kb.repository.KbSourceRepository;
+import com.hbs.hsbbo.admin.ai.kb.repository.KbWelcomeAnswerRepository;
+import com.hbs.hsbbo.admin.ai.promptprofile.domain.entity.PromptProfile;
+import com.hbs.hsbbo.admin.ai.sitekey.domain.entity.SiteKey;
+import com.hbs.hsbbo.admin.ai.sitekey.repository.SiteKeyRepository;
+import com.hbs.hsbbo.admin.ai.sitekey.runtime.SiteRuntime;
+import com.hbs.hsbbo.admin.ai.sitekey.runtime.SiteRuntimeCache;
+import com.hbs.hsbbo.admin.ai.usage.service.TokenLedger;
+import com.hbs.hsbbo.common.util.QuestionNormalizer;
+import com.hbs.hsbbo.common.util.TransactionUtil;
+import com.hbs.hsbbo.user.ai.dto.ChatWithPromptProfileRequest;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 환영 질문 답변 사전 생성 (hsbs.kb.welcome-answer.enabled, 기본 off)
+ *
+ * - 대상: 문서의 kb_source.site_key_id 사이트키 → 그 사이트키의 기본 프롬프트 프로필이
+ *   kb_document_ids 로 이 문서를 참조할 때만 (공용 소스(site_key_id 없음)는 대상을 특정할 수 없어 제외)
+ * - 질문마다 위젯 챗(complete4)과 같은 조립 규칙(ChatWithPromptProfileRequest → BrainChatRequestFactory)으로 Brain 1회 호출
+ * - 결과는 (문서, 사이트키, 프로필) 단위로 통째로 교체, 문서 indexed_at / 프로필 version 을 함께 저장
+ * - 트리거: ingest 성공(KbJobWorker), 프로필 수정(PromptProfileService, 커밋 이후)
+ * - 전용 단일 스레드 + 제한 큐 → ingest 워커/요청 스레드를 잡지 않고, 큐가 차면 버린다 (다음 재인덱싱/수정 때 다시 생성)
+ * - 생성 토큰은 해당 사이트키 토큰 원장에 반영
+ */
+@Slf4j
+@Service
+public class WelcomeAnswerService {
+
+    private final KbDocumentRepository kbDocumentRepository;
+    private final KbSourceRepository kbSourceRepository;
+    private final KbWelcomeAnswerRepository kbWelcomeAnswerRepository;
+    private final SiteKeyRepository siteKeyRepository;
+    private final SiteRuntimeCache siteRuntimeCache;
+    private final BrainChatRequestFactory brainChatRequestFactory;
+    private final BrainClient brainClient;
+    private final TokenLedger tokenLedger;
+    private final WelcomeAnswerCache welcomeAnswerCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int maxQuestions;
+    private final ThreadPoolExecutor executor;
+
+    public WelcomeAnswerService(
+            KbDocumentRepository kbDocumentRepository,
+            KbSourceRepository kbSourceRepository,
+            KbWelcomeAnswerRepository kbWelcomeAnswerRepository,
+            SiteKeyRepository siteKeyRepository,
+            SiteRuntimeCache siteRuntimeCache,
+            BrainChatRequestFactory brainChatRequestFactory,
+            BrainClient brainClient,
+            TokenLedger tokenLedger,
+            WelcomeAnswerCache welcomeAnswerCache,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            @Value("${hsbs.kb.welcome-answer.max-questions:5}") int maxQuestions,
+            @Value("${hsbs.kb.welcome-answer.queue-capacity:100}") int queueCapacity
+    ) {
+        this.kbDocumentRepository = kbDocumentRepository;
+        this.kbSourceRepository = kbSourceRepository;
+        this.kbWelcomeAnswerRepository = kbWelcomeAnswerRepository;
+        this.siteKeyRepository = siteKeyRepository;
+        this.siteRuntimeCache = siteRuntimeCache;
+        this.brainChatRequestFactory = brainChatRequestFactory;
+        this.brainClient = brainClient;
+        this.tokenLedger = tokenLedger;
+        this.welcomeAnswerCache = welcomeAnswerCache;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.maxQuestions = Math.max(1, maxQuestions);
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, "kb-welcome-answer");
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    /** ingest 성공 직후: 이 문서의 환영 답변 재생성 예약 */
+    public void regenerateForDocument(Long kbDocumentId) {
+        if (!welcomeAnswerCache.enabled() || kbDocumentId == null) return;
+        submit(() -> generateForDocument(kbDocumentId), "docId=" + kbDocumentId);
+    }
+
+    /**
+     * 프로필 수정: 이전 답변은 같은 트랜잭션에서 지우고(수정 직후 옛 답변이 나가지 않도록), 커밋 이후 재생성 예약
+     * (version 을 올리지 않은 수정도 있으므로 profile_version 만으로는 무효화되지 않는다.)
+     */
+    public void regenerateForPromptProfile(Long promptProfileId) {
+        if (promptProfileId == null) return;
+        kbWelcomeAnswerRepository.deleteByPromptProfileId(promptProfileId);
+        welcomeAnswerCache.evictByPromptProfileId(promptProfileId);
+        if (!welcomeAnswerCache.enabled()) return;
+        TransactionUtil.afterCommit(() -> submit(() -> generateForPromptProfile(promptProfileId), "promptProfileId=" + promptProfileId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /* =========================
+     * 생성
+     * ========================= */
+    private void generateForDocument(Long kbDocumentId) {
+        KbDocument doc = kbDocumentRepository.findById(kbDocumentId).orElse(null);
+        if (doc == null) return;
+        KbSource source = kbSourceRepository.findById(doc.getKbSourceId()).orElse(null);
+        if (source == null || source.getSiteKeyId() == null) {
+            log.debug("[welcome-answer] skip docId={} (no site key on kb_source)", kbDocumentId);
+            return;
+        }
+        SiteKey siteKey = siteKeyRepository.findById(source.getSiteKeyId()).orElse(null);
+        if (siteKey == null) return;
+
+        SiteRuntime runtime = siteRuntimeCache.get(siteKey.getSiteKey());
+        if (!usable(runtime) || !parseIdList(runtime.getPromptProfile().getKbDocumentIdsJson()).contains(kbDocumentId)) {
+            log.debug("[welcome-answer] skip docId={} (not referenced by default profile of siteKeyId={})",
+                    kbDocumentId, siteKey.getId());
+            return;
+        }
+        generate(runtime, doc);
+    }
+
+    private void generateForPromptProfile(Long promptProfileId) {
+        for (SiteKey siteKey : siteKeyRepository.findAllByDefaultPromptProfileId(promptProfileId)) {
+            SiteRuntime runtime = siteRuntimeCache.get(siteKey.getSiteKey());
+            if (!usable(runtime) || !promptProfileId.equals(runtime.getPromptProfileId())) continue;
+
+            List<Long> ids = parseIdList(runtime.getPromptProfile().getKbDocumentIdsJson());
+            if (ids.isEmpty()) continue;
+
+            List<KbDocument> docs = kbDocumentRepository.findByIdInAndDelTfAndUseTf(ids);
+            Map<Long, KbSource> sources = kbSourceRepository.findAllById(
+                            docs.stream().map(KbDocument::getKbSourceId).collect(Collectors.toSet()))
+                    .stream()
+                    .collect(Collectors.toMap(KbSource::getId, Function.identity()));
+
+            for (KbDocument doc : docs) {
+                KbSource source = sources.get(doc.getKbSourceId());
+                if (source != null && siteKey.getId().equals(source.getSiteKeyId())) {
+                    generate(runtime, doc);
+                }
+            }
+        }
+    }
+
+    private void generate(SiteRuntime runtime, KbDocument doc) {
+        if (doc.getIndexedAt() == null || !"Y".equals(doc.getUseTf()) || "Y".equals(doc.getDelTf())) return;
+
+        List<String> questions = parseQuestions(doc.getWelcomeQuestionsJson());
+        SiteKey siteKey = runtime.getSiteKey();
+        PromptProfile profile = runtime.getPromptProfile();
+        List<KbWelcomeAnswer> rows = new ArrayList<>();
+        int totalTokens = 0;
+
+        for (String question : questions) {
+            try {
+                ChatWithPromptProfileRequest ppReq = ChatWithPromptProfileRequest.fromProfile(
+                        profile, question, null, runtime.getStop(), runtime.getTools());
+                BrainChatRequest brainReq = brainChatRequestFactory.build(
+                        siteKey, profile, runtime.getWidgetConfig(), ppReq, null, "hsbs-welcome-answer");
+                BrainChatResponse res = brainClient.chat(brainReq);
+                if (res == null || res.getAnswer() == null || res.getAnswer().isBlank()) continue;
+
+                BrainUsage usage = res.getUsage();
+                Integer tokens = usage == null ? null : usage.getTotalTokens();
+                if (tokens != null) totalTokens += tokens;
+
+                rows.add(KbWelcomeAnswer.builder()
+                        .kbDocumentId(doc.getId())
+                        .siteKeyId(siteKey.getId())
+                        .promptProfileId(profile.getId())
+                        .profileVersion(profile.getVersion())
+                        .indexVersion(doc.getIndexedAt())
+                        .question(question)
+                        .questionNorm(QuestionNormalizer.normalize(question))
+                        .answer(res.getAnswer())
+                        .model(usage != null && usage.getModel() != null ? usage.getModel() : ppReq.getModel())
+                        .totalTokens(tokens)
+                        .regDate(LocalDateTime.now())
+                        .build());
+            } catch (Exception e) {
+                log.warn("[welcome-answer] generation failed. docId={}, q='{}': {}", doc.getId(), question, e.toString());
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            kbWelcomeAnswerRepository.deleteByTarget(doc.getId(), siteKey.getId(), profile.getId());
+            kbWelcomeAnswerRepository.saveAll(rows);
+        });
+        welcomeAnswerCache.evict(siteKey.getId(), profile.getId());
+        if (totalTokens > 0) {
+            tokenLedger.record(siteKey.getId(), totalTokens);
+        }
+
+        log.info("[welcome-answer] generated docId={}, siteKeyId={}, promptProfileId={}, answers={}/{}, tokens={}",
+                doc.getId(), siteKey.getId(), profile.getId(), rows.size(), questions.size(), totalTokens);
+    }
+
+    /* =========================
+     * Helpers
+     * ========================= */
+    private boolean usable(SiteRuntime runtime) {
+        if (runtime == null || !runtime.isActive()) return false;
+        PromptProfile profile = runtime.getPromptProfile();
+        // 사전 생성 답변은 단발성 질문에만 서빙되므로 대화형 프로필은 생성하지 않는다.
+        return profile != null
+                && "Y".equals(profile.getUseTf())
+                && !"Y".equals(profile.getDelTf())
+                && AnswerCacheControl.stateless(profile, null);
+    }
+
+    private void submit(Runnable task, String label) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    log.warn("[welcome-answer] task failed ({}): {}", label, e.toString());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("[welcome-answer] queue full, dropped ({})", label);
+        }
+    }
+
+    private List<String> parseQuestions(String json) {
+        if (json == null || json.isBlank()) return List.of();
+        try {
+            List<String> raw = objectMapper.readValue(json, new TypeReference<List<String>>() {});
+            Set<String> seen = new LinkedHashSet<>();
+            List<String> out = new ArrayList<>();
+            for (String q : raw) {
+                if (q == null || q.isBlank() || q.length() > 500) continue;
+                if (seen.add(QuestionNormalizer.normalize(q)) && out.size() < maxQuestions) {
+                    out.add(q.trim());
+                }
+            }
+            return out;
+        } catch (Exception e) {
+            log.warn("welcome_questions_json 파싱 실패: {}", json, e);
+            return List.of();
+        }
+    }
+
+    private List<Long> parseIdList(String json) {
+        if (json == null || json.isBlank()) return List.of();
+        try {
+            List<Long> ids = objectMapper.readValue(json, new TypeReference<List<Long>>() {});
+            return ids.stream().filter(Objects::nonNull).toList();
+        } catch (Exception e) {
+            log.warn("kb_document_ids JSON 파싱 실패: {}", json, e);
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.hbs.hsbbo.admin.ai.kb.worker;
+
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * KB job 실패 분류 (분류별 최대 시도 횟수는 hsbs.kb.job.max-attempts)
+ */
+public enum KbJobErrorClass {
+    INVALID,        // 문서/입력값 문제 → 다시 해도 같은 결과
+    REJECTED,       // Brain 이 응답은 했지만 거절(4xx, ok=false)
+    TRANSIENT,      // 네트워크/타임아웃/5xx → 재시도 대상
+    LEASE_EXPIRED;  // 처리 중 노드 종료/heartbeat 끊김 (reaper 가 회수)
+
+    /** 예외 체인을 따라가며 분류 (BrainClient 는 원인 예외를 RuntimeException 으로 감싸서 던짐) */
+    public static KbJobErrorClass classify(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof WebClientResponseException ex) {
+                int status = ex.getStatusCode().value();
+                boolean retryable = status >= 500 || status == 408 || status == 429;
+                return retryable ? TRANSIENT : REJECTED;
+            }
+            if (t instanceof WebClientRequestException || t instanceof TimeoutException) {
+                return TRANSIENT;
+            }
+            if (t.getCause() == t) break;
+        }
+        return TRANSIENT;
+    }
+}
@@ -0,0 +1,314 @@
+package com.hbs.hsbbo.admin.ai.kb.worker;
+
+import com.hbs.hsbbo.admin.ai.brain.config.KbJobSchedulerProperties;
+import com.hbs.hsbbo.admin.ai.kb.domain.entity.KbJob;
+import com.hbs.hsbbo.admin.ai.kb.repository.KbJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * KB job 실행기 (노드당 worker-count 개 동시 처리)
+ *
+ * 흐름
+ * - KbDocumentService 가 커밋 후 submit(jobId) → in-process inbox 큐에 넣고 dispatcher 를 깨움
+ * - dispatcher 스레드는 빈 워커 수만큼만 job 을 "선점"(UPDATE ... claim_token, 짧은 트랜잭션 커밋)한 뒤 워커 풀에 넘김
+ *   · inbox 로 받은 id 를 먼저 선점하고, 남는 슬롯은 READY 순서대로 채움 (여러 건을 UPDATE 1번으로)
+ *   · 워커가 끝날 때마다 dispatcher 를 다시 깨워 밀린 job 을 이어서 가져감 → 대량 업로드도 병렬로 소진
+ * - KbJobScheduler 의 적응형 폴링은 inbox 를 못 탄 job(다른 노드 등록, 큐 overflow, 재기동)용 안전망
+ *
+ * 워커(KbJobWorker.process)는 Brain HTTP 호출 동안 트랜잭션을 잡지 않고, 상태 반영만 짧은 트랜잭션으로 커밋한다.
+ *
+ * 임대(lease)
+ * - 선점 시 lease_owner(노드 id) + lease_expires_at 기록, 처리 중인 job 은 heartbeat 로 주기적으로 연장
+ * - 프로세스가 죽어 연장이 끊기면 reaper(모든 노드에서 주기 실행)가 만료된 RUNNING 을 backoff 후 READY 로 되돌림
+ *   · LEASE_EXPIRED 최대 시도 횟수를 넘기면 FAILED
+ * - 정상 종료 시 끝내지 못한 job 은 시도 횟수 증가 없이 바로 READY 로 반납
+ * - heartbeat / reaper 는 전용 스레드(kbjob-lease)에서 실행 → 공용 @Scheduled 풀 적체와 무관
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class KbJobExecutor {
+
+    private final KbJobWorker kbJobWorker;
+    private final KbJobRepository kbJobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final KbJobSchedulerProperties props;
+    private final TaskScheduler taskScheduler;
+
+    // 이 노드의 lease_owner 값 (pid@host + 재기동 구분용 suffix)
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName()
+            + "-" + UUID.randomUUID().toString().substring(0, 8);
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    private BlockingQueue<Long> inbox;
+    private Semaphore slots;
+    private ExecutorService workers;
+    // heartbeat / reaper 전용 스레드 (공용 TaskScheduler 가 다른 @Scheduled 로 밀려도 lease 연장이 늦지 않도록)
+    private ScheduledExecutorService leaseScheduler;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    // 처리 완료 신호 (inbox 가 비어 있어도 dispatcher 가 다시 선점하도록)
+    private final Object wakeLock = new Object();
+    private boolean wakeRequested;
+
+    @PostConstruct
+    public void start() {
+        if (!props.isEnabled()) {
+            log.info("[KbJobExecutor] disabled");
+            return;
+        }
+        int workerCount = Math.max(1, props.getWorkerCount());
+        inbox = new ArrayBlockingQueue<>(Math.max(1, props.getInboxCapacity()));
+        slots = new Semaphore(workerCount);
+
+        AtomicInteger seq = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread t = new Thread(r, "kbjob-worker-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "kbjob-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+
+        leaseScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "kbjob-lease");
+            t.setDaemon(true);
+            return t;
+        });
+        long heartbeatMs = Math.max(1000, props.getHeartbeatIntervalMs());
+        long reaperMs = Math.max(1000, props.getReaperIntervalMs());
+        leaseScheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        leaseScheduler.scheduleWithFixedDelay(this::reapExpiredLeases, reaperMs, reaperMs, TimeUnit.MILLISECONDS);
+
+        log.info("[KbJobExecutor] started (owner={}, workers={}, claimBatchSize={}, leaseMs={})",
+                owner, workerCount, props.getClaimBatchSize(), props.getLeaseMs());
+    }
+
+    /** 트랜잭션 커밋 후 호출: 방금 등록된 job 을 바로 처리하도록 전달 (가득 차면 폴링이 처리) */
+    public void submit(Long jobId) {
+        if (!running || jobId == null) return;
+        if (!inbox.offer(jobId)) {
+            log.debug("[KbJobExecutor] inbox full, jobId={} left to polling", jobId);
+        }
+        wake();
+    }
+
+    /**
+     * 폴링 fallback (KbJobScheduler tick)
+     * - BUSY: 빈 워커 없음 / NO_JOB: 선점할 READY job 없음 / SUCCESS: 1건 이상 선점해 워커에 넘김
+     */
+    public WorkerResult pollOnce() {
+        if (!running) return WorkerResult.NO_JOB;
+        if (slots.availablePermits() == 0) return WorkerResult.BUSY;
+        return dispatch(List.of()) > 0 ? WorkerResult.SUCCESS : WorkerResult.NO_JOB;
+    }
+
+    // ========================= dispatcher =========================
+
+    private void dispatchLoop() {
+        List<Long> preferred = new ArrayList<>();
+        while (running) {
+            try {
+                awaitWork(preferred);
+                if (!running) break;
+                if (slots.availablePermits() == 0) continue;
+
+                // 남은 READY job 은 워커가 끝날 때마다 wake() 로 다시 선점
+                dispatch(preferred);
+                preferred.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.warn("[KbJobExecutor] dispatch error: {}", e.toString());
+                preferred.clear();
+                sleepQuietly(props.getMinDelayMs());
+            }
+        }
+    }
+
+    /** inbox 에 id 가 들어오거나 워커 완료 신호가 올 때까지 대기 */
+    private void awaitWork(List<Long> preferred) throws InterruptedException {
+        synchronized (wakeLock) {
+            while (running && !wakeRequested && inbox.isEmpty()) {
+                wakeLock.wait(props.getMaxDelayMs());
+            }
+            wakeRequested = false;
+        }
+        inbox.drainTo(preferred);
+    }
+
+    private void wake() {
+        synchronized (wakeLock) {
+            wakeRequested = true;
+            wakeLock.notifyAll();
+        }
+    }
+
+    /** 빈 슬롯 수만큼 선점해서 워커에 넘기고, 선점한 건수 반환 */
+    private synchronized int dispatch(List<Long> preferredIds) {
+        int free = slots.availablePermits();
+        int limit = Math.min(free, Math.max(1, props.getClaimBatchSize()));
+        if (limit <= 0) return 0;
+
+        List<KbJob> jobs = claim(preferredIds, limit);
+        for (KbJob job : jobs) {
+            slots.acquireUninterruptibly();
+            inFlight.add(job.getId());
+            workers.execute(() -> run(job));
+        }
+        return jobs.size();
+    }
+
+    /**
+     * 선점은 짧은 트랜잭션 하나로 커밋 (READY -> RUNNING + claim_token + lease)
+     * - 커밋된 뒤에야 Brain 을 호출하므로, 다른 노드는 같은 job 을 다시 가져갈 수 없음
+     */
+    private List<KbJob> claim(List<Long> preferredIds, int limit) {
+        String token = UUID.randomUUID().toString();
+        long leaseSeconds = leaseSeconds();
+        transactionTemplate.executeWithoutResult(tx -> {
+            int claimed = 0;
+            if (!preferredIds.isEmpty()) {
+                List<Long> ids = preferredIds.size() > limit ? preferredIds.subList(0, limit) : preferredIds;
+                claimed = kbJobRepository.claimJobsByIds(token, owner, leaseSeconds, ids);
+            }
+            if (claimed < limit) {
+                kbJobRepository.claimReadyJobs(token, owner, leaseSeconds, limit - claimed);
+            }
+        });
+        return kbJobRepository.findByClaimTokenOrderByIdAsc(token);
+    }
+
+    private void run(KbJob job) {
+        try {
+            WorkerResult r = kbJobWorker.process(job);
+            log.debug("[KbJobExecutor] jobId={} -> {}", job.getId(), r);
+            if (r == WorkerResult.RETRY) {
+                // 재시도 시각에 맞춰 dispatcher 를 깨움 (폴링이 잠들어 있어도 제때 재처리)
+                int attempt = (job.getTryCount() == null ? 0 : job.getTryCount()) + 1;
+                wakeAfter(props.retryDelayMs(attempt));
+            }
+        } catch (Exception e) {
+            // 상태 반영 트랜잭션까지 실패한 경우: RUNNING 으로 남고 lease 만료 후 reaper 가 회수
+            log.error("[KbJobExecutor] job processing error. jobId={}", job.getId(), e);
+        } finally {
+            inFlight.remove(job.getId());
+            slots.release();
+            wake();
+        }
+    }
+
+    // ========================= lease =========================
+
+    /** 처리 중인 job 의 lease 연장 (Brain 호출이 lease 보다 길어도 회수되지 않도록) */
+    void heartbeat() {
+        if (!running || inFlight.isEmpty()) return;
+        List<Long> ids = new ArrayList<>(inFlight);
+        try {
+            Integer renewed = transactionTemplate.execute(tx ->
+                    kbJobRepository.renewLeases(ids, owner, leaseSeconds()));
+            if (renewed != null && renewed < ids.size()) {
+                // 연장이 늦어 이미 회수된 job → 완료 반영 시 claim_token 불일치로 LOCK_LOST 처리됨
+                log.warn("[KbJobExecutor] lease renew partial. inFlight={}, renewed={}", ids.size(), renewed);
+            }
+        } catch (Exception e) {
+            log.warn("[KbJobExecutor] lease heartbeat failed ({} jobs): {}", ids.size(), e.toString());
+        }
+    }
+
+    /** lease 가 만료된 RUNNING job 회수 (어느 노드에서 돌아도 같은 결과) */
+    void reapExpiredLeases() {
+        if (!running) return;
+        try {
+            int[] counts = transactionTemplate.execute(tx -> new int[]{
+                    kbJobRepository.failExpiredLeases(
+                            leaseSeconds(), props.maxAttemptsOf(KbJobErrorClass.LEASE_EXPIRED)),
+                    kbJobRepository.requeueExpiredLeases(
+                            leaseSeconds(),
+                            props.getRetryBaseDelayMs() / 1000,
+                            props.getRetryMaxDelayMs() / 1000)
+            });
+            if (counts != null && (counts[0] > 0 || counts[1] > 0)) {
+                log.warn("[KbJobExecutor] reaped expired leases. failed={}, requeued={}", counts[0], counts[1]);
+                if (counts[1] > 0) wakeAfter(props.getRetryBaseDelayMs());
+            }
+        } catch (Exception e) {
+            log.warn("[KbJobExecutor] lease reaper failed: {}", e.toString());
+        }
+    }
+
+    private void wakeAfter(long delayMs) {
+        taskScheduler.schedule(this::wake, Instant.now().plusMillis(delayMs + 100));
+    }
+
+    private long leaseSeconds() {
+        return Math.max(10, props.getLeaseMs() / 1000);
+    }
+
+    private void sleepQuietly(long ms) {
+        try {
+            Thread.sleep(Math.max(100, ms));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ========================= 종료 =========================
+
+    @PreDestroy
+    public void shutdown() {
+        if (!running) return;
+        running = false;
+        wake();
+        leaseScheduler.shutdownNow();
+        workers.shutdown();
+        try {
+            // 진행 중인 Brain 호출은 끊지 않고 잠시 기다림
+            if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("[KbJobExecutor] workers still busy on shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // 못 끝낸 job 은 lease 만료를 기다리지 않고 바로 반납 → 다른 노드/재기동 후 즉시 처리
+        List<Long> unfinished = new ArrayList<>(inFlight);
+        if (!unfinished.isEmpty()) {
+            try {
+                Integer released = transactionTemplate.execute(tx -> kbJobRepository.releaseLeases(unfinished, owner));
+                log.info("[KbJobExecutor] released {} unfinished jobs", released);
+            } catch (Exception e) {
+                log.warn("[KbJobExecutor] lease release failed ({} jobs), reaper will recover: {}",
+                        unfinished.size(), e.toString());
+            }
+        }
+        log.info("[KbJobExecutor] stopped");
+    }
+}
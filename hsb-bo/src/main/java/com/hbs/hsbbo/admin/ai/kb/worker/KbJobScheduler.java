@@ -17,7 +17,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 public class KbJobScheduler {
 
     private final TaskScheduler taskScheduler;
-    private final KbJobWorker kbJobWorker;
+    private final KbJobExecutor kbJobExecutor;
     private final KbJobSchedulerProperties props;
 
     private volatile long currentDelayMs;
@@ -79,7 +79,8 @@ public class KbJobScheduler {
         clearScheduledMarker();
 
         try {
-            WorkerResult r = kbJobWorker.runOnce();
+            // 폴링은 fallback: 빈 워커가 있으면 READY job 을 선점해 executor 에 넘긴다.
+            WorkerResult r = kbJobExecutor.pollOnce();
 
             boolean idle = (r == WorkerResult.NO_JOB || r == WorkerResult.LOCK_LOST);
 
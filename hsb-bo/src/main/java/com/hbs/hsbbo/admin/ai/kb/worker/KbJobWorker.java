@@ -3,6 +3,8 @@ package com.hbs.hsbbo.admin.ai.kb.worker;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hbs.hsbbo.admin.ai.brain.client.BrainClient;
+import com.hbs.hsbbo.admin.ai.brain.config.HsbsBrainProperties;
+import com.hbs.hsbbo.admin.ai.brain.config.KbJobSchedulerProperties;
 import com.hbs.hsbbo.admin.ai.brain.dto.request.BrainDeleteIndexRequest;
 import com.hbs.hsbbo.admin.ai.brain.dto.request.BrainIngestRequest;
 import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainDeleteIndexResponse;
@@ -13,15 +15,25 @@ import com.hbs.hsbbo.admin.ai.kb.domain.type.KbJobStatus;
 import com.hbs.hsbbo.admin.ai.kb.domain.type.KbJobType;
 import com.hbs.hsbbo.admin.ai.kb.repository.KbDocumentRepository;
 import com.hbs.hsbbo.admin.ai.kb.repository.KbJobRepository;
+import com.hbs.hsbbo.admin.ai.kb.retrieval.IndexedChunk;
+import com.hbs.hsbbo.admin.ai.kb.service.KbChunkService;
+import com.hbs.hsbbo.admin.ai.kb.service.KbJobDurationStats;
 import com.hbs.hsbbo.admin.ai.kb.service.KbSourceService;
+import com.hbs.hsbbo.admin.ai.kb.service.KnowledgeContextCache;
+import com.hbs.hsbbo.admin.ai.kb.service.WelcomeAnswerService;
+import com.hbs.hsbbo.common.util.FileUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -33,29 +45,23 @@ public class KbJobWorker {
     private final KbDocumentRepository kbDocumentRepository;
     private final KbSourceService kbSourceService;
     private final BrainClient brainClient;
+    private final TransactionTemplate transactionTemplate;
+    private final KbJobSchedulerProperties props;
+    private final KbJobDurationStats kbJobDurationStats;
+    private final KbChunkService kbChunkService;
+    private final KnowledgeContextCache knowledgeContextCache;
+    private final WelcomeAnswerService welcomeAnswerService;
+    private final HsbsBrainProperties brainProps;
+    private final FileUtil fileUtil;
 
     /**
-     * Adaptive polling용: 이번 tick에서 처리할 READY job이 있었는지 반환한다.
-     * - NO_JOB: READY job 없음
-     * - LOCK_LOST: READY는 있었지만 다른 워커가 먼저 선점
-     * - SUCCESS: 1건 처리 성공
-     * - FAILED: 1건 처리 실패
+     * KbJobExecutor 가 선점(RUNNING + claim_token)한 job 1건을 처리한다.
+     * - Brain HTTP 호출 동안에는 DB 트랜잭션/커넥션을 잡지 않는다.
+     * - 상태 반영(SUCCESS/FAILED/재시도 READY)은 완료 시점에 짧은 트랜잭션으로 따로 커밋한다.
+     * - SUCCESS: 1건 처리 성공 / FAILED: 1건 처리 실패 / RETRY: 실패 후 backoff 재시도 예약
+     * - LOCK_LOST: 그 사이 선점이 무효화됨 (lease 만료 회수 등)
      */
-    @Transactional
-    public WorkerResult runOnce() {
-        // 삭제 작업을 먼저 조회해 soft delete 이후 벡터스토어 정리가 밀리지 않도록 한다.
-        List<KbJob> jobs = kbJobRepository.findReadyJobs(
-                List.of(KbJobType.DELETE_INDEX, KbJobType.INGEST),
-                PageRequest.of(0, 1)
-        );
-        if (jobs.isEmpty()) return WorkerResult.NO_JOB;
-
-        KbJob job = jobs.get(0);
-
-        // READY -> RUNNING 선점. 멀티 워커 환경에서 같은 job 중복 처리를 막는다.
-        int locked = kbJobRepository.lockJob(job.getId());
-        if (locked == 0) return WorkerResult.LOCK_LOST;
-
+    public WorkerResult process(KbJob job) {
         try {
             // soft delete 된 문서도 DELETE_INDEX 처리 대상이므로 findById로 조회한다.
             KbDocument doc = kbDocumentRepository.findById(job.getKbDocumentId())
@@ -68,26 +74,26 @@ public class KbJobWorker {
             return ingest(job, doc);
         } catch (Exception e) {
             log.error("KbJob failed. jobId={}", job.getId(), e);
-            fail(job, null, e.getMessage());
-            return WorkerResult.FAILED;
+            KbJobErrorClass errorClass = (e instanceof IllegalStateException)
+                    ? KbJobErrorClass.INVALID
+                    : KbJobErrorClass.classify(e);
+            return fail(job, false, e.getMessage(), errorClass);
         }
     }
 
-    private WorkerResult ingest(KbJob job, KbDocument doc) throws JsonProcessingException {
+    private WorkerResult ingest(KbJob job, KbDocument doc) {
         // Brain에 넘기기 전 BO 기준 최소 입력값을 먼저 검증한다.
         String docType = normalize(doc.getDocType());
         if ("FILE".equals(docType) && isBlank(doc.getFilePath())) {
-            fail(job, doc, "docType=FILE but filePath is empty.");
-            return WorkerResult.FAILED;
+            return fail(job, true, "docType=FILE but filePath is empty.", KbJobErrorClass.INVALID);
         }
         if ("URL".equals(docType) && isBlank(doc.getSourceUrl())) {
-            fail(job, doc, "docType=URL but sourceUrl is empty.");
-            return WorkerResult.FAILED;
+            return fail(job, true, "docType=URL but sourceUrl is empty.", KbJobErrorClass.INVALID);
         }
 
         final String ensuredVsId;
         try {
-            // kb_source 단위 vector_store_id를 보장한 뒤 문서에도 캐싱한다.
+            // kb_source 단위 vector_store_id를 보장한다. (자체 트랜잭션, 완료 시 문서에도 캐싱)
             ensuredVsId = kbSourceService.ensureVectorStoreId(doc.getKbSourceId());
         } catch (Exception e) {
             String msg = String.format(
@@ -95,13 +101,10 @@ public class KbJobWorker {
                     doc.getKbSourceId(),
                     e.getMessage()
             );
-            fail(job, doc, msg);
             log.error(msg, e);
-            return WorkerResult.FAILED;
+            return fail(job, true, msg, KbJobErrorClass.classify(e));
         }
 
-        doc.setVectorStoreId(ensuredVsId);
-
         BrainIngestRequest request = BrainIngestRequest.builder()
                 .kbJobId(job.getId())
                 .kbDocumentId(doc.getId())
@@ -111,31 +114,61 @@ public class KbJobWorker {
                 .sourceUrl(doc.getSourceUrl())
                 .docType(doc.getDocType())
                 .category(doc.getCategory())
+                .originalFileName(doc.getOriginalFileName())
+                .mimeType(doc.getMimeType())
                 .summaryPrompt(doc.getSummaryPrompt())
                 .build();
 
-        BrainIngestResponse res = brainClient.ingest(request);
+        final BrainIngestResponse res;
+        if ("FILE".equals(docType) && brainProps.getIngestTransport() == HsbsBrainProperties.IngestTransport.MULTIPART) {
+            // 저장된 파일 본문을 스트리밍 업로드 (Brain 이 BO 디스크를 공유하지 않아도 됨)
+            Path file = fileUtil.resolveAbsolutePath(doc.getFilePath());
+            if (!Files.isRegularFile(file)) {
+                return fail(job, true, "stored file not found: " + doc.getFilePath(), KbJobErrorClass.INVALID);
+            }
+            long size = file.toFile().length();
+            long maxBytes = brainProps.getIngestMaxFileSize().toBytes();
+            if (size > maxBytes) {
+                return fail(job, true, "file too large for ingest: " + size + " bytes (max " + maxBytes + ")",
+                        KbJobErrorClass.INVALID);
+            }
+            res = brainClient.ingestFile(request, file);
+        } else {
+            res = brainClient.ingest(request);
+        }
 
         // Brain ingest 성공 결과를 kb_document와 kb_job에 반영한다.
         if (res != null && res.isOk()) {
             String openaiFileId = safe(res.getOpenaiFileId());
             String vsFileId = safe(res.getVectorStoreFileId());
 
-            if (!openaiFileId.isEmpty()) {
-                doc.setVectorFileId(openaiFileId);
-            } else if (!vsFileId.isEmpty()) {
-                doc.setVectorFileId(vsFileId);
+            // 검색용 청크 (Brain 청크 또는 로컬 청킹) → 문서 상태와 같은 트랜잭션으로 교체
+            List<IndexedChunk> chunks = kbChunkService.chunksOf(doc, res);
+
+            boolean applied = complete(job, d -> {
+                d.setVectorStoreId(ensuredVsId);
+                if (!openaiFileId.isEmpty()) {
+                    d.setVectorFileId(openaiFileId);
+                } else if (!vsFileId.isEmpty()) {
+                    d.setVectorFileId(vsFileId);
+                }
+                applyIngestMetadataToDocument(d, res);
+                kbChunkService.replace(d, chunks);
+            });
+            if (!applied) return WorkerResult.LOCK_LOST;
+
+            kbChunkService.afterReplaced(doc, chunks);
+            // indexedAt/요약이 바뀌었으므로 이 문서를 쓰는 프로필 지문 캐시 제거
+            knowledgeContextCache.evictByDocumentId(doc.getId());
+            // 환영 질문 답변 사전 생성 (옵션, 별도 스레드)
+            welcomeAnswerService.regenerateForDocument(doc.getId());
+
+            // 문서 목록의 평균/예상 소요시간 통계에 즉시 반영
+            if (job.getStartedAt() != null) {
+                kbJobDurationStats.record(doc.getDocType(),
+                        Duration.between(job.getStartedAt(), LocalDateTime.now()).getSeconds());
             }
 
-            applyIngestMetadataToDocument(doc, res);
-
-            job.setJobStatus(KbJobStatus.SUCCESS);
-            job.setFinishedAt(LocalDateTime.now());
-            job.setLastError(null);
-
-            kbDocumentRepository.save(doc);
-            kbJobRepository.save(job);
-
             log.info("KbJob DONE. jobId={}, docId={}, vsId={}, openaiFileId={}, vsFileId={}",
                     job.getId(), doc.getId(), ensuredVsId, openaiFileId, vsFileId);
 
@@ -144,8 +177,7 @@ public class KbJobWorker {
 
         String msg = (res == null) ? "Brain ingest response is null"
                 : (res.getMessage() == null ? "Brain ingest failed" : res.getMessage());
-        fail(job, doc, msg);
-        return WorkerResult.FAILED;
+        return fail(job, true, msg, KbJobErrorClass.REJECTED);
     }
 
     private WorkerResult deleteIndex(KbJob job, KbDocument doc) {
@@ -168,25 +200,24 @@ public class KbJobWorker {
             if (res == null || !res.isOk()) {
                 String msg = (res == null) ? "Brain deleteIndex response is null"
                         : (res.getMessage() == null ? "Brain deleteIndex failed" : res.getMessage());
-                fail(job, doc, msg);
-                return WorkerResult.FAILED;
+                return fail(job, true, msg, KbJobErrorClass.REJECTED);
             }
         }
 
         // Brain 삭제가 끝났거나 삭제할 벡터가 없으면 BO의 인덱싱 메타데이터도 비운다.
-        doc.setVectorStoreId(null);
-        doc.setVectorFileId(null);
-        doc.setIndexedAt(null);
-        doc.setIndexSummary(null);
-        doc.setIndexError(null);
-        doc.setDocStatus("DELETED");
-
-        job.setJobStatus(KbJobStatus.SUCCESS);
-        job.setFinishedAt(LocalDateTime.now());
-        job.setLastError(null);
-
-        kbDocumentRepository.save(doc);
-        kbJobRepository.save(job);
+        boolean applied = complete(job, d -> {
+            d.setVectorStoreId(null);
+            d.setVectorFileId(null);
+            d.setIndexedAt(null);
+            d.setIndexSummary(null);
+            d.setIndexError(null);
+            d.setDocStatus("DELETED");
+            kbChunkService.delete(d);
+        });
+        if (!applied) return WorkerResult.LOCK_LOST;
+
+        kbChunkService.afterDeleted(doc);
+        knowledgeContextCache.evictByDocumentId(doc.getId());
 
         log.info("KbJob DELETE_INDEX done. jobId={}, docId={}, vectorStoreId={}, vectorFileId={}",
                 job.getId(), doc.getId(), vectorStoreId, vectorFileId);
@@ -194,26 +225,84 @@ public class KbJobWorker {
         return WorkerResult.SUCCESS;
     }
 
-    private void fail(KbJob job, KbDocument docOrNull, String msg) {
-        job.setJobStatus(KbJobStatus.FAILED);
-        job.setFinishedAt(LocalDateTime.now());
-        job.setTryCount((job.getTryCount() == null ? 0 : job.getTryCount()) + 1);
-        job.setLastError(msg);
+    private boolean complete(KbJob job, Consumer<KbDocument> docUpdate) {
+        return transition(job, j -> {
+            j.setJobStatus(KbJobStatus.SUCCESS);
+            j.setFinishedAt(LocalDateTime.now());
+            j.setLastError(null);
+            j.setLeaseExpiresAt(null);
+        }, docUpdate);
+    }
 
-        // 관리자 화면/디버깅에서 바로 확인할 수 있도록 문서에도 마지막 인덱싱 오류를 남긴다.
-        if (docOrNull != null) {
-            docOrNull.setIndexError(msg);
-            docOrNull.setIndexSummary(null);
+    /**
+     * 실패 반영: 분류별 최대 시도 횟수 안이면 backoff 후 READY 로 재등록, 다 쓰면 FAILED
+     * - 재시도 시각은 scheduled_at 으로 미룸 (선점 쿼리가 scheduled_at <= NOW() 인 것만 가져감)
+     */
+    private WorkerResult fail(KbJob job, boolean markDocument, String msg, KbJobErrorClass errorClass) {
+        int maxAttempts = props.maxAttemptsOf(errorClass);
+        String error = "[" + errorClass + "] " + msg;
+        int[] attempt = new int[1];
+
+        boolean applied = transition(job, j -> {
+            attempt[0] = (j.getTryCount() == null ? 0 : j.getTryCount()) + 1;
+            j.setTryCount(attempt[0]);
+            j.setLastError(error);
+            j.setLeaseExpiresAt(null);
+
+            if (attempt[0] < maxAttempts) {
+                j.setJobStatus(KbJobStatus.READY);
+                j.setScheduledAt(LocalDateTime.now().plus(Duration.ofMillis(props.retryDelayMs(attempt[0]))));
+                j.setClaimToken(null);
+                j.setLeaseOwner(null);
+                j.setFinishedAt(null);
+            } else {
+                j.setJobStatus(KbJobStatus.FAILED);
+                j.setFinishedAt(LocalDateTime.now());
+            }
+        }, markDocument ? d -> {
+            // 관리자 화면/디버깅에서 바로 확인할 수 있도록 문서에도 마지막 인덱싱 오류를 남긴다.
+            d.setIndexError(error);
+            d.setIndexSummary(null);
+        } : null);
+        if (!applied) return WorkerResult.LOCK_LOST;
+
+        if (attempt[0] < maxAttempts) {
+            log.warn("KbJob RETRY scheduled. jobId={}, attempt={}/{}, delayMs={}, msg={}",
+                    job.getId(), attempt[0], maxAttempts, props.retryDelayMs(attempt[0]), error);
+            return WorkerResult.RETRY;
         }
+        log.warn("KbJob FAILED. jobId={}, attempt={}/{}, msg={}", job.getId(), attempt[0], maxAttempts, error);
+        return WorkerResult.FAILED;
+    }
 
-        log.warn("KbJob FAILED. jobId={}, tryCount={}, msg={}",
-                job.getId(), job.getTryCount(), msg);
+    /**
+     * job/문서 상태 반영용 짧은 트랜잭션
+     * - 다시 읽은 job 이 여전히 RUNNING 이고 claim_token 이 같을 때만 반영 (선점 소유 확인)
+     * - 문서는 최신 상태를 다시 읽어 필요한 필드만 변경 → 처리 중 관리자 수정분을 덮어쓰지 않음
+     */
+    private boolean transition(KbJob job, Consumer<KbJob> jobUpdate, Consumer<KbDocument> docUpdate) {
+        Boolean applied = transactionTemplate.execute(tx -> {
+            KbJob current = kbJobRepository.findById(job.getId()).orElse(null);
+            if (current == null
+                    || current.getJobStatus() != KbJobStatus.RUNNING
+                    || !Objects.equals(current.getClaimToken(), job.getClaimToken())) {
+                log.warn("KbJob claim lost. jobId={}, claimToken={}", job.getId(), job.getClaimToken());
+                return false;
+            }
+
+            jobUpdate.accept(current);
+            if (docUpdate != null) {
+                kbDocumentRepository.findById(current.getKbDocumentId()).ifPresent(docUpdate);
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(applied);
     }
 
     private void applyIngestMetadataToDocument(
             KbDocument doc,
             BrainIngestResponse res
-    ) throws JsonProcessingException {
+    ) {
         String summaryText = safe(res.getSummaryText());
         List<String> tags = res.getTags();
 
@@ -223,19 +312,19 @@ public class KbJobWorker {
         List<String> welcomeKeywords = res.getWelcomeKeywords();
 
         doc.setIndexSummary(summaryText.isEmpty() ? null : summaryText);
-        doc.setTagsJson((tags == null || tags.isEmpty()) ? null : objectMapper.writeValueAsString(tags));
+        doc.setTagsJson((tags == null || tags.isEmpty()) ? null : toJson(tags));
 
         doc.setWelcomeTitle(welcomeTitle.isEmpty() ? null : welcomeTitle);
         doc.setWelcomeIntro(welcomeIntro.isEmpty() ? null : welcomeIntro);
         doc.setWelcomeQuestionsJson(
                 (welcomeQuestions == null || welcomeQuestions.isEmpty())
                         ? null
-                        : objectMapper.writeValueAsString(welcomeQuestions)
+                        : toJson(welcomeQuestions)
         );
         doc.setWelcomeKeywordsJson(
                 (welcomeKeywords == null || welcomeKeywords.isEmpty())
                         ? null
-                        : objectMapper.writeValueAsString(welcomeKeywords)
+                        : toJson(welcomeKeywords)
         );
 
         doc.setIndexedAt(LocalDateTime.now());
@@ -243,6 +332,14 @@ public class KbJobWorker {
         doc.setDocStatus("INDEXED");
     }
 
+    private String toJson(List<String> values) {
+        try {
+            return objectMapper.writeValueAsString(values);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("ingest metadata serialize failed", e);
+        }
+    }
+
     private String normalize(String s) {
         return (s == null) ? "" : s.trim().toUpperCase();
     }
@@ -4,5 +4,7 @@ public enum WorkerResult {
     NO_JOB,
     LOCK_LOST,
     SUCCESS,
-    FAILED
+    FAILED,
+    RETRY,
+    BUSY
 }
@@ -1,6 +1,7 @@
 package com.hbs.hsbbo.admin.ai.promptprofile.domain.entity;
 
 import com.hbs.hsbbo.admin.ai.promptprofile.domain.type.PromptStatus;
+import com.hbs.hsbbo.admin.ai.promptprofile.domain.type.RetrievalMode;
 import com.hbs.hsbbo.common.AuditBase.AuditBase;
 import jakarta.persistence.*;
 import lombok.*;
@@ -175,6 +176,19 @@ public class PromptProfile extends AuditBase {
     @Column(name = "kb_document_ids", columnDefinition = "json")
     private String kbDocumentIdsJson;
 
+    /** KB 지문 검색 방식 (LOCAL_ONLY | OPENAI_ONLY | HYBRID_LOCAL_FIRST) */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "retrieval_mode", nullable = false, length = 30)
+    private RetrievalMode retrievalMode;
+
+    /** KB 지문 토큰 예산 (null 이면 hsbs.kb.retrieval.token-budget) */
+    @Column(name = "kb_context_token_budget")
+    private Integer kbContextTokenBudget;
+
+    /** 위젯 답변 캐시 사용 여부 (같은 정규화 질문은 LLM 호출 없이 캐시 답변) */
+    @Column(name = "answer_cache_tf", nullable = false, length = 1)
+    private String answerCacheTf; // Y | N
+
     // 기본값 세팅
     @PrePersist
     protected void onCreate() {
@@ -188,6 +202,8 @@ public class PromptProfile extends AuditBase {
         if (schemaEnforceTf == null) schemaEnforceTf = "N";
         if (schemaRetryCount == null) schemaRetryCount = 0;
         if (streamingTf == null) streamingTf = "N";
+        if (retrievalMode == null) retrievalMode = RetrievalMode.OPENAI_ONLY;
+        if (answerCacheTf == null) answerCacheTf = "N";
     }
 
 
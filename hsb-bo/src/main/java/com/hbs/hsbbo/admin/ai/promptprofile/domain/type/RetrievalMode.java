@@ -0,0 +1,12 @@
+package com.hbs.hsbbo.admin.ai.promptprofile.domain.type;
+
+/**
+ * KB 지문 검색 방식
+ *
+ * LOCAL_ONLY          : BO 로컬 색인(BM25 + 벡터)만 사용, Brain 측 OpenAI Vector Store 검색 끔
+ * OPENAI_ONLY         : 기존 방식 (문서 요약 지문, rag 옵션 미지정 → Brain 기본 동작) — 기본값
+ * HYBRID_LOCAL_FIRST  : 로컬 색인 우선, 로컬에서 찾은 청크가 없을 때만 OpenAI Vector Store 검색
+ */
+public enum RetrievalMode {
+    LOCAL_ONLY, OPENAI_ONLY, HYBRID_LOCAL_FIRST
+}
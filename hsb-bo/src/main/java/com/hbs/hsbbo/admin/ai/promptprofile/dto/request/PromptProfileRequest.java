@@ -2,6 +2,7 @@ package com.hbs.hsbbo.admin.ai.promptprofile.dto.request;
 
 
 import com.hbs.hsbbo.admin.ai.promptprofile.domain.type.PromptStatus;
+import com.hbs.hsbbo.admin.ai.promptprofile.domain.type.RetrievalMode;
 import jakarta.validation.constraints.*;
 import lombok.*;
 
@@ -71,6 +72,16 @@ public class PromptProfileRequest {
     /** 이 프로필에서 지문으로 사용할 KB 문서 ID 목록. BO가 조회해 knowledgeContext로 조합 후 Brain에 전달. */
     private List<Long> kbDocumentIds;
 
+    /** KB 지문 검색 방식 (null 이면 OPENAI_ONLY, 로컬 검색은 명시적으로 선택) */
+    private RetrievalMode retrievalMode;
+
+    /** KB 지문 토큰 예산 (null 이면 생성 시 서버 기본값·수정 시 유지, 0 이면 서버 기본값으로 되돌림, 최소 100) */
+    @Min(0) @Max(32000)
+    private Integer kbContextTokenBudget;
+
+    /** 위젯 답변 캐시 사용 여부 (null 이면 생성 시 N, 수정 시 유지) */
+    private String answerCacheTf;
+
     // 챗봇 타입 분류 고도화 확장 필드
     @NotBlank
     @Builder.Default
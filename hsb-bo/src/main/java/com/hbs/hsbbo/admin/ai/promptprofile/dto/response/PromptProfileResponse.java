@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hbs.hsbbo.admin.ai.promptprofile.domain.entity.PromptProfile;
 import com.hbs.hsbbo.admin.ai.promptprofile.domain.type.PromptStatus;
+import com.hbs.hsbbo.admin.ai.promptprofile.domain.type.RetrievalMode;
 import lombok.*;
 
 import java.math.BigDecimal;
@@ -67,6 +68,15 @@ public class PromptProfileResponse {
     /** 이 프로필에서 지문으로 사용할 KB 문서 ID 목록 */
     private List<Long> kbDocumentIds;
 
+    /** KB 지문 검색 방식 */
+    private RetrievalMode retrievalMode;
+
+    /** KB 지문 토큰 예산 (null 이면 서버 기본값) */
+    private Integer kbContextTokenBudget;
+
+    /** 위젯 답변 캐시 사용 여부 */
+    private String answerCacheTf;
+
     // 엔티티 → 응답 매핑
     public static PromptProfileResponse from(PromptProfile e) {
         return PromptProfileResponse.builder()
@@ -108,6 +118,9 @@ public class PromptProfileResponse {
                 .upAdm(e.getUpAdm())
                 .upDate(e.getUpDate())
                 .kbDocumentIds(parseKbDocumentIds(e.getKbDocumentIdsJson()))
+                .retrievalMode(e.getRetrievalMode())
+                .kbContextTokenBudget(e.getKbContextTokenBudget())
+                .answerCacheTf(e.getAnswerCacheTf())
                 .build();
     }
 
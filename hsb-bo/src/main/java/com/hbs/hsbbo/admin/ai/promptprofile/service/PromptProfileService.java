@@ -5,14 +5,19 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.hbs.hsbbo.admin.ai.kb.service.AnswerCacheControl;
+import com.hbs.hsbbo.admin.ai.kb.service.WelcomeAnswerService;
 import com.hbs.hsbbo.admin.ai.promptprofile.domain.entity.PromptProfile;
 import com.hbs.hsbbo.admin.ai.promptprofile.domain.type.PromptStatus;
+import com.hbs.hsbbo.admin.ai.promptprofile.domain.type.RetrievalMode;
 import com.hbs.hsbbo.admin.ai.promptprofile.dto.request.PromptProfileRequest;
 import com.hbs.hsbbo.admin.ai.promptprofile.dto.response.PromptProfileListResponse;
 import com.hbs.hsbbo.admin.ai.promptprofile.dto.response.PromptProfileResponse;
 import com.hbs.hsbbo.admin.ai.promptprofile.repository.PromptProfileRepository;
 import com.hbs.hsbbo.admin.ai.sitekey.domain.entity.SiteKey;
 import com.hbs.hsbbo.admin.ai.sitekey.repository.SiteKeyRepository;
+import com.hbs.hsbbo.admin.ai.sitekey.runtime.SiteRuntime;
+import com.hbs.hsbbo.admin.ai.sitekey.runtime.SiteRuntimeCache;
 import com.hbs.hsbbo.admin.ai.sitekey.service.SiteKeyService;
 import com.hbs.hsbbo.common.exception.CommonException.NotFoundException;
 import com.hbs.hsbbo.common.util.FileUtil;
@@ -26,6 +31,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
@@ -43,10 +49,13 @@ public class PromptProfileService {
     private final PromptProfileRepository promptProfileRepository;
     private final SiteKeyService siteKeyService;
     private final SiteKeyRepository siteKeyRepository;
+    private final SiteRuntimeCache siteRuntimeCache;
+    private final AnswerCacheControl answerCache;
+    private final WelcomeAnswerService welcomeAnswerService;
     private final FileUtil fileUtil;
     private final ObjectMapper om;
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public PromptProfileResponse loadForPublic(String siteKey, String host) {
         String key = normalizeSiteKey(siteKey);
         if (key == null || key.isBlank()) {
@@ -150,6 +159,9 @@ public class PromptProfileService {
             sk.setDefaultPromptProfileId(e);
             sk.setUpAdm(actor);
             siteKeyRepository.save(sk);
+            siteRuntimeCache.evict(sk.getSiteKey());
+            // 연결된 사이트키 기준 환영 질문 답변 사전 생성 (커밋 이후, 런타임 캐시 evict 다음)
+            welcomeAnswerService.regenerateForPromptProfile(e.getId());
         }
 
         return e.getId();
@@ -198,6 +210,8 @@ public class PromptProfileService {
         applyFromRequest(e, request, false);
         e.setUpAdm(actor);
         promptProfileRepository.save(e); // e.getId() 확보
+        siteRuntimeCache.evictByPromptProfileId(e.getId());
+        answerCache.evictByPromptProfileId(e.getId());
 
         // 4) 사이트키 매핑: linkedSiteKeyId가 넘어오면 해당 SiteKey에 이 프롬프트 프로필을 기본으로 설정
         if (request.getLinkedSiteKeyId() != null) {
@@ -208,8 +222,12 @@ public class PromptProfileService {
             sk.setDefaultPromptProfileId(e);
             sk.setUpAdm(actor);
             siteKeyRepository.save(sk);
+            siteRuntimeCache.evict(sk.getSiteKey());
         }
 
+        // 5) 환영 질문 사전 답변: 이전 답변 삭제 + 커밋 이후 재생성 (런타임 캐시 evict 다음에 실행되도록 마지막에 등록)
+        welcomeAnswerService.regenerateForPromptProfile(e.getId());
+
         return e.getId();
     }
 
@@ -222,6 +240,8 @@ public class PromptProfileService {
         e.setUseTf("Y".equals(e.getUseTf()) ? "N" : "Y");
         e.setUpAdm(actor);
         e.setUpDate(LocalDateTime.now());
+        siteRuntimeCache.evictByPromptProfileId(e.getId());
+        answerCache.evictByPromptProfileId(e.getId());
         return e.getId();
     }
 
@@ -234,10 +254,12 @@ public class PromptProfileService {
         e.setDelTf("Y");
         e.setDelAdm(actor);
         e.setDelDate(LocalDateTime.now());
+        siteRuntimeCache.evictByPromptProfileId(e.getId());
+        answerCache.evictByPromptProfileId(e.getId());
         return e.getId();
     }
-    // 사이트키 검증 프로필 반환
-    @Transactional(readOnly = true)
+    // 사이트키 검증 프로필 반환 (SiteRuntimeCache 기준, 히트 시 DB 조회 없음)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public PromptProfile findDefaultProfileForSiteKeyOrThrow(String siteKey, String host) {
         String key = normalizeSiteKey(siteKey);
         if (key == null || key.isBlank()) {
@@ -245,22 +267,39 @@ public class PromptProfileService {
         }
 
         // 도메인/상태 검증
-        SiteKey sk = siteKeyRepository.findBySiteKeyIgnoreCase(key)
-                .orElseThrow(() -> new IllegalArgumentException("사이트키를 찾을 수 없습니다."));
+        SiteRuntime runtime = siteRuntimeCache.get(key);
+        if (runtime == null) {
+            throw new IllegalArgumentException("사이트키를 찾을 수 없습니다.");
+        }
 
-        if (!sk.isActive()) {
+        if (!runtime.isActive()) {
             throw new IllegalStateException("비활성화된 사이트키 입니다. siteKey=" + key);
         }
-        if (host != null && !sk.isDomainAllowed(host)) {
+        if (host != null && !runtime.isDomainAllowed(host)) {
             throw new IllegalStateException("허용되지 않은 도메인입니다. host=" + host);
         }
 
-        PromptProfile profile = sk.getDefaultPromptProfileId(); // 연관관계 전제
-        if (profile == null) {
-            throw new IllegalStateException("연결된 기본 프롬프트 프로필이 없습니다. siteKey=" + key);
-        }
         // 필요하면 status/useTf/delTf 검사
-        return profile;
+        return runtime.requirePromptProfile();
+    }
+
+    // SiteRuntime 스냅샷 기반 조립 (stop/tools JSON 은 스냅샷에 미리 파싱되어 있음)
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ChatWithPromptProfileRequest buildChatWithProfileRequest(
+            SiteRuntime runtime,
+            ChatRequest userReq
+    ) {
+        if (userReq.getPrompt() == null || userReq.getPrompt().isBlank()) {
+            throw new IllegalArgumentException("사용자 질문 프롬프트는 필수 값 입니다");
+        }
+
+        return ChatWithPromptProfileRequest.fromProfile(
+                runtime.requirePromptProfile(),
+                userReq.getPrompt(),
+                userReq.getContext(),
+                runtime.getStop(),
+                runtime.getTools()
+        );
     }
 
     // 실제 운영 OpenAPI Chat PromptProfile → ChatWithPromptProfileRequest 조립
@@ -410,6 +449,26 @@ public class PromptProfileService {
         } else if (isCreate) {
             e.setKbDocumentIdsJson(null);
         }
+
+        // KB 지문 검색 방식
+        if (dto.getRetrievalMode() != null) {
+            e.setRetrievalMode(dto.getRetrievalMode());
+        } else if (isCreate) {
+            e.setRetrievalMode(RetrievalMode.OPENAI_ONLY);
+        }
+
+        // KB 지문 토큰 예산 (생성 시 미지정이면 서버 기본값 사용, 0 이면 서버 기본값으로 되돌림)
+        if (dto.getKbContextTokenBudget() != null) {
+            int budget = dto.getKbContextTokenBudget();
+            e.setKbContextTokenBudget(budget == 0 ? null : Math.max(100, budget));
+        }
+
+        // 위젯 답변 캐시 (opt-in)
+        if (dto.getAnswerCacheTf() != null) {
+            e.setAnswerCacheTf(flag(dto.getAnswerCacheTf()));
+        } else if (isCreate) {
+            e.setAnswerCacheTf("N");
+        }
     }
 
     private String writeKbDocumentIdsJson(List<Long> ids) {
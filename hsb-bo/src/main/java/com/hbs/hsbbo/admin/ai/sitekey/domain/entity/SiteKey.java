@@ -2,6 +2,7 @@ package com.hbs.hsbbo.admin.ai.sitekey.domain.entity;
 
 import com.hbs.hsbbo.admin.ai.promptprofile.domain.entity.PromptProfile;
 import com.hbs.hsbbo.admin.ai.sitekey.domain.type.Status;
+import com.hbs.hsbbo.admin.ai.sitekey.runtime.AllowedDomainMatcher;
 import com.hbs.hsbbo.admin.ai.widgetconfig.domain.entity.WidgetConfig;
 import com.hbs.hsbbo.common.AuditBase.AuditBase;
 import com.hbs.hsbbo.common.util.StringListJsonConverter;
@@ -99,6 +100,15 @@ public class SiteKey extends AuditBase {
     @Column(name = "notes", length = 255)
     private String notes;
 
+    /**
+     * allowedDomains 컴파일 결과 (요청마다 재사용, 리스트가 교체되면 다시 컴파일)
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    private AllowedDomainMatcher domainMatcher;
+
     // ====== 편의 메서드 ======
     public boolean isActive() {
         return this.status == Status.ACTIVE && "Y".equalsIgnoreCase(getUseTf()) && !"Y".equalsIgnoreCase(getDelTf());
@@ -108,20 +118,15 @@ public class SiteKey extends AuditBase {
      * 요청 도메인이 화이트리스트에 포함되는지 검사 (와일드카드 *.example.com 지원)
      */
     public boolean isDomainAllowed(String host) {
-        if (allowedDomains == null || allowedDomains.isEmpty()) return false;
-        if (host == null || host.isBlank()) return false;
-        String h = host.trim().toLowerCase();
-        for (String rule : allowedDomains) {
-            if (rule == null || rule.isBlank()) continue;
-            String r = rule.trim().toLowerCase();
-            if (r.startsWith("*.")) {
-                // 와일드카드: *.example.com -> sub.example.com 허용
-                String suffix = r.substring(1); // ".example.com"
-                if (h.endsWith(suffix) && h.length() > suffix.length()) return true;
-            } else if (r.equals(h)) {
-                return true;
-            }
+        return domainMatcher().matches(host);
+    }
+
+    private AllowedDomainMatcher domainMatcher() {
+        AllowedDomainMatcher m = this.domainMatcher;
+        if (m == null || !m.isCompiledFrom(allowedDomains)) {
+            m = AllowedDomainMatcher.compile(allowedDomains);
+            this.domainMatcher = m;
         }
-        return false;
+        return m;
     }
 }
@@ -20,6 +20,15 @@ public interface SiteKeyRepository extends JpaRepository<SiteKey, Long>, SiteKey
 
     Optional<SiteKey> findBySiteKeyIgnoreCase(String siteKey);
 
+    // 런타임 스냅샷(SiteRuntimeCache)용: 기본 위젯/프롬프트 프로필까지 한 번에 로딩
+    @Query("""
+            select s from SiteKey s
+            left join fetch s.defaultWidgetConfig
+            left join fetch s.defaultPromptProfileId
+            where upper(s.siteKey) = upper(:siteKey)
+        """)
+    Optional<SiteKey> findRuntimeBySiteKey(@Param("siteKey") String siteKey);
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("select s from SiteKey s where s.id = :id and s.delTf = 'N'")
     Optional<SiteKey> findByIdForUpdate(@Param("id") Long id);
@@ -31,6 +40,13 @@ public interface SiteKeyRepository extends JpaRepository<SiteKey, Long>, SiteKey
         """)
     List<SiteKey> findAllByDefaultWidgetConfigId(@Param("widgetConfigId") Long widgetConfigId);
 
+    @Query("""
+            select s from SiteKey s
+            where s.delTf = 'N'
+              and s.defaultPromptProfileId.id = :promptProfileId
+        """)
+    List<SiteKey> findAllByDefaultPromptProfileId(@Param("promptProfileId") Long promptProfileId);
+
     boolean existsBySiteKey(String siteKey);
 
     boolean existsBySiteKeyIgnoreCase(String siteKey);
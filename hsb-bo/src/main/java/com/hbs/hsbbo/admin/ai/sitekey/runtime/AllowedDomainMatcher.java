@@ -0,0 +1,149 @@
+package com.hbs.hsbbo.admin.ai.sitekey.runtime;
+
+import java.util.List;
+
+/**
+ * SiteKey.allowedDomains 를 한 번 컴파일해 두고 요청마다 재사용하는 도메인 화이트리스트 매처.
+ *
+ * 규칙 (기존 SiteKey.isDomainAllowed 와 동일)
+ * - "example.com"   : host 와 정확히 일치 (대소문자 무시, 앞뒤 공백 무시)
+ * - "*.example.com" : sub.example.com, a.b.example.com 허용 / example.com 자체는 불허
+ *
+ * 구현
+ * - 정확 일치 host 와 와일드카드 suffix(".example.com")를 하나의 open-addressing 해시 테이블에 저장
+ * - 해시는 문자열을 "뒤에서 앞으로" 누적 → host 를 오른쪽부터 한 번만 훑으면서
+ *   '.' 위치마다 그 시점의 해시로 suffix 를 조회 (라벨 수만큼 조회, 전체 O(host 길이))
+ * - 조회 시 substring/toLowerCase 를 만들지 않으므로 요청당 할당 없음
+ *
+ * 불변 객체라 여러 스레드에서 공유해도 안전하다.
+ */
+public final class AllowedDomainMatcher {
+
+    private static final AllowedDomainMatcher EMPTY = new AllowedDomainMatcher(null, new String[0], new int[0], new byte[0], 0);
+
+    private static final byte EXACT = 1;
+    private static final byte WILDCARD = 2;
+
+    // 컴파일에 사용한 원본 리스트 (엔티티 쪽 재컴파일 여부 판단용, identity 비교)
+    private final List<String> source;
+
+    private final String[] keys;   // 소문자 정규화된 host 또는 ".suffix"
+    private final int[] hashes;
+    private final byte[] kinds;    // EXACT | WILDCARD 비트
+    private final int mask;
+
+    private AllowedDomainMatcher(List<String> source, String[] keys, int[] hashes, byte[] kinds, int mask) {
+        this.source = source;
+        this.keys = keys;
+        this.hashes = hashes;
+        this.kinds = kinds;
+        this.mask = mask;
+    }
+
+    public static AllowedDomainMatcher compile(List<String> rules) {
+        if (rules == null || rules.isEmpty()) {
+            return rules == null ? EMPTY : new AllowedDomainMatcher(rules, new String[0], new int[0], new byte[0], 0);
+        }
+
+        int cap = Integer.highestOneBit(Math.max(4, rules.size() * 2 - 1)) << 1;
+        AllowedDomainMatcher m = new AllowedDomainMatcher(rules, new String[cap], new int[cap], new byte[cap], cap - 1);
+
+        for (String rule : rules) {
+            if (rule == null || rule.isBlank()) continue;
+            String r = foldCase(rule.trim());
+            if (r.startsWith("*.")) {
+                m.put(r.substring(1), WILDCARD);   // "*.example.com" -> ".example.com"
+            } else {
+                m.put(r, EXACT);
+            }
+        }
+        return m;
+    }
+
+    /** 이 매처가 주어진 리스트 인스턴스로부터 컴파일되었는지 */
+    public boolean isCompiledFrom(List<String> rules) {
+        return source == rules;
+    }
+
+    public boolean matches(String host) {
+        if (host == null || mask == 0) return false;
+
+        // String.trim() 과 동일한 기준으로 앞뒤 공백 제외 (새 문자열 생성 없이 인덱스만)
+        int start = 0;
+        int end = host.length();
+        while (start < end && host.charAt(start) <= ' ') start++;
+        while (end > start && host.charAt(end - 1) <= ' ') end--;
+        if (start == end) return false;
+
+        // 오른쪽부터 suffix 해시 누적, '.' 를 만날 때마다 와일드카드 조회
+        int h = 0;
+        for (int i = end - 1; i >= start; i--) {
+            char c = Character.toLowerCase(host.charAt(i));
+            h = 31 * h + c;
+            if (c == '.' && i > start && contains(host, i, end, h, WILDCARD)) {
+                return true;
+            }
+        }
+        // 전체 host 정확 일치
+        return contains(host, start, end, h, EXACT);
+    }
+
+    // ===== 내부 =====
+
+    private void put(String key, byte kind) {
+        int h = reverseHash(key);
+        int idx = spread(h) & mask;
+        while (keys[idx] != null) {
+            if (hashes[idx] == h && keys[idx].equals(key)) {
+                kinds[idx] |= kind;
+                return;
+            }
+            idx = (idx + 1) & mask;
+        }
+        keys[idx] = key;
+        hashes[idx] = h;
+        kinds[idx] = kind;
+    }
+
+    private boolean contains(String host, int from, int to, int h, byte kind) {
+        int idx = spread(h) & mask;
+        String key;
+        while ((key = keys[idx]) != null) {
+            if (hashes[idx] == h && (kinds[idx] & kind) != 0 && regionEquals(key, host, from, to)) {
+                return true;
+            }
+            idx = (idx + 1) & mask;
+        }
+        return false;
+    }
+
+    private static boolean regionEquals(String key, String host, int from, int to) {
+        int len = to - from;
+        if (key.length() != len) return false;
+        for (int k = 0; k < len; k++) {
+            if (key.charAt(k) != Character.toLowerCase(host.charAt(from + k))) return false;
+        }
+        return true;
+    }
+
+    private static int reverseHash(String s) {
+        int h = 0;
+        for (int i = s.length() - 1; i >= 0; i--) {
+            h = 31 * h + s.charAt(i);
+        }
+        return h;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    // 조회 쪽과 동일하게 문자 단위로 소문자화 (Locale 영향 없음)
+    private static String foldCase(String s) {
+        char[] out = new char[s.length()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Character.toLowerCase(s.charAt(i));
+        }
+        return new String(out);
+    }
+}
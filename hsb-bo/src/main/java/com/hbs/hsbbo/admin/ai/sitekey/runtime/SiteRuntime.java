@@ -0,0 +1,76 @@
+package com.hbs.hsbbo.admin.ai.sitekey.runtime;
+
+import com.hbs.hsbbo.admin.ai.promptprofile.domain.entity.PromptProfile;
+import com.hbs.hsbbo.admin.ai.sitekey.domain.entity.SiteKey;
+import com.hbs.hsbbo.admin.ai.widgetconfig.domain.entity.WidgetConfig;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 위젯/챗 런타임에서 사이트키 하나를 처리하는 데 필요한 정보를 한 번에 묶은 스냅샷.
+ * - SiteKey(+기본 WidgetConfig / 기본 PromptProfile)는 fetch join 으로 로딩된 detached 엔티티
+ * - stop/tools/options JSON 은 로딩 시점에 미리 파싱
+ * - allowedDomains 는 AllowedDomainMatcher 로 미리 컴파일
+ *
+ * 여러 요청 스레드가 공유하므로 안의 엔티티/컬렉션은 읽기 전용으로만 사용한다.
+ * (변경은 관리자 API → SiteRuntimeCache evict → 다음 요청에서 재로딩)
+ */
+@Getter
+@Builder
+public class SiteRuntime {
+
+    private final String siteKeyValue;          // 정규화된 사이트키 (캐시 키)
+    private final SiteKey siteKey;
+    private final PromptProfile promptProfile;  // null 가능 (미연결)
+    private final WidgetConfig widgetConfig;    // null 가능 (미연결)
+
+    // PromptProfile JSON 파싱 결과
+    private final List<String> stop;
+    private final List<Map<String, Object>> tools;
+
+    // WidgetConfig.optionsJson 파싱 결과
+    private final Map<String, Object> widgetOptions;
+
+    // SiteKey.allowedDomains 컴파일 결과
+    private final AllowedDomainMatcher domainMatcher;
+
+    private final LocalDateTime loadedAt;
+
+    public Long getSiteKeyId() {
+        return siteKey.getId();
+    }
+
+    public Long getPromptProfileId() {
+        return promptProfile == null ? null : promptProfile.getId();
+    }
+
+    public Long getWidgetConfigId() {
+        return widgetConfig == null ? null : widgetConfig.getId();
+    }
+
+    public boolean isActive() {
+        return siteKey.isActive();
+    }
+
+    public boolean isDomainAllowed(String host) {
+        return domainMatcher.matches(host);
+    }
+
+    public PromptProfile requirePromptProfile() {
+        if (promptProfile == null) {
+            throw new IllegalStateException("연결된 기본 프롬프트 프로필이 없습니다. siteKey=" + siteKeyValue);
+        }
+        return promptProfile;
+    }
+
+    public WidgetConfig requireWidgetConfig() {
+        if (widgetConfig == null) {
+            throw new IllegalStateException("연결된 기본 위젯 설정이 없습니다. siteKey=" + siteKeyValue);
+        }
+        return widgetConfig;
+    }
+}
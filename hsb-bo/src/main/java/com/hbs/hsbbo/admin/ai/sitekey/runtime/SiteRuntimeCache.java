@@ -0,0 +1,130 @@
+package com.hbs.hsbbo.admin.ai.sitekey.runtime;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hbs.hsbbo.admin.ai.promptprofile.domain.entity.PromptProfile;
+import com.hbs.hsbbo.admin.ai.sitekey.domain.entity.SiteKey;
+import com.hbs.hsbbo.admin.ai.sitekey.repository.SiteKeyRepository;
+import com.hbs.hsbbo.admin.ai.widgetconfig.domain.entity.WidgetConfig;
+import com.hbs.hsbbo.common.util.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 정규화된 사이트키 → SiteRuntime 스냅샷 캐시
+ *
+ * - 미스 시 SiteKey + 기본 WidgetConfig/PromptProfile 을 fetch join 한 번으로 로딩
+ * - 존재하지 않는 키는 캐싱하지 않는다 (등록 직후 바로 사용 가능하도록)
+ * - SiteKey / PromptProfile / WidgetConfig 변경 서비스에서 명시적으로 evict 한다.
+ *   트랜잭션 안이면 커밋 이후에 비워서, 커밋 전 데이터로 다시 채워지는 경합을 막는다.
+ * - expireAfterWrite 는 다중 인스턴스 환경에서 다른 노드의 변경을 반영하기 위한 안전망
+ */
+@Slf4j
+@Component
+public class SiteRuntimeCache {
+
+    private final SiteKeyRepository siteKeyRepository;
+    private final ObjectMapper om;
+    private final Cache<String, SiteRuntime> cache;
+
+    public SiteRuntimeCache(
+            SiteKeyRepository siteKeyRepository,
+            ObjectMapper om,
+            @Value("${hsbs.site-runtime.max-size:10000}") long maxSize,
+            @Value("${hsbs.site-runtime.ttl:PT10M}") Duration ttl
+    ) {
+        this.siteKeyRepository = siteKeyRepository;
+        this.om = om;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /** 정규화된 키 기준 조회 (없는 사이트키면 null) */
+    public SiteRuntime get(String siteKey) {
+        String key = normalize(siteKey);
+        if (key == null) return null;
+        return cache.get(key, this::load);
+    }
+
+    public void evict(String siteKey) {
+        String key = normalize(siteKey);
+        if (key == null) return;
+        TransactionUtil.afterCommit(() -> cache.invalidate(key));
+    }
+
+    public void evictByPromptProfileId(Long promptProfileId) {
+        if (promptProfileId == null) return;
+        TransactionUtil.afterCommit(() -> removeIf(rt -> promptProfileId.equals(rt.getPromptProfileId())));
+    }
+
+    public void evictByWidgetConfigId(Long widgetConfigId) {
+        if (widgetConfigId == null) return;
+        TransactionUtil.afterCommit(() -> removeIf(rt -> widgetConfigId.equals(rt.getWidgetConfigId())));
+    }
+
+    public void evictAll() {
+        TransactionUtil.afterCommit(cache::invalidateAll);
+    }
+
+    /* =========================
+     * Helpers
+     * ========================= */
+    private SiteRuntime load(String key) {
+        SiteKey sk = siteKeyRepository.findRuntimeBySiteKey(key).orElse(null);
+        if (sk == null) return null;
+
+        PromptProfile profile = sk.getDefaultPromptProfileId();
+        WidgetConfig widget = sk.getDefaultWidgetConfig();
+
+        log.debug("[site-runtime] loaded siteKey={}, promptProfileId={}, widgetConfigId={}",
+                key, profile == null ? null : profile.getId(), widget == null ? null : widget.getId());
+
+        return SiteRuntime.builder()
+                .siteKeyValue(key)
+                .siteKey(sk)
+                .promptProfile(profile)
+                .widgetConfig(widget)
+                .stop(profile == null ? null : readJson(profile.getStopJson(), new TypeReference<List<String>>() {}, "stop_json"))
+                .tools(profile == null ? null : readJson(profile.getToolsJson(), new TypeReference<List<Map<String, Object>>>() {}, "tools_json"))
+                .widgetOptions(widget == null ? Map.of() : readOptions(widget.getOptionsJson()))
+                .domainMatcher(AllowedDomainMatcher.compile(sk.getAllowedDomains()))
+                .loadedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private <T> T readJson(String json, TypeReference<T> type, String label) {
+        if (json == null || json.isBlank()) return null;
+        try {
+            return om.readValue(json, type);
+        } catch (Exception e) {
+            throw new RuntimeException(label + " 파싱 실패", e);
+        }
+    }
+
+    private Map<String, Object> readOptions(String json) {
+        Map<String, Object> options = readJson(json, new TypeReference<Map<String, Object>>() {}, "options");
+        return options == null ? Map.of() : Collections.unmodifiableMap(options);
+    }
+
+    private void removeIf(Predicate<SiteRuntime> predicate) {
+        cache.asMap().values().removeIf(predicate);
+    }
+
+    private String normalize(String s) {
+        if (s == null || s.isBlank()) return null;
+        return s.trim().toUpperCase(Locale.ROOT);
+    }
+}
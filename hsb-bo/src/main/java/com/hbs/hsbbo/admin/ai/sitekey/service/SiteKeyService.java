@@ -11,6 +11,8 @@ import com.hbs.hsbbo.admin.ai.sitekey.dto.request.SiteKeyUpdateRequest;
 import com.hbs.hsbbo.admin.ai.sitekey.dto.response.SiteKeyResponse;
 import com.hbs.hsbbo.admin.ai.sitekey.dto.response.SiteKeySummaryResponse;
 import com.hbs.hsbbo.admin.ai.sitekey.repository.SiteKeyRepository;
+import com.hbs.hsbbo.admin.ai.sitekey.runtime.SiteRuntime;
+import com.hbs.hsbbo.admin.ai.sitekey.runtime.SiteRuntimeCache;
 
 import com.hbs.hsbbo.common.exception.CommonException.*;
 
@@ -27,6 +29,7 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class SiteKeyService {
     private final SiteKeyRepository siteKeyRepository;
+    private final SiteRuntimeCache siteRuntimeCache;
 
     // Create
     @Transactional
@@ -47,6 +50,7 @@ public class SiteKeyService {
         req.setAllowedDomains(normalizedDomains);
         SiteKey entity = SiteKeyMapper.toEntity(req, actor);
         entity = siteKeyRepository.save(entity);
+        siteRuntimeCache.evict(entity.getSiteKey());
 
         // 4) 결과
         return SiteKeyMapper.toResponse(entity);
@@ -65,8 +69,10 @@ public class SiteKeyService {
             req.setAllowedDomains(normalized);
         }
 
-        // 부분 합쳐서 머지 업데이트
+        // 부분 합쳐서 머지 업데이트 (키 값이 바뀌는 경우 대비 전/후 모두 evict)
+        siteRuntimeCache.evict(entity.getSiteKey());
         SiteKeyMapper.applyUpdate(entity, req, actor);
+        siteRuntimeCache.evict(entity.getSiteKey());
         // JPA 더티 체킹 → flush 시 업데이트
         return SiteKeyMapper.toResponse(entity);
     }
@@ -86,6 +92,7 @@ public class SiteKeyService {
         if (req.getNotes() != null && !req.getNotes().isBlank()) {
             entity.setNotes(trimOrNull(req.getNotes())); // 필요시 상태 변경 사유 기록
         }
+        siteRuntimeCache.evict(entity.getSiteKey());
         return SiteKeyMapper.toResponse(entity);
     }
 
@@ -98,7 +105,9 @@ public class SiteKeyService {
         siteKey.setUpAdm(actor);
         siteKey.setUpDate(LocalDateTime.now());
 
-        return siteKeyRepository.save(siteKey).getId();
+        Long savedId = siteKeyRepository.save(siteKey).getId();
+        siteRuntimeCache.evict(siteKey.getSiteKey());
+        return savedId;
     }
 
     // 삭제
@@ -110,7 +119,9 @@ public class SiteKeyService {
         siteKey.setDelAdm(actor);
         siteKey.setDelDate(LocalDateTime.now());
 
-        return siteKeyRepository.save(siteKey).getId();
+        Long savedId = siteKeyRepository.save(siteKey).getId();
+        siteRuntimeCache.evict(siteKey.getSiteKey());
+        return savedId;
 
     }
 
@@ -161,15 +172,25 @@ public class SiteKeyService {
 
 
     // 서버 런타임 검증(위젯/API용)
-    @Transactional(readOnly = true)
     public SiteKey assertActiveAndDomainAllowed(String siteKey, String clientDomain) {
+        return resolveRuntime(siteKey, clientDomain).getSiteKey();
+    }
+
+    /**
+     * 서버 런타임 검증 + 스냅샷 반환 (위젯/챗 핫패스)
+     * - SiteRuntimeCache 히트 시 DB 조회 없음 (트랜잭션도 열지 않는다)
+     */
+    public SiteRuntime resolveRuntime(String siteKey, String clientDomain) {
         String key = normalizeSiteKey(siteKey);
         if (key == null || key.isBlank()) {
             throw new UnauthorizedException("사이트키가 누락되었습니다.");
         }
 
-        SiteKey sk = siteKeyRepository.findBySiteKeyIgnoreCase(key)
-                .orElseThrow(() -> new NotFoundException("해당 사이트키를 찾을 수 없습니다."+ siteKey));
+        SiteRuntime runtime = siteRuntimeCache.get(key);
+        if (runtime == null) {
+            throw new NotFoundException("해당 사이트키를 찾을 수 없습니다."+ siteKey);
+        }
+        SiteKey sk = runtime.getSiteKey();
 
         // 1. 소프트 삭제 차단
         if ("Y".equalsIgnoreCase(sk.getDelTf())) {
@@ -182,7 +203,7 @@ public class SiteKeyService {
         }
 
         // 3. 상태 ACTIVE 확인
-        if (!sk.isActive()) {
+        if (!runtime.isActive()) {
             throw new ForbiddenException("사이트키의 현재 상태: " + sk.getStatus());
         }
 
@@ -191,10 +212,10 @@ public class SiteKeyService {
         if (clientDomain == null || clientDomain.isBlank()) {
             throw new ForbiddenException("사용자 도메인은 필수입니다.");
         }
-        if (!sk.isDomainAllowed(clientDomain)) {
+        if (!runtime.isDomainAllowed(clientDomain)) {
             throw new ForbiddenException("허용되지 않은 도메인입니다.: " + clientDomain);
         }
-        return sk;
+        return runtime;
     }
 
     /* =========================
@@ -14,6 +14,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -101,7 +102,7 @@ public class UsageStatsController {
 
     @GetMapping(value = "/export.xlsx",
             produces = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet")
-    public ResponseEntity<byte[]> exportExcel(
+    public ResponseEntity<StreamingResponseBody> exportExcel(
             @RequestParam(name = "tenantId", required = false) String tenantId,
             @RequestParam(name = "period", required = false) String periodStr,
             @RequestParam(name = "fromDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
@@ -130,14 +131,14 @@ public class UsageStatsController {
                 .size(size)
                 .build();
 
-        byte[] bytes = usageStatsService.exportUsageStatsExcel(req);
+        // 페이지와 무관하게 기간 내 전체 버킷을 내보냄 (DB 커서 → 응답 스트림)
+        StreamingResponseBody body = out -> usageStatsService.writeUsageStatsExcel(req, out);
 
-        String fileName = "usage_stats_" + period.name().toLowerCase()
-                + "_p" + page + "_s" + size + ".xlsx";
+        String fileName = "usage_stats_" + period.name().toLowerCase() + ".xlsx";
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                .body(bytes);
+                .body(body);
     }
 
 
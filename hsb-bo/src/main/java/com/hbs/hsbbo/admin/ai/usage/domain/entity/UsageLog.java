@@ -72,6 +72,9 @@ public class UsageLog extends AuditBase {
     @Column(name = "latency_ms")
     private Long latencyMs;           // 응답까지 걸린 시간(ms)
 
+    @Column(name = "first_token_ms")
+    private Long firstTokenMs;        // 스트리밍: 첫 토큰까지 걸린 시간(ms)
+
     // ============= 클라이언트 / 환경 정보 =============
 
     @Column(name = "user_ip", length = 45)
@@ -113,4 +116,19 @@ public class UsageLog extends AuditBase {
 
     @Column(name = "tool_used_tf", length = 1, nullable = false)
     private String toolUsedTf;           // 'Y' / 'N'
+
+    @Column(name = "cache_hit_tf", length = 1, nullable = false)
+    private String cacheHitTf;           // 'Y' / 'N' (답변 캐시 응답 여부)
+
+    @Column(name = "cache_tier", length = 10)
+    private String cacheTier;            // EXACT / SEMANTIC / WELCOME (적중 시, WELCOME 은 통계상 EXACT 로 집계)
+
+    @Column(name = "cache_similarity")
+    private Double cacheSimilarity;      // SEMANTIC 적중 코사인 유사도
+
+    @Column(name = "coalesced_tf", length = 1, nullable = false)
+    private String coalescedTf;          // 'Y' / 'N' (진행 중인 동일 요청 결과 공유 여부)
+
+    @Column(name = "provider", length = 20)
+    private String provider;             // BRAIN / OPENAI (실제 답한 업스트림, 캐시 적중은 null)
 }
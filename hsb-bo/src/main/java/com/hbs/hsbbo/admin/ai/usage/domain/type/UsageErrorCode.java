@@ -21,6 +21,7 @@ public enum UsageErrorCode {
 
     // 일반적인 클라이언트 / 서버 에러
     INVALID_REQUEST(UsageErrorCategory.CLIENT, 400),         // 잘못된 JSON, 필수 파라미터 누락 등
+    CLIENT_ABORTED(UsageErrorCategory.CLIENT, 499),          // 스트리밍 도중 클라이언트 연결 종료
     INTERNAL_ERROR(UsageErrorCategory.SERVER, 500);          // 예상치 못한 서버 예외
 
     private final UsageErrorCategory category;
@@ -0,0 +1,57 @@
+package com.hbs.hsbbo.admin.ai.usage.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * ai_usage_log 1행 (비동기 writer / 스필 파일용 평면 DTO)
+ * - 연관 엔티티 대신 FK id 만 보관 → 요청 스레드에서 엔티티 연관 해석/영속화 없음
+ * - regDate 는 요청 처리 시점 기준 (DB 반영이 늦어져도 통계 시간이 밀리지 않음)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UsageLogRecord {
+    private String tenantId;
+    private Long siteKeyId;
+    private String siteKeyValue;
+    private Long promptProfileId;
+    private Long widgetConfigId;
+    private String conversationId;
+    private String channel;
+
+    private String requestText;
+    private String answerText;
+
+    private String model;
+    private Integer promptTokens;
+    private Integer completionTokens;
+    private Integer totalTokens;
+    private Long latencyMs;
+    private Long firstTokenMs;
+
+    private String userIp;
+    private String userAgent;
+    private String clientHost;
+
+    private Integer httpStatus;
+    private String successTf;
+    private String errorCode;
+    private String errorMessage;
+    private String quotaType;
+    private Integer quotaRemaining;
+
+    private String ragUsedTf;
+    private Integer ragSourceCount;
+    private String toolUsedTf;
+    private String cacheHitTf;
+    private String cacheTier;
+    private Double cacheSimilarity;
+    private String coalescedTf;
+    private String provider;
+
+    private LocalDateTime regDate;
+}
@@ -15,4 +15,7 @@ public interface UsageStatsProjection {
     Long getTotalTokens();
 
     Double getAvgLatencyMs();
+
+    Long getExactCacheHits();
+    Long getSemanticCacheHits();
 }
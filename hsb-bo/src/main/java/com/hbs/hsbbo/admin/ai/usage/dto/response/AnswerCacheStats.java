@@ -0,0 +1,49 @@
+package com.hbs.hsbbo.admin.ai.usage.dto.response;
+
+import com.hbs.hsbbo.admin.ai.kb.service.AnswerCacheControl;
+import lombok.*;
+
+/**
+ * 답변 캐시 설정 + 적중 현황 (응답한 노드의 기동 이후 누적, 기간 통계는 UsageStatsItem 참고)
+ */
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnswerCacheStats {
+    private boolean semanticEnabled;
+    private double semanticThreshold;   // 코사인 유사도 임계값
+    private String embeddingProvider;
+    private String ttl;
+
+    private long exactEntries;          // EXACT 캐시 항목 수 (추정치)
+    private long semanticScopes;        // SEMANTIC 색인 스코프 수
+
+    private long lookups;               // 캐시 조회 수 (opt-in 프로필 요청)
+    private long exactHits;
+    private long semanticHits;
+    private double exactHitRate;        // 0~100 (%)
+    private double semanticHitRate;     // 0~100 (%)
+
+    public static AnswerCacheStats from(AnswerCacheControl.Snapshot s) {
+        return AnswerCacheStats.builder()
+                .semanticEnabled(s.semanticEnabled())
+                .semanticThreshold(s.semanticThreshold())
+                .embeddingProvider(s.embeddingProvider())
+                .ttl(s.ttl())
+                .exactEntries(s.exactEntries())
+                .semanticScopes(s.semanticScopes())
+                .lookups(s.lookups())
+                .exactHits(s.exactHits())
+                .semanticHits(s.semanticHits())
+                .exactHitRate(rate(s.exactHits(), s.lookups()))
+                .semanticHitRate(rate(s.semanticHits(), s.lookups()))
+                .build();
+    }
+
+    private static double rate(long hits, long total) {
+        return total == 0 ? 0.0 : Math.round(hits * 10000.0 / total) / 100.0;
+    }
+}
@@ -29,11 +29,16 @@ public class UsageStatsItem {
 
     private Double avgLatencyMs;        // 평균 latency (ms) – 소수점 허용
 
+    private Long exactCacheHits;        // 답변 캐시 EXACT 적중 수
+    private Long semanticCacheHits;     // 답변 캐시 SEMANTIC 적중 수
+
     // 파생값(화면/리포트에 바로 쓰기)
     private Double successRate;         // 0~100 (%)
 
     private Double avgTokensPerCall;    // 호출당 평균 토큰
 
+    private Double cacheHitRate;        // 0~100 (%) – (EXACT + SEMANTIC) / 전체 호출
+
     public static UsageStatsItem from(UsageStatsProjection p, Period period) {
         LocalDate bucketDate = p.getBucketDate();
 
@@ -72,6 +77,10 @@ public class UsageStatsItem {
         double successRate = (total == 0) ? 0.0 : round2(success * 100.0 / total);
         double avgTokens = (total == 0) ? 0.0 : round2(tokens * 1.0 / total);
 
+        long exactHits = nvl(p.getExactCacheHits());
+        long semanticHits = nvl(p.getSemanticCacheHits());
+        double cacheHitRate = (total == 0) ? 0.0 : round2((exactHits + semanticHits) * 100.0 / total);
+
         return UsageStatsItem.builder()
                 .bucketLabel(p.getBucketLabel())
                 .bucketDate(bucketDate)
@@ -88,8 +97,12 @@ public class UsageStatsItem {
 
                 .avgLatencyMs(nvlD(p.getAvgLatencyMs()))
 
+                .exactCacheHits(exactHits)
+                .semanticCacheHits(semanticHits)
+
                 .successRate(successRate)
                 .avgTokensPerCall(avgTokens)
+                .cacheHitRate(cacheHitRate)
                 .build();
     }
 
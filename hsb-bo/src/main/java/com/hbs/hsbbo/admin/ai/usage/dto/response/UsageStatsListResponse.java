@@ -14,6 +14,7 @@ public class UsageStatsListResponse {
     private List<UsageStatsItem> items;
     private long totalCount; // 버킷 개수
     private int totalPages;
+    private AnswerCacheStats answerCache; // 답변 캐시 설정/적중 현황 (이 노드 기준)
 
     public static UsageStatsListResponse of(List<UsageStatsItem> items, long totalCount, int totalPages) {
         return UsageStatsListResponse.builder()
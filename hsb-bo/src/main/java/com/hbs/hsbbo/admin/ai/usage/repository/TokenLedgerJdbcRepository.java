@@ -0,0 +1,89 @@
+package com.hbs.hsbbo.admin.ai.usage.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ai_token_ledger (사이트키별 일/월 토큰 누적) JDBC 접근
+ *
+ * - period_type : 'D'(일, period_key=yyyy-MM-dd) / 'M'(월, period_key=yyyy-MM)
+ * - 누적은 INSERT ... ON DUPLICATE KEY UPDATE total_tokens = total_tokens + ? 배치로만 수행
+ */
+@Repository
+@RequiredArgsConstructor
+public class TokenLedgerJdbcRepository {
+
+    private final JdbcTemplate jdbc;
+    private static final int BATCH = 1000;
+
+    public record Row(Long siteKeyId, String periodType, String periodKey, long totalTokens) {}
+
+    /** 현재 일/월 구간 누적값 조회 */
+    public List<Row> findCurrent(String dayKey, String monthKey) {
+        return jdbc.query("""
+                SELECT site_key_id, period_type, period_key, total_tokens
+                  FROM ai_token_ledger
+                 WHERE (period_type = 'D' AND period_key = ?)
+                    OR (period_type = 'M' AND period_key = ?)
+                """,
+                (rs, i) -> new Row(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getLong(4)),
+                dayKey, monthKey);
+    }
+
+    public boolean existsForMonth(String monthKey) {
+        Integer cnt = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM ai_token_ledger WHERE period_type = 'M' AND period_key = ?",
+                Integer.class, monthKey);
+        return cnt != null && cnt > 0;
+    }
+
+    /** 증분 누적 (배치 upsert) */
+    public void addAll(List<Row> deltas) {
+        final String sql = """
+                INSERT INTO ai_token_ledger (site_key_id, period_type, period_key, total_tokens, reg_date, up_date)
+                VALUES (?, ?, ?, ?, NOW(), NOW())
+                ON DUPLICATE KEY UPDATE
+                  total_tokens = total_tokens + VALUES(total_tokens),
+                  up_date = NOW()
+                """;
+        for (int from = 0; from < deltas.size(); from += BATCH) {
+            List<Object[]> args = new ArrayList<>(BATCH);
+            for (Row r : deltas.subList(from, Math.min(from + BATCH, deltas.size()))) {
+                args.add(new Object[]{ r.siteKeyId(), r.periodType(), r.periodKey(), r.totalTokens() });
+            }
+            jdbc.batchUpdate(sql, args);
+        }
+    }
+
+    /**
+     * 원장이 비어 있는 달(최초 배포 등)에만 사용: 일 롤업(ai_usage_rollup_day)을 사이트키별로 합산해 원장 초기값 생성
+     * - 원본 ai_usage_log 전체 스캔 대신 (사이트키 x 채널 x 일) 행만 읽는다
+     * - site_key_id = 0 은 사이트키 없는 호출 버킷이므로 제외
+     * - 다른 노드가 먼저 채웠으면 INSERT IGNORE 로 무시
+     */
+    public int seedFromRollup(LocalDate monthStart, LocalDate today, String dayKey, String monthKey) {
+        int month = jdbc.update("""
+                INSERT IGNORE INTO ai_token_ledger (site_key_id, period_type, period_key, total_tokens, reg_date, up_date)
+                SELECT r.site_key_id, 'M', ?, SUM(r.total_tokens), NOW(), NOW()
+                  FROM ai_usage_rollup_day r
+                 WHERE r.bucket_date >= ?
+                   AND r.site_key_id > 0
+                 GROUP BY r.site_key_id
+                """, monthKey, Date.valueOf(monthStart));
+        int day = jdbc.update("""
+                INSERT IGNORE INTO ai_token_ledger (site_key_id, period_type, period_key, total_tokens, reg_date, up_date)
+                SELECT r.site_key_id, 'D', ?, SUM(r.total_tokens), NOW(), NOW()
+                  FROM ai_usage_rollup_day r
+                 WHERE r.bucket_date = ?
+                   AND r.site_key_id > 0
+                 GROUP BY r.site_key_id
+                """, dayKey, Date.valueOf(today));
+        return month + day;
+    }
+}
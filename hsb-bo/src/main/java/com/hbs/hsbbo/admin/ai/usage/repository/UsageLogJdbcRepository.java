@@ -0,0 +1,91 @@
+package com.hbs.hsbbo.admin.ai.usage.repository;
+
+import com.hbs.hsbbo.admin.ai.usage.dto.UsageLogRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * ai_usage_log 배치 INSERT (UsageLogWriter 전용)
+ */
+@Repository
+@RequiredArgsConstructor
+public class UsageLogJdbcRepository {
+
+    private final JdbcTemplate jdbc;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO ai_usage_log (
+              tenant_id, site_key_id, site_key, prompt_profile_id, widget_config_id, conversation_id, channel,
+              request_text, answer_text,
+              model, prompt_tokens, completion_tokens, total_tokens, latency_ms, first_token_ms,
+              user_ip, user_agent, client_host,
+              http_status, success_tf, error_code, error_message, quota_type, quota_remaining,
+              rag_used_tf, rag_source_count, tool_used_tf, cache_hit_tf, cache_tier, cache_similarity, coalesced_tf, provider,
+              use_tf, del_tf, reg_date, up_date
+            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 'Y', 'N', ?, ?)
+            """;
+
+    public void insertBatch(List<UsageLogRecord> rows) {
+        if (rows.isEmpty()) return;
+        jdbc.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                UsageLogRecord r = rows.get(i);
+                int c = 1;
+                ps.setObject(c++, r.getTenantId());
+                ps.setObject(c++, r.getSiteKeyId());
+                ps.setObject(c++, r.getSiteKeyValue());
+                ps.setObject(c++, r.getPromptProfileId());
+                ps.setObject(c++, r.getWidgetConfigId());
+                ps.setObject(c++, r.getConversationId());
+                ps.setObject(c++, r.getChannel());
+
+                ps.setObject(c++, r.getRequestText());
+                ps.setObject(c++, r.getAnswerText());
+
+                ps.setObject(c++, r.getModel());
+                ps.setObject(c++, r.getPromptTokens());
+                ps.setObject(c++, r.getCompletionTokens());
+                ps.setObject(c++, r.getTotalTokens());
+                ps.setObject(c++, r.getLatencyMs());
+                ps.setObject(c++, r.getFirstTokenMs());
+
+                ps.setObject(c++, r.getUserIp());
+                ps.setObject(c++, r.getUserAgent());
+                ps.setObject(c++, r.getClientHost());
+
+                ps.setObject(c++, r.getHttpStatus());
+                ps.setObject(c++, r.getSuccessTf());
+                ps.setObject(c++, r.getErrorCode());
+                ps.setObject(c++, r.getErrorMessage());
+                ps.setObject(c++, r.getQuotaType());
+                ps.setObject(c++, r.getQuotaRemaining());
+
+                ps.setObject(c++, r.getRagUsedTf());
+                ps.setObject(c++, r.getRagSourceCount());
+                ps.setObject(c++, r.getToolUsedTf());
+                ps.setObject(c++, r.getCacheHitTf() == null ? "N" : r.getCacheHitTf());
+                ps.setObject(c++, r.getCacheTier());
+                ps.setObject(c++, r.getCacheSimilarity());
+                ps.setObject(c++, r.getCoalescedTf() == null ? "N" : r.getCoalescedTf());
+                ps.setObject(c++, r.getProvider());
+
+                Timestamp ts = r.getRegDate() == null ? new Timestamp(System.currentTimeMillis()) : Timestamp.valueOf(r.getRegDate());
+                ps.setTimestamp(c++, ts);
+                ps.setTimestamp(c, ts);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+}
@@ -0,0 +1,164 @@
+package com.hbs.hsbbo.admin.ai.usage.repository;
+
+import com.hbs.hsbbo.admin.ai.usage.dto.UsageLogRecord;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 사용량 롤업 (ai_usage_rollup_day) 증분 반영
+ *
+ * - 키: tenant_id + site_key_id(없으면 0) + channel + 버킷(일)
+ * - 통계 조회(UsageStatsRepository)와 토큰 원장 초기값(TokenLedger)이 읽는다.
+ * - 집계 대상은 원본 조회와 같은 use_tf = 'Y' AND del_tf = 'N' 행
+ *   (writer 는 항상 'Y'/'N' 으로 INSERT 하므로 배치 전체, 백필은 WHERE 로 거른다)
+ * - UsageLogWriter 가 ai_usage_log 배치 INSERT 와 같은 트랜잭션에서 applyBatch 호출
+ *   → 원본과 롤업이 항상 같이 커밋/롤백
+ * - 평균 응답시간은 latency_sum_ms / latency_count 로 보관 (AVG 재계산 가능)
+ * - 답변 캐시 적중 수는 단계별(cache_exact_hits / cache_semantic_hits)로 보관 → 적중률 = 적중 / total_calls
+ */
+@Repository
+@RequiredArgsConstructor
+@Slf4j
+public class UsageRollupJdbcRepository {
+
+    private final JdbcTemplate jdbc;
+
+    private static final String UPSERT_COLUMNS = """
+            (tenant_id, site_key_id, channel, %s,
+             total_calls, success_calls, fail_calls,
+             prompt_tokens, completion_tokens, total_tokens,
+             latency_sum_ms, latency_count, cache_exact_hits, cache_semantic_hits, up_date)
+            """;
+
+    private static final String UPSERT_UPDATE = """
+            ON DUPLICATE KEY UPDATE
+              total_calls       = total_calls + VALUES(total_calls),
+              success_calls     = success_calls + VALUES(success_calls),
+              fail_calls        = fail_calls + VALUES(fail_calls),
+              prompt_tokens     = prompt_tokens + VALUES(prompt_tokens),
+              completion_tokens = completion_tokens + VALUES(completion_tokens),
+              total_tokens      = total_tokens + VALUES(total_tokens),
+              latency_sum_ms    = latency_sum_ms + VALUES(latency_sum_ms),
+              latency_count     = latency_count + VALUES(latency_count),
+              cache_exact_hits    = cache_exact_hits + VALUES(cache_exact_hits),
+              cache_semantic_hits = cache_semantic_hits + VALUES(cache_semantic_hits),
+              up_date           = NOW()
+            """;
+
+    private static final String BACKFILL_LOCK = "hsbs_usage_rollup_backfill";
+    private static final int BACKFILL_LOCK_WAIT_SECONDS = 60;
+
+    private record Key(String tenantId, long siteKeyId, String channel, LocalDate bucket) {}
+
+    private static final class Acc {
+        long calls, success, fail, prompt, completion, tokens, latencySum, latencyCount, exactHits, semanticHits;
+
+        void add(UsageLogRecord r) {
+            calls++;
+            if ("Y".equals(r.getSuccessTf())) success++; else fail++;
+            prompt += r.getPromptTokens() == null ? 0 : r.getPromptTokens();
+            completion += r.getCompletionTokens() == null ? 0 : r.getCompletionTokens();
+            tokens += r.getTotalTokens() == null ? 0 : r.getTotalTokens();
+            if (r.getLatencyMs() != null) {
+                latencySum += r.getLatencyMs();
+                latencyCount++;
+            }
+            if ("Y".equals(r.getCacheHitTf())) {
+                if ("SEMANTIC".equals(r.getCacheTier())) semanticHits++; else exactHits++;
+            }
+        }
+
+    }
+
+    /** 배치 단위로 메모리에서 먼저 합산한 뒤 일 롤업에 upsert */
+    public void applyBatch(List<UsageLogRecord> rows) {
+        if (rows.isEmpty()) return;
+
+        Map<Key, Acc> days = new LinkedHashMap<>();
+        for (UsageLogRecord r : rows) {
+            LocalDateTime at = r.getRegDate() != null ? r.getRegDate() : LocalDateTime.now();
+            Key k = new Key(
+                    r.getTenantId(),
+                    r.getSiteKeyId() == null ? 0L : r.getSiteKeyId(),
+                    r.getChannel() == null ? "widget" : r.getChannel(),
+                    at.toLocalDate());
+            days.computeIfAbsent(k, kk -> new Acc()).add(r);
+        }
+
+        String sql = "INSERT INTO ai_usage_rollup_day " + UPSERT_COLUMNS.formatted("bucket_date")
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NOW()) " + UPSERT_UPDATE;
+
+        List<Object[]> args = new ArrayList<>(days.size());
+        days.forEach((k, a) -> args.add(new Object[]{
+                k.tenantId(), k.siteKeyId(), k.channel(), Date.valueOf(k.bucket()),
+                a.calls, a.success, a.fail, a.prompt, a.completion, a.tokens, a.latencySum, a.latencyCount,
+                a.exactHits, a.semanticHits
+        }));
+        jdbc.batchUpdate(sql, args);
+    }
+
+    /**
+     * 롤업 도입 이전 원본 로그 1회 백필
+     * - 여러 노드가 동시에 떠도 GET_LOCK 으로 한 노드씩 진입, 그 안에서
+     *   ai_usage_rollup_meta 'backfill_hw'(당시 MAX(id))를 INSERT IGNORE 로 선점한 노드만 수행
+     * - id <= hw 인 원본만 원본 테이블에서 직접 집계 → 이후 행은 writer 가 반영하므로 중복 없음
+     * - UsageLogWriter 는 이 호출이 성공(true/false)하기 전에는 INSERT 하지 않는다 → 실패해도 hw 이후 행이 섞이지 않음
+     *   (호출자가 트랜잭션으로 감쌈 → 같은 커넥션에서 lock/release)
+     */
+    public boolean backfillIfNeeded() {
+        Integer locked = jdbc.queryForObject("SELECT GET_LOCK(?, ?)", Integer.class, BACKFILL_LOCK, BACKFILL_LOCK_WAIT_SECONDS);
+        if (locked == null || locked != 1) {
+            throw new IllegalStateException("rollup backfill lock not acquired: " + BACKFILL_LOCK);
+        }
+        try {
+            return backfillLocked();
+        } finally {
+            jdbc.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, BACKFILL_LOCK);
+        }
+    }
+
+    private boolean backfillLocked() {
+        int claimed = jdbc.update("""
+                INSERT IGNORE INTO ai_usage_rollup_meta (meta_key, meta_value, reg_date)
+                SELECT 'backfill_hw', COALESCE(MAX(id), 0), NOW() FROM ai_usage_log
+                """);
+        if (claimed == 0) return false;
+
+        Long hw = jdbc.queryForObject(
+                "SELECT meta_value FROM ai_usage_rollup_meta WHERE meta_key = 'backfill_hw'", Long.class);
+
+        jdbc.update("INSERT INTO ai_usage_rollup_day " + UPSERT_COLUMNS.formatted("bucket_date") + """
+                SELECT u.tenant_id, COALESCE(u.site_key_id, 0), u.channel,
+                       DATE(u.reg_date) AS b,
+                       COUNT(*),
+                       SUM(CASE WHEN u.success_tf = 'Y' THEN 1 ELSE 0 END),
+                       SUM(CASE WHEN u.success_tf = 'Y' THEN 0 ELSE 1 END),
+                       COALESCE(SUM(u.prompt_tokens), 0),
+                       COALESCE(SUM(u.completion_tokens), 0),
+                       COALESCE(SUM(u.total_tokens), 0),
+                       COALESCE(SUM(u.latency_ms), 0),
+                       COUNT(u.latency_ms),
+                       SUM(CASE WHEN u.cache_hit_tf = 'Y' AND COALESCE(u.cache_tier, 'EXACT') <> 'SEMANTIC' THEN 1 ELSE 0 END),
+                       SUM(CASE WHEN u.cache_hit_tf = 'Y' AND u.cache_tier = 'SEMANTIC' THEN 1 ELSE 0 END),
+                       NOW()
+                  FROM ai_usage_log u
+                 WHERE u.id <= ?
+                   AND u.use_tf = 'Y'
+                   AND u.del_tf = 'N'
+                 GROUP BY u.tenant_id, COALESCE(u.site_key_id, 0), u.channel, b
+                """ + UPSERT_UPDATE, hw);
+
+        log.info("[usage-rollup] backfilled rollups from ai_usage_log (id <= {})", hw);
+        return true;
+    }
+}
@@ -2,15 +2,28 @@ package com.hbs.hsbbo.admin.ai.usage.repository;
 
 import com.hbs.hsbbo.admin.ai.usage.domain.entity.UsageLog;
 import com.hbs.hsbbo.admin.ai.usage.dto.UsageStatsProjection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 사용량 통계 조회
+ * - 원본 ai_usage_log 대신 일 롤업(ai_usage_rollup_day)을 버킷으로 재집계
+ *   → 조회 비용이 트래픽이 아니라 (일수 × 사이트키 × 채널) 행 수에 비례
+ * - 평균 응답시간 = SUM(latency_sum_ms) / SUM(latency_count)
+ * - 답변 캐시 적중 수는 단계별(EXACT / SEMANTIC) 합계
+ * - findStats 는 엑셀 내보내기용 Stream (호출자 트랜잭션 안에서 소비 후 close,
+ *   fetch size Integer.MIN_VALUE → MySQL 드라이버가 행 단위로 스트리밍)
+ */
 @Repository
 public interface UsageStatsRepository extends JpaRepository<UsageLog, Long> {
     @Query(value =
@@ -18,48 +31,52 @@ public interface UsageStatsRepository extends JpaRepository<UsageLog, Long> {
                     SELECT
                         -- 버킷 기준 날짜 (일/주 시작일/월 1일)
                         CASE
-                            WHEN :period = 'DAILY' THEN DATE(u.reg_date)
+                            WHEN :period = 'DAILY' THEN r.bucket_date
                             WHEN :period = 'WEEKLY'
-                                THEN DATE_SUB(DATE(u.reg_date), INTERVAL (WEEKDAY(u.reg_date)) DAY)
+                                THEN DATE_SUB(r.bucket_date, INTERVAL (WEEKDAY(r.bucket_date)) DAY)
                             WHEN :period = 'MONTHLY'
-                                THEN DATE_FORMAT(u.reg_date, '%Y-%m-01')
+                                THEN DATE_FORMAT(r.bucket_date, '%Y-%m-01')
                         END AS bucketDate,
             
                         -- 라벨: 일/주/월 별로 다른 문자열 포맷
                         CASE
                             WHEN :period = 'DAILY'
-                                THEN DATE_FORMAT(u.reg_date, '%Y-%m-%d')
+                                THEN DATE_FORMAT(r.bucket_date, '%Y-%m-%d')
                             WHEN :period = 'WEEKLY'
                                 THEN DATE_FORMAT(
-                                    DATE_SUB(DATE(u.reg_date), INTERVAL (WEEKDAY(u.reg_date)) DAY),
+                                    DATE_SUB(r.bucket_date, INTERVAL (WEEKDAY(r.bucket_date)) DAY),
                                     '%x-W%v'
                                 )
                             WHEN :period = 'MONTHLY'
-                                THEN DATE_FORMAT(u.reg_date, '%Y-%m')
+                                THEN DATE_FORMAT(r.bucket_date, '%Y-%m')
                         END AS bucketLabel,
             
-                        COUNT(*)                                                    AS totalCalls,
-                        SUM(CASE WHEN u.success_tf = 'Y' THEN 1 ELSE 0 END)         AS successCalls,
-                        SUM(CASE WHEN u.success_tf = 'N' THEN 1 ELSE 0 END)         AS failCalls,
-                        COALESCE(SUM(u.prompt_tokens), 0)                           AS totalPromptTokens,
-                        COALESCE(SUM(u.completion_tokens), 0)                       AS totalCompletionTokens,
-                        COALESCE(SUM(u.total_tokens), 0)                            AS totalTokens,
-                        COALESCE(AVG(u.latency_ms), 0)                              AS avgLatencyMs
-                    FROM ai_usage_log u
-                    WHERE u.use_tf = 'Y'
-                      AND u.del_tf = 'N'
-                      AND u.tenant_id = :tenantId
-                      AND u.reg_date >= :from
-                      AND u.reg_date <  :to
-                      AND (:siteKeyId IS NULL OR u.site_key_id = :siteKeyId)
-                      AND (:channel IS NULL OR u.channel = :channel)
+                        SUM(r.total_calls)                                          AS totalCalls,
+                        SUM(r.success_calls)                                        AS successCalls,
+                        SUM(r.fail_calls)                                           AS failCalls,
+                        COALESCE(SUM(r.prompt_tokens), 0)                           AS totalPromptTokens,
+                        COALESCE(SUM(r.completion_tokens), 0)                       AS totalCompletionTokens,
+                        COALESCE(SUM(r.total_tokens), 0)                            AS totalTokens,
+                        COALESCE(SUM(r.latency_sum_ms) / NULLIF(SUM(r.latency_count), 0), 0) AS avgLatencyMs,
+                        COALESCE(SUM(r.cache_exact_hits), 0)                        AS exactCacheHits,
+                        COALESCE(SUM(r.cache_semantic_hits), 0)                     AS semanticCacheHits
+                    FROM ai_usage_rollup_day r
+                    WHERE r.tenant_id = :tenantId
+                      AND r.bucket_date >= DATE(:from)
+                      AND r.bucket_date <  DATE(:to)
+                      AND (:siteKeyId IS NULL OR r.site_key_id = :siteKeyId)
+                      AND (:channel IS NULL OR r.channel = :channel)
                     GROUP BY 
                         bucketDate,
                         bucketLabel
                     ORDER BY bucketDate DESC
                 """,
             nativeQuery = true)
-    List<UsageStatsProjection> findStats(
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<UsageStatsProjection> findStats(
             @Param("tenantId") String tenantId,
             @Param("period") String period,          // 'DAILY' / 'WEEKLY' / 'MONTHLY'
             @Param("from") LocalDateTime from,
@@ -72,68 +89,58 @@ public interface UsageStatsRepository extends JpaRepository<UsageLog, Long> {
     @Query(value = """
         SELECT
             CASE
-                WHEN :period = 'DAILY' THEN DATE(u.reg_date)
+                WHEN :period = 'DAILY' THEN r.bucket_date
                 WHEN :period = 'WEEKLY'
-                    THEN DATE_SUB(DATE(u.reg_date), INTERVAL (WEEKDAY(u.reg_date)) DAY)
+                    THEN DATE_SUB(r.bucket_date, INTERVAL (WEEKDAY(r.bucket_date)) DAY)
                 WHEN :period = 'MONTHLY'
-                    THEN DATE_FORMAT(u.reg_date, '%Y-%m-01')
+                    THEN DATE_FORMAT(r.bucket_date, '%Y-%m-01')
             END AS bucketDate,
     
             CASE
                 WHEN :period = 'DAILY'
-                    THEN DATE_FORMAT(u.reg_date, '%Y-%m-%d')
+                    THEN DATE_FORMAT(r.bucket_date, '%Y-%m-%d')
                 WHEN :period = 'WEEKLY'
                     THEN DATE_FORMAT(
-                        DATE_SUB(DATE(u.reg_date), INTERVAL (WEEKDAY(u.reg_date)) DAY),
+                        DATE_SUB(r.bucket_date, INTERVAL (WEEKDAY(r.bucket_date)) DAY),
                         '%x-W%v'
                     )
                 WHEN :period = 'MONTHLY'
-                    THEN DATE_FORMAT(u.reg_date, '%Y-%m')
+                    THEN DATE_FORMAT(r.bucket_date, '%Y-%m')
             END AS bucketLabel,
     
-            COUNT(*)                                                    AS totalCalls,
-            SUM(CASE WHEN u.success_tf = 'Y' THEN 1 ELSE 0 END)         AS successCalls,
-            SUM(CASE WHEN u.success_tf = 'N' THEN 1 ELSE 0 END)         AS failCalls,
-            COALESCE(SUM(u.prompt_tokens), 0)                           AS totalPromptTokens,
-            COALESCE(SUM(u.completion_tokens), 0)                       AS totalCompletionTokens,
-            COALESCE(SUM(u.total_tokens), 0)                            AS totalTokens,
-            COALESCE(AVG(u.latency_ms), 0)                              AS avgLatencyMs
-        FROM ai_usage_log u
-        WHERE u.use_tf = 'Y'
-          AND u.del_tf = 'N'
-          AND u.tenant_id = :tenantId
-          AND u.reg_date >= :from
-          AND u.reg_date <  :to
-          AND (:siteKeyId IS NULL OR u.site_key_id = :siteKeyId)
-          AND (:channel IS NULL OR u.channel = :channel)
+            SUM(r.total_calls)                                          AS totalCalls,
+            SUM(r.success_calls)                                        AS successCalls,
+            SUM(r.fail_calls)                                           AS failCalls,
+            COALESCE(SUM(r.prompt_tokens), 0)                           AS totalPromptTokens,
+            COALESCE(SUM(r.completion_tokens), 0)                       AS totalCompletionTokens,
+            COALESCE(SUM(r.total_tokens), 0)                            AS totalTokens,
+            COALESCE(SUM(r.latency_sum_ms) / NULLIF(SUM(r.latency_count), 0), 0) AS avgLatencyMs,
+            COALESCE(SUM(r.cache_exact_hits), 0)                        AS exactCacheHits,
+            COALESCE(SUM(r.cache_semantic_hits), 0)                     AS semanticCacheHits
+        FROM ai_usage_rollup_day r
+        WHERE r.tenant_id = :tenantId
+          AND r.bucket_date >= DATE(:from)
+          AND r.bucket_date <  DATE(:to)
+          AND (:siteKeyId IS NULL OR r.site_key_id = :siteKeyId)
+          AND (:channel IS NULL OR r.channel = :channel)
         GROUP BY bucketDate, bucketLabel
         ORDER BY bucketDate DESC
       """,
                 countQuery = """
-        SELECT COUNT(*)
-        FROM (
-          SELECT
+        SELECT COUNT(DISTINCT
             CASE
-                WHEN :period = 'DAILY'
-                    THEN DATE_FORMAT(u.reg_date, '%Y-%m-%d')
+                WHEN :period = 'DAILY' THEN r.bucket_date
                 WHEN :period = 'WEEKLY'
-                    THEN DATE_FORMAT(
-                        DATE_SUB(DATE(u.reg_date), INTERVAL (WEEKDAY(u.reg_date)) DAY),
-                        '%x-W%v'
-                    )
+                    THEN DATE_SUB(r.bucket_date, INTERVAL (WEEKDAY(r.bucket_date)) DAY)
                 WHEN :period = 'MONTHLY'
-                    THEN DATE_FORMAT(u.reg_date, '%Y-%m')
-            END AS bucketLabel
-          FROM ai_usage_log u
-          WHERE u.use_tf = 'Y'
-            AND u.del_tf = 'N'
-            AND u.tenant_id = :tenantId
-            AND u.reg_date >= :from
-            AND u.reg_date <  :to
-            AND (:siteKeyId IS NULL OR u.site_key_id = :siteKeyId)
-            AND (:channel IS NULL OR u.channel = :channel)
-          GROUP BY bucketLabel
-        ) t
+                    THEN DATE_FORMAT(r.bucket_date, '%Y-%m-01')
+            END)
+        FROM ai_usage_rollup_day r
+        WHERE r.tenant_id = :tenantId
+          AND r.bucket_date >= DATE(:from)
+          AND r.bucket_date <  DATE(:to)
+          AND (:siteKeyId IS NULL OR r.site_key_id = :siteKeyId)
+          AND (:channel IS NULL OR r.channel = :channel)
       """,
             nativeQuery = true
     )
@@ -0,0 +1,210 @@
+package com.hbs.hsbbo.admin.ai.usage.service;
+
+import com.hbs.hsbbo.admin.ai.usage.repository.TokenLedgerJdbcRepository;
+import com.hbs.hsbbo.admin.ai.usage.repository.TokenLedgerJdbcRepository.Row;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SiteKey.dailyTokenLimit / monthlyTokenLimit 집행용 토큰 원장
+ *
+ * - 응답이 끝날 때 totalTokens 를 사이트키별 일/월 카운터에 메모리로 누적 (record)
+ * - 새 요청은 LLM 호출 전에 누적값과 한도를 비교 (check)
+ * - 누적 증분은 주기적으로 ai_token_ledger 에 배치 upsert (flush) → 채팅 1건당 UPDATE 없음
+ * - 기동 시 ai_token_ledger(사이트키 × 구간 단위의 작은 집계)에서 카운터 재구성
+ *   · 해당 월 원장이 아직 없으면 일 롤업(ai_usage_rollup_day)을 사이트키별로 합산해 초기값 생성
+ * - flush 후 DB 누적값을 다시 읽어 카운터에 반영 → 여러 노드가 같은 원장을 공유해도 flush 주기 내로 수렴
+ *   · DB 값과 이 노드의 증분은 따로 들고 읽을 때 더한다 (used = db + flushing + pending)
+ *     → refresh 가 DB 값을 덮어쓰는 동안 record 가 와도 증분이 사라지지 않는다
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenLedger {
+
+    private static final String DAY = "D";
+    private static final String MONTH = "M";
+
+    private final TokenLedgerJdbcRepository repository;
+
+    private final Map<Key, Slot> slots = new ConcurrentHashMap<>();
+
+    private record Key(Long siteKeyId, String periodType, String periodKey) {}
+
+    private static final class Slot {
+        final AtomicLong db = new AtomicLong();        // 마지막으로 읽은(또는 이 노드가 반영한) DB 누적값
+        final AtomicLong flushing = new AtomicLong();  // flush 로 꺼냈지만 아직 DB 반영이 확정되지 않은 증분
+        final AtomicLong pending = new AtomicLong();   // 아직 flush 안 된 증분
+
+        long used() {
+            return db.get() + flushing.get() + pending.get();
+        }
+    }
+
+    // ========================= 집행 =========================
+
+    /** LLM 호출 전 토큰 한도 검사 (한도 null 또는 0 이하 → 제한 없음) */
+    public Budget check(Long siteKeyId, Long dailyLimit, Long monthlyLimit) {
+        if (siteKeyId == null) return Budget.UNLIMITED;
+        boolean dailyOn = dailyLimit != null && dailyLimit > 0;
+        boolean monthlyOn = monthlyLimit != null && monthlyLimit > 0;
+        if (!dailyOn && !monthlyOn) return Budget.UNLIMITED;
+
+        long dayRemaining = dailyOn ? Math.max(0, dailyLimit - used(siteKeyId, DAY, dayKey())) : -1;
+        long monthRemaining = monthlyOn ? Math.max(0, monthlyLimit - used(siteKeyId, MONTH, monthKey())) : -1;
+
+        if (dailyOn && dayRemaining == 0) {
+            return new Budget(false, dayRemaining, monthRemaining, "오늘 사용 가능한 토큰 한도를 모두 사용했습니다.");
+        }
+        if (monthlyOn && monthRemaining == 0) {
+            return new Budget(false, dayRemaining, monthRemaining, "이번 달 사용 가능한 토큰 한도를 모두 사용했습니다.");
+        }
+        return new Budget(true, dayRemaining, monthRemaining, null);
+    }
+
+    /** 응답 완료 시 사용 토큰 누적 */
+    public void record(Long siteKeyId, Integer totalTokens) {
+        if (siteKeyId == null || totalTokens == null || totalTokens <= 0) return;
+        add(new Key(siteKeyId, DAY, dayKey()), totalTokens);
+        add(new Key(siteKeyId, MONTH, monthKey()), totalTokens);
+    }
+
+    private void add(Key key, long tokens) {
+        slots.computeIfAbsent(key, k -> new Slot()).pending.addAndGet(tokens);
+    }
+
+    private long used(Long siteKeyId, String type, String periodKey) {
+        Slot slot = slots.get(new Key(siteKeyId, type, periodKey));
+        return slot == null ? 0 : slot.used();
+    }
+
+    // ========================= 기동 / flush =========================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        String dayKey = dayKey();
+        String monthKey = monthKey();
+        try {
+            if (!repository.existsForMonth(monthKey)) {
+                LocalDate today = LocalDate.now();
+                int seeded = repository.seedFromRollup(today.withDayOfMonth(1), today, dayKey, monthKey);
+                log.info("[token-ledger] seeded {} rows from ai_usage_rollup_day for {}", seeded, monthKey);
+            }
+            List<Row> rows = repository.findCurrent(dayKey, monthKey);
+            for (Row r : rows) {
+                slots.computeIfAbsent(new Key(r.siteKeyId(), r.periodType(), r.periodKey()), k -> new Slot())
+                        .db.set(r.totalTokens());
+            }
+            log.info("[token-ledger] rebuilt {} counters (day={}, month={})", rows.size(), dayKey, monthKey);
+        } catch (Exception e) {
+            // 원장 테이블 문제로 기동이 막히지 않도록: 빈 카운터로 시작하고 이후 flush 에서 재시도
+            log.warn("[token-ledger] rebuild failed, starting with empty counters: {}", e.toString());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${hsbs.token-ledger.flush-interval-ms:5000}")
+    public void flush() {
+        List<Row> deltas = new ArrayList<>();
+        List<Slot> drained = new ArrayList<>();
+        for (Map.Entry<Key, Slot> e : slots.entrySet()) {
+            Slot slot = e.getValue();
+            long d = slot.pending.get();
+            if (d > 0) {
+                // flushing 에 먼저 올린 뒤 pending 에서 뺀다 → 읽는 쪽은 잠깐 더 크게 볼 뿐 작게 보지 않음
+                slot.flushing.addAndGet(d);
+                slot.pending.addAndGet(-d);
+                Key k = e.getKey();
+                deltas.add(new Row(k.siteKeyId(), k.periodType(), k.periodKey(), d));
+                drained.add(e.getValue());
+            }
+        }
+
+        if (!deltas.isEmpty()) {
+            try {
+                repository.addAll(deltas);
+            } catch (Exception e) {
+                // 실패한 증분은 되돌려 다음 주기에 다시 반영
+                for (int i = 0; i < drained.size(); i++) {
+                    long d = deltas.get(i).totalTokens();
+                    drained.get(i).pending.addAndGet(d);
+                    drained.get(i).flushing.addAndGet(-d);
+                }
+                log.warn("[token-ledger] flush failed ({} rows), will retry: {}", deltas.size(), e.toString());
+                return;
+            }
+            // 반영 확정: DB 값 쪽으로 옮김 (refresh 가 실패해도 카운터가 줄지 않도록)
+            for (int i = 0; i < drained.size(); i++) {
+                long d = deltas.get(i).totalTokens();
+                drained.get(i).db.addAndGet(d);
+                drained.get(i).flushing.addAndGet(-d);
+            }
+        }
+
+        refreshAndPurge();
+    }
+
+    /** DB 누적값(다른 노드 포함)으로 카운터 보정 + 지난 구간 정리 */
+    private void refreshAndPurge() {
+        String dayKey = dayKey();
+        String monthKey = monthKey();
+        try {
+            for (Row r : repository.findCurrent(dayKey, monthKey)) {
+                slots.computeIfAbsent(new Key(r.siteKeyId(), r.periodType(), r.periodKey()), k -> new Slot())
+                        .db.set(r.totalTokens());
+            }
+        } catch (Exception e) {
+            log.debug("[token-ledger] refresh skipped: {}", e.toString());
+        }
+        slots.entrySet().removeIf(e -> {
+            Key k = e.getKey();
+            boolean current = DAY.equals(k.periodType()) ? dayKey.equals(k.periodKey()) : monthKey.equals(k.periodKey());
+            return !current && e.getValue().pending.get() == 0 && e.getValue().flushing.get() == 0;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private static String dayKey() {
+        return LocalDate.now().toString();          // yyyy-MM-dd
+    }
+
+    private static String monthKey() {
+        return YearMonth.now().toString();          // yyyy-MM
+    }
+
+    // ========================= 결과 =========================
+
+    public record Budget(
+            boolean allowed,
+            long dayRemaining,      // -1: 일 한도 없음
+            long monthRemaining,    // -1: 월 한도 없음
+            String rejectMessage
+    ) {
+        static final Budget UNLIMITED = new Budget(true, -1, -1, null);
+
+        /** X-Token-Daily-Remaining / X-Token-Monthly-Remaining (한도 설정된 항목만) */
+        public HttpHeaders headers() {
+            HttpHeaders h = new HttpHeaders();
+            if (dayRemaining >= 0) h.add("X-Token-Daily-Remaining", String.valueOf(dayRemaining));
+            if (monthRemaining >= 0) h.add("X-Token-Monthly-Remaining", String.valueOf(monthRemaining));
+            return h;
+        }
+    }
+}
@@ -5,21 +5,24 @@ import com.hbs.hsbbo.admin.ai.brain.dto.request.BrainChatRequest;
 import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainChatResponse;
 import com.hbs.hsbbo.admin.ai.promptprofile.domain.entity.PromptProfile;
 import com.hbs.hsbbo.admin.ai.sitekey.domain.entity.SiteKey;
-import com.hbs.hsbbo.admin.ai.usage.domain.entity.UsageLog;
 import com.hbs.hsbbo.admin.ai.usage.domain.type.UsageErrorCode;
-import com.hbs.hsbbo.admin.ai.usage.repository.UsageLogRepository;
+import com.hbs.hsbbo.admin.ai.usage.dto.UsageLogRecord;
 import com.hbs.hsbbo.admin.ai.widgetconfig.domain.entity.WidgetConfig;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+
+/**
+ * 채팅 사용 로그 기록
+ * - 요청 스레드에서는 UsageLogRecord 로 변환해 UsageLogWriter 큐에 넣기만 한다 (DB 저장은 비동기 배치)
+ */
 @Service
 @RequiredArgsConstructor
 public class UsageLogService {
-    private final UsageLogRepository usageLogRepository;
+    private final UsageLogWriter usageLogWriter;
 
     // Brain 호출 성공 케이스 로그 저장
-    @Transactional
     public void logBrainChatSuccess(
             String tenantId,
             SiteKey siteKey,
@@ -34,16 +37,20 @@ public class UsageLogService {
             String userAgent,
             Integer httpStatus,
             String quotaType,          // "SITE_KEY" or "IP" 등
-            Integer quotaRemaining
+            Integer quotaRemaining,
+            boolean coalesced,         // 진행 중인 동일 요청 결과를 함께 받은 경우 true
+            String provider            // BRAIN / OPENAI (Brain 장애 시 OpenAI 대체)
     ) {
         BrainUsage usage = brainRes.getUsage();
+        // 합류한 요청은 업스트림을 호출하지 않았으므로 토큰 0 (실제 소비는 선행 요청 행에만 → 롤업 합계가 N배가 되지 않음)
+        boolean billed = usage != null && !coalesced;
 
-        UsageLog log = UsageLog.builder()
+        UsageLogRecord log = UsageLogRecord.builder()
                 .tenantId(tenantId)
-                .siteKey(siteKey)
+                .siteKeyId(siteKey.getId())
                 .siteKeyValue(siteKey.getSiteKey())
-                .promptProfile(profile)
-                .widgetConfig(widgetConfig)
+                .promptProfileId(profile != null ? profile.getId() : null)
+                .widgetConfigId(widgetConfig != null ? widgetConfig.getId() : null)
                 .conversationId(brainRes.getConversationId())
                 .channel(channel)
 
@@ -51,9 +58,9 @@ public class UsageLogService {
                 .answerText(truncate(brainRes.getAnswer(), 1000))
 
                 .model(usage != null ? usage.getModel() : null)
-                .promptTokens(usage != null ? usage.getPromptTokens() : null)
-                .completionTokens(usage != null ? usage.getCompletionTokens() : null)
-                .totalTokens(usage != null ? usage.getTotalTokens() : null)
+                .promptTokens(billed ? usage.getPromptTokens() : (coalesced ? 0 : null))
+                .completionTokens(billed ? usage.getCompletionTokens() : (coalesced ? 0 : null))
+                .totalTokens(billed ? usage.getTotalTokens() : (coalesced ? 0 : null))
                 .latencyMs(usage != null ? usage.getLatencyMs() : null)
 
                 .userIp(userIp)
@@ -70,14 +77,139 @@ public class UsageLogService {
                 .ragUsedTf("N")      // TODO: RAG 붙이면 Y로 세팅
                 .ragSourceCount(null)
                 .toolUsedTf("N")     // TODO: Tool/Agent 붙이면 Y로 세팅
+                .cacheHitTf("N")
+                .coalescedTf(coalesced ? "Y" : "N")
+                .provider(provider)
+
+                .regDate(LocalDateTime.now())
+                .build();
+
+        usageLogWriter.submit(log);
+    }
+
+    // SSE 스트리밍 성공 케이스 로그 저장 (스트림 완료 시점)
+    public void logStreamChatSuccess(
+            String tenantId,
+            SiteKey siteKey,
+            PromptProfile profile,
+            WidgetConfig widgetConfig,
+            String channel,
+            String userPrompt,
+            String answer,
+            String model,
+            Integer promptTokens,
+            Integer completionTokens,
+            Integer totalTokens,
+            Long latencyMs,
+            Long firstTokenMs,
+            String clientHost,
+            String userIp,
+            String userAgent,
+            String quotaType,
+            Integer quotaRemaining
+    ) {
+        UsageLogRecord log = UsageLogRecord.builder()
+                .tenantId(tenantId)
+                .siteKeyId(siteKey.getId())
+                .siteKeyValue(siteKey.getSiteKey())
+                .promptProfileId(profile != null ? profile.getId() : null)
+                .widgetConfigId(widgetConfig != null ? widgetConfig.getId() : null)
+                .conversationId(null)
+                .channel(channel)
+
+                .requestText(truncate(userPrompt, 1000))
+                .answerText(truncate(answer, 1000))
+
+                .model(model)
+                .promptTokens(promptTokens)
+                .completionTokens(completionTokens)
+                .totalTokens(totalTokens)
+                .latencyMs(latencyMs)
+                .firstTokenMs(firstTokenMs)
+
+                .userIp(userIp)
+                .userAgent(truncate(userAgent, 255))
+                .clientHost(truncate(clientHost, 255))
+
+                .httpStatus(200)
+                .successTf("Y")
+                .errorCode(null)
+                .errorMessage(null)
+                .quotaType(quotaType)
+                .quotaRemaining(quotaRemaining)
+
+                .ragUsedTf("N")
+                .ragSourceCount(null)
+                .toolUsedTf("N")
+                .cacheHitTf("N")
+                .provider("OPENAI")  // 스트리밍은 OpenAI 직접 호출
+                .regDate(LocalDateTime.now())
+                .build();
+
+        usageLogWriter.submit(log);
+    }
+
+    // 답변 캐시 적중 케이스 로그 저장 (LLM 호출 없음 → 토큰 0)
+    public void logCachedChatSuccess(
+            String tenantId,
+            SiteKey siteKey,
+            PromptProfile profile,
+            WidgetConfig widgetConfig,
+            String channel,
+            String userPrompt,
+            String answer,
+            String model,
+            String cacheTier,            // EXACT | SEMANTIC | WELCOME
+            Double cacheSimilarity,      // SEMANTIC 적중 시 코사인 유사도
+            Long latencyMs,
+            String clientHost,
+            String userIp,
+            String userAgent,
+            String quotaType,
+            Integer quotaRemaining
+    ) {
+        UsageLogRecord log = UsageLogRecord.builder()
+                .tenantId(tenantId)
+                .siteKeyId(siteKey.getId())
+                .siteKeyValue(siteKey.getSiteKey())
+                .promptProfileId(profile != null ? profile.getId() : null)
+                .widgetConfigId(widgetConfig != null ? widgetConfig.getId() : null)
+                .conversationId(null)
+                .channel(channel)
+
+                .requestText(truncate(userPrompt, 1000))
+                .answerText(truncate(answer, 1000))
+
+                .model(model)
+                .promptTokens(0)
+                .completionTokens(0)
+                .totalTokens(0)
+                .latencyMs(latencyMs)
+
+                .userIp(userIp)
+                .userAgent(truncate(userAgent, 255))
+                .clientHost(truncate(clientHost, 255))
+
+                .httpStatus(200)
+                .successTf("Y")
+                .errorCode(null)
+                .errorMessage(null)
+                .quotaType(quotaType)
+                .quotaRemaining(quotaRemaining)
+
+                .ragUsedTf("N")
+                .ragSourceCount(null)
+                .toolUsedTf("N")
+                .cacheHitTf("Y")
+                .cacheTier(cacheTier)
+                .cacheSimilarity(cacheSimilarity)
 
-                // AuditBase 필드는 기본값(Y/N) 그대로 사용
+                .regDate(LocalDateTime.now())
                 .build();
 
-        usageLogRepository.save(log);
+        usageLogWriter.submit(log);
     }
 
-    @Transactional
     public void logBrainChatError(
             String tenantId,
             SiteKey siteKey,
@@ -102,12 +234,12 @@ public class UsageLogService {
                 ? httpStatus
                 : errorCode.getDefaultHttpStatus();
 
-        UsageLog log = UsageLog.builder()
+        UsageLogRecord log = UsageLogRecord.builder()
                 .tenantId(tenantId)
-                .siteKey(siteKey)
+                .siteKeyId(siteKey != null ? siteKey.getId() : null)
                 .siteKeyValue(siteKey != null ? siteKey.getSiteKey() : null)
-                .promptProfile(profile)
-                .widgetConfig(widgetConfig)
+                .promptProfileId(profile != null ? profile.getId() : null)
+                .widgetConfigId(widgetConfig != null ? widgetConfig.getId() : null)
                 .conversationId(null)
                 .channel(channel != null ? channel : "widget")
 
@@ -134,9 +266,11 @@ public class UsageLogService {
                 .ragUsedTf("N")
                 .ragSourceCount(null)
                 .toolUsedTf("N")
+                .cacheHitTf("N")
+                .regDate(LocalDateTime.now())
                 .build();
 
-        usageLogRepository.save(log);
+        usageLogWriter.submit(log);
     }
 
 
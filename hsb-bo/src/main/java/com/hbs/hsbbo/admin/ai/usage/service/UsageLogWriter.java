@@ -0,0 +1,332 @@
+package com.hbs.hsbbo.admin.ai.usage.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hbs.hsbbo.admin.ai.usage.dto.UsageLogRecord;
+import com.hbs.hsbbo.admin.ai.usage.repository.UsageLogJdbcRepository;
+import com.hbs.hsbbo.admin.ai.usage.repository.UsageRollupJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ai_usage_log 비동기 배치 writer
+ *
+ * - 요청 스레드는 submit() 으로 큐(bounded)에 넣기만 함 → DB 대기 없음
+ * - 전용 스레드가 batch-size 건 또는 flush-interval-ms 마다 JDBC 배치 INSERT
+ *   · 같은 트랜잭션에서 일 롤업(ai_usage_rollup_day)도 증분 반영
+ * - 큐가 가득 차거나(DB 지연) 배치 INSERT 가 실패하면 로컬 JSONL 스필 파일에 기록 (유실 방지)
+ *   · 스필 파일은 DB 가 정상이고 큐가 한가할 때 writer 스레드가 다시 적재 후 삭제
+ * - 종료 시 큐에 남은 건 모두 flush (실패하면 스필)
+ * - 롤업 백필(backfillIfNeeded)이 끝나기 전에는 DB 에 쓰지 않고 스필한다.
+ *   · 백필 전에 INSERT 된 행은 백필 high-water mark 에도 들어가 롤업에 두 번 집계되기 때문
+ *   · 실패하면 replay-interval-ms 마다 재시도, 성공한 뒤 스필분을 재적재
+ *
+ * 메트릭: hsbs.usage_log.{queue.size, enqueued, overflow, written, write.failures, spilled, replayed, batch.write}
+ */
+@Component
+@Slf4j
+public class UsageLogWriter {
+
+    private static final String SPILL_PREFIX = "usage-log-";
+    private static final String SPILL_SUFFIX = ".jsonl";
+
+    private final UsageLogJdbcRepository repository;
+    private final UsageRollupJdbcRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    private final boolean async;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long replayIntervalMs;
+    private final Path spillDir;
+
+    private final BlockingQueue<UsageLogRecord> queue;
+
+    private final Counter enqueued;
+    private final Counter overflow;
+    private final Counter written;
+    private final Counter writeFailures;
+    private final Counter spilled;
+    private final Counter replayed;
+    private final Timer batchWrite;
+
+    private volatile boolean running;
+    private Thread worker;
+    private long lastReplayAt;
+
+    // 백필 시도/스필 재적재는 한 스레드만 (동기 모드에서는 요청 스레드가 번갈아 맡음)
+    private final ReentrantLock maintenance = new ReentrantLock();
+    private volatile boolean rollupReady;
+    private long lastBackfillAttemptAt;
+
+    public UsageLogWriter(
+            UsageLogJdbcRepository repository,
+            UsageRollupJdbcRepository rollupRepository,
+            TransactionTemplate transactionTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${hsbs.usage-log.async:true}") boolean async,
+            @Value("${hsbs.usage-log.queue-capacity:10000}") int queueCapacity,
+            @Value("${hsbs.usage-log.batch-size:200}") int batchSize,
+            @Value("${hsbs.usage-log.flush-interval-ms:1000}") long flushIntervalMs,
+            @Value("${hsbs.usage-log.replay-interval-ms:30000}") long replayIntervalMs,
+            @Value("${hsbs.usage-log.spill-dir:./data/usage-log-spill}") String spillDir
+    ) {
+        this.repository = repository;
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.async = async;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(10, flushIntervalMs);
+        this.replayIntervalMs = Math.max(1000, replayIntervalMs);
+        this.spillDir = Paths.get(spillDir);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+
+        meterRegistry.gauge("hsbs.usage_log.queue.size", queue, BlockingQueue::size);
+        this.enqueued = meterRegistry.counter("hsbs.usage_log.enqueued");
+        this.overflow = meterRegistry.counter("hsbs.usage_log.overflow");
+        this.written = meterRegistry.counter("hsbs.usage_log.written");
+        this.writeFailures = meterRegistry.counter("hsbs.usage_log.write.failures");
+        this.spilled = meterRegistry.counter("hsbs.usage_log.spilled");
+        this.replayed = meterRegistry.counter("hsbs.usage_log.replayed");
+        this.batchWrite = meterRegistry.timer("hsbs.usage_log.batch.write");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!async) {
+            rollupReady();
+            return;
+        }
+        running = true;
+        worker = new Thread(this::runLoop, "usage-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /** 요청 스레드에서 호출: 큐에 넣고 즉시 반환 (가득 차면 스필 파일로) */
+    public void submit(UsageLogRecord record) {
+        if (!async) {
+            // 동기 모드: 기존처럼 요청 스레드에서 바로 INSERT
+            writeOrSpill(List.of(record));
+            maybeReplay();
+            return;
+        }
+        if (queue.offer(record)) {
+            enqueued.increment();
+            return;
+        }
+        overflow.increment();
+        spill(List.of(record));
+    }
+
+    // ========================= writer 스레드 =========================
+
+    private void runLoop() {
+        rollupReady();
+
+        List<UsageLogRecord> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                long deadline = System.currentTimeMillis() + flushIntervalMs;
+                while (batch.size() < batchSize) {
+                    long wait = deadline - System.currentTimeMillis();
+                    if (wait <= 0) break;
+                    UsageLogRecord r = queue.poll(wait, TimeUnit.MILLISECONDS);
+                    if (r == null) break;
+                    batch.add(r);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                if (!batch.isEmpty()) {
+                    writeOrSpill(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+                maybeReplay();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("[usage-log] writer loop error", e);
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeOrSpill(batch);
+        }
+    }
+
+    private void writeOrSpill(List<UsageLogRecord> batch) {
+        if (!rollupReady()) {
+            spill(batch);
+            return;
+        }
+        try {
+            batchWrite.record(() -> persist(batch));
+            written.increment(batch.size());
+        } catch (Exception e) {
+            writeFailures.increment();
+            log.warn("[usage-log] batch insert failed ({} rows) → spill: {}", batch.size(), e.toString());
+            spill(batch);
+        }
+    }
+
+    /** 원본 INSERT + 롤업 upsert 를 한 트랜잭션으로 */
+    private void persist(List<UsageLogRecord> batch) {
+        transactionTemplate.executeWithoutResult(tx -> {
+            repository.insertBatch(batch);
+            rollupRepository.applyBatch(batch);
+        });
+    }
+
+    /**
+     * 롤업 도입 전 데이터 백필이 끝났는지 (안 끝났으면 replay-interval-ms 간격으로 다시 시도)
+     * - 다른 노드가 이미 백필했으면 backfillIfNeeded 가 false 를 돌려주므로 그대로 준비 완료
+     */
+    private boolean rollupReady() {
+        if (rollupReady) return true;
+        if (!maintenance.tryLock()) return false;
+        try {
+            if (rollupReady) return true;
+            long now = System.currentTimeMillis();
+            if (lastBackfillAttemptAt > 0 && now - lastBackfillAttemptAt < replayIntervalMs) return false;
+            lastBackfillAttemptAt = now;
+
+            transactionTemplate.executeWithoutResult(tx -> rollupRepository.backfillIfNeeded());
+            rollupReady = true;
+        } catch (Exception e) {
+            log.warn("[usage-log] rollup backfill failed, spilling writes until it succeeds: {}", e.toString());
+        } finally {
+            maintenance.unlock();
+        }
+        return rollupReady;
+    }
+
+    // ========================= 스필 파일 =========================
+
+    private Path currentSpillFile;
+
+    private synchronized void spill(List<UsageLogRecord> rows) {
+        try {
+            if (currentSpillFile == null) {
+                Files.createDirectories(spillDir);
+                currentSpillFile = spillDir.resolve(SPILL_PREFIX + System.currentTimeMillis() + SPILL_SUFFIX);
+            }
+            try (FileOutputStream out = new FileOutputStream(currentSpillFile.toFile(), true);
+                 BufferedWriter w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+                for (UsageLogRecord r : rows) {
+                    w.write(objectMapper.writeValueAsString(r));
+                    w.newLine();
+                }
+                w.flush();
+                out.getChannel().force(false);
+            }
+            spilled.increment(rows.size());
+        } catch (IOException e) {
+            // 최후 수단: 로그로라도 남김
+            log.error("[usage-log] spill failed, {} rows lost: {}", rows.size(), e.toString());
+        }
+    }
+
+    /** 새 스필 파일로 전환하고, 그 전까지 쓰던 파일 목록(오래된 순) 반환 */
+    private synchronized List<Path> rotateSpillFiles() throws IOException {
+        currentSpillFile = null;
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(spillDir)) return files;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(spillDir, SPILL_PREFIX + "*" + SPILL_SUFFIX)) {
+            ds.forEach(files::add);
+        }
+        files.sort(null);
+        return files;
+    }
+
+    /** DB 가 따라오고 있을 때만(큐 절반 미만) 스필 파일 재적재 */
+    private void maybeReplay() {
+        if (!rollupReady() || !maintenance.tryLock()) return;
+        try {
+            long now = System.currentTimeMillis();
+            if (now - lastReplayAt < replayIntervalMs) return;
+            lastReplayAt = now;
+            if (queue.size() > queue.remainingCapacity()) return;
+
+            for (Path file : rotateSpillFiles()) {
+                if (!replayFile(file)) return;   // DB 실패 → 다음 주기에 재시도
+            }
+        } catch (IOException e) {
+            log.warn("[usage-log] spill replay skipped: {}", e.toString());
+        } finally {
+            maintenance.unlock();
+        }
+    }
+
+    private boolean replayFile(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        int done = 0;
+        try {
+            while (done < lines.size()) {
+                List<UsageLogRecord> batch = new ArrayList<>(batchSize);
+                int end = Math.min(done + batchSize, lines.size());
+                for (String line : lines.subList(done, end)) {
+                    if (!line.isBlank()) batch.add(objectMapper.readValue(line, UsageLogRecord.class));
+                }
+                persist(batch);
+                replayed.increment(batch.size());
+                done = end;
+            }
+            Files.deleteIfExists(file);
+            log.info("[usage-log] replayed {} rows from {}", lines.size(), file.getFileName());
+            return true;
+        } catch (Exception e) {
+            // 이미 반영된 앞부분은 잘라내고 나머지만 남김
+            if (done > 0) {
+                Files.write(file, lines.subList(done, lines.size()), StandardCharsets.UTF_8);
+            }
+            log.warn("[usage-log] replay of {} stopped at line {}: {}", file.getFileName(), done, e.toString());
+            return false;
+        }
+    }
+
+    // ========================= 종료 =========================
+
+    @PreDestroy
+    public void shutdown() {
+        if (!async) return;
+        running = false;   // 진행 중인 배치 INSERT 는 끊지 않고 다음 poll 타임아웃에서 종료
+        if (worker != null) {
+            try {
+                worker.join(flushIntervalMs + TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        List<UsageLogRecord> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (int from = 0; from < rest.size(); from += batchSize) {
+            writeOrSpill(rest.subList(from, Math.min(from + batchSize, rest.size())));
+        }
+        log.info("[usage-log] writer stopped, flushed {} queued rows", rest.size());
+    }
+}
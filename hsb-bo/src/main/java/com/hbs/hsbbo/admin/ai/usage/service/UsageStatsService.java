@@ -1,9 +1,11 @@
 package com.hbs.hsbbo.admin.ai.usage.service;
 
+import com.hbs.hsbbo.admin.ai.kb.service.AnswerCacheControl;
 import com.hbs.hsbbo.admin.ai.usage.domain.type.Period;
 import com.hbs.hsbbo.admin.ai.usage.dto.TopQuestionProjection;
 import com.hbs.hsbbo.admin.ai.usage.dto.UsageStatsProjection;
 import com.hbs.hsbbo.admin.ai.usage.dto.request.UsageStatsRequest;
+import com.hbs.hsbbo.admin.ai.usage.dto.response.AnswerCacheStats;
 import com.hbs.hsbbo.admin.ai.usage.dto.response.TopQuestionItem;
 import com.hbs.hsbbo.admin.ai.usage.dto.response.UsageStatsItem;
 import com.hbs.hsbbo.admin.ai.usage.dto.response.UsageStatsListResponse;
@@ -15,17 +17,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class UsageStatsService {
     private final UsageStatsRepository usageStatsRepository;
     private final UsageLogRepository usageLogRepository;
+    private final AnswerCacheControl answerCache;
 
     public UsageStatsListResponse getUsageStats(UsageStatsRequest req) {
         // 1) 날짜 기본값 처리
@@ -63,18 +68,29 @@ public class UsageStatsService {
         List<UsageStatsItem> items = result.getContent().stream()
                 .map(p -> UsageStatsItem.from(p, periodEnum))
                 .toList();
-        return  UsageStatsListResponse.of(
+        UsageStatsListResponse res = UsageStatsListResponse.of(
                 items,
                 result.getTotalElements(),
                 result.getTotalPages()
         );
+        // 5) 답변 캐시 설정(임계값) + 이 노드 적중 현황 → 임계값 튜닝용
+        res.setAnswerCache(AnswerCacheStats.from(answerCache.snapshot()));
+        return res;
     }
 
-    // 엑셀 다운로드
-    public byte[] exportUsageStatsExcel(UsageStatsRequest req) {
-        // 1) getUsageStats(req) 재사용해도 되고, DB조회만 별도로 해도 됨
-        UsageStatsListResponse res = getUsageStats(req);
-        List<UsageStatsItem> items = res.getItems();
+    /**
+     * 엑셀 다운로드: 기간 내 전체 버킷을 DB 커서(Stream)로 읽으면서 응답 스트림에 바로 기록
+     * - StreamingResponseBody 안에서 프록시를 통해 호출해야 트랜잭션(= 커서 수명)이 쓰기 전체를 감싼다
+     */
+    @Transactional(readOnly = true)
+    public void writeUsageStatsExcel(UsageStatsRequest req, OutputStream out) {
+        LocalDate fromDate = req.getFromDate();
+        LocalDate toDate = req.getToDate();
+        if (fromDate == null || toDate == null) {
+            toDate = LocalDate.now();
+            fromDate = toDate.minusDays(6);
+        }
+        Period periodEnum = req.getPeriod() != null ? req.getPeriod() : Period.DAILY;
 
         List<String> headers = List.of(
                 "버킷 라벨",
@@ -88,35 +104,41 @@ public class UsageStatsService {
                 "출력 토큰",
                 "총 토큰",
                 "평균 응답(ms)",
-                "호출당 평균 토큰"
+                "호출당 평균 토큰",
+                "캐시 적중(EXACT)",
+                "캐시 적중(SEMANTIC)",
+                "캐시 적중률(%)"
         );
 
-
-        InputStream is = ExcelUtil.generateExcel(
-                "AI 사용 통계(" + (req.getPeriod() == null ? "DAILY" : req.getPeriod().name()) + ")",
-                items,
-                headers,
-                List.of(
-                        it -> safe(it.getBucketLabel()),
-                        it -> safe(it.getStartDate()),
-                        it -> safe(it.getEndDate()),
-                        it -> String.valueOf(nvl(it.getTotalCalls())),
-                        it -> String.valueOf(nvl(it.getSuccessCalls())),
-                        it -> String.valueOf(nvl(it.getFailCalls())),
-                        it -> String.valueOf(nvlD(it.getSuccessRate())), // UsageStatsItem에 추가했다면
-                        it -> String.valueOf(nvl(it.getTotalPromptTokens())),
-                        it -> String.valueOf(nvl(it.getTotalCompletionTokens())),
-                        it -> String.valueOf(nvl(it.getTotalTokens())),
-                        it -> String.valueOf(nvlD(it.getAvgLatencyMs())),
-                        it -> String.valueOf(nvlD(it.getAvgTokensPerCall()))
-                )
+        String sheetName = "AI 사용 통계(" + periodEnum.name() + ")";
+        List<Function<UsageStatsItem, String>> extractors = List.of(
+                it -> safe(it.getBucketLabel()),
+                it -> safe(it.getStartDate()),
+                it -> safe(it.getEndDate()),
+                it -> String.valueOf(nvl(it.getTotalCalls())),
+                it -> String.valueOf(nvl(it.getSuccessCalls())),
+                it -> String.valueOf(nvl(it.getFailCalls())),
+                it -> String.valueOf(nvlD(it.getSuccessRate())), // UsageStatsItem에 추가했다면
+                it -> String.valueOf(nvl(it.getTotalPromptTokens())),
+                it -> String.valueOf(nvl(it.getTotalCompletionTokens())),
+                it -> String.valueOf(nvl(it.getTotalTokens())),
+                it -> String.valueOf(nvlD(it.getAvgLatencyMs())),
+                it -> String.valueOf(nvlD(it.getAvgTokensPerCall())),
+                it -> String.valueOf(nvl(it.getExactCacheHits())),
+                it -> String.valueOf(nvl(it.getSemanticCacheHits())),
+                it -> String.valueOf(nvlD(it.getCacheHitRate()))
         );
 
-        try {
-            return is.readAllBytes();
-        } catch (Exception e) {
-            throw new RuntimeException("UsageStats 엑셀 다운로드에 실패하였습니다.", e);
-        }
+        ExcelUtil.writeExcel(sheetName,
+                usageStatsRepository.findStats(
+                        req.getTenantId(),
+                        periodEnum.name(),
+                        fromDate.atStartOfDay(),
+                        toDate.plusDays(1).atStartOfDay(),
+                        req.getSiteKeyId(),
+                        req.getChannel()
+                ).map(p -> UsageStatsItem.from(p, periodEnum)),
+                headers, extractors, out);
     }
 
     /**
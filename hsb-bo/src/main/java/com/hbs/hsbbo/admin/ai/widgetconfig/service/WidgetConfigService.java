@@ -5,6 +5,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hbs.hsbbo.admin.ai.promptprofile.domain.entity.PromptProfile;
 import com.hbs.hsbbo.admin.ai.sitekey.domain.entity.SiteKey;
 import com.hbs.hsbbo.admin.ai.sitekey.repository.SiteKeyRepository;
+import com.hbs.hsbbo.admin.ai.sitekey.runtime.SiteRuntime;
+import com.hbs.hsbbo.admin.ai.sitekey.runtime.SiteRuntimeCache;
 import com.hbs.hsbbo.admin.ai.sitekey.service.SiteKeyService;
 import com.hbs.hsbbo.admin.ai.widgetconfig.domain.entity.WidgetConfig;
 import com.hbs.hsbbo.admin.ai.widgetconfig.dto.WelcomeQuickReplyOption;
@@ -20,6 +22,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -36,6 +39,7 @@ public class WidgetConfigService {
     private final WidgetConfigRepository widgetConfigRepository;
     private final SiteKeyService siteKeyService;
     private final SiteKeyRepository siteKeyRepository;
+    private final SiteRuntimeCache siteRuntimeCache;
 
     private final ObjectMapper om;
     private final FileUtil fileUtil;
@@ -45,38 +49,24 @@ public class WidgetConfigService {
      * - siteKey + host(Origin/Referer의 host) 검증
      * - 연결된 기본 WidgetConfig를 찾아서 WidgetConfigResponse로 반환
      */
-    @Transactional
+    @Transactional(propagation = Propagation.SUPPORTS)
     public WidgetConfigResponse loadForPublic(String siteKey, String host) {
         String key = normalizeSiteKey(siteKey);
         if (key == null || key.isBlank()) {
             throw new IllegalArgumentException("사이트키가 비어 있습니다.");
         }
 
-        // 1) 도메인/상태 검증
-        if (siteKeyService != null) {
-            siteKeyService.assertActiveAndDomainAllowed(key, host); // 실패 시 403 성격 예외
-        } else {
-            SiteKey sk = siteKeyRepository.findBySiteKeyIgnoreCase(key)
-                    .orElseThrow(() -> new IllegalArgumentException("유효하지 않은 사이트키 입니다."));
-            if (!"Y".equalsIgnoreCase(sk.getUseTf()) || "Y".equalsIgnoreCase(sk.getDelTf())) {
-                throw new IllegalStateException("비활성화되었거나 삭제된 사이트키 입니다.");
-            }
-        }
+        // 1) 도메인/상태 검증 + 런타임 스냅샷 (캐시 히트 시 DB 조회 없음)
+        SiteRuntime runtime = siteKeyService.resolveRuntime(key, host); // 실패 시 403 성격 예외
 
         // 2) 연결된 기본 위젯 설정 식별
-        SiteKey sk = siteKeyRepository.findBySiteKeyIgnoreCase(key)
-                .orElseThrow(() -> new IllegalArgumentException("사이트 키 조회 실패"));
-        WidgetConfig linked = sk.getDefaultWidgetConfig();
-        if (linked == null) {
-            // 정책에 따라 404 또는 기본 설정 반환 결정
-            throw new IllegalStateException("연결된 기본 위젯 설정이 없습니다. siteKey=" + key);
-        }
+        WidgetConfig linked = runtime.requireWidgetConfig();
         if ("Y".equalsIgnoreCase(linked.getDelTf())) {
             throw new IllegalStateException("삭제된 위젯 설정입니다. id=" + linked.getId());
         }
 
-        // 3) options 파싱 및 응답 매핑 (관리 응답 포맷 재사용)
-        Map<String, Object> options = readOptions(linked.getOptionsJson());
+        // 3) options(스냅샷에 미리 파싱됨) 응답 매핑 (관리 응답 포맷 재사용)
+        Map<String, Object> options = new java.util.HashMap<>(runtime.getWidgetOptions());
         WidgetConfigResponse response = WidgetConfigResponse.from(linked, options);
 
         return response;
@@ -141,6 +131,7 @@ public class WidgetConfigService {
             sk.setUpAdm(actor);
             sk.setUpDate(LocalDateTime.now());
             siteKeyRepository.save(sk);
+            siteRuntimeCache.evict(sk.getSiteKey());
         }
 
         return e.getId();
@@ -184,6 +175,7 @@ public class WidgetConfigService {
         e.setBubbleIconUrl(finalIconUrl);
         e.setUpAdm(actor);
         e.setUpDate(LocalDateTime.now());
+        siteRuntimeCache.evictByWidgetConfigId(e.getId());
 
         // 사이트키 매핑: linkedSiteKeyId가 넘어오면 해당 SiteKey에 이 위젯을 기본으로 설정
         if (req.getLinkedSiteKeyId() != null) {
@@ -199,6 +191,7 @@ public class WidgetConfigService {
             sk.setUpAdm(actor);
             // save 호출은 생략 가능(JPA flush 시 반영)
             siteKeyRepository.save(sk);
+            siteRuntimeCache.evict(sk.getSiteKey());
         }
 
         // 새 파일로 교체되었으면, 이전 파일 삭제 시도 (서버 소유 경로만)
@@ -223,6 +216,7 @@ public class WidgetConfigService {
         e.setUseTf("Y".equals(e.getUseTf()) ? "N" : "Y");
         e.setUpAdm(actor);
         e.setUpDate(LocalDateTime.now());
+        siteRuntimeCache.evictByWidgetConfigId(e.getId());
         return e.getId();
     }
 
@@ -232,11 +226,12 @@ public class WidgetConfigService {
         e.setDelTf("Y");
         e.setDelAdm(actor);
         e.setDelDate(LocalDateTime.now());
+        siteRuntimeCache.evictByWidgetConfigId(e.getId());
         return e.getId();
     }
 
-    // 사이트키 검증 위젯 반환
-    @Transactional(readOnly = true)
+    // 사이트키 검증 위젯 반환 (SiteRuntimeCache 기준, 히트 시 DB 조회 없음)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public WidgetConfig findDefaultWidgetForSiteKeyOrThrow(String siteKey, String host) {
         String key = normalizeSiteKey(siteKey);
         if (key == null || key.isBlank()) {
@@ -244,22 +239,20 @@ public class WidgetConfigService {
         }
 
         // 도메인/상태 검증
-        SiteKey sk = siteKeyRepository.findBySiteKeyIgnoreCase(key)
-                .orElseThrow(() -> new IllegalArgumentException("사이트키를 찾을 수 없습니다."));
+        SiteRuntime runtime = siteRuntimeCache.get(key);
+        if (runtime == null) {
+            throw new IllegalArgumentException("사이트키를 찾을 수 없습니다.");
+        }
 
-        if (!sk.isActive()) {
+        if (!runtime.isActive()) {
             throw new IllegalStateException("비활성화된 사이트키 입니다. siteKey=" + key);
         }
-        if (host != null && !sk.isDomainAllowed(host)) {
+        if (host != null && !runtime.isDomainAllowed(host)) {
             throw new IllegalStateException("허용되지 않은 도메인입니다. host=" + host);
         }
 
-        WidgetConfig widgetConfig = sk.getDefaultWidgetConfig(); // 연관관계 전제
-        if (widgetConfig == null) {
-            throw new IllegalStateException("연결된 기본 위젯 설정이 없습니다. siteKey=" + key);
-        }
         // 필요하면 status/useTf/delTf 검사
-        return widgetConfig;
+        return runtime.requireWidgetConfig();
     }
 
     // ---------------------------
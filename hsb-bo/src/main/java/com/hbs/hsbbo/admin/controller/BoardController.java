@@ -5,25 +5,20 @@ import com.hbs.hsbbo.admin.dto.request.BoardRequest;
 import com.hbs.hsbbo.admin.dto.response.BoardListResponse;
 import com.hbs.hsbbo.admin.dto.response.BoardResponse;
 import com.hbs.hsbbo.admin.service.BoardService;
-import com.hbs.hsbbo.common.util.ExcelUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayInputStream;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Optional;
-import java.util.function.Function;
 
 @RestController
 @RequiredArgsConstructor
@@ -97,38 +92,23 @@ public class BoardController {
     }
 
     @GetMapping("/export")
-    public ResponseEntity<Resource> getBoardExcel(
+    public ResponseEntity<StreamingResponseBody> getBoardExcel(
             @RequestParam String boardCode,
             @RequestParam(required = false, defaultValue = "") String keyword
     ) {
-        BoardListResponse response = boardService.getBoardList(boardCode, keyword, 0, 10000, null);
-        List<BoardResponse> boards = response.getItems();
-        String boardName = boards.stream()
-                .map(BoardResponse::getBoardName)
-                .filter(name -> name != null && !name.isBlank())
-                .findFirst()
-                .orElse(boardCode.toUpperCase());
+        String boardName = boardService.getBoardName(boardCode);
 
         String today = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
         String sheetName = boardName + " 목록";
         String title = "[" + boardName + "] 목록_" + today;
 
-        List<String> headers = List.of("ID", "제목", "작성자", "등록일", "조회수", "노출여부");
-        List<Function<BoardResponse, String>> extractors = List.of(
-                b -> String.valueOf(b.getId()),
-                BoardResponse::getTitle,
-                b -> Optional.ofNullable(b.getWriterName()).orElse("-"),
-                b -> b.getRegDate() != null ? b.getRegDate().toString() : "-",
-                b -> String.valueOf(b.getViewCount()),
-                b -> "Y".equals(b.getUseTf()) ? "사용" : "미사용"
-        );
-
-        ByteArrayInputStream excelStream = ExcelUtil.generateExcel(sheetName, boards, headers, extractors);
+        // DB 커서 → 응답 스트림 (서비스 트랜잭션 안에서 수행)
+        StreamingResponseBody body = out -> boardService.writeBoardExcel(boardCode, keyword, sheetName, out);
         String filename = URLEncoder.encode(title + ".xlsx", StandardCharsets.UTF_8).replaceAll("\\+", "%20");
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION,
                         "attachment; filename=\"" + filename + "\"; filename*=UTF-8''" + filename)
                 .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .body(new InputStreamResource(excelStream));
+                .body(body);
     }
 }
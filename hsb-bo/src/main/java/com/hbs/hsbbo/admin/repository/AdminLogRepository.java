@@ -1,13 +1,18 @@
 package com.hbs.hsbbo.admin.repository;
 
 import com.hbs.hsbbo.admin.domain.entity.AdminLog;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.stream.Stream;
 
 public interface AdminLogRepository extends JpaRepository<AdminLog, Long> {
 
@@ -37,6 +42,34 @@ public interface AdminLogRepository extends JpaRepository<AdminLog, Long> {
             Pageable pageable
     );
 
+    // 엑셀 내보내기용: 같은 검색 조건을 DB 커서로 (호출자 트랜잭션 안에서 소비 후 close)
+    @Query("""
+            SELECT l
+            FROM AdminLog l
+            WHERE l.delTf = 'N'
+              AND (
+                  :keyword IS NULL
+                  OR l.adminId LIKE %:keyword%
+                  OR l.action LIKE %:keyword%
+                  OR l.detail LIKE %:keyword%
+              )
+              AND (
+                  (:start IS NULL OR :end IS NULL)
+                  OR (l.logDate BETWEEN :start AND :end)
+              )
+            ORDER BY l.logDate DESC
+           """)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<AdminLog> streamAdminLogs(
+            @Param("keyword") String keyword,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end,
+            Limit limit
+    );
+
     boolean existsByAdminIdAndActionAndUrlAndLogDateAfter(
             String adminId,
             String action,
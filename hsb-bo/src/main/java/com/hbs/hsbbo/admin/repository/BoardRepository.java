@@ -1,16 +1,21 @@
 package com.hbs.hsbbo.admin.repository;
 
 import com.hbs.hsbbo.admin.domain.entity.Board;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BoardRepository extends JpaRepository<Board, Long> {
 
@@ -56,6 +61,28 @@ public interface BoardRepository extends JpaRepository<Board, Long> {
                                                        @Param("keyword") String keyword,
                                                        Pageable pageable);
 
+    // 엑셀 내보내기용 DB 커서 (boardConfig 는 fetch join: 스트리밍 중에는 같은 커넥션으로 추가 조회 불가)
+    @Query("""
+            SELECT b FROM Board b
+            JOIN FETCH b.boardConfig bc
+            WHERE UPPER(bc.boardCode) = UPPER(:boardCode)
+              AND b.delTf = 'N'
+              AND b.noticeTf = 'N'
+              AND (
+                    :keyword = ''
+                    OR b.title LIKE CONCAT('%', :keyword, '%')
+                    OR b.content LIKE CONCAT('%', :keyword, '%')
+                  )
+            ORDER BY b.id DESC
+            """)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Board> streamRegularBoardsForExport(@Param("boardCode") String boardCode,
+                                               @Param("keyword") String keyword,
+                                               Limit limit);
+
     Optional<Board> findByIdAndDelTf(Long id, String delTf);
 
     long countByBoardConfigIdAndDelTf(Long boardConfigId, String delTf);
@@ -4,16 +4,22 @@ import com.hbs.hsbbo.admin.domain.entity.AdminLog;
 import com.hbs.hsbbo.admin.dto.response.AdminLogListResponse;
 import com.hbs.hsbbo.admin.dto.response.AdminLogResponse;
 import com.hbs.hsbbo.admin.repository.AdminLogRepository;
+import com.hbs.hsbbo.common.util.ExcelUtil;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
@@ -21,6 +27,7 @@ import java.util.stream.Collectors;
 public class AdminLogService {
 
     private final AdminLogRepository adminLogRepository;
+    private final EntityManager entityManager;
 
 
 
@@ -57,6 +64,54 @@ public class AdminLogService {
         );
     }
 
+    /**
+     * 관리자 로그 엑셀: 검색 조건에 맞는 최신 size 건을 DB 커서로 읽으면서 응답 스트림에 바로 기록
+     * - 컨트롤러의 StreamingResponseBody 에서 호출 (커서가 엑셀 기록 내내 열려 있어야 함)
+     * - 기록한 엔티티는 바로 detach → 영속성 컨텍스트가 행 수만큼 커지지 않음
+     */
+    @Transactional(readOnly = true)
+    public void writeAdminLogExcel(String keyword,
+                                   LocalDate start,
+                                   LocalDate end,
+                                   int size,
+                                   OutputStream out) {
+        LocalDateTime startDateTime = (start != null) ? start.atStartOfDay() : null;
+        LocalDateTime endDateTime = (end != null) ? end.atTime(23, 59, 59) : null;
+
+        List<String> headers = List.of(
+                "ID",
+                "관리자ID",
+                "액션",
+                "상세",
+                "URL",
+                "IP",
+                "로그일시"
+        );
+
+        List<Function<AdminLogResponse, String>> extractors = List.of(
+                log -> log.getId() != null ? String.valueOf(log.getId()) : "",
+                log -> log.getAdminId() != null ? log.getAdminId() : "",
+                log -> log.getAction() != null ? log.getAction() : "",
+                log -> log.getDetail() != null ? log.getDetail() : "",
+                log -> log.getUrl() != null ? log.getUrl() : "",
+                log -> log.getIp() != null ? log.getIp() : "",
+                log -> log.getLogDate() != null ? log.getLogDate().toString() : ""
+        );
+
+        ExcelUtil.writeExcel("관리자로그",
+                adminLogRepository.streamAdminLogs(
+                        (keyword == null || keyword.isEmpty()) ? null : keyword,
+                        startDateTime,
+                        endDateTime,
+                        Limit.of(Math.max(size, 1))
+                ).map(entity -> {
+                    AdminLogResponse dto = AdminLogResponse.fromEntity(entity);
+                    entityManager.detach(entity);
+                    return dto;
+                }),
+                headers, extractors, out);
+    }
+
     public boolean existsRecentLog(
             String adminId,
             String action,
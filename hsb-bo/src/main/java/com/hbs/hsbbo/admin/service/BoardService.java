@@ -12,26 +12,32 @@ import com.hbs.hsbbo.admin.dto.response.BoardResponse;
 import com.hbs.hsbbo.admin.repository.BoardConfigRepository;
 import com.hbs.hsbbo.admin.repository.BoardFileRepository;
 import com.hbs.hsbbo.admin.repository.BoardRepository;
+import com.hbs.hsbbo.common.util.ExcelUtil;
 import com.hbs.hsbbo.common.util.FileUtil;
 import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.OutputStream;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -42,6 +48,10 @@ public class BoardService {
     private final BoardFileRepository boardFileRepository;
     private final FileUtil fileUtil;
     private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    // 엑셀 내보내기 최대 행 수
+    private static final int EXPORT_MAX_ROWS = 10000;
 
     private boolean isNoticeActive(Board board, LocalDateTime now) {
         if (!"Y".equalsIgnoreCase(board.getNoticeTf())) {
@@ -203,6 +213,37 @@ public class BoardService {
         boardRepository.save(board);
     }
 
+    public String getBoardName(String boardCode) {
+        String name = getBoardConfigByCode(boardCode).getBoardName();
+        return (name == null || name.isBlank()) ? boardCode.toUpperCase() : name;
+    }
+
+    /**
+     * 게시판 엑셀: 일반 게시글(공지 제외)을 DB 커서로 읽으면서 응답 스트림에 바로 기록
+     * - 최대 EXPORT_MAX_ROWS 건, 행마다 detach (1차 캐시 누적 방지)
+     */
+    @org.springframework.transaction.annotation.Transactional(readOnly = true)
+    public void writeBoardExcel(String boardCode, String keyword, String sheetName, OutputStream out) {
+        List<String> headers = List.of("ID", "제목", "작성자", "등록일", "조회수", "노출여부");
+        List<Function<BoardResponse, String>> extractors = List.of(
+                b -> String.valueOf(b.getId()),
+                BoardResponse::getTitle,
+                b -> Optional.ofNullable(b.getWriterName()).orElse("-"),
+                b -> b.getRegDate() != null ? b.getRegDate().toString() : "-",
+                b -> String.valueOf(b.getViewCount()),
+                b -> "Y".equals(b.getUseTf()) ? "사용" : "미사용"
+        );
+
+        ExcelUtil.writeExcel(sheetName,
+                boardRepository.streamRegularBoardsForExport(boardCode, defaultString(keyword), Limit.of(EXPORT_MAX_ROWS))
+                        .map(board -> {
+                            BoardResponse dto = BoardResponse.from(board);
+                            entityManager.detach(board);
+                            return dto;
+                        }),
+                headers, extractors, out);
+    }
+
     private BoardConfig getBoardConfigByCode(String boardCode) {
         return boardConfigRepository.findByBoardCodeIgnoreCaseAndDelTf(boardCode, "N")
                 .orElseThrow(() -> new EntityNotFoundException("게시판 설정이 존재하지 않습니다."));
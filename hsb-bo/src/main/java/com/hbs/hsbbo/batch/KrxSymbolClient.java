@@ -1,11 +1,12 @@
 package com.hbs.hsbbo.batch;
 
-import lombok.RequiredArgsConstructor;
+import com.hbs.hsbbo.common.config.httpConfig.OutboundHttpClientFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
@@ -17,7 +18,6 @@ import java.nio.charset.StandardCharsets;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class KrxSymbolClient {
 
     // 엔드포인트
@@ -27,21 +27,27 @@ public class KrxSymbolClient {
     private static final String DL_CSV   = "/comm/fileDn/download_csv/download.cmd";
     private static final MediaType FORM  = MediaType.parseMediaType("application/x-www-form-urlencoded; charset=UTF-8");
 
-    // WebClient (64MB 버퍼 + 공통 헤더)
-    private final WebClient web = WebClient.builder()
-            .baseUrl("https://data.krx.co.kr")
-            .codecs(c -> c.defaultCodecs().maxInMemorySize(64 * 1024 * 1024))
-            .defaultHeaders(h -> {
-                h.set(HttpHeaders.USER_AGENT, "Mozilla/5.0");
-                h.set(HttpHeaders.ACCEPT, "*/*");
-                h.set("X-Requested-With", "XMLHttpRequest");
-                h.set(HttpHeaders.ORIGIN, "https://data.krx.co.kr");
-            })
-            .build();
+    private final WebClient web;
 
     @Value("${krx.symbols.referer}")    String referer;     // ex) https://data.krx.co.kr/contents/MDC/MDI/mdiLoader/index.cmd?menuId=MDC0201020201
     @Value("${krx.symbols.otp-params}") String otpParams;   // ex) locale=ko_KR&mktId=ALL&share=1&csvxls_isNo=false&name=fileDown&url=dbms/MDC/STAT/standard/MDCSTAT01901
 
+    // WebClient (krx 커넥션 풀 + 64MB 버퍼 + 공통 헤더)
+    public KrxSymbolClient(OutboundHttpClientFactory httpClientFactory) {
+        this.web = WebClient.builder()
+                .baseUrl("https://data.krx.co.kr")
+                .clientConnector(new ReactorClientHttpConnector(httpClientFactory.httpClient(OutboundHttpClientFactory.KRX)))
+                .filter(httpClientFactory.exchangeFilter(OutboundHttpClientFactory.KRX))
+                .codecs(c -> c.defaultCodecs().maxInMemorySize(64 * 1024 * 1024))
+                .defaultHeaders(h -> {
+                    h.set(HttpHeaders.USER_AGENT, "Mozilla/5.0");
+                    h.set(HttpHeaders.ACCEPT, "*/*");
+                    h.set("X-Requested-With", "XMLHttpRequest");
+                    h.set(HttpHeaders.ORIGIN, "https://data.krx.co.kr");
+                })
+                .build();
+    }
+
     /** 전종목 기본정보 파일(XLS 우선, 실패 시 CSV) */
     public byte[] downloadXls() {
         warmup();                                        // 0) 세션 준비
@@ -130,7 +130,9 @@ public class SecurityConfig {
             cfg.setAllowedOrigins(List.of(origin));      // ★ 요청 origin만 반영
             cfg.setAllowedMethods(List.of("GET","POST","PUT","DELETE","PATCH","HEAD","OPTIONS"));
             cfg.setAllowedHeaders(List.of("*"));
-            cfg.setExposedHeaders(List.of("X-DailyReq-Remaining","Content-Disposition"));
+            cfg.setExposedHeaders(List.of("X-DailyReq-Remaining","Content-Disposition",
+                    "Retry-After","X-RateLimit-Limit","X-RateLimit-Remaining","X-RateLimit-Reset",
+                    "X-Token-Daily-Remaining","X-Token-Monthly-Remaining","X-HSBS-Cache"));
             cfg.setAllowCredentials(false);
             cfg.setMaxAge(1L);                           // ★ 테스트 중엔 캐시 최소화
             return cfg;
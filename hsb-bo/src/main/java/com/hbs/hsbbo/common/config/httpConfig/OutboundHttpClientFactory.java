@@ -0,0 +1,123 @@
+package com.hbs.hsbbo.common.config.httpConfig;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 외부 HTTP 호출 공통 팩토리: 업스트림 이름별 ConnectionProvider(커넥션 풀)를 하나씩 만들어 공유한다.
+ *
+ * - 같은 이름의 WebClient 들은 같은 풀을 쓴다 (예: brainWebClient / hsbsBrainWebClient)
+ * - keep-alive + idle/lifetime 정리로 부하 시 매 호출 TCP/TLS 핸드셰이크를 하지 않도록
+ * - 풀 지표: Reactor Netty reactor.netty.connection.provider.* {name}
+ *   (active/idle/pending 커넥션, pending.connections.time = 커넥션 획득 대기 시간)
+ * - 획득 실패(대기 시간 초과/대기열 초과)는 hsbs.http.pool.acquire_failed {client, reason}
+ * - 로깅은 wiretap 대신 exchangeFilter 한 줄(메서드/URL/상태/소요시간) → 본문/헤더(API 키)는 찍지 않는다.
+ *   단, 3xx 는 리다이렉트 대상 확인용으로 Location 헤더를 붙인다 (kis 는 followRedirect(false) 로 301 을 그대로 받음)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboundHttpClientFactory {
+
+    public static final String BRAIN = "brain";
+    public static final String OPENAI = "openai";
+    public static final String KIS = "kis";
+    public static final String KRX = "krx";
+    public static final String GENERAL = "general";
+
+    private static final Logger accessLog = LoggerFactory.getLogger("OUTBOUND_HTTP");
+
+    private final OutboundHttpProperties props;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, ConnectionProvider> providers = new ConcurrentHashMap<>();
+
+    /** 풀/keep-alive/connect timeout/프로토콜만 잡은 HttpClient. responseTimeout 등은 호출측에서 이어서 설정 */
+    public HttpClient httpClient(String name) {
+        OutboundHttpProperties.Pool pool = props.pool(name);
+        HttpClient client = HttpClient.create(provider(name))
+                .keepAlive(true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) pool.getConnectTimeout().toMillis());
+        if (pool.isHttp2()) {
+            client = client.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+        return client;
+    }
+
+    /** 접근 로그 + 풀 획득 실패 카운트 */
+    public ExchangeFilterFunction exchangeFilter(String name) {
+        boolean info = props.pool(name).isAccessLog();
+        return (req, next) -> Mono.defer(() -> {
+            long startedAt = System.currentTimeMillis();
+            return next.exchange(req)
+                    .doOnSuccess(res -> {
+                        if (res == null) return;
+                        long elapsed = System.currentTimeMillis() - startedAt;
+                        String location = res.statusCode().is3xxRedirection()
+                                ? res.headers().asHttpHeaders().getFirst(HttpHeaders.LOCATION) : null;
+                        String suffix = location != null ? " Location=" + location : "";
+                        if (info) {
+                            accessLog.info("[{}] {} {} <= {}{} ({}ms)", name, req.method(), req.url(), res.statusCode(), suffix, elapsed);
+                        } else {
+                            accessLog.debug("[{}] {} {} <= {}{} ({}ms)", name, req.method(), req.url(), res.statusCode(), suffix, elapsed);
+                        }
+                    })
+                    .doOnError(e -> {
+                        String reason = acquireFailure(e);
+                        if (reason != null) {
+                            meterRegistry.counter("hsbs.http.pool.acquire_failed", "client", name, "reason", reason).increment();
+                        }
+                        accessLog.warn("[{}] {} {} failed after {}ms: {}", name, req.method(), req.url(),
+                                System.currentTimeMillis() - startedAt, e.toString());
+                    });
+        });
+    }
+
+    private ConnectionProvider provider(String name) {
+        return providers.computeIfAbsent(name, n -> {
+            OutboundHttpProperties.Pool pool = props.pool(n);
+            log.info("[outbound-http] pool={} maxConnections={} pendingAcquireMax={} maxIdle={} http2={}",
+                    n, pool.getMaxConnections(), pool.getPendingAcquireMaxCount(), pool.getMaxIdleTime(), pool.isHttp2());
+            return ConnectionProvider.builder("hsbs-" + n)
+                    .maxConnections(pool.getMaxConnections())
+                    .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                    .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                    .maxIdleTime(pool.getMaxIdleTime())
+                    .maxLifeTime(pool.getMaxLifeTime())
+                    .evictInBackground(pool.getEvictInBackground())
+                    .metrics(true)
+                    .build();
+        });
+    }
+
+    /** 풀 예외 클래스는 Reactor Netty 내부(shaded) 패키지라 이름으로 구분 */
+    private static String acquireFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            String type = t.getClass().getSimpleName();
+            if ("PoolAcquireTimeoutException".equals(type)) return "timeout";
+            if ("PoolAcquirePendingLimitException".equals(type)) return "pending_limit";
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        providers.values().forEach(ConnectionProvider::dispose);
+    }
+}
@@ -0,0 +1,47 @@
+package com.hbs.hsbbo.common.config.httpConfig;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 외부 HTTP 호출용 커넥션 풀 설정 (hsbs.http.clients.<이름>)
+ *
+ * - 이름: brain / openai / kis / krx / general (OutboundHttpClientFactory 상수)
+ * - 설정이 없는 이름은 Pool 기본값으로 만든다.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "hsbs.http")
+public class OutboundHttpProperties {
+
+    private Map<String, Pool> clients = new LinkedHashMap<>();
+
+    public Pool pool(String name) {
+        Pool pool = clients.get(name);
+        return pool != null ? pool : new Pool();
+    }
+
+    @Getter
+    @Setter
+    public static class Pool {
+        // 업스트림별 최대 커넥션 수 (HTTP/2 면 커넥션당 여러 스트림)
+        private int maxConnections = 50;
+        // 커넥션을 기다리는 요청 수 한도 / 대기 시간 (초과 시 즉시 실패)
+        private int pendingAcquireMaxCount = 200;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+        // keep-alive: 업스트림/LB idle timeout 보다 짧게 잡아서 끊긴 커넥션을 재사용하지 않도록
+        private Duration maxIdleTime = Duration.ofSeconds(20);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private Duration evictInBackground = Duration.ofSeconds(30);
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        // https 업스트림에서만 의미 있음 (ALPN 협상, 실패하면 HTTP/1.1)
+        private boolean http2 = false;
+        // true: 요청마다 INFO 한 줄 (메서드/URL/상태/소요시간), false: DEBUG
+        private boolean accessLog = false;
+    }
+}
@@ -1,12 +1,14 @@
 package com.hbs.hsbbo.common.config.kisConfig;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hbs.hsbbo.common.config.httpConfig.OutboundHttpClientFactory;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.time.Duration;
@@ -21,8 +23,11 @@ public class CacheConfig {
      * 기본 주입(@Primary) 아님! -> 실수로 주입되는 걸 방지하려고 이름을 붙였습니다.
      */
     @Bean(name = "generalWebClient")
-    public WebClient generalWebClient() {
-        return WebClient.builder().build();
+    public WebClient generalWebClient(OutboundHttpClientFactory httpClientFactory) {
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClientFactory.httpClient(OutboundHttpClientFactory.GENERAL)))
+                .filter(httpClientFactory.exchangeFilter(OutboundHttpClientFactory.GENERAL))
+                .build();
     }
 
     @Bean
@@ -4,35 +4,77 @@ import jakarta.annotation.Resource;
 import lombok.RequiredArgsConstructor;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.stereotype.Component;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Component
 @RequiredArgsConstructor
 @Resource
 public class ExcelUtil {
-    // 엑셀 저장용
+    // 스트리밍 워크북: 메모리에 유지하는 행 수 (나머지는 임시 파일로 flush)
+    private static final int ROW_WINDOW = 100;
+    // 열 너비 추정에 사용하는 본문 샘플 행 수 (autoSizeColumn 대체)
+    private static final int WIDTH_SAMPLE_ROWS = 200;
+    private static final int MIN_COL_CHARS = 8;
+    private static final int MAX_COL_CHARS = 60;
+
+    // 엑셀 저장용 (기존 호출부 호환: 메모리 byte[] 로 생성)
     public static <T> ByteArrayInputStream generateExcel(
             String sheetName,
             List<T> data,
             List<String> headers,
             List<Function<T, String>> valueExtractors
     ){
-        try(
-            Workbook workbook = new XSSFWorkbook();
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-        ) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeExcel(sheetName, data, headers, valueExtractors, out);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    /**
+     * 스트리밍 엑셀 생성 (Stream / 커서 입력) → OutputStream 으로 바로 기록
+     * - 스트림은 여기서 닫는다 (DB 커서 기반 Stream 도 안전하게 정리)
+     */
+    public static <T> void writeExcel(
+            String sheetName,
+            Stream<T> data,
+            List<String> headers,
+            List<Function<T, String>> valueExtractors,
+            OutputStream out
+    ) {
+        try (data) {
+            writeExcel(sheetName, (Iterable<T>) data::iterator, headers, valueExtractors, out);
+        }
+    }
+
+    /**
+     * 스트리밍 엑셀 생성 (SXSSF)
+     * - 최근 ROW_WINDOW 행만 메모리에 두고 나머지는 압축 임시 파일로 내려씀 → 행 수와 무관하게 힙 사용 일정
+     * - 열 너비는 헤더 + 앞쪽 WIDTH_SAMPLE_ROWS 행의 글자 수로 추정 (autoSizeColumn 의 전체 행 폰트 측정 없음)
+     * - 결과는 out(예: HTTP 응답 스트림)에 바로 기록, out 은 닫지 않음
+     */
+    public static <T> void writeExcel(
+            String sheetName,
+            Iterable<T> data,
+            List<String> headers,
+            List<Function<T, String>> valueExtractors,
+            OutputStream out
+    ) {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
             Sheet sheet = workbook.createSheet(sheetName);
             // 스타일 생성
             CellStyle titleStyle = createTitleStyle(workbook);
@@ -40,6 +82,7 @@ public class ExcelUtil {
             CellStyle cellStyle = createCellStyle(workbook);
 
             int colSize = headers.size();
+            int[] widthChars = new int[colSize];
 
             // 1. 타이틀
             Row titleRow = sheet.createRow(0);
@@ -60,30 +103,54 @@ public class ExcelUtil {
                 Cell cell = headerRow.createCell(i);
                 cell.setCellValue(headers.get(i));
                 cell.setCellStyle(headerStyle);
+                widthChars[i] = displayWidth(headers.get(i));
             }
 
             // 4. 본문
             int rowIdx = 3;
+            int sampled = 0;
             for (T item : data) {
                 Row row = sheet.createRow(rowIdx++);
+                boolean sample = sampled++ < WIDTH_SAMPLE_ROWS;
                 for (int i = 0; i < valueExtractors.size(); i++) {
+                    String value = valueExtractors.get(i).apply(item);
                     Cell cell = row.createCell(i);
-                    cell.setCellValue(valueExtractors.get(i).apply(item));
+                    cell.setCellValue(value);
                     cell.setCellStyle(cellStyle);
+                    if (sample && i < colSize) {
+                        widthChars[i] = Math.max(widthChars[i], displayWidth(value));
+                    }
                 }
             }
 
-            // 5. 자동 너비 조정
+            // 5. 샘플 기반 너비 설정
             for (int i = 0; i < colSize; i++) {
-                sheet.autoSizeColumn(i);
+                int chars = Math.min(MAX_COL_CHARS, Math.max(MIN_COL_CHARS, widthChars[i]));
+                sheet.setColumnWidth(i, (chars + 2) * 256);
             }
 
             workbook.write(out);
-            return new ByteArrayInputStream(out.toByteArray());
+            out.flush();
 
         } catch (IOException e) {
             throw new RuntimeException("엑셀 생성 실패", e);
+        } finally {
+            workbook.dispose();   // 임시 파일 삭제
+            try {
+                workbook.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    // 표시 폭 추정: 한글/전각 문자는 2칸
+    private static int displayWidth(String s) {
+        if (s == null) return 0;
+        int w = 0;
+        for (int i = 0; i < s.length(); i++) {
+            w += s.charAt(i) > 0x2E80 ? 2 : 1;
         }
+        return w;
     }
 
     // 엑셀 데이터 파싱
@@ -0,0 +1,58 @@
+package com.hbs.hsbbo.common.util;
+
+import java.text.Normalizer;
+
+/**
+ * 답변 캐시 키용 질문 정규화
+ *
+ * - NFC 정규화 (조합형/완성형 한글, 결합 문자 차이 제거)
+ * - 구두점/기호 → 공백, 연속 공백 → 공백 1개, 앞뒤 공백 제거
+ * - 라틴 문자만 소문자로 (한글/한자 등은 그대로)
+ *   → "가격이 얼마예요?" / "가격이  얼마예요" / "Price?" / "price" 가 각각 같은 키가 된다.
+ */
+public final class QuestionNormalizer {
+
+    private QuestionNormalizer() {
+    }
+
+    public static String normalize(String question) {
+        if (question == null) return "";
+        String nfc = Normalizer.normalize(question, Normalizer.Form.NFC);
+
+        StringBuilder sb = new StringBuilder(nfc.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < nfc.length(); ) {
+            int cp = nfc.codePointAt(i);
+            i += Character.charCount(cp);
+
+            if (Character.isWhitespace(cp) || Character.isSpaceChar(cp) || isPunctuation(cp)) {
+                pendingSpace = sb.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                sb.append(' ');
+                pendingSpace = false;
+            }
+            if (Character.UnicodeScript.of(cp) == Character.UnicodeScript.LATIN) {
+                cp = Character.toLowerCase(cp);
+            }
+            sb.appendCodePoint(cp);
+        }
+        return sb.toString();
+    }
+
+    private static boolean isPunctuation(int cp) {
+        switch (Character.getType(cp)) {
+            case Character.CONNECTOR_PUNCTUATION:
+            case Character.DASH_PUNCTUATION:
+            case Character.START_PUNCTUATION:
+            case Character.END_PUNCTUATION:
+            case Character.INITIAL_QUOTE_PUNCTUATION:
+            case Character.FINAL_QUOTE_PUNCTUATION:
+            case Character.OTHER_PUNCTUATION:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
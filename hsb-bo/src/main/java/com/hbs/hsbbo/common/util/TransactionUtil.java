@@ -0,0 +1,29 @@
+package com.hbs.hsbbo.common.util;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class TransactionUtil {
+
+    /**
+     * 현재 트랜잭션이 커밋된 뒤 action 실행 (롤백되면 실행하지 않음)
+     *
+     * - 트랜잭션 밖에서 호출하면 바로 실행한다.
+     * - 캐시 무효화처럼 커밋 전에 돌면 다른 요청이 옛 데이터를 다시 채울 수 있는 작업에 쓴다.
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,44 +1,59 @@
 package com.hbs.hsbbo.user.ai.controller;
 
-import com.hbs.hsbbo.admin.ai.brain.client.BrainClient;
-import com.hbs.hsbbo.admin.ai.brain.dto.model.request.BrainMessage;
-import com.hbs.hsbbo.admin.ai.brain.dto.model.request.BrainMeta;
-import com.hbs.hsbbo.admin.ai.brain.dto.model.request.BrainOptions;
 import com.hbs.hsbbo.admin.ai.brain.dto.model.response.BrainUsage;
 import com.hbs.hsbbo.admin.ai.brain.dto.request.BrainChatRequest;
 import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainChatResponse;
+import com.hbs.hsbbo.admin.ai.brain.support.BrainChatRequestFactory;
 import com.hbs.hsbbo.admin.ai.promptprofile.domain.entity.PromptProfile;
 import com.hbs.hsbbo.admin.ai.promptprofile.dto.response.PromptProfileResponse;
 import com.hbs.hsbbo.admin.ai.promptprofile.service.PromptProfileService;
 import com.hbs.hsbbo.admin.ai.sitekey.domain.entity.SiteKey;
+import com.hbs.hsbbo.admin.ai.sitekey.runtime.SiteRuntime;
 import com.hbs.hsbbo.admin.ai.sitekey.service.SiteKeyService;
 import com.hbs.hsbbo.admin.ai.usage.domain.type.UsageErrorCode;
+import com.hbs.hsbbo.admin.ai.usage.service.TokenLedger;
 import com.hbs.hsbbo.admin.ai.usage.service.UsageLogService;
 import com.hbs.hsbbo.admin.ai.widgetconfig.domain.entity.WidgetConfig;
 import com.hbs.hsbbo.admin.ai.widgetconfig.dto.response.WidgetConfigResponse;
 import com.hbs.hsbbo.admin.ai.widgetconfig.service.WidgetConfigService;
+import com.hbs.hsbbo.admin.ai.kb.service.AnswerCacheControl;
 import com.hbs.hsbbo.admin.ai.kb.service.KnowledgeContextService;
+import com.hbs.hsbbo.admin.ai.kb.service.WelcomeAnswerCache;
 import com.hbs.hsbbo.common.exception.CommonException;
 import com.hbs.hsbbo.common.exception.CommonException.TooManyRequestsException;
 import com.hbs.hsbbo.user.ai.dto.ChatRequest;
 import com.hbs.hsbbo.user.ai.dto.ChatResponse;
+import com.hbs.hsbbo.user.ai.dto.ChatStreamChunk;
 import com.hbs.hsbbo.user.ai.dto.ChatWithPromptProfileRequest;
 import com.hbs.hsbbo.user.ai.dto.ChatWithPromptProfileResponse;
 import com.hbs.hsbbo.user.ai.service.OpenAiService;
+import com.hbs.hsbbo.user.ai.support.AnswerCache;
+import com.hbs.hsbbo.user.ai.support.ChatExecutionSupport;
 import com.hbs.hsbbo.user.ai.support.DailyQuotaSupport;
+import com.hbs.hsbbo.user.ai.support.FailoverChatRouter;
+import com.hbs.hsbbo.user.ai.support.InFlightCoalescer;
+import com.hbs.hsbbo.user.ai.support.SiteKeyRateLimiter;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.net.URI;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 @RestController
 @RequestMapping("/api/ai")
@@ -51,8 +66,20 @@ public class AiPlayGroundController {
     private final WidgetConfigService widgetConfigService;
     private final PromptProfileService promptProfileService;
     private final UsageLogService usageLogService;
-    private final BrainClient brainClient;
     private final KnowledgeContextService knowledgeContextService;
+    private final ChatExecutionSupport chatExecutionSupport;
+    private final SiteKeyRateLimiter siteKeyRateLimiter;
+    private final TokenLedger tokenLedger;
+    private final AnswerCache answerCache;
+    private final InFlightCoalescer inFlightCoalescer;
+    private final BrainChatRequestFactory brainChatRequestFactory;
+    private final FailoverChatRouter failoverChatRouter;
+    private final WelcomeAnswerCache welcomeAnswerCache;
+
+    // 데모/미설정 키용 IP 기준 기본 한도
+    private static final int DEFAULT_FREE_IP_LIMIT = 10;
+
+    private static final String RATE_LIMIT_MESSAGE = "요청이 너무 많습니다. 잠시 후 다시 시도해주세요.";
 
     //  HEAD /api/ai/ping : 유효 키면 204, 없거나 무효면 401/403
     @RequestMapping(value = "/ping", method = {RequestMethod.GET, RequestMethod.HEAD})
@@ -271,431 +298,395 @@ public class AiPlayGroundController {
     //  POST /api/ai/complete3
     //   - public js(hsbs-chat.js)용: siteKey + PromptProfile 조립 기반
     //   - 관리자(JWT) 외에는 SiteKey + Domain 검증 + quota 체크
+    //   - OpenAI 호출은 hsbs.chat.execution-mode 에 따라 BLOCKING / REACTIVE 로 실행
     @PostMapping("/complete3")
     @CrossOrigin(
             origins = "*",
             allowedHeaders = { "Content-Type", "Authorization", "X-HSBS-Site-Key" }
     )
-    public ResponseEntity<ChatWithPromptProfileResponse> complete3(
+    public Mono<ResponseEntity<ChatWithPromptProfileResponse>> complete3(
             @RequestBody ChatRequest userReq,
             @RequestHeader(value = "Authorization", required = false) String authHeader,
             @RequestHeader(value = "X-HSBS-Site-Key", required = false) String siteKey,
             HttpServletRequest http
     ) {
-        // ── 0. 기본 요청 검증 ─────────────────────────────────────────────
-        if (userReq.getPrompt() == null || userReq.getPrompt().isBlank()) {
-            throw new IllegalArgumentException("챗 프롬프트는 필수 입니다.");
+        // ── 0~7. 요청 검증 / SiteKey+도메인 / 초당 제한 / 토큰 한도 / 일일 쿼터 (admit 공통) ──
+        ChatAdmission admission = admit(userReq, authHeader, siteKey, http);
+        if (admission.rejected()) {
+            return Mono.just(rejected(admission));
         }
-
-        // ── 1. 요청자 IP 추출 (X-Forwarded-For 우선) ─────────────────────
-        String ip = Optional.ofNullable(http.getHeader("X-Forwarded-For"))
-                .map(v -> v.split(",", 2)[0].trim())
-                .filter(s -> !s.isBlank())
-                .orElse(http.getRemoteAddr());
-
-        // ── 2. 관리자 여부 (JWT 존재 시) ─────────────────────────────────
-        boolean isAdmin = (authHeader != null && authHeader.startsWith("Bearer "));
-
-        // ── 3. siteKey 필수 검증 (SaaS용 엔드포인트이므로 관리자도 필수) ──
-        if (siteKey == null || siteKey.isBlank()) {
-            throw new CommonException.UnauthorizedException("사이트키를 찾을 수 없습니다.");
+        SiteRuntime runtime = admission.runtime();
+        SiteKey keyInfo = admission.keyInfo();
+
+        // ── 7-1. 사전 생성 환영 답변 (환영 질문을 그대로 보낸 단발성 요청) → 즉시 응답, 토큰 원장 미반영 ──
+        PromptProfile profile = runtime.requirePromptProfile();
+        WelcomeAnswerCache.Answer welcome = AnswerCacheControl.stateless(profile, userReq.getContext())
+                ? welcomeAnswerCache.find(keyInfo.getId(), profile, userReq.getPrompt())
+                : null;
+        if (welcome != null) {
+            return Mono.just(ResponseEntity.ok()
+                    .headers(admission.headers())
+                    .headers(AnswerCache.Status.WELCOME.headers())
+                    .body(profileResponse(profile, welcome.model(), welcome.answer(), 0, 0, 0)));
         }
 
-        // ── 4. 클라이언트 호스트 추출 (Origin/Referer 기반) ─────────────
-        String host = extractClientHost(http);
-
-        // ── 5. SiteKey + 도메인 검증 및 엔티티 조회 ─────────────────────
-        //     - status/useTf/delTf, allowedDomains 등을 내부에서 체크
-        SiteKey keyInfo = siteKeyService.assertActiveAndDomainAllowed(siteKey, host);
-
-        // ── 6. 쿼터 정책 결정: SiteKey에 설정된 dailyCallLimit 기준 ──────
-        //     - dailyCallLimit > 0 : 해당 값으로 siteKey 단위 일일 호출 제한
-        //     - null 또는 0       : 별도 쿼터 없음 → 데모용으로 IP 기준 기본 제한만 사용
-        Integer siteDailyLimit = keyInfo.getDailyCallLimit(); // 예: 500 등
-        final int DEFAULT_FREE_IP_LIMIT = 10;                  // 데모/미설정 키용 기본 한도
-
-        // 카운터 키 (Caffeine 캐시 키)
-        String ipCounterKey  = "ip:" + ip;
-        String skCounterKey  = "sk:" + keyInfo.getSiteKey();
-
-        // 응답 헤더용 남은 횟수 (기본값: -1 = 사용 안 함 / 무제한)
-        String ipRemainingHeader   = "-1";
-        String skRemainingHeader   = "-1";
-        String effectiveRemaining  = "-1";  // X-DailyReq-Remaining 에 넣을 값
-
-        // ── 7. 관리자 계정은 쿼터 미적용 ─────────────────────────────────
-        if (!isAdmin) {
-            boolean hasSiteLimit = (siteDailyLimit != null && siteDailyLimit > 0);
-
-            if (hasSiteLimit) {
-                // 7-1) SiteKey에 일일 호출 한도가 설정된 경우
-                //      → 이 값을 기준으로만 제한 (IP 제한은 적용하지 않음)
-                boolean ok = dailyQuotaSupport.tryConsume(skCounterKey, siteDailyLimit);
-                if (!ok) {
-                    // siteKey 한도 초과
-                    return ResponseEntity.status(429)
-                            .header("X-SiteKey-Daily-Remaining", "0")
-                            .header("X-IP-Daily-Remaining", "-1")
-                            .header("X-DailyReq-Remaining", "0")
-                            .body(ChatWithPromptProfileResponse.builder()
-                                    .model(null)
-                                    .text("해당 사이트키의 일일 호출 한도를 초과했습니다. 내일 다시 시도해 주세요.")
-                                    .build());
-                }
-
-                int skRemain = dailyQuotaSupport.remaining(skCounterKey, siteDailyLimit);
-                skRemainingHeader  = String.valueOf(skRemain);
-                effectiveRemaining = skRemainingHeader; // 이 값이 실질적인 일일 한도
-
-            } else {
-                // 7-2) SiteKey에 별도 한도가 없는 경우
-                //      → 데모/테스트 키로 보고 IP 기준 기본 한도만 적용
-                boolean ok = dailyQuotaSupport.tryConsume(ipCounterKey, DEFAULT_FREE_IP_LIMIT);
-                if (!ok) {
-                    return ResponseEntity.status(429)
-                            .header("X-IP-Daily-Remaining", "0")
-                            .header("X-SiteKey-Daily-Remaining", "-1")
-                            .header("X-DailyReq-Remaining", "0")
-                            .body(ChatWithPromptProfileResponse.builder()
-                                    .model(null)
-                                    .text("무료 사용 한도를 초과했습니다. 내일 다시 시도해 주세요.")
-                                    .build());
-                }
-
-                int ipRemain = dailyQuotaSupport.remaining(ipCounterKey, DEFAULT_FREE_IP_LIMIT);
-                ipRemainingHeader  = String.valueOf(ipRemain);
-                effectiveRemaining = ipRemainingHeader;
-            }
-        }
-
-        // ── 8. SiteKey에 연결된 기본 PromptProfile 조회 ─────────────────
-        //     (status/useTf/delTf 검증은 서비스 내에서 처리)
-        PromptProfile profile =
-                promptProfileService.findDefaultProfileForSiteKeyOrThrow(siteKey, host);
-
-        // ── 9. PromptProfile + 사용자 입력 → OpenAI 요청 DTO 조립 ───────
+        // ── 8~9. 기본 PromptProfile + 사용자 입력 → OpenAI 요청 DTO 조립 ──
         ChatWithPromptProfileRequest ppReq =
-                promptProfileService.buildChatWithProfileRequest(profile, userReq);
-
-        // ── 10. OpenAI 호출 (Blocking) ───────────────────────────────────
-        ChatWithPromptProfileResponse response =
-                openAiService.chatWithProfilePromptBlocking(ppReq);
+                promptProfileService.buildChatWithProfileRequest(runtime, userReq);
 
-        // ── 11. 응답 + 남은 횟수 헤더 세팅 ──────────────────────────────
+        // ── 10. OpenAI 호출 → 11. 응답 + 남은 횟수 헤더 세팅 ─────────────
         //      - X-DailyReq-Remaining : 실제 적용된 기준(사이트키 or IP)의 남은 횟수
         //      - X-IP-Daily-Remaining : IP 기준 카운터(미사용 시 -1)
         //      - X-SiteKey-Daily-Remaining : SiteKey 기준 카운터(미사용 시 -1)
-        return ResponseEntity.ok()
-                .header("X-DailyReq-Remaining", effectiveRemaining)
-                .header("X-IP-Daily-Remaining", ipRemainingHeader)
-                .header("X-SiteKey-Daily-Remaining", skRemainingHeader)
-                .body(response);
+        return chatExecutionSupport.execute(openAiService.chatWithProfilePrompt(ppReq))
+                .map(response -> {
+                    tokenLedger.record(keyInfo.getId(), response.getTotalTokens());
+                    return ResponseEntity.ok()
+                            .headers(admission.headers())
+                            .body(response);
+                });
     }
 
     //  POST /api/ai/complete4
     //  Brain(FastAPI) 경유하는 버전
+    //   - Brain 호출은 hsbs.chat.execution-mode 에 따라 BLOCKING / REACTIVE 로 실행
     @PostMapping("/complete4")
     @CrossOrigin(
             origins = "*",
             allowedHeaders = { "Content-Type", "Authorization", "X-HSBS-Site-Key" }
     )
-    public ResponseEntity<ChatWithPromptProfileResponse> complete4(
+    public Mono<ResponseEntity<ChatWithPromptProfileResponse>> complete4(
             @RequestBody ChatRequest userReq,
             @RequestHeader(value = "Authorization", required = false) String authHeader,
             @RequestHeader(value = "X-HSBS-Site-Key", required = false) String siteKey,
             HttpServletRequest http
     ) {
-        // 0. 기본 요청 검증
-        if (userReq.getPrompt() == null || userReq.getPrompt().isBlank()) {
-            // 이 케이스는 로그 남기지 않고 바로 400만 리턴 (너무 많아질 수 있어서)
-            throw new CommonException.BadRequestException("챗 프롬프트는 필수 입니다.");
+        // 0~7. 요청 검증 / SiteKey+도메인 / 초당 제한 / 토큰 한도 / 일일 쿼터 (complete3와 동일, admit 공통)
+        //      거절(429)은 로그 남기지 않고 바로 리턴
+        ChatAdmission admission = admit(userReq, authHeader, siteKey, http);
+        if (admission.rejected()) {
+            return Mono.just(rejected(admission));
         }
+        SiteRuntime runtime = admission.runtime();
+        SiteKey keyInfo = admission.keyInfo();
+        DailyQuota quota = admission.quota();
+        String ip = admission.ip();
+        String ua = admission.ua();
+        String host = admission.host();
+
+        // 8. SiteKey에 연결된 기본 PromptProfile / WidgetConfig (스냅샷)
+        PromptProfile profile = runtime.requirePromptProfile();
+        WidgetConfig widgetConfig = runtime.requireWidgetConfig();
+
+        // 8-1. 사전 생성 환영 답변 → 답변 캐시 (프로필 opt-in + 단발성 질문, EXACT → SEMANTIC)
+        //      적중 시 KB 검색/Brain 호출 생략, 토큰 원장 미반영
+        long cacheStartedAt = System.currentTimeMillis();
+        WelcomeAnswerCache.Answer welcome = AnswerCacheControl.stateless(profile, userReq.getContext())
+                ? welcomeAnswerCache.find(keyInfo.getId(), profile, userReq.getPrompt())
+                : null;
+        if (welcome != null) {
+            usageLogService.logCachedChatSuccess(
+                    profile.getTenantId(),
+                    keyInfo,
+                    profile,
+                    widgetConfig,
+                    "widget",
+                    userReq.getPrompt(),
+                    welcome.answer(),
+                    welcome.model(),
+                    AnswerCache.Status.WELCOME.name(),
+                    null,
+                    System.currentTimeMillis() - cacheStartedAt,
+                    host,
+                    ip,
+                    ua,
+                    quota.quotaType(),
+                    quota.quotaRemaining()
+            );
 
-        // 1. 요청자 IP 추출 (X-Forwarded-For 우선)
-        String ip = Optional.ofNullable(http.getHeader("X-Forwarded-For"))
-                .map(v -> v.split(",", 2)[0].trim())
-                .filter(s -> !s.isBlank())
-                .orElse(http.getRemoteAddr());
-
-        // 2. 관리자 여부 (JWT 존재 시)
-        boolean isAdmin = (authHeader != null && authHeader.startsWith("Bearer "));
-
-        // 3. siteKey 필수 검증
-        if (siteKey == null || siteKey.isBlank()) {
-            // 여기서는 아직 tenant/siteKey 엔티티를 모름 → 로그도 굳이 안 남겨도 됨
-            throw new CommonException.UnauthorizedException("사이트키를 찾을 수 없습니다.");
+            return Mono.just(ResponseEntity.ok()
+                    .headers(admission.headers())
+                    .headers(AnswerCache.Status.WELCOME.headers())
+                    .body(profileResponse(profile, welcome.model(), welcome.answer(), 0, 0, 0)));
         }
 
-        // 4. 클라이언트 호스트 추출 (Origin/Referer 기반)
-        String host = extractClientHost(http);
-
-        // 5. SiteKey + 도메인 검증 및 엔티티 조회
-        SiteKey keyInfo = siteKeyService.assertActiveAndDomainAllowed(siteKey, host);
-
-        // 6~7. 쿼터 체크 (complete3와 동일)
-        Integer siteDailyLimit = keyInfo.getDailyCallLimit();
-        final int DEFAULT_FREE_IP_LIMIT = 10;
-
-        String ipCounterKey  = "ip:" + ip;
-        String skCounterKey  = "sk:" + keyInfo.getSiteKey();
-
-        String ipRemainingHeader   = "-1";
-        String skRemainingHeader   = "-1";
-        String effectiveRemaining  = "-1";
+        AnswerCache.Lookup cacheLookup = answerCache.eligible(profile, userReq.getContext())
+                ? answerCache.lookup(answerCache.keyOf(keyInfo.getId(), profile, userReq.getPrompt()))
+                : null;
+        if (cacheLookup != null && cacheLookup.hit()) {
+            AnswerCache.CachedAnswer cached = cacheLookup.answer();
+            usageLogService.logCachedChatSuccess(
+                    profile.getTenantId(),
+                    keyInfo,
+                    profile,
+                    widgetConfig,
+                    "widget",
+                    userReq.getPrompt(),
+                    cached.text(),
+                    cached.model(),
+                    cacheLookup.tier().name(),
+                    cacheLookup.similarity(),
+                    System.currentTimeMillis() - cacheStartedAt,
+                    host,
+                    ip,
+                    ua,
+                    quota.quotaType(),
+                    quota.quotaRemaining()
+            );
 
-        if (!isAdmin) {
-            boolean hasSiteLimit = (siteDailyLimit != null && siteDailyLimit > 0);
-
-            if (hasSiteLimit) {
-                boolean ok = dailyQuotaSupport.tryConsume(skCounterKey, siteDailyLimit);
-                if (!ok) {
-                    // 쿼터 초과 → 여기서는 그냥 바로 429 리턴 (필요하면 에러 로그도 남길 수 있음)
-                    return ResponseEntity.status(429)
-                            .header("X-SiteKey-Daily-Remaining", "0")
-                            .header("X-IP-Daily-Remaining", "-1")
-                            .header("X-DailyReq-Remaining", "0")
-                            .body(ChatWithPromptProfileResponse.builder()
-                                    .model(null)
-                                    .text("해당 사이트키의 일일 호출 한도를 초과했습니다. 내일 다시 시도해 주세요.")
-                                    .build());
-                }
-                int skRemain = dailyQuotaSupport.remaining(skCounterKey, siteDailyLimit);
-                skRemainingHeader  = String.valueOf(skRemain);
-                effectiveRemaining = skRemainingHeader;
-            } else {
-                boolean ok = dailyQuotaSupport.tryConsume(ipCounterKey, DEFAULT_FREE_IP_LIMIT);
-                if (!ok) {
-                    return ResponseEntity.status(429)
-                            .header("X-IP-Daily-Remaining", "0")
-                            .header("X-SiteKey-Daily-Remaining", "-1")
-                            .header("X-DailyReq-Remaining", "0")
-                            .body(ChatWithPromptProfileResponse.builder()
-                                    .model(null)
-                                    .text("무료 사용 한도를 초과했습니다. 내일 다시 시도해 주세요.")
-                                    .build());
-                }
-                int ipRemain = dailyQuotaSupport.remaining(ipCounterKey, DEFAULT_FREE_IP_LIMIT);
-                ipRemainingHeader  = String.valueOf(ipRemain);
-                effectiveRemaining = ipRemainingHeader;
-            }
+            return Mono.just(ResponseEntity.ok()
+                    .headers(admission.headers())
+                    .headers(cacheLookup.status().headers())
+                    .body(profileResponse(profile, cached.model(), cached.text(), 0, 0, 0)));
         }
-
-        // 8. SiteKey에 연결된 기본 PromptProfile 조회
-        PromptProfile profile =
-                promptProfileService.findDefaultProfileForSiteKeyOrThrow(siteKey, host);
-
-        // 8-1. SiteKey에 연결된 기본 WidgetConfig 조회
-        WidgetConfig widgetConfig =
-                widgetConfigService.findDefaultWidgetForSiteKeyOrThrow(siteKey, host);
+        AnswerCache.Status cacheStatus = cacheLookup != null ? AnswerCache.Status.MISS : AnswerCache.Status.BYPASS;
 
         // 9. PromptProfile + 사용자 입력 → ChatWithPromptProfileRequest 조립
         ChatWithPromptProfileRequest ppReq =
-                promptProfileService.buildChatWithProfileRequest(profile, userReq);
+                promptProfileService.buildChatWithProfileRequest(runtime, userReq);
 
         // 10. ChatWithPromptProfileRequest → BrainChatRequest 매핑
-        List<BrainMessage> brainMessages = new ArrayList<>();
-
-        // 10-1) PromptProfile 기반 system 메시지
-        StringBuilder systemBuf = new StringBuilder();
-
-        if (ppReq.getSystemTpl() != null && !ppReq.getSystemTpl().isBlank()) {
-            systemBuf.append(ppReq.getSystemTpl().trim());
-        } else {
-            systemBuf.append("You are a helpful assistant.");
-        }
-
-        if (ppReq.getGuardrailTpl() != null && !ppReq.getGuardrailTpl().isBlank()) {
-            systemBuf.append("\n\n[Guardrail]\n").append(ppReq.getGuardrailTpl().trim());
-        }
-
-        if (ppReq.getStyleJson() != null && !ppReq.getStyleJson().isBlank()) {
-            systemBuf.append("\n\n[Style JSON]\n").append(ppReq.getStyleJson().trim());
-        }
-
-        if (ppReq.getPoliciesJson() != null && !ppReq.getPoliciesJson().isBlank()) {
-            systemBuf.append("\n\n[Policies JSON]\n").append(ppReq.getPoliciesJson().trim());
-        }
-
-        // system 메시지 추가
-        brainMessages.add(
-                BrainMessage.builder()
-                        .role("system")
-                        .content(systemBuf.toString())
-                        .build()
-        );
-
-        // 10-2) context 있으면 별도 user 메시지로
-        if (ppReq.getContext() != null && !ppReq.getContext().isBlank()) {
-            brainMessages.add(
-                    BrainMessage.builder()
-                            .role("user")
-                            .content("Context:\n" + ppReq.getContext().trim())
-                            .build()
-            );
-        }
-
-        // 10-3) 실제 사용자 질문
-        brainMessages.add(
-                BrainMessage.builder()
-                        .role("user")
-                        .content(ppReq.getUserPrompt())
-                        .build()
-        );
-
-        BrainOptions options = BrainOptions.builder()
-                .model(ppReq.getModel())
-                .temperature(ppReq.getTemperature() == null ? null : ppReq.getTemperature().doubleValue())
-                .topP(ppReq.getTopP() == null ? null : ppReq.getTopP().doubleValue())
-                .maxTokens(ppReq.getMaxTokens())
-                .build();
+        BrainChatRequest brainReq = brainChatRequestFactory.build(keyInfo, profile, widgetConfig, ppReq, ip, ua);
 
-        BrainMeta meta = BrainMeta.builder()
-                .userIp(ip)
-                .userAgent(http.getHeader("User-Agent"))
-                .locale(null)         // 필요하면 userReq에서 locale 뽑아서 세팅
-                .channel("widget")    // SaaS 위젯 채널
-                .build();
-
-        String knowledgeContext = knowledgeContextService.buildKnowledgeContext(profile.getKbDocumentIdsJson());
-
-        BrainChatRequest brainReq = BrainChatRequest.builder()
-                .tenantId(profile.getTenantId())
-                .siteKey(keyInfo.getSiteKey())
-                .promptProfileId(profile.getId())
-                .widgetConfigId(widgetConfig.getId())
-                .conversationId(null)                              // TODO: 프론트에서 전달 시 매핑
-                .knowledgeContext(knowledgeContext.isEmpty() ? null : knowledgeContext)
-                .messages(brainMessages)
-                .options(options)
-                .chatType(
-                        ppReq.getChatType() != null && !ppReq.getChatType().isBlank()
-                                ? ppReq.getChatType()
-                                : "knowledge"
-                )
-                .memoryPolicy(ppReq.getMemoryPolicy())
-                .persona(ppReq.getPersona())
-                .category(ppReq.getCategory())
-                .meta(meta)
-                .build();
+        // 10-1. 같은 (사이트키, 프로필 버전, 문서 버전, 정규화 질문) 요청이 진행 중이면 그 결과를 함께 받음
+        //       (쿼터/사용 로그 행은 호출자마다, 토큰은 업스트림을 부른 선행 요청에만 반영)
+        //       업스트림은 Brain 우선, 실패/타임아웃/서킷 OPEN 이면 같은 프로필 조립 + 지문으로 OpenAI 직접 호출
+        AnswerCache.Key flightKey = AnswerCacheControl.stateless(profile, userReq.getContext())
+                ? answerCache.keyOf(keyInfo.getId(), profile, userReq.getPrompt())
+                : null;
+        InFlightCoalescer.Joined<FailoverChatRouter.Routed> flight =
+                inFlightCoalescer.join(flightKey, () -> failoverChatRouter.chat(brainReq, ppReq));
 
         // 11. FastAPI Brain 호출 + 로그 저장
-        try {
-            BrainChatResponse brainRes = brainClient.chat(brainReq);
-
-            // 12. Brain 응답 → 기존 ChatWithPromptProfileResponse 로 매핑
-            BrainUsage usage = brainRes.getUsage();   // v1에서 usage 세팅됨
-
-            ChatWithPromptProfileResponse response =
-                    ChatWithPromptProfileResponse.builder()
-                            .promptProfileId(profile.getId())
-                            .promptProfileName(profile.getName())
-                            .promptProfileVersion(profile.getVersion())
-                            .model(
-                                    usage != null && usage.getModel() != null
-                                            ? usage.getModel()
-                                            : (ppReq.getModel() != null ? ppReq.getModel() : "gpt-4o-mini")
-                            )
-                            .text(brainRes.getAnswer())
-                            .inputTokens(usage == null ? null : usage.getPromptTokens())
-                            .outputTokens(usage == null ? null : usage.getCompletionTokens())
-                            .totalTokens(usage == null ? null : usage.getTotalTokens())
-                            .build();
-
-            // 12-1. 쿼터 타입/남은 횟수 계산 (로그용)
-            String quotaType = null;
-            Integer quotaRemainingInt = null;
-            boolean hasSiteLimit = (siteDailyLimit != null && siteDailyLimit > 0);
-
-            if (!isAdmin) {
-                if (hasSiteLimit) {
-                    quotaType = "SITE_KEY";
-                    quotaRemainingInt =
-                            ("-1".equals(skRemainingHeader) ? null : Integer.valueOf(skRemainingHeader));
-                } else {
-                    quotaType = "IP";
-                    quotaRemainingInt =
-                            ("-1".equals(ipRemainingHeader) ? null : Integer.valueOf(ipRemainingHeader));
-                }
-            }
+        return chatExecutionSupport.execute(flight.mono())
+                .map(routed -> {
+                    BrainChatResponse brainRes = routed.response();
+
+                    // 12. Brain 응답 → 기존 ChatWithPromptProfileResponse 로 매핑
+                    BrainUsage usage = brainRes.getUsage();   // v1에서 usage 세팅됨
+
+                    ChatWithPromptProfileResponse response = profileResponse(
+                            profile,
+                            usage != null && usage.getModel() != null
+                                    ? usage.getModel()
+                                    : (ppReq.getModel() != null ? ppReq.getModel() : "gpt-4o-mini"),
+                            brainRes.getAnswer(),
+                            usage == null ? null : usage.getPromptTokens(),
+                            usage == null ? null : usage.getCompletionTokens(),
+                            usage == null ? null : usage.getTotalTokens());
+
+                    // 12-1. 토큰 원장 누적 + 사용 로그 저장 (성공 케이스)
+                    //       합류한 요청은 선행 요청이 쓴 토큰을 공유만 하므로 원장에 다시 더하지 않는다 (로그 행도 토큰 0)
+                    if (!flight.coalesced()) {
+                        tokenLedger.record(keyInfo.getId(), response.getTotalTokens());
+                    }
+                    usageLogService.logBrainChatSuccess(
+                            profile.getTenantId(),
+                            keyInfo,                     // SiteKey
+                            profile,                     // PromptProfile
+                            widgetConfig,                // WidgetConfig
+                            "widget",                    // channel
+                            userReq.getPrompt(),         // 원본 사용자 질문
+                            brainReq,
+                            brainRes,
+                            host,                        // clientHost
+                            ip,
+                            ua,
+                            200,                         // httpStatus (성공)
+                            quota.quotaType(),
+                            quota.quotaRemaining(),
+                            flight.coalesced(),          // 진행 중인 동일 요청에 합류 여부
+                            routed.provider()            // BRAIN / OPENAI
+                    );
+
+                    // 12-2. 답변 캐시 저장 (MISS 인 경우만, 빈 답변은 저장 안 함)
+                    //       OpenAI 대체 답변은 Brain 측 검색이 빠진 답이므로 캐시하지 않는다
+                    if (FailoverChatRouter.PROVIDER_BRAIN.equals(routed.provider())) {
+                        answerCache.put(cacheLookup, response.getModel(), brainRes.getAnswer());
+                    }
+
+                    // 13. 기존과 동일하게 쿼터 헤더 세팅 후 응답
+                    return ResponseEntity.ok()
+                            .headers(admission.headers())
+                            .headers(cacheStatus.headers())
+                            .body(response);
+                })
+                .onErrorResume(e -> Mono.fromCallable(() -> {
+                    // 실패 케이스: INTERNAL_ERROR 로 로그 저장
+                    usageLogService.logBrainChatError(
+                            profile.getTenantId(),
+                            keyInfo,
+                            profile,
+                            widgetConfig,
+                            "widget",
+                            userReq.getPrompt(),
+                            host,
+                            ip,
+                            ua,
+                            UsageErrorCode.INTERNAL_ERROR,
+                            HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                            quota.quotaType(),
+                            quota.quotaRemaining(),
+                            e.getMessage()
+                    );
+
+                    // 클라이언트 응답 (성공과 같은 쿼터/초당 제한/토큰 한도 헤더)
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                            .headers(admission.headers())
+                            .body(profileResponse(profile, ppReq.getModel(),
+                                    "Brain 호출 중 오류가 발생했습니다. 잠시 후 다시 시도해 주세요.", null, null, null));
+                }));
+    }
 
-            // 12-2. 사용 로그 저장 (성공 케이스)
-            usageLogService.logBrainChatSuccess(
-                    profile.getTenantId(),
-                    keyInfo,                     // SiteKey
-                    profile,                     // PromptProfile
-                    widgetConfig,                // WidgetConfig
-                    "widget",                    // channel
-                    userReq.getPrompt(),         // 원본 사용자 질문
-                    brainReq,
-                    brainRes,
-                    host,                        // clientHost
-                    ip,
-                    http.getHeader("User-Agent"),
-                    200,                         // httpStatus (성공)
-                    quotaType,
-                    quotaRemainingInt
-            );
+    //  POST /api/ai/complete4/stream
+    //  complete4 의 SSE 스트리밍 버전 (OpenAI stream=true 를 그대로 릴레이)
+    //   - event: delta → {"text": "..."}  토큰 조각
+    //   - event: done  → ChatWithPromptProfileResponse (모델/토큰 합계)
+    //   - event: error → {"message": "..."}
+    //   - 쿼터 체크는 complete4와 동일, 사용 로그는 스트림 종료 시점에 저장 (첫 토큰 지연 포함)
+    @PostMapping(value = "/complete4/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @CrossOrigin(
+            origins = "*",
+            allowedHeaders = { "Content-Type", "Authorization", "X-HSBS-Site-Key" }
+    )
+    public ResponseEntity<Flux<ServerSentEvent<Object>>> complete4Stream(
+            @RequestBody ChatRequest userReq,
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestHeader(value = "X-HSBS-Site-Key", required = false) String siteKey,
+            HttpServletRequest http
+    ) {
+        // 0~4. 요청 검증 / SiteKey+도메인 / 초당 제한 / 토큰 한도 / 일일 쿼터 (complete4와 동일, admit 공통)
+        //      거절 시 429 + error 이벤트 1건
+        ChatAdmission admission = admit(userReq, authHeader, siteKey, http);
+        if (admission.rejected()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .headers(admission.rejectHeaders())
+                    .body(Flux.just(sseEvent("error", Map.of("message", admission.rejectMessage()))));
+        }
+        SiteRuntime runtime = admission.runtime();
+        SiteKey keyInfo = admission.keyInfo();
+        DailyQuota quota = admission.quota();
+        String ip = admission.ip();
+        String ua = admission.ua();
+        String host = admission.host();
 
-            // 13. 기존과 동일하게 쿼터 헤더 세팅 후 응답
-            return ResponseEntity.ok()
-                    .header("X-DailyReq-Remaining", effectiveRemaining)
-                    .header("X-IP-Daily-Remaining", ipRemainingHeader)
-                    .header("X-SiteKey-Daily-Remaining", skRemainingHeader)
-                    .body(response);
-
-        } catch (Exception e) {
-            // 실패 케이스: INTERNAL_ERROR 로 로그 저장
-            String ua = http.getHeader("User-Agent");
-
-            String quotaType = null;
-            Integer quotaRemainingInt = null;
-            boolean hasSiteLimit = (siteDailyLimit != null && siteDailyLimit > 0);
-
-            if (!isAdmin) {
-                if (hasSiteLimit) {
-                    quotaType = "SITE_KEY";
-                    quotaRemainingInt =
-                            ("-1".equals(skRemainingHeader) ? null : Integer.valueOf(skRemainingHeader));
-                } else {
-                    quotaType = "IP";
-                    quotaRemainingInt =
-                            ("-1".equals(ipRemainingHeader) ? null : Integer.valueOf(ipRemainingHeader));
-                }
-            }
+        // 5. PromptProfile / WidgetConfig (스냅샷) + 요청 조립
+        PromptProfile profile = runtime.requirePromptProfile();
+        WidgetConfig widgetConfig = runtime.requireWidgetConfig();
 
-            usageLogService.logBrainChatError(
+        ChatWithPromptProfileRequest ppReq =
+                promptProfileService.buildChatWithProfileRequest(runtime, userReq);
+
+        // 5-1. Brain 대신 OpenAI를 직접 호출하므로 지식 컨텍스트는 Context 메시지로 합친다
+        //      (OpenAI 직접 호출이라 Vector Store 검색은 없음 → 로컬 검색/요약 지문만 사용)
+        String knowledgeContext = knowledgeContextService.resolve(
+                profile, userReq.getPrompt(), keyInfo.getId()).text();
+        ppReq.setContext(joinContext(knowledgeContext, ppReq.getContext()));
+
+        // 6. 스트림 상태 (단일 구독자 → onNext 는 순차 호출)
+        long startedAt = System.currentTimeMillis();
+        AtomicLong firstTokenMs = new AtomicLong(-1);
+        AtomicReference<String> modelRef = new AtomicReference<>(ppReq.getModel());
+        AtomicReference<ChatStreamChunk> usageRef = new AtomicReference<>();
+        StringBuilder answer = new StringBuilder();
+
+        Flux<ServerSentEvent<Object>> deltas = openAiService.chatWithProfilePromptStream(ppReq)
+                .doOnNext(chunk -> {
+                    if (chunk.getModel() != null) modelRef.set(chunk.getModel());
+                    if (chunk.hasUsage()) usageRef.set(chunk);
+                    if (chunk.hasDelta()) {
+                        firstTokenMs.compareAndSet(-1, System.currentTimeMillis() - startedAt);
+                        answer.append(chunk.getDelta());
+                    }
+                })
+                .filter(ChatStreamChunk::hasDelta)
+                .map(chunk -> sseEvent("delta", Map.of("text", chunk.getDelta())));
+
+        // 7. 정상 종료: 사용 로그 저장 후 done 이벤트 (동기 모드 hsbs.usage-log.async=false 대비 boundedElastic 에서)
+        Mono<ServerSentEvent<Object>> done = Mono.fromCallable(() -> {
+            ChatStreamChunk usage = usageRef.get();
+            Long latencyMs = System.currentTimeMillis() - startedAt;
+
+            ChatWithPromptProfileResponse response = profileResponse(
+                    profile,
+                    modelRef.get(),
+                    answer.toString(),
+                    usage == null ? null : usage.getPromptTokens(),
+                    usage == null ? null : usage.getCompletionTokens(),
+                    usage == null ? null : usage.getTotalTokens());
+
+            tokenLedger.record(keyInfo.getId(), response.getTotalTokens());
+            usageLogService.logStreamChatSuccess(
                     profile.getTenantId(),
                     keyInfo,
                     profile,
                     widgetConfig,
                     "widget",
                     userReq.getPrompt(),
+                    response.getText(),
+                    response.getModel(),
+                    response.getInputTokens(),
+                    response.getOutputTokens(),
+                    response.getTotalTokens(),
+                    latencyMs,
+                    firstTokenMs.get() < 0 ? null : firstTokenMs.get(),
                     host,
                     ip,
                     ua,
-                    UsageErrorCode.INTERNAL_ERROR,
-                    HttpStatus.INTERNAL_SERVER_ERROR.value(),
-                    quotaType,
-                    quotaRemainingInt,
-                    e.getMessage()
+                    quota.quotaType(),
+                    quota.quotaRemaining()
             );
 
-            // 클라이언트 응답
-            ChatWithPromptProfileResponse errorRes =
-                    ChatWithPromptProfileResponse.builder()
-                            .promptProfileId(profile.getId())
-                            .promptProfileName(profile.getName())
-                            .promptProfileVersion(profile.getVersion())
-                            .model(ppReq.getModel())
-                            .text("Brain 호출 중 오류가 발생했습니다. 잠시 후 다시 시도해 주세요.")
-                            .build();
-
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .header("X-DailyReq-Remaining", effectiveRemaining)
-                    .header("X-IP-Daily-Remaining", ipRemainingHeader)
-                    .header("X-SiteKey-Daily-Remaining", skRemainingHeader)
-                    .body(errorRes);
-        }
+            return sseEvent("done", response);
+        }).subscribeOn(Schedulers.boundedElastic());
+
+        Flux<ServerSentEvent<Object>> body = deltas
+                .concatWith(done)
+                // 8. 업스트림 오류: 에러 로그 저장 후 error 이벤트로 마무리
+                .onErrorResume(e -> Mono.fromCallable(() -> {
+                    log.warn("[complete4/stream] siteKey={}, error={}", mask(siteKey), e.toString());
+                    usageLogService.logBrainChatError(
+                            profile.getTenantId(),
+                            keyInfo,
+                            profile,
+                            widgetConfig,
+                            "widget",
+                            userReq.getPrompt(),
+                            host,
+                            ip,
+                            ua,
+                            UsageErrorCode.OPENAI_ERROR,
+                            HttpStatus.BAD_GATEWAY.value(),
+                            quota.quotaType(),
+                            quota.quotaRemaining(),
+                            e.getMessage()
+                    );
+                    return sseEvent("error", Map.of("message", "답변 생성 중 오류가 발생했습니다. 잠시 후 다시 시도해 주세요."));
+                }).subscribeOn(Schedulers.boundedElastic()))
+                // 9. 클라이언트가 중간에 끊은 경우에도 로그는 남긴다
+                .doOnCancel(() -> Schedulers.boundedElastic().schedule(() ->
+                        usageLogService.logBrainChatError(
+                                profile.getTenantId(),
+                                keyInfo,
+                                profile,
+                                widgetConfig,
+                                "widget",
+                                userReq.getPrompt(),
+                                host,
+                                ip,
+                                ua,
+                                UsageErrorCode.CLIENT_ABORTED,
+                                null,
+                                quota.quotaType(),
+                                quota.quotaRemaining(),
+                                "client disconnected after " + answer.length() + " chars"
+                        )));
+
+        return ResponseEntity.ok()
+                .headers(admission.headers())
+                .cacheControl(CacheControl.noCache())
+                .header("X-Accel-Buffering", "no") // nginx 프록시 버퍼링 해제
+                .body(body);
     }
 
     /* =========================
@@ -714,6 +705,178 @@ public class AiPlayGroundController {
         try { return new URI(url).getHost(); } catch (Exception e) { return null; }
     }
 
+    /** X-Forwarded-For 첫 번째 값 → 없으면 remoteAddr */
+    private String resolveClientIp(HttpServletRequest http) {
+        return Optional.ofNullable(http.getHeader("X-Forwarded-For"))
+                .map(v -> v.split(",", 2)[0].trim())
+                .filter(s -> !s.isBlank())
+                .orElse(http.getRemoteAddr());
+    }
+
+    /**
+     * complete3 / complete4 / complete4/stream 공통 선처리
+     *  - 프롬프트 필수(400), siteKey 필수(401), SiteKey + 도메인 검증(403)은 예외로
+     *  - 초당 요청 제한 → 토큰 한도 → 일일 쿼터 순으로 검사, 걸리면 거절 사유/헤더를 담아 반환 (429는 호출측 형식으로)
+     */
+    private ChatAdmission admit(ChatRequest userReq, String authHeader, String siteKey, HttpServletRequest http) {
+        if (userReq.getPrompt() == null || userReq.getPrompt().isBlank()) {
+            throw new CommonException.BadRequestException("챗 프롬프트는 필수 입니다.");
+        }
+
+        // 요청자 IP (X-Forwarded-For 우선) / UA / 관리자 여부 (JWT 존재 시)
+        String ip = resolveClientIp(http);
+        String ua = http.getHeader("User-Agent");
+        boolean isAdmin = (authHeader != null && authHeader.startsWith("Bearer "));
+
+        // siteKey 필수 (SaaS용 엔드포인트이므로 관리자도 필수)
+        if (siteKey == null || siteKey.isBlank()) {
+            throw new CommonException.UnauthorizedException("사이트키를 찾을 수 없습니다.");
+        }
+
+        // SiteKey + 도메인 검증 및 런타임 스냅샷 조회 (기본 PromptProfile / stop·tools 파싱 결과까지 캐시에서 한 번에)
+        String host = extractClientHost(http);
+        SiteRuntime runtime = siteKeyService.resolveRuntime(siteKey, host);
+        SiteKey keyInfo = runtime.getSiteKey();
+
+        // 초당 요청 제한 (SiteKey.rateLimitRps, 일일 쿼터 차감 전에 검사)
+        SiteKeyRateLimiter.Decision rate = siteKeyRateLimiter.tryAcquire(runtime.getSiteKeyValue(), keyInfo.getRateLimitRps());
+        if (!rate.allowed()) {
+            return new ChatAdmission(ip, ua, host, runtime, keyInfo, rate, null, null, RATE_LIMIT_MESSAGE, rate.headers());
+        }
+
+        // 토큰 한도 (SiteKey.dailyTokenLimit / monthlyTokenLimit)
+        TokenLedger.Budget budget = tokenLedger.check(keyInfo.getId(), keyInfo.getDailyTokenLimit(), keyInfo.getMonthlyTokenLimit());
+        if (!budget.allowed()) {
+            return new ChatAdmission(ip, ua, host, runtime, keyInfo, rate, budget, null, budget.rejectMessage(), budget.headers());
+        }
+
+        // 일일 쿼터 (SiteKey.dailyCallLimit 기준, 미설정 시 IP 기본 한도)
+        DailyQuota quota = consumeDailyQuota(isAdmin, keyInfo, ip);
+        if (!quota.allowed()) {
+            return new ChatAdmission(ip, ua, host, runtime, keyInfo, rate, budget, quota, quota.rejectMessage(), quota.headers());
+        }
+        return new ChatAdmission(ip, ua, host, runtime, keyInfo, rate, budget, quota, null, null);
+    }
+
+    /**
+     * 일일 호출 쿼터 소모 (complete3/complete4 규칙)
+     *  - 관리자: 미적용
+     *  - SiteKey.dailyCallLimit > 0 : siteKey 단위 제한
+     *  - 그 외: 데모용 IP 기본 한도
+     */
+    private DailyQuota consumeDailyQuota(boolean isAdmin, SiteKey keyInfo, String ip) {
+        if (isAdmin) {
+            return new DailyQuota(true, null, "-1", "-1", "-1", null);
+        }
+
+        Integer siteDailyLimit = keyInfo.getDailyCallLimit();
+        if (siteDailyLimit != null && siteDailyLimit > 0) {
+            String skCounterKey = "sk:" + keyInfo.getSiteKey();
+            if (!dailyQuotaSupport.tryConsume(skCounterKey, siteDailyLimit)) {
+                return new DailyQuota(false, "해당 사이트키의 일일 호출 한도를 초과했습니다. 내일 다시 시도해 주세요.",
+                        "-1", "0", "0", "SITE_KEY");
+            }
+            String skRemain = String.valueOf(dailyQuotaSupport.remaining(skCounterKey, siteDailyLimit));
+            return new DailyQuota(true, null, "-1", skRemain, skRemain, "SITE_KEY");
+        }
+
+        String ipCounterKey = "ip:" + ip;
+        if (!dailyQuotaSupport.tryConsume(ipCounterKey, DEFAULT_FREE_IP_LIMIT)) {
+            return new DailyQuota(false, "무료 사용 한도를 초과했습니다. 내일 다시 시도해 주세요.",
+                    "0", "-1", "0", "IP");
+        }
+        String ipRemain = String.valueOf(dailyQuotaSupport.remaining(ipCounterKey, DEFAULT_FREE_IP_LIMIT));
+        return new DailyQuota(true, null, ipRemain, "-1", ipRemain, "IP");
+    }
+
+    /** 프로필 기준 응답 DTO (캐시/환영 답변은 토큰 0, 오류 응답은 토큰 null) */
+    private ChatWithPromptProfileResponse profileResponse(PromptProfile profile, String model, String text,
+                                                          Integer inputTokens, Integer outputTokens, Integer totalTokens) {
+        return ChatWithPromptProfileResponse.builder()
+                .promptProfileId(profile.getId())
+                .promptProfileName(profile.getName())
+                .promptProfileVersion(profile.getVersion())
+                .model(model)
+                .text(text)
+                .inputTokens(inputTokens)
+                .outputTokens(outputTokens)
+                .totalTokens(totalTokens)
+                .build();
+    }
+
+    /** 초당 요청 제한 / 토큰 한도(일/월) / 일일 쿼터 초과 429 응답 (걸린 항목의 헤더만) */
+    private ResponseEntity<ChatWithPromptProfileResponse> rejected(ChatAdmission admission) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .headers(admission.rejectHeaders())
+                .body(ChatWithPromptProfileResponse.builder()
+                        .model(null)
+                        .text(admission.rejectMessage())
+                        .build());
+    }
+
+    /** 지식 컨텍스트 + 사용자 컨텍스트 합치기 (둘 다 없으면 null) */
+    private String joinContext(String knowledgeContext, String userContext) {
+        boolean hasKnowledge = knowledgeContext != null && !knowledgeContext.isBlank();
+        boolean hasUser = userContext != null && !userContext.isBlank();
+        if (hasKnowledge && hasUser) return knowledgeContext + "\n\n---\n\n" + userContext;
+        if (hasKnowledge) return knowledgeContext;
+        return hasUser ? userContext : null;
+    }
+
+    private ServerSentEvent<Object> sseEvent(String event, Object data) {
+        return ServerSentEvent.<Object>builder(data).event(event).build();
+    }
+
+    /** admit 결과: 통과 시 rate/budget/quota 모두 채워짐, 거절 시 rejectMessage/rejectHeaders */
+    private record ChatAdmission(
+            String ip,
+            String ua,
+            String host,
+            SiteRuntime runtime,
+            SiteKey keyInfo,
+            SiteKeyRateLimiter.Decision rate,
+            TokenLedger.Budget budget,
+            DailyQuota quota,
+            String rejectMessage,
+            HttpHeaders rejectHeaders
+    ) {
+        boolean rejected() {
+            return rejectMessage != null;
+        }
+
+        /** 성공/오류 응답 공통 헤더 (쿼터 + 초당 제한 + 토큰 한도) */
+        HttpHeaders headers() {
+            HttpHeaders h = new HttpHeaders();
+            h.addAll(quota.headers());
+            h.addAll(rate.headers());
+            h.addAll(budget.headers());
+            return h;
+        }
+    }
+
+    /** 일일 쿼터 판정 결과 + 응답 헤더 값 ("-1" = 미적용) */
+    private record DailyQuota(
+            boolean allowed,
+            String rejectMessage,
+            String ipRemaining,
+            String skRemaining,
+            String effectiveRemaining,
+            String quotaType          // "SITE_KEY" / "IP" / null(관리자)
+    ) {
+        Integer quotaRemaining() {
+            if (quotaType == null || "-1".equals(effectiveRemaining)) return null;
+            return Integer.valueOf(effectiveRemaining);
+        }
+
+        HttpHeaders headers() {
+            HttpHeaders h = new HttpHeaders();
+            h.set("X-DailyReq-Remaining", effectiveRemaining);
+            h.set("X-IP-Daily-Remaining", ipRemaining);
+            h.set("X-SiteKey-Daily-Remaining", skRemaining);
+            return h;
+        }
+    }
+
     private String mask(String v) {
         if (v == null || v.isBlank()) return v;
         int n = v.length();
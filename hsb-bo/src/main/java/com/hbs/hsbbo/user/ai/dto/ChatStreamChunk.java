@@ -0,0 +1,32 @@
+package com.hbs.hsbbo.user.ai.dto;
+
+import lombok.*;
+
+/**
+ * OpenAI chat/completions (stream=true) 한 청크.
+ * - 일반 청크: delta 만 존재
+ * - 마지막 usage 청크: delta 없이 토큰 사용량만 존재
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class ChatStreamChunk {
+    private String model;
+    private String delta;
+    private String finishReason;
+
+    private Integer promptTokens;
+    private Integer completionTokens;
+    private Integer totalTokens;
+
+    public boolean hasDelta() {
+        return delta != null && !delta.isEmpty();
+    }
+
+    public boolean hasUsage() {
+        return totalTokens != null;
+    }
+}
@@ -11,7 +11,7 @@ import java.util.Map;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @ToString
 public class ChatWithPromptProfileRequest {
     // 어떤 프로필로 호출했는지 추적용(옵션)
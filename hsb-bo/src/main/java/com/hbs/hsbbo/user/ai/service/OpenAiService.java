@@ -1,9 +1,13 @@
 package com.hbs.hsbbo.user.ai.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hbs.hsbbo.user.ai.dto.ChatRequest;
 import com.hbs.hsbbo.user.ai.dto.ChatResponse;
+import com.hbs.hsbbo.user.ai.dto.ChatStreamChunk;
 import com.hbs.hsbbo.user.ai.dto.ChatWithPromptProfileRequest;
 import com.hbs.hsbbo.user.ai.dto.ChatWithPromptProfileResponse;
+import com.hbs.hsbbo.user.ai.support.HedgingPolicy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
@@ -14,6 +18,7 @@ import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 
@@ -26,9 +31,15 @@ import java.util.Map;
 public class OpenAiService {
 
     private final WebClient openAiWebClient;
+    private final ObjectMapper objectMapper;
+    private final HedgingPolicy hedgingPolicy;
 
-    public OpenAiService(@Qualifier("openAiWebClient") WebClient openAiWebClient) {
+    public OpenAiService(@Qualifier("openAiWebClient") WebClient openAiWebClient,
+                         ObjectMapper objectMapper,
+                         HedgingPolicy hedgingPolicy) {
         this.openAiWebClient = openAiWebClient;
+        this.objectMapper = objectMapper;
+        this.hedgingPolicy = hedgingPolicy;
     }
 
     @Value("${openai.model:gpt-4o-mini}")
@@ -123,15 +134,110 @@ public class OpenAiService {
      * OpenAI chat/completions를 호출하는 전용 메서드.
      */
     public Mono<ChatWithPromptProfileResponse> chatWithProfilePrompt(ChatWithPromptProfileRequest req) {
+        // 느린 응답은 HedgingPolicy(옵션)가 같은 요청을 한 번 더 보내서 먼저 온 쪽을 쓴다 (재시도 포함 전체 기준)
+        return hedgingPolicy.hedge(HedgingPolicy.UPSTREAM_OPENAI, req.getPromptProfileId(),
+                () -> callWithProfilePrompt(req));
+    }
+
+    private Mono<ChatWithPromptProfileResponse> callWithProfilePrompt(ChatWithPromptProfileRequest req) {
         // 1) 모델 선택: req.model 없으면 defaultModel
-        String model = (req.getModel() == null || req.getModel().isBlank())
+        String model = resolveModel(req);
+
+        // 2~3) messages + OpenAI body 구성
+        Map<String, Object> body = buildProfileBody(req, model);
+
+        // 4) OpenAI 호출
+        return openAiWebClient.post()
+                .uri("/chat/completions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue(body)
+                .retrieve()
+                .onStatus(s -> s.value() == 429, this::asTooManyRequests)
+                .onStatus(s -> s.is4xxClientError(), this::asClientError)
+                .onStatus(s -> s.is5xxServerError(), this::asServerError)
+                .bodyToMono(Map.class)
+                .map(res -> {
+                    var choices = (List<Map<String, Object>>) res.get("choices");
+                    String text = "";
+                    if (choices != null && !choices.isEmpty()) {
+                        var msg = (Map<String, Object>) choices.get(0).get("message");
+                        if (msg != null && msg.get("content") != null) {
+                            text = String.valueOf(msg.get("content"));
+                        }
+                    }
+                    var usage = (Map<String, Object>) res.get("usage");
+                    Integer promptT = usage == null ? null : toInt(usage.get("prompt_tokens"));
+                    Integer complT  = usage == null ? null : toInt(usage.get("completion_tokens"));
+                    Integer totalT  = usage == null ? null : toInt(usage.get("total_tokens"));
+                    String usedModel = (String) res.get("model");
+
+                    return ChatWithPromptProfileResponse.builder()
+                            .promptProfileId(req.getPromptProfileId())
+                            .promptProfileName(req.getPromptProfileName())
+                            .promptProfileVersion(req.getPromptProfileVersion())
+                            .model(usedModel == null ? model : usedModel)
+                            .text(text)
+                            .inputTokens(promptT)
+                            .outputTokens(complT)
+                            .totalTokens(totalT)
+                            .build();
+                })
+                .retryWhen(retrySpec())
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    public ChatWithPromptProfileResponse chatWithProfilePromptBlocking(ChatWithPromptProfileRequest req) {
+        return chatWithProfilePrompt(req).block(Duration.ofSeconds(35));
+    }
+
+    /**
+     * chatWithProfilePrompt 의 스트리밍 버전 (stream=true).
+     * - OpenAI SSE(data: {...}) 청크를 delta 단위로 흘려보내고,
+     *   마지막 청크(stream_options.include_usage)에서 토큰 사용량을 내려준다.
+     * - 이미 일부 토큰을 내보낸 뒤에는 재시도가 불가능하므로 retrySpec 은 적용하지 않는다.
+     */
+    public Flux<ChatStreamChunk> chatWithProfilePromptStream(ChatWithPromptProfileRequest req) {
+        String model = resolveModel(req);
+
+        Map<String, Object> body = buildProfileBody(req, model);
+        body.put("stream", true);
+        body.put("stream_options", Map.of("include_usage", true));
+
+        return openAiWebClient.post()
+                .uri("/chat/completions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(body)
+                .retrieve()
+                .onStatus(s -> s.value() == 429, this::asTooManyRequests)
+                .onStatus(s -> s.is4xxClientError(), this::asClientError)
+                .onStatus(s -> s.is5xxServerError(), this::asServerError)
+                // text/event-stream 의 data 필드만 문자열로 받는다
+                .bodyToFlux(String.class)
+                .filter(data -> !data.isBlank() && !"[DONE]".equals(data.trim()))
+                .map(data -> toStreamChunk(data, model))
+                // 청크 사이 간격 기준 타임아웃 (첫 토큰 포함)
+                .timeout(Duration.ofSeconds(30));
+    }
+
+    public ChatResponse chatBlocking(ChatRequest req) {
+        return chat(req).block(Duration.ofSeconds(35));
+    }
+
+    // ---- helpers ----
+    private String resolveModel(ChatWithPromptProfileRequest req) {
+        return (req.getModel() == null || req.getModel().isBlank())
                 ? defaultModel
                 : req.getModel();
+    }
 
-        // 2) messages 구성
+    /** PromptProfile 기반 요청 → OpenAI chat/completions body (messages 포함) */
+    private Map<String, Object> buildProfileBody(ChatWithPromptProfileRequest req, String model) {
+        // 1) messages 구성
         var messages = new java.util.ArrayList<Map<String, Object>>();
 
-        // 2-1) system 메시지: systemTpl + guardrailTpl + styleJson + policiesJson 합치기
+        // 1-1) system 메시지: systemTpl + guardrailTpl + styleJson + policiesJson 합치기
         StringBuilder systemBuf = new StringBuilder();
 
         if (req.getSystemTpl() != null && !req.getSystemTpl().isBlank()) {
@@ -157,7 +263,7 @@ public class OpenAiService {
                 "content", systemBuf.toString()
         ));
 
-        // 2-2) context (옵션)
+        // 1-2) context (옵션)
         if (req.getContext() != null && !req.getContext().isBlank()) {
             messages.add(Map.of(
                     "role", "user",
@@ -165,18 +271,18 @@ public class OpenAiService {
             ));
         }
 
-        // 2-3) 실제 사용자 질문
+        // 1-3) 실제 사용자 질문
         messages.add(Map.of(
                 "role", "user",
                 "content", req.getUserPrompt() == null ? "" : req.getUserPrompt()
         ));
 
-        // 3) OpenAI body 구성
+        // 2) OpenAI body 구성
         Map<String, Object> body = new java.util.HashMap<>();
         body.put("model", model);
         body.put("messages", messages);
 
-        // 3-1) 스칼라 파라미터
+        // 2-1) 스칼라 파라미터
         if (req.getTemperature() != null) {
             body.put("temperature", req.getTemperature());
         }
@@ -196,64 +302,51 @@ public class OpenAiService {
             body.put("seed", req.getSeed());
         }
 
-        // 3-2) stop / tools
+        // 2-2) stop / tools
         if (req.getStop() != null && !req.getStop().isEmpty()) {
             body.put("stop", req.getStop());
         }
         if (req.getTools() != null && !req.getTools().isEmpty()) {
             body.put("tools", req.getTools());
         }
-
-        // 4) OpenAI 호출
-        return openAiWebClient.post()
-                .uri("/chat/completions")
-                .contentType(MediaType.APPLICATION_JSON)
-                .accept(MediaType.APPLICATION_JSON)
-                .bodyValue(body)
-                .retrieve()
-                .onStatus(s -> s.value() == 429, this::asTooManyRequests)
-                .onStatus(s -> s.is4xxClientError(), this::asClientError)
-                .onStatus(s -> s.is5xxServerError(), this::asServerError)
-                .bodyToMono(Map.class)
-                .map(res -> {
-                    var choices = (List<Map<String, Object>>) res.get("choices");
-                    String text = "";
-                    if (choices != null && !choices.isEmpty()) {
-                        var msg = (Map<String, Object>) choices.get(0).get("message");
-                        if (msg != null && msg.get("content") != null) {
-                            text = String.valueOf(msg.get("content"));
-                        }
-                    }
-                    var usage = (Map<String, Object>) res.get("usage");
-                    Integer promptT = usage == null ? null : toInt(usage.get("prompt_tokens"));
-                    Integer complT  = usage == null ? null : toInt(usage.get("completion_tokens"));
-                    Integer totalT  = usage == null ? null : toInt(usage.get("total_tokens"));
-                    String usedModel = (String) res.get("model");
-
-                    return ChatWithPromptProfileResponse.builder()
-                            .promptProfileId(req.getPromptProfileId())
-                            .promptProfileName(req.getPromptProfileName())
-                            .promptProfileVersion(req.getPromptProfileVersion())
-                            .model(usedModel == null ? model : usedModel)
-                            .text(text)
-                            .inputTokens(promptT)
-                            .outputTokens(complT)
-                            .totalTokens(totalT)
-                            .build();
-                })
-                .retryWhen(retrySpec())
-                .timeout(Duration.ofSeconds(30));
+        return body;
     }
 
-    public ChatWithPromptProfileResponse chatWithProfilePromptBlocking(ChatWithPromptProfileRequest req) {
-        return chatWithProfilePrompt(req).block(Duration.ofSeconds(35));
-    }
-
-    public ChatResponse chatBlocking(ChatRequest req) {
-        return chat(req).block(Duration.ofSeconds(35));
+    /** 스트리밍 data 한 건(JSON) → ChatStreamChunk */
+    private ChatStreamChunk toStreamChunk(String data, String requestedModel) {
+        try {
+            JsonNode root = objectMapper.readTree(data);
+
+            String delta = null;
+            String finishReason = null;
+            JsonNode choices = root.path("choices");
+            if (choices.isArray() && !choices.isEmpty()) {
+                JsonNode choice = choices.get(0);
+                JsonNode content = choice.path("delta").path("content");
+                if (content.isTextual()) {
+                    delta = content.asText();
+                }
+                if (choice.hasNonNull("finish_reason")) {
+                    finishReason = choice.get("finish_reason").asText();
+                }
+            }
+
+            JsonNode usage = root.path("usage");
+            boolean hasUsage = usage.isObject();
+
+            return ChatStreamChunk.builder()
+                    .model(root.hasNonNull("model") ? root.get("model").asText() : requestedModel)
+                    .delta(delta)
+                    .finishReason(finishReason)
+                    .promptTokens(hasUsage ? toInt(usage.path("prompt_tokens").numberValue()) : null)
+                    .completionTokens(hasUsage ? toInt(usage.path("completion_tokens").numberValue()) : null)
+                    .totalTokens(hasUsage ? toInt(usage.path("total_tokens").numberValue()) : null)
+                    .build();
+        } catch (Exception e) {
+            throw new IllegalStateException("OpenAI 스트림 청크 파싱 실패: " + data, e);
+        }
     }
 
-    // ---- helpers ----
     private Mono<? extends Throwable> asTooManyRequests(ClientResponse resp) {
         // Retry-After / x-ratelimit-* 헤더 확인 (있으면 로그로 남김)
         var h = resp.headers().asHttpHeaders();
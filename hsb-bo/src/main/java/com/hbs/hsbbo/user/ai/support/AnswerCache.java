@@ -0,0 +1,209 @@
+package com.hbs.hsbbo.user.ai.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hbs.hsbbo.admin.ai.kb.retrieval.EmbeddingProvider;
+import com.hbs.hsbbo.admin.ai.kb.service.AnswerCacheControl;
+import com.hbs.hsbbo.admin.ai.kb.service.KnowledgeContextService;
+import com.hbs.hsbbo.admin.ai.promptprofile.domain.entity.PromptProfile;
+import com.hbs.hsbbo.common.util.QuestionNormalizer;
+import com.hbs.hsbbo.common.util.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 위젯 챗(complete4) 답변 캐시
+ *
+ * - PromptProfile.answerCacheTf = 'Y' 인 프로필만 사용 (opt-in)
+ * - 1단계(EXACT): (사이트키, 프로필 id/version, 프로필 문서 버전, 정규화된 질문) 완전 일치
+ *     · 프로필 문서 버전: KnowledgeContextService.documentsVersion, 그 프로필이 참조하는 문서만 DB 기준으로 요약한 값
+ *       → 다른 프로필의 문서 변경에는 영향받지 않고, 다른 노드에서 바뀐 문서도 version-ttl 안에 반영된다.
+ *       → 문서가 바뀌면 이전 답변은 키가 달라져 자연히 쓰이지 않고 LRU/TTL 로 정리된다.
+ *     · 프로필 수정/토글/삭제 시 PromptProfileService 가 evictByPromptProfileId 로 비운다 (커밋 이후)
+ * - 2단계(SEMANTIC, 기본 꺼짐): 같은 스코프에서 이전에 답한 질문 중 임베딩 코사인 유사도가 semantic-threshold 이상인 답변
+ *     · semantic-enabled=true 이고 EmbeddingProvider.semantic() 이 true 인 (의미 임베딩) 경우에만 켜진다.
+ *     · 기본 hash 임베딩은 어휘 겹침 기반이라 "환불 규정" / "배송 규정" 처럼 단어 하나 차이도 높게 나오므로 쓰지 않는다.
+ *     · 켠 뒤에는 임계값을 보수적으로 두고, 관리자 사용 통계의 적중률을 보며 조정한다.
+ * - 대화형 memoryPolicy(short 외)나 호출자가 context 를 직접 넘긴 요청은 캐시하지 않는다.
+ * - expireAfterWrite 는 다른 노드에서 처리된 변경을 반영하기 위한 안전망
+ */
+@Slf4j
+@Component
+public class AnswerCache implements AnswerCacheControl {
+
+    public static final String HEADER = "X-HSBS-Cache";
+
+    private final KnowledgeContextService knowledgeContextService;
+    private final EmbeddingProvider embeddingProvider;
+    private final Cache<Key, CachedAnswer> cache;
+    private final SemanticAnswerIndex semanticIndex;
+    private final boolean semanticEnabled;
+    private final double semanticThreshold;
+    private final Duration ttl;
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder exactHits = new LongAdder();
+    private final LongAdder semanticHits = new LongAdder();
+
+    public record Key(Long siteKeyId, Long promptProfileId, Integer profileVersion, long knowledgeVersion, String question) {
+    }
+
+    public record CachedAnswer(String model, String text) {
+    }
+
+    public enum Tier {
+        EXACT, SEMANTIC
+    }
+
+    /** X-HSBS-Cache 헤더 값 (WELCOME: 사전 생성 환영 답변, WelcomeAnswerCache) */
+    public enum Status {
+        HIT, SEMANTIC_HIT, WELCOME, MISS, BYPASS;
+
+        public HttpHeaders headers() {
+            HttpHeaders h = new HttpHeaders();
+            h.add(HEADER, name());
+            return h;
+        }
+    }
+
+    /**
+     * 조회 결과 (MISS 면 answer == null, 이후 put 에 그대로 넘겨 임베딩을 재사용)
+     *
+     * @param similarity SEMANTIC 적중 시 코사인 유사도
+     */
+    public record Lookup(Key key, float[] vector, Tier tier, CachedAnswer answer, Double similarity) {
+        public boolean hit() {
+            return answer != null;
+        }
+
+        public Status status() {
+            if (answer == null) return Status.MISS;
+            return tier == Tier.SEMANTIC ? Status.SEMANTIC_HIT : Status.HIT;
+        }
+    }
+
+    public AnswerCache(
+            KnowledgeContextService knowledgeContextService,
+            EmbeddingProvider embeddingProvider,
+            @Value("${hsbs.chat.answer-cache.max-size:10000}") long maxSize,
+            @Value("${hsbs.chat.answer-cache.ttl:PT1H}") Duration ttl,
+            @Value("${hsbs.chat.answer-cache.semantic-enabled:false}") boolean semanticEnabled,
+            @Value("${hsbs.chat.answer-cache.semantic-threshold:0.92}") double semanticThreshold,
+            @Value("${hsbs.chat.answer-cache.semantic-max-entries:500}") int semanticMaxEntries,
+            @Value("${hsbs.chat.answer-cache.semantic-max-scopes:1000}") long semanticMaxScopes
+    ) {
+        this.knowledgeContextService = knowledgeContextService;
+        this.embeddingProvider = embeddingProvider;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.semanticIndex = new SemanticAnswerIndex(
+                embeddingProvider.dimension(), semanticMaxEntries, semanticMaxScopes, ttl);
+        // 어휘 기반(hash) 임베딩으로는 "환불 규정" / "배송 규정" 같은 질문도 유사도가 높게 나와 남의 답을 돌려줄 수 있다
+        this.semanticEnabled = semanticEnabled && embeddingProvider.semantic();
+        if (semanticEnabled && !this.semanticEnabled) {
+            log.warn("[answer-cache] semantic tier disabled: embedding provider '{}' is lexical", embeddingProvider.name());
+        }
+        this.semanticThreshold = semanticThreshold;
+        this.ttl = ttl;
+    }
+
+    /** 캐시 사용 대상 여부 (프로필 opt-in + 단발성 요청) */
+    public boolean eligible(PromptProfile profile, String userContext) {
+        return profile != null && "Y".equals(profile.getAnswerCacheTf()) && AnswerCacheControl.stateless(profile, userContext);
+    }
+
+    /** 캐시/병합 키 (정규화 후 빈 질문이면 null) */
+    public Key keyOf(Long siteKeyId, PromptProfile profile, String question) {
+        String normalized = QuestionNormalizer.normalize(question);
+        if (normalized.isEmpty()) return null;
+        return new Key(siteKeyId, profile.getId(), profile.getVersion(),
+                knowledgeContextService.documentsVersion(profile), normalized);
+    }
+
+    /** EXACT → SEMANTIC 순서로 조회 (key 가 null 이면 null) */
+    public Lookup lookup(Key key) {
+        if (key == null) return null;
+        lookups.increment();
+
+        CachedAnswer exact = cache.getIfPresent(key);
+        if (exact != null) {
+            exactHits.increment();
+            return new Lookup(key, null, Tier.EXACT, exact, null);
+        }
+        if (!semanticEnabled) {
+            return new Lookup(key, null, null, null, null);
+        }
+
+        float[] vector;
+        try {
+            vector = embeddingProvider.embed(key.question());
+        } catch (Exception e) {
+            log.warn("[answer-cache] embedding failed, semantic tier skipped: {}", e.toString());
+            return new Lookup(key, null, null, null, null);
+        }
+
+        SemanticAnswerIndex.Match m = semanticIndex.nearest(scopeOf(key), vector);
+        if (m != null && m.similarity() >= semanticThreshold) {
+            semanticHits.increment();
+            log.debug("[answer-cache] semantic hit sim={} q='{}' matched='{}'",
+                    m.similarity(), key.question(), m.entry().question());
+            return new Lookup(key, vector, Tier.SEMANTIC, m.entry().answer(), m.similarity());
+        }
+        return new Lookup(key, vector, null, null, null);
+    }
+
+    /** MISS 였던 조회에 대한 답변 저장 (빈 답변은 저장 안 함) */
+    public void put(Lookup lookup, String model, String text) {
+        if (lookup == null || lookup.hit() || text == null || text.isBlank()) return;
+        CachedAnswer answer = new CachedAnswer(model, text);
+        cache.put(lookup.key(), answer);
+        if (lookup.vector() != null) {
+            semanticIndex.add(scopeOf(lookup.key()), lookup.key().question(), lookup.vector(), answer);
+        }
+    }
+
+    @Override
+    public Snapshot snapshot() {
+        return new Snapshot(
+                semanticEnabled,
+                semanticThreshold,
+                embeddingProvider.name(),
+                ttl.toString(),
+                cache.estimatedSize(),
+                semanticIndex.scopeCount(),
+                lookups.sum(),
+                exactHits.sum(),
+                semanticHits.sum()
+        );
+    }
+
+    @Override
+    public void evictByPromptProfileId(Long promptProfileId) {
+        if (promptProfileId == null) return;
+        TransactionUtil.afterCommit(() -> {
+            boolean removed = cache.asMap().keySet().removeIf(k -> promptProfileId.equals(k.promptProfileId()));
+            semanticIndex.removeIf(s -> promptProfileId.equals(s.promptProfileId()));
+            if (removed) log.debug("[answer-cache] evicted by promptProfileId={}", promptProfileId);
+        });
+    }
+
+    @Override
+    public void evictAll() {
+        TransactionUtil.afterCommit(() -> {
+            cache.invalidateAll();
+            semanticIndex.clear();
+        });
+    }
+
+    private static SemanticAnswerIndex.Scope scopeOf(Key key) {
+        return new SemanticAnswerIndex.Scope(
+                key.siteKeyId(), key.promptProfileId(), key.profileVersion(), key.knowledgeVersion());
+    }
+}
@@ -0,0 +1,11 @@
+package com.hbs.hsbbo.user.ai.support;
+
+/**
+ * 위젯 챗(complete3/complete4) LLM 호출 실행 방식
+ * - BLOCKING : 요청 스레드(Tomcat)에서 응답까지 block (기존 방식)
+ * - REACTIVE : Mono 를 그대로 반환 → 요청 스레드는 즉시 반납, 응답은 비동기 디스패치
+ */
+public enum ChatExecutionMode {
+    BLOCKING,
+    REACTIVE
+}
@@ -0,0 +1,41 @@
+package com.hbs.hsbbo.user.ai.support;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * LLM 업스트림 호출(Mono)을 hsbs.chat.execution-mode 에 맞춰 실행한다.
+ *
+ * - BLOCKING : 현재 스레드에서 block 후 결과를 Mono.just 로 감싸서 반환 (기존 동작과 동일)
+ * - REACTIVE : block 하지 않고 그대로 반환. 응답 이후 처리(사용 로그 JPA 저장 등)가
+ *              Netty 이벤트 루프에서 돌지 않도록 boundedElastic 으로 넘긴다.
+ *
+ * 어느 쪽이든 실패는 예외를 던지지 않고 Mono.error 로 내려주므로 호출측은 동일한 체인으로 처리하면 된다.
+ */
+@Slf4j
+@Component
+public class ChatExecutionSupport {
+
+    @Getter
+    private final ChatExecutionMode mode;
+
+    public ChatExecutionSupport(@Value("${hsbs.chat.execution-mode:BLOCKING}") ChatExecutionMode mode) {
+        this.mode = mode;
+        log.info("[chat] execution-mode={}", mode);
+    }
+
+    public <T> Mono<T> execute(Mono<T> upstream) {
+        if (mode == ChatExecutionMode.REACTIVE) {
+            return upstream.publishOn(Schedulers.boundedElastic());
+        }
+        try {
+            return Mono.justOrEmpty(upstream.block());
+        } catch (Exception e) {
+            return Mono.error(e);
+        }
+    }
+}
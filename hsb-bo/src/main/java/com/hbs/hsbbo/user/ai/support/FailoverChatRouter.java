@@ -0,0 +1,134 @@
+package com.hbs.hsbbo.user.ai.support;
+
+import com.hbs.hsbbo.admin.ai.brain.client.BrainClient;
+import com.hbs.hsbbo.admin.ai.brain.client.BrainResilience;
+import com.hbs.hsbbo.admin.ai.brain.client.BrainUnavailableException;
+import com.hbs.hsbbo.admin.ai.brain.config.HsbsBrainProperties;
+import com.hbs.hsbbo.admin.ai.brain.dto.model.response.BrainUsage;
+import com.hbs.hsbbo.admin.ai.brain.dto.request.BrainChatRequest;
+import com.hbs.hsbbo.admin.ai.brain.dto.response.BrainChatResponse;
+import com.hbs.hsbbo.user.ai.dto.ChatWithPromptProfileRequest;
+import com.hbs.hsbbo.user.ai.dto.ChatWithPromptProfileResponse;
+import com.hbs.hsbbo.user.ai.service.OpenAiService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 위젯 챗(complete4) 업스트림 라우터: Brain 우선, 실패 시 OpenAI 직접 호출로 대체
+ *
+ * - Brain 은 brain-budget 안에 응답해야 한다. 서버 장애(5xx/408/429, 연결 오류)/타임아웃/서킷 OPEN·벌크헤드 초과
+ *   (BrainUnavailableException) 이면 OpenAI 로 대체. 4xx 같은 요청 오류는 대체해도 같으므로 그대로 실패시킨다.
+ * - brain-budget 은 resilience.chat-timeout 보다 길어야 한다. 짧으면 느린 Brain 이 항상 budget 에서 취소되어
+ *   (CANCEL → IGNORED) 서킷에 실패로 집계되지 않으므로 기동 시 막는다.
+ * - 대체 호출은 같은 ChatWithPromptProfileRequest(system/guardrail/style/policies) +
+ *   Brain 에 보냈던 knowledgeContext 를 context 로 합쳐서 보낸다 (Brain 측 Vector Store 검색만 빠짐)
+ * - 정상 경로에서는 Brain 만 호출 → 지연/비용은 그대로, 대체는 Brain 실패 후에만 (hedging 아님)
+ * - 결과는 BrainChatResponse 모양으로 맞춰서 돌려주므로 호출측 매핑/로그 코드는 동일하게 쓰고 provider 만 구분한다.
+ */
+@Slf4j
+@Component
+public class FailoverChatRouter {
+
+    public static final String PROVIDER_BRAIN = "BRAIN";
+    public static final String PROVIDER_OPENAI = "OPENAI";
+
+    private final BrainClient brainClient;
+    private final OpenAiService openAiService;
+    private final HedgingPolicy hedgingPolicy;
+    private final boolean fallbackEnabled;
+    private final Duration brainBudget;
+
+    private final LongAdder fallbacks = new LongAdder();
+
+    /**
+     * @param provider 실제로 답한 업스트림 (BRAIN / OPENAI)
+     * @param response Brain 응답 또는 OpenAI 응답을 변환한 것
+     */
+    public record Routed(String provider, BrainChatResponse response) {
+    }
+
+    public FailoverChatRouter(
+            BrainClient brainClient,
+            OpenAiService openAiService,
+            HedgingPolicy hedgingPolicy,
+            @Value("${hsbs.chat.failover.enabled:true}") boolean fallbackEnabled,
+            @Value("${hsbs.chat.failover.brain-budget:PT15S}") Duration brainBudget,
+            HsbsBrainProperties brainProperties
+    ) {
+        HsbsBrainProperties.Resilience resilience = brainProperties.getResilience();
+        if (resilience.isEnabled() && resilience.getChatTimeout().compareTo(brainBudget) >= 0) {
+            throw new IllegalStateException("hsbs.chat.failover.brain-budget(" + brainBudget
+                    + ") must be longer than hsbs.brain.resilience.chat-timeout(" + resilience.getChatTimeout() + ")");
+        }
+        this.brainClient = brainClient;
+        this.openAiService = openAiService;
+        this.hedgingPolicy = hedgingPolicy;
+        this.fallbackEnabled = fallbackEnabled;
+        this.brainBudget = brainBudget;
+    }
+
+    public Mono<Routed> chat(BrainChatRequest brainReq, ChatWithPromptProfileRequest ppReq) {
+        // 느린 응답은 HedgingPolicy(옵션)가 같은 요청을 한 번 더 보내서 먼저 온 쪽을 쓴다
+        Mono<Routed> primary = hedgingPolicy.hedge(HedgingPolicy.UPSTREAM_BRAIN, brainReq.getPromptProfileId(),
+                        () -> brainClient.chatAsync(brainReq))
+                .timeout(brainBudget)
+                .map(res -> new Routed(PROVIDER_BRAIN, res));
+        if (!fallbackEnabled) {
+            return primary;
+        }
+
+        return primary.onErrorResume(FailoverChatRouter::shouldFallback, e -> {
+            fallbacks.increment();
+            log.warn("[chat-failover] Brain failed, falling back to OpenAI. promptProfileId={}, cause={}",
+                    brainReq.getPromptProfileId(), e.toString());
+
+            ChatWithPromptProfileRequest fallbackReq = ppReq.toBuilder()
+                    .context(joinContext(brainReq.getKnowledgeContext(), ppReq.getContext()))
+                    .build();
+            return openAiService.chatWithProfilePrompt(fallbackReq)
+                    .map(res -> new Routed(PROVIDER_OPENAI, toBrainResponse(res)))
+                    // 대체도 실패하면 원래 Brain 오류를 함께 남긴다
+                    .onErrorMap(fe -> {
+                        fe.addSuppressed(e);
+                        return fe;
+                    });
+        });
+    }
+
+    /** 기동 이후 OpenAI 로 대체된 호출 수 (이 노드) */
+    public long fallbackCount() {
+        return fallbacks.sum();
+    }
+
+    /** 업스트림 장애로 볼 수 있는 오류만 대체 (Brain 이 요청을 거절한 4xx 는 호출측으로 그대로) */
+    static boolean shouldFallback(Throwable e) {
+        if (e instanceof BrainUnavailableException || e instanceof TimeoutException) return true;
+        return BrainResilience.outcomeOf(e) == BrainResilience.Outcome.FAILURE;
+    }
+
+    private static BrainChatResponse toBrainResponse(ChatWithPromptProfileResponse res) {
+        return BrainChatResponse.builder()
+                .answer(res.getText())
+                .usage(BrainUsage.builder()
+                        .model(res.getModel())
+                        .promptTokens(res.getInputTokens())
+                        .completionTokens(res.getOutputTokens())
+                        .totalTokens(res.getTotalTokens())
+                        .build())
+                .build();
+    }
+
+    private static String joinContext(String knowledgeContext, String userContext) {
+        boolean hasKnowledge = knowledgeContext != null && !knowledgeContext.isBlank();
+        boolean hasUser = userContext != null && !userContext.isBlank();
+        if (hasKnowledge && hasUser) return knowledgeContext + "\n\n---\n\n" + userContext;
+        if (hasKnowledge) return knowledgeContext;
+        return hasUser ? userContext : null;
+    }
+}
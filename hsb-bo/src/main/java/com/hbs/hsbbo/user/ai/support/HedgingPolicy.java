@@ -0,0 +1,163 @@
+package com.hbs.hsbbo.user.ai.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * LLM 호출 hedging (hsbs.chat.hedging.enabled, 기본 off)
+ *
+ * - (업스트림, 프로필)별 최근 지연 분포의 percentile(기본 p95) 안에 응답이 없으면 같은 요청을 한 번 더 보내고
+ *   먼저 끝난 쪽을 쓰며 나머지는 취소한다.
+ * - 전역 예산: 1차 호출마다 budget-ratio(기본 0.05) 만큼 적립, hedge 1회에 1 소모 → 추가 호출은 최대 ~5%
+ * - 샘플이 min-samples 미만이면 hedge 하지 않음. 지연 임계값은 min-delay 이상
+ * - 1차 호출이 hedge 에 져서 취소되면 그때까지의 경과 시간을 기록 (실제 지연의 하한값 → 분포가 낮아지지 않도록)
+ * - 1차 호출이 실패하면 그대로 실패 (대체 경로는 FailoverChatRouter 몫)
+ * - 지표: hsbs.chat.hedge.calls / fired / won / budget_exhausted {upstream}
+ */
+@Slf4j
+@Component
+public class HedgingPolicy {
+
+    public static final String UPSTREAM_BRAIN = "brain";
+    public static final String UPSTREAM_OPENAI = "openai";
+
+    private static final int WINDOW = 256;
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final double percentile;
+    private final int minSamples;
+    private final long minDelayMs;
+    private final double budgetRatio;
+    private final double budgetMax;
+    private final Cache<Key, LatencyWindow> windows;
+
+    private double budget;
+
+    record Key(String upstream, Long promptProfileId) {
+    }
+
+    /** 최근 WINDOW 건 지연(ms) 링버퍼 + RECOMPUTE_EVERY 건마다 다시 계산하는 percentile */
+    private static final class LatencyWindow {
+        private final long[] samples = new long[WINDOW];
+        private int head;
+        private int count;
+        private int sinceRecompute;
+        private long threshold = -1;
+
+        synchronized void add(long ms) {
+            samples[head] = ms;
+            head = (head + 1) % WINDOW;
+            if (count < WINDOW) count++;
+            sinceRecompute++;
+        }
+
+        synchronized long threshold(double percentile, int minSamples) {
+            if (count < minSamples) return -1;
+            if (threshold < 0 || sinceRecompute >= RECOMPUTE_EVERY) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                int idx = (int) Math.ceil(percentile * count) - 1;
+                threshold = sorted[Math.max(0, Math.min(count - 1, idx))];
+                sinceRecompute = 0;
+            }
+            return threshold;
+        }
+    }
+
+    public HedgingPolicy(
+            MeterRegistry meterRegistry,
+            @Value("${hsbs.chat.hedging.enabled:false}") boolean enabled,
+            @Value("${hsbs.chat.hedging.percentile:0.95}") double percentile,
+            @Value("${hsbs.chat.hedging.min-samples:50}") int minSamples,
+            @Value("${hsbs.chat.hedging.min-delay:PT1S}") Duration minDelay,
+            @Value("${hsbs.chat.hedging.budget-ratio:0.05}") double budgetRatio,
+            @Value("${hsbs.chat.hedging.budget-burst:10}") double budgetBurst,
+            @Value("${hsbs.chat.hedging.max-profiles:5000}") long maxProfiles
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.percentile = Math.max(0.5, Math.min(0.999, percentile));
+        this.minSamples = Math.max(1, Math.min(WINDOW, minSamples));
+        this.minDelayMs = minDelay.toMillis();
+        this.budgetRatio = Math.max(0.0, budgetRatio);
+        this.budgetMax = Math.max(1.0, budgetBurst);
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(maxProfiles)
+                .expireAfterAccess(Duration.ofHours(6))
+                .build();
+    }
+
+    /**
+     * @param upstream        지표/분포 구분용 (brain / openai)
+     * @param promptProfileId 분포 구분용 (null 이면 업스트림 공통)
+     * @param call            같은 요청을 다시 만들 수 있는 호출 (구독할 때마다 새 HTTP 요청)
+     */
+    public <T> Mono<T> hedge(String upstream, Long promptProfileId, Supplier<Mono<T>> call) {
+        if (!enabled) {
+            return Mono.defer(call);
+        }
+        return Mono.defer(() -> {
+            meterRegistry.counter("hsbs.chat.hedge.calls", "upstream", upstream).increment();
+            deposit();
+
+            LatencyWindow window = windows.get(new Key(upstream, promptProfileId), k -> new LatencyWindow());
+            long threshold = window.threshold(percentile, minSamples);
+            long startedAt = System.currentTimeMillis();
+
+            Mono<T> primary = Mono.defer(call)
+                    .doFinally(signal -> {
+                        // 실패는 분포에 넣지 않는다 (즉시 실패가 임계값을 끌어내리지 않도록)
+                        if (signal != SignalType.ON_ERROR) {
+                            window.add(System.currentTimeMillis() - startedAt);
+                        }
+                    });
+            if (threshold < 0) {
+                return primary;
+            }
+
+            long delayMs = Math.max(minDelayMs, threshold);
+            Mono<T> secondary = Mono.delay(Duration.ofMillis(delayMs))
+                    .flatMap(t -> {
+                        if (!tryWithdraw()) {
+                            meterRegistry.counter("hsbs.chat.hedge.budget_exhausted", "upstream", upstream).increment();
+                            return Mono.<T>never();
+                        }
+                        meterRegistry.counter("hsbs.chat.hedge.fired", "upstream", upstream).increment();
+                        log.debug("[hedge] {} promptProfileId={} no response in {}ms, firing hedge",
+                                upstream, promptProfileId, delayMs);
+                        return Mono.defer(call)
+                                .doOnSuccess(v -> meterRegistry.counter("hsbs.chat.hedge.won", "upstream", upstream).increment())
+                                // hedge 실패는 무시하고 1차 결과를 기다린다
+                                .onErrorResume(e -> Mono.never());
+                    });
+
+            // 먼저 신호를 낸 쪽 채택, 나머지는 취소
+            return Mono.firstWithSignal(primary, secondary);
+        });
+    }
+
+    /* =========================
+     * 전역 hedge 예산 (토큰 버킷)
+     * ========================= */
+    private synchronized void deposit() {
+        budget = Math.min(budgetMax, budget + budgetRatio);
+    }
+
+    private synchronized boolean tryWithdraw() {
+        if (budget < 1.0) return false;
+        budget -= 1.0;
+        return true;
+    }
+}
@@ -0,0 +1,61 @@
+package com.hbs.hsbbo.user.ai.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 동일 질문 동시 요청 병합 (single-flight)
+ *
+ * - 같은 키의 업스트림 호출이 진행 중이면 새로 호출하지 않고 진행 중인 결과(Mono.cache)를 함께 구독
+ * - 업스트림이 끝나면(성공/실패 모두) 즉시 맵에서 제거 → 결과를 재사용하는 캐시가 아니라 "진행 중" 동안만 병합
+ *   (끝난 뒤의 재사용은 AnswerCache 몫)
+ * - 쿼터/토큰 원장/사용 로그는 호출측에서 요청마다 그대로 처리한다.
+ */
+@Slf4j
+@Component
+public class InFlightCoalescer {
+
+    private final Map<Object, Mono<?>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param mono      구독할 Mono (선행 요청이면 새 업스트림, 후행이면 진행 중인 것)
+     * @param coalesced 진행 중인 호출에 합류했으면 true
+     */
+    public record Joined<T>(Mono<T> mono, boolean coalesced) {
+    }
+
+    /** key 가 null 이면 병합하지 않고 upstream 을 그대로 반환 */
+    @SuppressWarnings("unchecked")
+    public <T> Joined<T> join(Object key, Supplier<Mono<T>> upstream) {
+        if (key == null) {
+            return new Joined<>(upstream.get(), false);
+        }
+
+        boolean[] leader = {false};
+        Mono<?> shared = inFlight.computeIfAbsent(key, k -> {
+            leader[0] = true;
+            AtomicReference<Mono<T>> self = new AtomicReference<>();
+            Mono<T> m = Mono.defer(upstream)
+                    .doFinally(signal -> inFlight.remove(k, self.get()))
+                    .cache();
+            self.set(m);
+            return m;
+        });
+
+        if (!leader[0]) {
+            log.debug("[single-flight] joined in-flight call key={}", key);
+        }
+        return new Joined<>((Mono<T>) shared, !leader[0]);
+    }
+
+    /** 현재 진행 중인 병합 키 수 */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,107 @@
+package com.hbs.hsbbo.user.ai.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hbs.hsbbo.admin.ai.kb.retrieval.HnswGraph;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * 답변 캐시 2단계: 이전에 답한 질문의 임베딩 → 답변 (사이트키/프로필/문서 버전 단위 소형 HNSW)
+ *
+ * - 스코프(Scope)마다 HnswGraph 1개 + 항목 맵. 노드 documentId = 항목 id, chunkNo = 0
+ * - 스코프당 maxEntries 초과 시 가장 오래된 항목부터 제거 (tombstone 이 많아지면 compact)
+ * - 항목 TTL 은 조회 시 필터로 적용, 스코프는 expireAfterAccess 로 정리
+ *   → 문서 버전/프로필 버전이 바뀐 스코프는 더 이상 접근되지 않아 자연히 사라진다.
+ */
+final class SemanticAnswerIndex {
+
+    private static final int HNSW_M = 8;
+    private static final int HNSW_EF_CONSTRUCTION = 64;
+    private static final int HNSW_EF_SEARCH = 32;
+
+    record Scope(Long siteKeyId, Long promptProfileId, Integer profileVersion, long knowledgeVersion) {
+    }
+
+    record Entry(String question, AnswerCache.CachedAnswer answer, long expiresAt) {
+    }
+
+    record Match(Entry entry, double similarity) {
+    }
+
+    private final int dimension;
+    private final int maxEntries;
+    private final long ttlMs;
+    private final Cache<Scope, Shard> shards;
+
+    private final class Shard {
+        private HnswGraph graph = new HnswGraph(dimension, HNSW_M, HNSW_EF_CONSTRUCTION);
+        private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+        private final ArrayDeque<Long> order = new ArrayDeque<>();
+        private long seq;
+
+        Match nearest(float[] vector, long now) {
+            HnswGraph g = graph;
+            List<HnswGraph.Hit> hits = g.search(vector, 1, HNSW_EF_SEARCH, id -> {
+                Entry e = entries.get(id);
+                return e != null && e.expiresAt() > now;
+            });
+            if (hits.isEmpty()) return null;
+            Entry e = entries.get(hits.get(0).documentId());
+            return e == null ? null : new Match(e, hits.get(0).score());
+        }
+
+        synchronized void add(String question, float[] vector, AnswerCache.CachedAnswer answer, long now) {
+            long id = ++seq;
+            graph.putDocument(id, List.of(0), List.of(vector));
+            entries.put(id, new Entry(question, answer, now + ttlMs));
+            order.addLast(id);
+
+            while (order.size() > maxEntries) {
+                Long oldest = order.pollFirst();
+                entries.remove(oldest);
+                graph.removeDocument(oldest);
+            }
+            if (graph.needsCompaction()) {
+                graph = graph.compact();
+            }
+        }
+    }
+
+    SemanticAnswerIndex(int dimension, int maxEntries, long maxScopes, Duration ttl) {
+        this.dimension = dimension;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMs = ttl.toMillis();
+        this.shards = Caffeine.newBuilder()
+                .maximumSize(maxScopes)
+                .expireAfterAccess(ttl)
+                .build();
+    }
+
+    /** 가장 가까운 살아있는 항목 (없으면 null). 임계값 판단은 호출자 몫 */
+    Match nearest(Scope scope, float[] vector) {
+        Shard shard = shards.getIfPresent(scope);
+        return shard == null ? null : shard.nearest(vector, System.currentTimeMillis());
+    }
+
+    void add(Scope scope, String question, float[] vector, AnswerCache.CachedAnswer answer) {
+        shards.get(scope, s -> new Shard()).add(question, vector, answer, System.currentTimeMillis());
+    }
+
+    void removeIf(Predicate<Scope> predicate) {
+        shards.asMap().keySet().removeIf(predicate);
+    }
+
+    void clear() {
+        shards.invalidateAll();
+    }
+
+    long scopeCount() {
+        return shards.estimatedSize();
+    }
+}
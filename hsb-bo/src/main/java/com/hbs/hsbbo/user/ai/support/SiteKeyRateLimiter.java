@@ -0,0 +1,141 @@
+package com.hbs.hsbbo.user.ai.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SiteKey.rateLimitRps 기반 초당 요청 제한 (token bucket)
+ *
+ * - 사이트키마다 버킷 1개, 용량 = rps * burstSeconds, 초당 rps 개 보충
+ * - 버킷 상태는 "버킷이 가득 차는 시각"을 나타내는 long 하나(AtomicLong)로 표현하고 CAS 로만 갱신 → 락 없음
+ *     · 남은 토큰 = (now - stamp) / interval   (최대 capacity)
+ *     · 토큰 1개 소비 = stamp += interval
+ * - 버킷은 Caffeine(maximumSize + expireAfterAccess)에 보관 → 안 쓰는 키는 자동 정리
+ * - rps 가 null 또는 0 이하이면 제한 없음
+ */
+@Component
+public class SiteKeyRateLimiter {
+
+    private final Cache<String, Bucket> buckets;
+    private final int burstSeconds;
+
+    public SiteKeyRateLimiter(
+            @Value("${hsbs.rate-limit.max-keys:10000}") long maxKeys,
+            @Value("${hsbs.rate-limit.idle-expire:PT10M}") Duration idleExpire,
+            @Value("${hsbs.rate-limit.burst-seconds:1}") int burstSeconds
+    ) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleExpire)
+                .build();
+        this.burstSeconds = Math.max(1, burstSeconds);
+    }
+
+    /** 토큰 1개 소비 시도 */
+    public Decision tryAcquire(String siteKey, Integer rps) {
+        if (siteKey == null || rps == null || rps <= 0) {
+            return Decision.UNLIMITED;
+        }
+
+        Bucket bucket = buckets.get(siteKey, k -> new Bucket(rps, burstSeconds));
+        if (bucket.rps != rps) {
+            // 관리자에서 rateLimitRps 변경 → 새 한도로 버킷 교체
+            bucket = new Bucket(rps, burstSeconds);
+            buckets.put(siteKey, bucket);
+        }
+        return bucket.tryAcquire(System.nanoTime());
+    }
+
+    // ===== 버킷 =====
+
+    static final class Bucket {
+        private final int rps;
+        private final long capacity;
+        private final long intervalNanos;   // 토큰 1개 보충 주기
+        private final long fullNanos;       // 빈 버킷이 가득 차기까지 걸리는 시간
+        private final AtomicLong stamp;
+
+        Bucket(int rps, int burstSeconds) {
+            this.rps = rps;
+            this.capacity = (long) rps * burstSeconds;
+            this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+            this.fullNanos = intervalNanos * capacity;
+            this.stamp = new AtomicLong(System.nanoTime() - fullNanos); // 처음엔 가득 찬 상태
+        }
+
+        Decision tryAcquire(long now) {
+            while (true) {
+                long cur = stamp.get();
+                long base = Math.max(cur, now - fullNanos);  // capacity 이상은 쌓이지 않음
+                long next = base + intervalNanos;
+
+                if (next > now) {
+                    // 토큰 없음 → 다음 토큰까지 대기 시간
+                    return Decision.rejected(rps, next - now, base + fullNanos - now);
+                }
+                if (stamp.compareAndSet(cur, next)) {
+                    long remaining = Math.min(capacity, (now - next) / intervalNanos);
+                    return Decision.allowed(rps, remaining, next + fullNanos - now);
+                }
+                // CAS 경합 → 재시도
+            }
+        }
+    }
+
+    // ===== 결과 =====
+
+    public record Decision(
+            boolean allowed,
+            int limit,                // 초당 허용 요청 수 (-1: 제한 없음)
+            long remaining,           // 남은 토큰 수
+            long retryAfterNanos,     // 거절 시 다음 토큰까지 대기 시간
+            long resetNanos           // 버킷이 가득 찰 때까지 남은 시간
+    ) {
+        static final Decision UNLIMITED = new Decision(true, -1, -1, 0, 0);
+
+        static Decision allowed(int limit, long remaining, long resetNanos) {
+            return new Decision(true, limit, remaining, 0, resetNanos);
+        }
+
+        static Decision rejected(int limit, long retryAfterNanos, long resetNanos) {
+            return new Decision(false, limit, 0, retryAfterNanos, resetNanos);
+        }
+
+        public boolean limited() {
+            return limit > 0;
+        }
+
+        /** Retry-After (초, 올림 / 최소 1) */
+        public long retryAfterSeconds() {
+            return Math.max(1, ceilSeconds(retryAfterNanos));
+        }
+
+        /**
+         * X-RateLimit-Limit / X-RateLimit-Remaining / X-RateLimit-Reset(초)
+         * 거절 시 Retry-After 포함. 제한 없는 키는 빈 헤더.
+         */
+        public HttpHeaders headers() {
+            HttpHeaders h = new HttpHeaders();
+            if (!limited()) return h;
+            h.add("X-RateLimit-Limit", String.valueOf(limit));
+            h.add("X-RateLimit-Remaining", String.valueOf(remaining));
+            h.add("X-RateLimit-Reset", String.valueOf(ceilSeconds(resetNanos)));
+            if (!allowed) {
+                h.add(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds()));
+            }
+            return h;
+        }
+
+        private static long ceilSeconds(long nanos) {
+            long sec = TimeUnit.SECONDS.toNanos(1);
+            return nanos <= 0 ? 0 : (nanos + sec - 1) / sec;
+        }
+    }
+}
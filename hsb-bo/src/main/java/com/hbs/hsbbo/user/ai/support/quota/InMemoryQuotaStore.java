@@ -0,0 +1,83 @@
+package com.hbs.hsbbo.user.ai.support.quota;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 단일 노드용 메모리 저장소
+ *
+ * - (userKey, 날짜) 키별 카운터, CAS 로 "한도 미만일 때만 +1"
+ * - 살아 있는 카운터는 절대 버리지 않는다 (버리면 그 키의 한도가 0 부터 다시 시작됨)
+ *   · 날짜가 바뀌면 지난 날짜 키를 한 번에 정리
+ *   · 키 수가 maxKeys 에 닿으면 새 키는 받지 않는다: 한도 있는 요청은 거절, 무제한 요청은 집계 없이 통과
+ * - 재기동 시 초기화됨 → 여러 노드/재기동 보존이 필요하면 JdbcQuotaStore 사용
+ */
+@Slf4j
+public class InMemoryQuotaStore implements QuotaStore {
+
+    private final Map<Key, AtomicInteger> counters = new ConcurrentHashMap<>();
+    private final long maxKeys;
+
+    private volatile LocalDate currentDay;
+    private volatile boolean capWarned;
+
+    private record Key(String userKey, LocalDate day) {}
+
+    public InMemoryQuotaStore(long maxKeys) {
+        this.maxKeys = Math.max(1, maxKeys);
+    }
+
+    @Override
+    public boolean tryConsume(String userKey, LocalDate day, Integer limit) {
+        purgeBefore(day);
+        AtomicInteger counter = counter(new Key(userKey, day));
+
+        if (limit == null || limit <= 0) {
+            if (counter != null) counter.incrementAndGet();
+            return true;
+        }
+        if (counter == null) return false;
+
+        int cur;
+        do {
+            cur = counter.get();
+            if (cur >= limit) return false;
+        } while (!counter.compareAndSet(cur, cur + 1));
+        return true;
+    }
+
+    @Override
+    public int used(String userKey, LocalDate day) {
+        AtomicInteger counter = counters.get(new Key(userKey, day));
+        return counter == null ? 0 : counter.get();
+    }
+
+    /** 기존 카운터 또는 새 카운터 (상한에 닿았으면 null) */
+    private AtomicInteger counter(Key key) {
+        AtomicInteger counter = counters.get(key);
+        if (counter != null) return counter;
+        if (counters.size() >= maxKeys) {
+            if (!capWarned) {
+                capWarned = true;
+                log.warn("[quota] in-memory store reached {} keys, refusing new keys until the day rolls over", maxKeys);
+            }
+            return null;
+        }
+        return counters.computeIfAbsent(key, k -> new AtomicInteger());
+    }
+
+    private void purgeBefore(LocalDate day) {
+        LocalDate cur = currentDay;
+        if (cur != null && !day.isAfter(cur)) return;
+        synchronized (this) {
+            if (currentDay != null && !day.isAfter(currentDay)) return;
+            counters.keySet().removeIf(k -> k.day().isBefore(day));
+            currentDay = day;
+            capWarned = false;
+        }
+    }
+}
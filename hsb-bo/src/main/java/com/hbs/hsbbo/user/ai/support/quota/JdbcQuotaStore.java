@@ -0,0 +1,235 @@
+package com.hbs.hsbbo.user.ai.support.quota;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 여러 노드가 공유하는 DB 저장소 (ai_daily_quota)
+ *
+ * 한도 있는 키 : 블록 임대(lease)
+ * - 노드는 DB 에서 조건부 UPDATE(used + n <= limit)로 n 회분을 미리 받아두고, 로컬 CAS 로 소진
+ * - DB 가 허락한 만큼만 쓰므로 노드가 몇 개든 합계가 limit 을 넘지 않음
+ * - 블록 크기 = min(lease-size, limit / LEASE_SHARE) → 노드 하나가 한도의 큰 몫을 묶어두지 않음
+ *   · limit 이 작아 블록이 1 이하면 요청마다 조건부 UPDATE 1회 (다른 노드가 임대분 반납을 기다리며 거절당하지 않도록)
+ *   · 한도 안 남은 만큼 블록이 안 들어가면 남은 양만 임대
+ * - 미사용 임대분은 flush 주기마다(종료 시 포함) 배치로 반납 → 다른 노드가 묶인 몫을 오래 기다리지 않음
+ *
+ * 한도 없는 키 : 증분 배치
+ * - 로컬에서 카운트만 올리고 flush 주기마다 INSERT ... ON DUPLICATE KEY UPDATE 배치로 반영
+ *
+ * 날짜는 quota_date 컬럼으로 분리 (지난 날짜 로컬 상태는 flush 때 정리, DB 행은 retention-days 후 삭제)
+ */
+@Slf4j
+public class JdbcQuotaStore implements QuotaStore {
+
+    private static final int BATCH = 1000;
+    // 한 번에 임대하는 양은 한도의 1/LEASE_SHARE 이하
+    private static final int LEASE_SHARE = 8;
+
+    private final JdbcTemplate jdbc;
+    private final int leaseSize;
+    private final int retentionDays;
+
+    private final Map<Key, Lease> leases = new ConcurrentHashMap<>();
+    private volatile LocalDate lastPurgedDay;
+
+    private record Key(String userKey, LocalDate day) {}
+
+    private static final class Lease {
+        final AtomicInteger left = new AtomicInteger();       // 이 노드가 받아둔 잔여 횟수
+        final AtomicInteger unflushed = new AtomicInteger();  // (무제한 키) DB 미반영 증분
+        volatile int dbUsed;                                  // 마지막 임대 시점의 DB used
+        volatile boolean rowReady;                            // DB 행 존재 확인 여부
+    }
+
+    public JdbcQuotaStore(JdbcTemplate jdbc, int leaseSize, int retentionDays) {
+        this.jdbc = jdbc;
+        this.leaseSize = Math.max(1, leaseSize);
+        this.retentionDays = Math.max(1, retentionDays);
+    }
+
+    @Override
+    public boolean tryConsume(String userKey, LocalDate day, Integer limit) {
+        Lease lease = leases.computeIfAbsent(new Key(userKey, day), k -> new Lease());
+
+        if (limit == null || limit <= 0) {
+            lease.unflushed.incrementAndGet();
+            return true;
+        }
+
+        if (takeOne(lease.left)) return true;
+
+        // 임대분 소진 → 키 단위로만 직렬화해서 DB 에서 새 블록 임대
+        synchronized (lease) {
+            if (takeOne(lease.left)) return true;
+            int granted = leaseFromDb(lease, userKey, day, limit);
+            if (granted <= 0) return false;
+            lease.left.addAndGet(granted - 1);
+            return true;
+        }
+    }
+
+    @Override
+    public int used(String userKey, LocalDate day) {
+        Lease lease = leases.get(new Key(userKey, day));
+        if (lease == null) return 0;
+        return Math.max(0, lease.dbUsed - lease.left.get() + lease.unflushed.get());
+    }
+
+    // ========================= 임대 =========================
+
+    private int leaseFromDb(Lease lease, String userKey, LocalDate day, int limit) {
+        Date d = Date.valueOf(day);
+        if (!lease.rowReady) {
+            jdbc.update("INSERT IGNORE INTO ai_daily_quota (quota_key, quota_date, used, up_date) VALUES (?, ?, 0, NOW())",
+                    userKey, d);
+            lease.rowReady = true;
+        }
+
+        int block = Math.max(1, Math.min(leaseSize, limit / LEASE_SHARE));
+        int granted = tryLease(userKey, d, block, limit) ? block : 0;
+
+        Integer used = jdbc.queryForObject(
+                "SELECT used FROM ai_daily_quota WHERE quota_key = ? AND quota_date = ?",
+                Integer.class, userKey, d);
+        lease.dbUsed = used == null ? 0 : used;
+
+        if (granted == 0) {
+            // 블록 전체는 안 들어감 → 남은 양만큼만 임대
+            int rest = Math.min(block, limit - lease.dbUsed);
+            if (rest > 0 && tryLease(userKey, d, rest, limit)) {
+                granted = rest;
+                lease.dbUsed += rest;
+            }
+        }
+        return granted;
+    }
+
+    private boolean tryLease(String userKey, Date day, int n, int limit) {
+        return jdbc.update("""
+                UPDATE ai_daily_quota
+                   SET used = used + ?, up_date = NOW()
+                 WHERE quota_key = ? AND quota_date = ?
+                   AND used + ? <= ?
+                """, n, userKey, day, n, limit) > 0;
+    }
+
+    private static boolean takeOne(AtomicInteger left) {
+        int cur;
+        do {
+            cur = left.get();
+            if (cur <= 0) return false;
+        } while (!left.compareAndSet(cur, cur - 1));
+        return true;
+    }
+
+    // ========================= flush / 반납 =========================
+
+    @Scheduled(fixedDelayString = "${hsbs.quota.flush-interval-ms:5000}")
+    public void flush() {
+        LocalDate today = LocalDate.now();
+        List<Object[]> deltas = new ArrayList<>();
+        List<AtomicInteger> drained = new ArrayList<>();
+
+        for (Map.Entry<Key, Lease> e : leases.entrySet()) {
+            int d = e.getValue().unflushed.getAndSet(0);
+            if (d > 0) {
+                deltas.add(new Object[]{ e.getKey().userKey(), Date.valueOf(e.getKey().day()), d });
+                drained.add(e.getValue().unflushed);
+            }
+        }
+
+        try {
+            addAll(deltas);
+        } catch (Exception ex) {
+            for (int i = 0; i < drained.size(); i++) {
+                drained.get(i).addAndGet((Integer) deltas.get(i)[2]);
+            }
+            log.warn("[quota] flush failed ({} rows), will retry: {}", deltas.size(), ex.toString());
+            return;
+        }
+
+        returnLeases(today);
+
+        // 지난 날짜 로컬 상태 정리 (미반영 증분 없는 것만)
+        leases.entrySet().removeIf(e -> e.getKey().day().isBefore(today) && e.getValue().unflushed.get() == 0);
+
+        if (!today.equals(lastPurgedDay)) {
+            try {
+                int n = jdbc.update("DELETE FROM ai_daily_quota WHERE quota_date < ?",
+                        Date.valueOf(today.minusDays(retentionDays)));
+                lastPurgedDay = today;
+                if (n > 0) log.info("[quota] purged {} rows older than {} days", n, retentionDays);
+            } catch (Exception ex) {
+                log.debug("[quota] purge skipped: {}", ex.toString());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /** 오늘자 미사용 임대분 반납 (지난 날짜분은 의미 없으므로 버림) */
+    private void returnLeases(LocalDate today) {
+        List<Object[]> returns = new ArrayList<>();
+        List<Lease> returned = new ArrayList<>();
+        for (Map.Entry<Key, Lease> e : leases.entrySet()) {
+            Lease lease = e.getValue();
+            int left;
+            synchronized (lease) {
+                left = lease.left.getAndSet(0);
+            }
+            if (left > 0 && !e.getKey().day().isBefore(today)) {
+                returns.add(new Object[]{ left, e.getKey().userKey(), Date.valueOf(e.getKey().day()) });
+                returned.add(lease);
+            }
+        }
+        if (returns.isEmpty()) return;
+
+        try {
+            for (int from = 0; from < returns.size(); from += BATCH) {
+                jdbc.batchUpdate("""
+                        UPDATE ai_daily_quota
+                           SET used = GREATEST(used - ?, 0), up_date = NOW()
+                         WHERE quota_key = ? AND quota_date = ?
+                        """, returns.subList(from, Math.min(from + BATCH, returns.size())));
+            }
+            for (int i = 0; i < returned.size(); i++) {
+                Lease lease = returned.get(i);
+                synchronized (lease) {
+                    lease.dbUsed = Math.max(0, lease.dbUsed - (Integer) returns.get(i)[0]);
+                }
+            }
+        } catch (Exception ex) {
+            // 반납 실패 → 로컬 잔여로 되돌려 계속 사용 (다음 flush 에서 재시도)
+            for (int i = 0; i < returned.size(); i++) {
+                returned.get(i).left.addAndGet((Integer) returns.get(i)[0]);
+            }
+            log.warn("[quota] lease return failed ({} keys): {}", returns.size(), ex.toString());
+        }
+    }
+
+    private void addAll(List<Object[]> deltas) {
+        for (int from = 0; from < deltas.size(); from += BATCH) {
+            jdbc.batchUpdate("""
+                    INSERT INTO ai_daily_quota (quota_key, quota_date, used, up_date)
+                    VALUES (?, ?, ?, NOW())
+                    ON DUPLICATE KEY UPDATE
+                      used = used + VALUES(used),
+                      up_date = NOW()
+                    """, deltas.subList(from, Math.min(from + BATCH, deltas.size())));
+        }
+    }
+}
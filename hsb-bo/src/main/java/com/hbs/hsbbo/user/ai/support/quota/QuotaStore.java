@@ -0,0 +1,18 @@
+package com.hbs.hsbbo.user.ai.support.quota;
+
+import java.time.LocalDate;
+
+/**
+ * 일일 호출 카운터 저장소
+ *
+ * - 카운터는 (userKey, 날짜) 단위로 분리 → 날짜가 바뀌면 새 버킷 (expireAfterWrite 드리프트 없음)
+ * - tryConsume 은 "한도 확인 + 증가"를 원자적으로 수행해야 한다 (동시 요청 시 초과 금지)
+ * - limit 이 null 또는 0 이하이면 제한 없이 카운트만 증가
+ */
+public interface QuotaStore {
+
+    boolean tryConsume(String userKey, LocalDate day, Integer limit);
+
+    /** 해당 날짜까지 사용한 횟수 (근사치 허용: 다른 노드 반영은 구현체 주기에 따름) */
+    int used(String userKey, LocalDate day);
+}
@@ -0,0 +1,30 @@
+package com.hbs.hsbbo.user.ai.support.quota;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+public class QuotaStoreConfig {
+
+    /**
+     * hsbs.quota.store
+     * - memory (기본) : 단일 노드, 재기동 시 초기화 (키 수 상한 hsbs.quota.memory-max-keys, 넘으면 새 키 거절)
+     * - jdbc          : ai_daily_quota 공유 (다중 노드 / 재기동 보존)
+     */
+    @Bean
+    public QuotaStore quotaStore(
+            @Value("${hsbs.quota.store:memory}") String store,
+            @Value("${hsbs.quota.memory-max-keys:100000}") long memoryMaxKeys,
+            @Value("${hsbs.quota.lease-size:20}") int leaseSize,
+            @Value("${hsbs.quota.retention-days:7}") int retentionDays,
+            JdbcTemplate jdbcTemplate
+    ) {
+        return switch (store.trim().toLowerCase()) {
+            case "memory" -> new InMemoryQuotaStore(memoryMaxKeys);
+            case "jdbc" -> new JdbcQuotaStore(jdbcTemplate, leaseSize, retentionDays);
+            default -> throw new IllegalStateException("지원하지 않는 hsbs.quota.store 값입니다: " + store);
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package com.hbs.hsbbo.admin.ai.brain.client;
+
+import com.hbs.hsbbo.admin.ai.brain.client.BrainCircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BrainCircuitBreakerTest {
+
+    private static final Duration LONG_OPEN = Duration.ofMinutes(10);
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        BrainCircuitBreaker cb = new BrainCircuitBreaker(10, 5, 50.0, LONG_OPEN, 2);
+
+        for (int i = 0; i < 4; i++) fail(cb);
+
+        assertEquals(State.CLOSED, cb.state());
+        assertEquals(4, cb.snapshot().failedCalls());
+    }
+
+    @Test
+    void opensWhenFailureRateReachesThreshold() {
+        BrainCircuitBreaker cb = new BrainCircuitBreaker(10, 4, 50.0, LONG_OPEN, 2);
+
+        succeed(cb);
+        succeed(cb);
+        fail(cb);
+        assertEquals(State.CLOSED, cb.state());
+        fail(cb);
+
+        assertEquals(State.OPEN, cb.state());
+        assertEquals(1, cb.snapshot().openedCount());
+    }
+
+    @Test
+    void openRejectsWithoutCallingUntilDurationElapses() {
+        BrainCircuitBreaker cb = new BrainCircuitBreaker(10, 1, 50.0, LONG_OPEN, 2);
+        cb.open("test");
+
+        assertFalse(cb.tryAcquire());
+        assertFalse(cb.tryAcquire());
+        assertEquals(2, cb.snapshot().notPermittedCalls());
+    }
+
+    @Test
+    void slidingWindowForgetsOldFailures() {
+        BrainCircuitBreaker cb = new BrainCircuitBreaker(4, 4, 75.0, LONG_OPEN, 1);
+
+        fail(cb);
+        fail(cb);
+        succeed(cb);
+        succeed(cb);
+        // 오래된 실패 2건이 밀려나고 성공/실패가 섞인 상태 → 75% 미만
+        fail(cb);
+        succeed(cb);
+
+        assertEquals(State.CLOSED, cb.state());
+        assertEquals(4, cb.snapshot().bufferedCalls());
+        assertEquals(1, cb.snapshot().failedCalls());
+    }
+
+    @Test
+    void halfOpenClosesAfterAllTrialCallsSucceed() {
+        BrainCircuitBreaker cb = new BrainCircuitBreaker(10, 1, 50.0, Duration.ZERO, 2);
+        cb.open("test");
+
+        assertTrue(cb.tryAcquire());
+        assertEquals(State.HALF_OPEN, cb.state());
+        assertTrue(cb.tryAcquire());
+        assertFalse(cb.tryAcquire());
+
+        cb.onSuccess();
+        assertEquals(State.HALF_OPEN, cb.state());
+        cb.onSuccess();
+        assertEquals(State.CLOSED, cb.state());
+    }
+
+    @Test
+    void halfOpenFailureReopens() {
+        BrainCircuitBreaker cb = new BrainCircuitBreaker(10, 1, 50.0, Duration.ZERO, 2);
+        cb.open("test");
+
+        assertTrue(cb.tryAcquire());
+        cb.onFailure();
+
+        assertEquals(State.OPEN, cb.state());
+        assertEquals(2, cb.snapshot().openedCount());
+    }
+
+    @Test
+    void releaseReturnsHalfOpenPermitWithoutCountingResult() {
+        BrainCircuitBreaker cb = new BrainCircuitBreaker(10, 1, 50.0, Duration.ZERO, 1);
+        cb.open("test");
+
+        assertTrue(cb.tryAcquire());
+        assertFalse(cb.tryAcquire());
+        cb.release();
+
+        assertEquals(State.HALF_OPEN, cb.state());
+        assertTrue(cb.tryAcquire());
+        cb.onSuccess();
+        assertEquals(State.CLOSED, cb.state());
+    }
+
+    @Test
+    void closeResetsWindow() {
+        BrainCircuitBreaker cb = new BrainCircuitBreaker(10, 2, 50.0, LONG_OPEN, 1);
+        fail(cb);
+        fail(cb);
+        assertEquals(State.OPEN, cb.state());
+
+        cb.close("health probe ok");
+
+        assertEquals(State.CLOSED, cb.state());
+        assertEquals(0, cb.snapshot().bufferedCalls());
+        assertEquals("health probe ok", cb.snapshot().lastTransitionReason());
+        assertTrue(cb.tryAcquire());
+    }
+
+    private static void succeed(BrainCircuitBreaker cb) {
+        assertTrue(cb.tryAcquire());
+        cb.onSuccess();
+    }
+
+    private static void fail(BrainCircuitBreaker cb) {
+        assertTrue(cb.tryAcquire());
+        cb.onFailure();
+    }
+}
@@ -0,0 +1,156 @@
+package com.hbs.hsbbo.admin.ai.kb.retrieval;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HnswGraphTest {
+
+    private static final int DIMENSION = 16;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void storedVectorIsItsOwnNearestNeighbour() {
+        Random random = new Random(1);
+        HnswGraph graph = new HnswGraph(DIMENSION, 8, 50);
+        List<float[]> stored = new ArrayList<>();
+        for (long doc = 1; doc <= 50; doc++) {
+            List<float[]> vs = List.of(randomVector(random), randomVector(random));
+            stored.addAll(vs);
+            graph.putDocument(doc, List.of(0, 1), vs);
+        }
+        assertEquals(100, graph.size());
+
+        for (int i = 0; i < stored.size(); i++) {
+            HnswGraph.Hit top = graph.search(stored.get(i), 1, 50, null).get(0);
+            assertEquals(i / 2 + 1, top.documentId());
+            assertEquals(i % 2, top.chunkNo());
+            assertEquals(1.0, top.score(), 1e-4);
+        }
+    }
+
+    @Test
+    void documentFilterAndRemovalExcludeNodes() {
+        HnswGraph graph = new HnswGraph(DIMENSION, 8, 50);
+        float[] v = unit(0);
+        graph.putDocument(1, List.of(0), List.of(v));
+        graph.putDocument(2, List.of(0), List.of(unit(1)));
+
+        assertEquals(2, graph.search(v, 5, 50, doc -> doc == 2).get(0).documentId());
+
+        graph.removeDocument(1);
+        assertEquals(1, graph.size());
+        assertTrue(graph.search(v, 5, 50, null).stream().noneMatch(h -> h.documentId() == 1));
+
+        graph.removeDocument(2);
+        assertTrue(graph.search(v, 5, 50, null).isEmpty());
+    }
+
+    @Test
+    void putDocumentReplacesPreviousChunks() {
+        HnswGraph graph = new HnswGraph(DIMENSION, 8, 50);
+        graph.putDocument(1, List.of(0, 1), List.of(unit(0), unit(1)));
+        graph.putDocument(1, List.of(5), List.of(unit(2)));
+
+        assertEquals(1, graph.size());
+        List<HnswGraph.Hit> hits = graph.search(unit(0), 5, 50, null);
+        assertEquals(1, hits.size());
+        assertEquals(5, hits.get(0).chunkNo());
+    }
+
+    @Test
+    void compactionDropsTombstonesAndKeepsResults() {
+        Random random = new Random(3);
+        HnswGraph graph = new HnswGraph(DIMENSION, 8, 50);
+        for (long doc = 1; doc <= 1_200; doc++) {
+            graph.putDocument(doc, List.of(0, 1), List.of(randomVector(random), randomVector(random)));
+        }
+        for (long doc = 1; doc <= 1_200; doc++) {
+            if (doc % 4 != 0) graph.removeDocument(doc);
+        }
+        assertTrue(graph.needsCompaction());
+
+        graph.stamp(77L);
+        HnswGraph compacted = graph.compact();
+        assertFalse(compacted.needsCompaction());
+        assertEquals(graph.size(), compacted.size());
+        assertEquals(77L, compacted.stamp());
+
+        float[] q = randomVector(random);
+        assertEquals(graph.search(q, 1, 200, null).get(0).documentId(),
+                compacted.search(q, 1, 200, null).get(0).documentId());
+    }
+
+    @Test
+    void saveAndLoadRoundTrip() throws Exception {
+        Random random = new Random(5);
+        HnswGraph graph = new HnswGraph(DIMENSION, 8, 50);
+        for (long doc = 1; doc <= 100; doc++) {
+            graph.putDocument(doc, List.of(0), List.of(randomVector(random)));
+        }
+        graph.removeDocument(7);
+        graph.stamp(42L);
+
+        Path file = tempDir.resolve("site-1").resolve("source-9.hnsw");
+        graph.save(file);
+        HnswGraph loaded = HnswGraph.load(file, DIMENSION, 50);
+
+        assertNotNull(loaded);
+        assertEquals(42L, loaded.stamp());
+        assertEquals(99, loaded.size());
+        for (int i = 0; i < 20; i++) {
+            float[] q = randomVector(random);
+            assertEquals(graph.search(q, 5, 50, null), loaded.search(q, 5, 50, null));
+        }
+
+        // 적재한 그래프도 이어서 갱신 가능
+        loaded.putDocument(7, List.of(0), List.of(unit(3)));
+        assertEquals(7, loaded.search(unit(3), 1, 50, null).get(0).documentId());
+    }
+
+    @Test
+    void loadReturnsNullForMissingFileOrOtherDimension() throws Exception {
+        assertNull(HnswGraph.load(tempDir.resolve("none.hnsw"), DIMENSION, 50));
+
+        HnswGraph graph = new HnswGraph(DIMENSION, 8, 50);
+        graph.putDocument(1, List.of(0), List.of(unit(0)));
+        Path file = tempDir.resolve("g.hnsw");
+        graph.save(file);
+        assertNull(HnswGraph.load(file, DIMENSION * 2, 50));
+    }
+
+    @Test
+    void rejectsMismatchedInput() {
+        HnswGraph graph = new HnswGraph(DIMENSION, 8, 50);
+        assertThrows(IllegalArgumentException.class,
+                () -> graph.putDocument(1, List.of(0, 1), List.of(unit(0))));
+        assertThrows(IllegalArgumentException.class,
+                () -> graph.putDocument(1, List.of(0), List.of(new float[DIMENSION + 1])));
+        assertTrue(graph.search(new float[DIMENSION + 1], 5, 50, null).isEmpty());
+    }
+
+    private static float[] unit(int axis) {
+        float[] v = new float[DIMENSION];
+        v[axis] = 1f;
+        return v;
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] v = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) v[i] = (float) random.nextGaussian();
+        return v;
+    }
+}
@@ -0,0 +1,132 @@
+package com.hbs.hsbbo.admin.ai.sitekey.runtime;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hbs.hsbbo.admin.ai.promptprofile.domain.entity.PromptProfile;
+import com.hbs.hsbbo.admin.ai.sitekey.domain.entity.SiteKey;
+import com.hbs.hsbbo.admin.ai.sitekey.repository.SiteKeyRepository;
+import com.hbs.hsbbo.admin.ai.widgetconfig.domain.entity.WidgetConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SiteRuntimeCacheTest {
+
+    private SiteKeyRepository repository;
+    private SiteRuntimeCache cache;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(SiteKeyRepository.class);
+        when(repository.findRuntimeBySiteKey(anyString())).thenReturn(Optional.empty());
+        when(repository.findRuntimeBySiteKey("KEY-A")).thenAnswer(inv -> Optional.of(siteKey(1L, 10L, 100L)));
+        when(repository.findRuntimeBySiteKey("KEY-B")).thenAnswer(inv -> Optional.of(siteKey(2L, 20L, 100L)));
+        cache = new SiteRuntimeCache(repository, new ObjectMapper(), 100, Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void normalizesKeyAndLoadsOnce() {
+        SiteRuntime first = cache.get(" key-a ");
+        SiteRuntime second = cache.get("KEY-A");
+
+        assertSame(first, second);
+        assertEquals("KEY-A", first.getSiteKeyValue());
+        assertEquals(10L, first.getPromptProfileId());
+        assertEquals(100L, first.getWidgetConfigId());
+        assertEquals("bar", first.getWidgetOptions().get("foo"));
+        verify(repository, times(1)).findRuntimeBySiteKey("KEY-A");
+    }
+
+    @Test
+    void unknownKeyIsNotCached() {
+        assertNull(cache.get("missing"));
+        assertNull(cache.get("missing"));
+        assertNull(cache.get("  "));
+
+        verify(repository, times(2)).findRuntimeBySiteKey("MISSING");
+    }
+
+    @Test
+    void evictOutsideTransactionIsImmediate() {
+        SiteRuntime before = cache.get("KEY-A");
+
+        cache.evict("key-a");
+
+        assertNotSame(before, cache.get("KEY-A"));
+        verify(repository, times(2)).findRuntimeBySiteKey("KEY-A");
+    }
+
+    @Test
+    void evictInsideTransactionWaitsForCommit() {
+        SiteRuntime before = cache.get("KEY-A");
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.evict("KEY-A");
+        assertSame(before, cache.get("KEY-A"));
+
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        syncs.forEach(TransactionSynchronization::afterCommit);
+
+        assertNotSame(before, cache.get("KEY-A"));
+    }
+
+    @Test
+    void evictByPromptProfileIdRemovesOnlyMatchingSites() {
+        SiteRuntime a = cache.get("KEY-A");
+        SiteRuntime b = cache.get("KEY-B");
+
+        cache.evictByPromptProfileId(10L);
+
+        assertNotSame(a, cache.get("KEY-A"));
+        assertSame(b, cache.get("KEY-B"));
+    }
+
+    @Test
+    void evictByWidgetConfigIdRemovesAllSitesSharingIt() {
+        SiteRuntime a = cache.get("KEY-A");
+        SiteRuntime b = cache.get("KEY-B");
+
+        cache.evictByWidgetConfigId(100L);
+
+        assertNotSame(a, cache.get("KEY-A"));
+        assertNotSame(b, cache.get("KEY-B"));
+    }
+
+    private static SiteKey siteKey(Long id, Long promptProfileId, Long widgetConfigId) {
+        PromptProfile profile = new PromptProfile();
+        profile.setId(promptProfileId);
+        WidgetConfig widget = new WidgetConfig();
+        widget.setId(widgetConfigId);
+        widget.setOptionsJson("{\"foo\":\"bar\"}");
+
+        SiteKey sk = new SiteKey();
+        sk.setId(id);
+        sk.setAllowedDomains(List.of("example.com"));
+        sk.setDefaultPromptProfileId(profile);
+        sk.setDefaultWidgetConfig(widget);
+        return sk;
+    }
+}
@@ -0,0 +1,90 @@
+package com.hbs.hsbbo.admin.ai.usage.service;
+
+import com.hbs.hsbbo.admin.ai.usage.repository.TokenLedgerJdbcRepository;
+import com.hbs.hsbbo.admin.ai.usage.repository.TokenLedgerJdbcRepository.Row;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenLedgerTest {
+
+    private static final Long SITE_KEY_ID = 1L;
+
+    private TokenLedgerJdbcRepository repository;
+    private TokenLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TokenLedgerJdbcRepository.class);
+        when(repository.existsForMonth(anyString())).thenReturn(true);
+        ledger = new TokenLedger(repository);
+    }
+
+    @Test
+    void recordDuringRefreshIsNotLost() {
+        // 다른 노드 포함 DB 누적 1000, refresh 로 읽는 도중 이 노드에서 50 추가
+        when(repository.findCurrent(anyString(), anyString())).thenAnswer(inv -> {
+            ledger.record(SITE_KEY_ID, 50);
+            return List.of(dayRow(1000));
+        });
+
+        ledger.flush();
+
+        assertEquals(50, dayRemaining(1100));
+    }
+
+    @Test
+    void flushedTokensStayCountedUntilRefresh() {
+        when(repository.findCurrent(anyString(), anyString())).thenThrow(new IllegalStateException("db down"));
+        ledger.record(SITE_KEY_ID, 30);
+
+        ledger.flush();
+
+        assertEquals(70, dayRemaining(100));
+    }
+
+    @Test
+    void failedFlushKeepsTokensPending() {
+        when(repository.findCurrent(anyString(), anyString())).thenReturn(List.of());
+        doThrow(new IllegalStateException("db down")).when(repository).addAll(anyList());
+        ledger.record(SITE_KEY_ID, 30);
+
+        ledger.flush();
+
+        assertEquals(70, dayRemaining(100));
+    }
+
+    @Test
+    void recordDuringFlushWriteIsNotLost() {
+        when(repository.findCurrent(anyString(), anyString())).thenReturn(List.of(dayRow(30)));
+        doAnswer(inv -> {
+            ledger.record(SITE_KEY_ID, 20);
+            return null;
+        }).when(repository).addAll(anyList());
+        ledger.record(SITE_KEY_ID, 30);
+
+        ledger.flush();
+
+        assertEquals(50, dayRemaining(100));
+        assertFalse(ledger.check(SITE_KEY_ID, 50L, null).allowed());
+    }
+
+    private long dayRemaining(long dailyLimit) {
+        return ledger.check(SITE_KEY_ID, dailyLimit, null).dayRemaining();
+    }
+
+    private static Row dayRow(long totalTokens) {
+        return new Row(SITE_KEY_ID, "D", LocalDate.now().toString(), totalTokens);
+    }
+}
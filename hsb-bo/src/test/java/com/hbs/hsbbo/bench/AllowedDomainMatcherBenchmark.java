@@ -0,0 +1,109 @@
+package com.hbs.hsbbo.bench;
+
+import com.hbs.hsbbo.admin.ai.sitekey.runtime.AllowedDomainMatcher;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * SiteKey 도메인 화이트리스트 검사 비교 (기존 리스트 순회 vs AllowedDomainMatcher)
+ *
+ * - 20개 규칙 (정확 일치 12 + 와일드카드 8) 정책
+ * - 허용/거부 host 를 섞어 반복 호출, 워밍업 후 호출당 평균 ns 와 스레드 할당량을 출력
+ * - 두 구현의 판정 결과가 모든 host 에 대해 같은지도 함께 확인한다.
+ *
+ * 실행: ./gradlew benchmark
+ */
+@Tag("benchmark")
+class AllowedDomainMatcherBenchmark {
+
+    private static final int WARMUP_ROUNDS = 200_000;
+    private static final int MEASURE_ROUNDS = 2_000_000;
+
+    private static final List<String> POLICY = List.of(
+            "example.com", "www.example.com", "shop.example.com", "admin.example.co.kr",
+            "localhost", "127.0.0.1", "partner-a.io", "www.partner-a.io",
+            "blog.hbs.dev", "hbs.dev", "www.hbs.dev", "static.cdn-host.net",
+            "*.example.com", "*.hbs.dev", "*.preview.vercel.app", "*.partner-b.com",
+            "*.customer-c.co.kr", "*.staging.internal.io", "*.tenant-d.kr", "*.apps.example.org"
+    );
+
+    private static final String[] HOSTS = {
+            "example.com", "WWW.Example.com", "a.b.example.com", "hbs.dev",
+            "feature-123.preview.vercel.app", "evil.com", "example.com.evil.com", "vercel.app",
+            "x.tenant-d.kr", "tenant-d.kr", " localhost ", "unknown.partner-b.net",
+            "deep.sub.staging.internal.io", "static.cdn-host.net", "api.customer-c.co.kr", "192.168.0.1"
+    };
+
+    @Test
+    void compareWithLegacyLoop() {
+        AllowedDomainMatcher matcher = AllowedDomainMatcher.compile(POLICY);
+
+        for (String host : HOSTS) {
+            assertEquals(legacyIsDomainAllowed(POLICY, host), matcher.matches(host), "host=" + host);
+        }
+
+        run("legacy ", WARMUP_ROUNDS, h -> legacyIsDomainAllowed(POLICY, h));
+        run("matcher", WARMUP_ROUNDS, matcher::matches);
+
+        Result legacy = run("legacy ", MEASURE_ROUNDS, h -> legacyIsDomainAllowed(POLICY, h));
+        Result compiled = run("matcher", MEASURE_ROUNDS, matcher::matches);
+
+        // 같은 입력이므로 허용 건수가 같아야 함
+        assertEquals(legacy.allowed, compiled.allowed);
+    }
+
+    private Result run(String label, int rounds, HostCheck check) {
+        long allocBefore = threadAllocatedBytes();
+        long allowed = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            if (check.test(HOSTS[i & (HOSTS.length - 1)])) allowed++;
+        }
+        long elapsed = System.nanoTime() - start;
+        long alloc = threadAllocatedBytes() - allocBefore;
+
+        if (rounds == MEASURE_ROUNDS) {
+            System.out.printf("[domain-bench] %s : %.1f ns/op, %.1f B/op (allowed=%d)%n",
+                    label, (double) elapsed / rounds, alloc < 0 ? -1.0 : (double) alloc / rounds, allowed);
+        }
+        return new Result(allowed);
+    }
+
+    private static long threadAllocatedBytes() {
+        java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean sun) {
+            return sun.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    // 변경 전 SiteKey.isDomainAllowed 그대로
+    private static boolean legacyIsDomainAllowed(List<String> allowedDomains, String host) {
+        if (allowedDomains == null || allowedDomains.isEmpty()) return false;
+        if (host == null || host.isBlank()) return false;
+        String h = host.trim().toLowerCase();
+        for (String rule : allowedDomains) {
+            if (rule == null || rule.isBlank()) continue;
+            String r = rule.trim().toLowerCase();
+            if (r.startsWith("*.")) {
+                String suffix = r.substring(1);
+                if (h.endsWith(suffix) && h.length() > suffix.length()) return true;
+            } else if (r.equals(h)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @FunctionalInterface
+    private interface HostCheck {
+        boolean test(String host);
+    }
+
+    private record Result(long allowed) {
+    }
+}
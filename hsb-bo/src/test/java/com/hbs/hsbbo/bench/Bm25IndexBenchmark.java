@@ -0,0 +1,156 @@
+package com.hbs.hsbbo.bench;
+
+import com.hbs.hsbbo.admin.ai.kb.retrieval.Bm25Index;
+import com.hbs.hsbbo.admin.ai.kb.retrieval.IndexedChunk;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * kb_chunk BM25 메모리 색인 recall / 지연시간 측정 (합성 코퍼스)
+ *
+ * - 2,000 문서 x 10 청크 = 20,000 청크, 어휘는 Zipf 분포 (상위어가 대부분을 차지)
+ * - 질의: 정답 청크에서 드문 단어 3개 + 흔한 잡음 단어 2개
+ *   → 정답 청크가 상위 8개 안에 드는 비율(recall@8)과 질의당 p50 / p99 지연을 출력
+ * - 문서 절반을 교체(putDocument)한 뒤에도 같은 recall 이 나오는지 확인한다. (증분 갱신 검증)
+ *
+ * 실행: ./gradlew benchmark
+ */
+@Tag("benchmark")
+class Bm25IndexBenchmark {
+
+    private static final int DOCUMENTS = 2_000;
+    private static final int CHUNKS_PER_DOCUMENT = 10;
+    private static final int WORDS_PER_CHUNK = 120;
+    private static final int VOCABULARY = 50_000;
+    private static final int QUERIES = 2_000;
+    private static final int TOP_K = 8;
+
+    private final String[] vocabulary = buildVocabulary();
+    private final double[] zipfCdf = buildZipfCdf();
+
+    @Test
+    void recallAndLatency() {
+        Random random = new Random(42);
+        List<List<IndexedChunk>> corpus = new ArrayList<>(DOCUMENTS);
+
+        Bm25Index index = new Bm25Index();
+        long buildStarted = System.nanoTime();
+        for (long docId = 1; docId <= DOCUMENTS; docId++) {
+            List<IndexedChunk> chunks = generateDocument(docId, random);
+            corpus.add(chunks);
+            index.putDocument(docId, chunks);
+        }
+        long buildMs = (System.nanoTime() - buildStarted) / 1_000_000;
+        assertEquals(DOCUMENTS * CHUNKS_PER_DOCUMENT, index.size());
+        System.out.printf("[bm25-bench] build chunks=%d in %d ms%n", index.size(), buildMs);
+
+        // 워밍업
+        measure("warmup ", index, corpus, new Random(1));
+
+        double recall = measure("initial", index, corpus, new Random(7));
+        assertTrue(recall >= 0.9, "recall@" + TOP_K + "=" + recall);
+
+        // 증분 갱신: 문서 절반을 새 내용으로 교체
+        long updateStarted = System.nanoTime();
+        for (int i = 0; i < DOCUMENTS; i += 2) {
+            long docId = i + 1;
+            List<IndexedChunk> chunks = generateDocument(docId, random);
+            corpus.set(i, chunks);
+            index.putDocument(docId, chunks);
+        }
+        long updateMs = (System.nanoTime() - updateStarted) / 1_000_000;
+        assertEquals(DOCUMENTS * CHUNKS_PER_DOCUMENT, index.size());
+        System.out.printf("[bm25-bench] replaced %d documents in %d ms%n", DOCUMENTS / 2, updateMs);
+
+        double recallAfterUpdate = measure("updated", index, corpus, new Random(11));
+        assertTrue(recallAfterUpdate >= 0.9, "recall@" + TOP_K + " after update=" + recallAfterUpdate);
+    }
+
+    private double measure(String label, Bm25Index index, List<List<IndexedChunk>> corpus, Random random) {
+        long[] latencies = new long[QUERIES];
+        int found = 0;
+
+        for (int q = 0; q < QUERIES; q++) {
+            IndexedChunk target = corpus.get(random.nextInt(DOCUMENTS)).get(random.nextInt(CHUNKS_PER_DOCUMENT));
+            String query = buildQuery(target, random);
+
+            long started = System.nanoTime();
+            List<Bm25Index.Hit> hits = index.search(query, TOP_K, null);
+            latencies[q] = System.nanoTime() - started;
+
+            for (Bm25Index.Hit hit : hits) {
+                if (hit.chunk().documentId() == target.documentId() && hit.chunk().chunkNo() == target.chunkNo()) {
+                    found++;
+                    break;
+                }
+            }
+        }
+
+        Arrays.sort(latencies);
+        double recall = (double) found / QUERIES;
+        System.out.printf("[bm25-bench] %s recall@%d=%.3f  p50=%.1f us  p99=%.1f us%n",
+                label, TOP_K, recall,
+                latencies[QUERIES / 2] / 1_000.0,
+                latencies[(int) (QUERIES * 0.99)] / 1_000.0);
+        return recall;
+    }
+
+    /** 정답 청크에서 가장 드문(순위가 낮은) 단어 3개 + 흔한 단어 2개 */
+    private String buildQuery(IndexedChunk target, Random random) {
+        String[] words = target.content().split(" ");
+        int[] ranks = Arrays.stream(words).mapToInt(w -> Integer.parseInt(w.substring(1))).distinct().sorted().toArray();
+
+        StringBuilder q = new StringBuilder();
+        for (int i = 0; i < 3 && i < ranks.length; i++) {
+            q.append(vocabulary[ranks[ranks.length - 1 - i]]).append(' ');
+        }
+        q.append(vocabulary[random.nextInt(20)]).append(' ');
+        q.append(vocabulary[random.nextInt(20)]);
+        return q.toString();
+    }
+
+    private List<IndexedChunk> generateDocument(long docId, Random random) {
+        List<IndexedChunk> chunks = new ArrayList<>(CHUNKS_PER_DOCUMENT);
+        for (int c = 0; c < CHUNKS_PER_DOCUMENT; c++) {
+            StringBuilder sb = new StringBuilder();
+            for (int w = 0; w < WORDS_PER_CHUNK; w++) {
+                if (w > 0) sb.append(' ');
+                sb.append(vocabulary[sampleZipf(random)]);
+            }
+            chunks.add(new IndexedChunk(docId, c, null, null, sb.toString(), WORDS_PER_CHUNK));
+        }
+        return chunks;
+    }
+
+    private int sampleZipf(Random random) {
+        int idx = Arrays.binarySearch(zipfCdf, random.nextDouble());
+        if (idx < 0) idx = -idx - 1;
+        return Math.min(idx, VOCABULARY - 1);
+    }
+
+    // 단어 = "w" + 순위 (토크나이저가 한 단어로 보도록 영문+숫자)
+    private static String[] buildVocabulary() {
+        String[] v = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) v[i] = "w" + i;
+        return v;
+    }
+
+    private static double[] buildZipfCdf() {
+        double[] cdf = new double[VOCABULARY];
+        double sum = 0;
+        for (int i = 0; i < VOCABULARY; i++) {
+            sum += 1.0 / (i + 1);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < VOCABULARY; i++) cdf[i] /= sum;
+        return cdf;
+    }
+}
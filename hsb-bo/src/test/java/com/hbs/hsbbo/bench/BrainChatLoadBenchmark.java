@@ -0,0 +1,161 @@
+package com.hbs.hsbbo.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hbs.hsbbo.admin.ai.brain.client.FastApiBrainClient;
+import com.hbs.hsbbo.admin.ai.brain.config.HsbsBrainProperties;
+import com.hbs.hsbbo.admin.ai.brain.dto.request.BrainChatRequest;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * complete4 Brain 호출 실행 방식 비교 (BLOCKING vs REACTIVE)
+ *
+ * - 로컬 스텁 Brain(/chat)이 고정 지연(LATENCY_MS) 후 응답
+ * - BLOCKING : Tomcat 기본 max-threads(200)와 같은 크기의 스레드 풀에서 chat() block
+ * - REACTIVE : chatAsync() 를 flatMap 으로 동시에 구독 (스레드 점유 없음)
+ * - 스텁 서버 기준 동시 처리 중(in-flight) 최대치와 전체 소요 시간을 비교한다.
+ *
+ * 실행: ./gradlew benchmark
+ */
+@Tag("benchmark")
+class BrainChatLoadBenchmark {
+
+    private static final int REQUESTS = 1000;
+    private static final int SERVLET_THREADS = 200;
+    private static final long LATENCY_MS = 500;
+
+    private static final String BODY = """
+            {"conversationId":"bench","answer":"ok","usage":{"promptTokens":10,"completionTokens":5,"totalTokens":15,"model":"stub","latencyMs":500}}
+            """;
+
+    private static HttpServer stub;
+    private static ScheduledExecutorService delayer;
+    private static final AtomicInteger inFlight = new AtomicInteger();
+    private static final AtomicInteger peakInFlight = new AtomicInteger();
+
+    private static FastApiBrainClient client;
+    private static ConnectionProvider connectionProvider;
+
+    @BeforeAll
+    static void startStub() throws IOException {
+        delayer = Executors.newScheduledThreadPool(4);
+
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        stub.setExecutor(Executors.newFixedThreadPool(8));
+        stub.createContext("/chat", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            // 지연 응답은 별도 스케줄러에서 → 스텁 자체는 스레드를 점유하지 않음
+            delayer.schedule(() -> respond(exchange), LATENCY_MS, TimeUnit.MILLISECONDS);
+        });
+        stub.start();
+
+        // 커넥션 풀이 병목이 되지 않도록 충분히 크게 (스레드 모델만 비교)
+        connectionProvider = ConnectionProvider.builder("bench-brain")
+                .maxConnections(REQUESTS)
+                .pendingAcquireMaxCount(REQUESTS * 2)
+                .build();
+
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://127.0.0.1:" + stub.getAddress().getPort())
+                .clientConnector(new ReactorClientHttpConnector(
+                        HttpClient.create(connectionProvider).responseTimeout(Duration.ofSeconds(30))))
+                .build();
+
+        HsbsBrainProperties props = new HsbsBrainProperties();
+        props.setApiKey("bench");
+        client = new FastApiBrainClient(webClient, props, new ObjectMapper());
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.stop(0);
+        delayer.shutdownNow();
+        connectionProvider.disposeLater().block();
+    }
+
+    private static void respond(HttpExchange exchange) {
+        try {
+            byte[] bytes = BODY.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        } catch (IOException ignored) {
+            // 벤치마크 중 연결 종료는 무시
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private BrainChatRequest request(int i) {
+        return BrainChatRequest.builder()
+                .tenantId("bench")
+                .siteKey("SK-BENCH")
+                .promptProfileId((long) i)
+                .build();
+    }
+
+    @Test
+    void blockingVsReactive() throws Exception {
+        // warm-up (커넥션/JIT)
+        Flux.range(0, 50).flatMap(i -> client.chatAsync(request(i))).blockLast();
+
+        // ── BLOCKING: 서블릿 스레드 풀 크기만큼만 동시에 진행 ──
+        peakInFlight.set(0);
+        ExecutorService servletPool = Executors.newFixedThreadPool(SERVLET_THREADS);
+        long t0 = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            int n = i;
+            futures.add(servletPool.submit(() -> client.chat(request(n))));
+        }
+        for (Future<?> f : futures) f.get();
+        long blockingMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+        int blockingPeak = peakInFlight.get();
+        servletPool.shutdown();
+
+        // ── REACTIVE: 요청 스레드 없이 전부 동시에 in-flight ──
+        peakInFlight.set(0);
+        long t1 = System.nanoTime();
+        Long done = Flux.range(0, REQUESTS)
+                .flatMap(i -> client.chatAsync(request(i)), REQUESTS)
+                .count()
+                .block();
+        long reactiveMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t1);
+        int reactivePeak = peakInFlight.get();
+
+        System.out.printf("[bench] requests=%d latency=%dms%n", REQUESTS, LATENCY_MS);
+        System.out.printf("[bench] BLOCKING  threads=%d peakInFlight=%d elapsed=%dms throughput=%.1f req/s%n",
+                SERVLET_THREADS, blockingPeak, blockingMs, REQUESTS * 1000.0 / blockingMs);
+        System.out.printf("[bench] REACTIVE  threads=0   peakInFlight=%d elapsed=%dms throughput=%.1f req/s%n",
+                reactivePeak, reactiveMs, REQUESTS * 1000.0 / reactiveMs);
+
+        assertEquals(REQUESTS, done.intValue());
+        assertTrue(blockingPeak <= SERVLET_THREADS, "blocking 모드는 스레드 풀 크기를 넘을 수 없음");
+        assertTrue(reactivePeak > SERVLET_THREADS, "reactive 모드는 스레드 풀 크기 이상 동시 처리");
+    }
+}
@@ -0,0 +1,204 @@
+package com.hbs.hsbbo.bench;
+
+import com.hbs.hsbbo.admin.ai.kb.retrieval.HnswGraph;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * kb_chunk HNSW 벡터 색인 recall / 지연시간 측정 (합성 벡터)
+ *
+ * - 2,000 문서 x 10 청크 = 20,000 노드, 128 차원. 벡터는 64개 군집 중심 + 잡음 (실제 임베딩처럼 뭉쳐 있음)
+ * - 정답 = 전수 비교(brute force) 상위 10개 → HNSW 상위 10개와 겹치는 비율(recall@10)과 p50 / p99 지연을 출력
+ * - 문서 2/3 삭제(tombstone) → needsCompaction → compact() 후에도 같은 recall 인지 확인
+ * - save → load 왕복 후 검색 결과가 완전히 같은지 확인
+ *
+ * 실행: ./gradlew benchmark
+ */
+@Tag("benchmark")
+class HnswGraphBenchmark {
+
+    private static final int DOCUMENTS = 2_000;
+    private static final int CHUNKS_PER_DOCUMENT = 10;
+    private static final int DIMENSION = 128;
+    private static final int CLUSTERS = 64;
+    private static final int M = 16;
+    private static final int EF_CONSTRUCTION = 100;
+    private static final int EF_SEARCH = 100;
+    private static final int QUERIES = 500;
+    private static final int TOP_K = 10;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void recallLatencyCompactionAndRoundTrip() throws Exception {
+        Random random = new Random(42);
+        float[][] centers = new float[CLUSTERS][];
+        for (int c = 0; c < CLUSTERS; c++) centers[c] = gaussian(random, 1.0f);
+
+        float[][][] corpus = new float[DOCUMENTS][][];
+        HnswGraph graph = new HnswGraph(DIMENSION, M, EF_CONSTRUCTION);
+        long buildStarted = System.nanoTime();
+        for (int d = 0; d < DOCUMENTS; d++) {
+            corpus[d] = generateDocument(centers, random);
+            graph.putDocument(d + 1, chunkNos(), List.of(corpus[d]));
+        }
+        long buildMs = (System.nanoTime() - buildStarted) / 1_000_000;
+        assertEquals(DOCUMENTS * CHUNKS_PER_DOCUMENT, graph.size());
+        System.out.printf("[hnsw-bench] build nodes=%d in %d ms%n", graph.size(), buildMs);
+
+        boolean[] alive = new boolean[DOCUMENTS];
+        Arrays.fill(alive, true);
+        float[][] queries = buildQueries(centers, new Random(7));
+
+        measure("warmup   ", graph, corpus, alive, queries);
+        double recall = measure("initial  ", graph, corpus, alive, queries);
+        assertTrue(recall >= 0.9, "recall@" + TOP_K + "=" + recall);
+
+        // 문서 2/3 삭제 → tombstone 이 살아있는 노드보다 많아짐
+        for (int d = 0; d < DOCUMENTS; d++) {
+            if (d % 3 != 0) {
+                graph.removeDocument(d + 1);
+                alive[d] = false;
+            }
+        }
+        assertTrue(graph.needsCompaction());
+        double recallWithTombstones = measure("tombstone", graph, corpus, alive, queries);
+        assertTrue(recallWithTombstones >= 0.85, "recall@" + TOP_K + " with tombstones=" + recallWithTombstones);
+
+        long compactStarted = System.nanoTime();
+        HnswGraph compacted = graph.compact();
+        System.out.printf("[hnsw-bench] compacted to nodes=%d in %d ms%n",
+                compacted.size(), (System.nanoTime() - compactStarted) / 1_000_000);
+        assertEquals(graph.size(), compacted.size());
+        assertFalse(compacted.needsCompaction());
+        double recallCompacted = measure("compacted", compacted, corpus, alive, queries);
+        assertTrue(recallCompacted >= 0.9, "recall@" + TOP_K + " after compaction=" + recallCompacted);
+
+        // save → load 왕복: 같은 질의에 같은 결과
+        compacted.stamp(1234L);
+        Path file = tempDir.resolve("site-1").resolve("source-1.hnsw");
+        long saveStarted = System.nanoTime();
+        compacted.save(file);
+        long saveMs = (System.nanoTime() - saveStarted) / 1_000_000;
+        long loadStarted = System.nanoTime();
+        HnswGraph loaded = HnswGraph.load(file, DIMENSION, EF_CONSTRUCTION);
+        long loadMs = (System.nanoTime() - loadStarted) / 1_000_000;
+        System.out.printf("[hnsw-bench] save %d ms, load %d ms (%d KB)%n",
+                saveMs, loadMs, java.nio.file.Files.size(file) / 1024);
+
+        assertNotNull(loaded);
+        assertEquals(1234L, loaded.stamp());
+        assertEquals(compacted.size(), loaded.size());
+        for (float[] q : queries) {
+            assertEquals(compacted.search(q, TOP_K, EF_SEARCH, null), loaded.search(q, TOP_K, EF_SEARCH, null));
+        }
+    }
+
+    private double measure(String label, HnswGraph graph, float[][][] corpus, boolean[] alive, float[][] queries) {
+        long[] latencies = new long[queries.length];
+        int overlap = 0;
+
+        for (int q = 0; q < queries.length; q++) {
+            Set<Long> expected = bruteForce(queries[q], corpus, alive);
+
+            long started = System.nanoTime();
+            List<HnswGraph.Hit> hits = graph.search(queries[q], TOP_K, EF_SEARCH, null);
+            latencies[q] = System.nanoTime() - started;
+
+            for (HnswGraph.Hit h : hits) {
+                if (expected.contains(key(h.documentId(), h.chunkNo()))) overlap++;
+            }
+        }
+
+        Arrays.sort(latencies);
+        double recall = (double) overlap / (queries.length * TOP_K);
+        System.out.printf("[hnsw-bench] %s recall@%d=%.3f  p50=%.1f us  p99=%.1f us%n",
+                label, TOP_K, recall,
+                latencies[queries.length / 2] / 1_000.0,
+                latencies[(int) (queries.length * 0.99)] / 1_000.0);
+        return recall;
+    }
+
+    /** 코사인 유사도 전수 비교 상위 TOP_K (살아있는 문서만) */
+    private Set<Long> bruteForce(float[] query, float[][][] corpus, boolean[] alive) {
+        float[] q = normalized(query);
+        List<double[]> scored = new ArrayList<>();
+        for (int d = 0; d < corpus.length; d++) {
+            if (!alive[d]) continue;
+            for (int c = 0; c < CHUNKS_PER_DOCUMENT; c++) {
+                scored.add(new double[]{ dot(q, normalized(corpus[d][c])), d + 1, c });
+            }
+        }
+        scored.sort((a, b) -> Double.compare(b[0], a[0]));
+        Set<Long> top = new HashSet<>();
+        for (int i = 0; i < TOP_K && i < scored.size(); i++) {
+            top.add(key((long) scored.get(i)[1], (int) scored.get(i)[2]));
+        }
+        return top;
+    }
+
+    private float[][] buildQueries(float[][] centers, Random random) {
+        float[][] queries = new float[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = add(centers[random.nextInt(CLUSTERS)], gaussian(random, 0.35f));
+        }
+        return queries;
+    }
+
+    private float[][] generateDocument(float[][] centers, Random random) {
+        float[] center = centers[random.nextInt(CLUSTERS)];
+        float[][] chunks = new float[CHUNKS_PER_DOCUMENT][];
+        for (int c = 0; c < CHUNKS_PER_DOCUMENT; c++) chunks[c] = add(center, gaussian(random, 0.35f));
+        return chunks;
+    }
+
+    private static List<Integer> chunkNos() {
+        List<Integer> nos = new ArrayList<>(CHUNKS_PER_DOCUMENT);
+        for (int c = 0; c < CHUNKS_PER_DOCUMENT; c++) nos.add(c);
+        return nos;
+    }
+
+    private static long key(long documentId, int chunkNo) {
+        return documentId * 1_000 + chunkNo;
+    }
+
+    private static float[] gaussian(Random random, float scale) {
+        float[] v = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) v[i] = (float) random.nextGaussian() * scale;
+        return v;
+    }
+
+    private static float[] add(float[] a, float[] b) {
+        float[] v = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) v[i] = a[i] + b[i];
+        return v;
+    }
+
+    private static float[] normalized(float[] v) {
+        double norm = Math.sqrt(dot(v, v));
+        float[] out = new float[v.length];
+        for (int i = 0; i < v.length; i++) out[i] = (float) (v[i] / norm);
+        return out;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double s = 0;
+        for (int i = 0; i < a.length; i++) s += a[i] * b[i];
+        return s;
+    }
+}
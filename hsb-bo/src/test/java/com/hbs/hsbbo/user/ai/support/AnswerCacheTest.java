@@ -0,0 +1,174 @@
+package com.hbs.hsbbo.user.ai.support;
+
+import com.hbs.hsbbo.admin.ai.kb.retrieval.EmbeddingProvider;
+import com.hbs.hsbbo.admin.ai.kb.retrieval.HashEmbeddingProvider;
+import com.hbs.hsbbo.admin.ai.kb.service.KnowledgeContextService;
+import com.hbs.hsbbo.admin.ai.promptprofile.domain.entity.PromptProfile;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AnswerCacheTest {
+
+    private static final Long SITE_KEY_ID = 1L;
+
+    private final KnowledgeContextService knowledgeContextService = mock(KnowledgeContextService.class);
+
+    @Test
+    void eligibleOnlyForOptInStatelessRequests() {
+        AnswerCache cache = cache(new HashEmbeddingProvider(64), false);
+
+        assertTrue(cache.eligible(profile(10L, "Y", "short"), null));
+        assertTrue(cache.eligible(profile(10L, "Y", null), " "));
+        assertFalse(cache.eligible(profile(10L, "N", "short"), null));
+        assertFalse(cache.eligible(profile(10L, "Y", "summary_history"), null));
+        assertFalse(cache.eligible(profile(10L, "Y", "short"), "이전 대화"));
+        assertFalse(cache.eligible(null, null));
+    }
+
+    @Test
+    void keyIgnoresPunctuationAndSpacing() {
+        AnswerCache cache = cache(new HashEmbeddingProvider(64), false);
+        PromptProfile p = profile(10L, "Y", "short");
+
+        assertEquals(cache.keyOf(SITE_KEY_ID, p, "가격이 얼마예요?"), cache.keyOf(SITE_KEY_ID, p, "  가격이   얼마예요 "));
+        assertNull(cache.keyOf(SITE_KEY_ID, p, "?!"));
+        assertNull(cache.lookup(null));
+    }
+
+    @Test
+    void exactTierHitsAfterPut() {
+        AnswerCache cache = cache(new HashEmbeddingProvider(64), false);
+        AnswerCache.Key key = cache.keyOf(SITE_KEY_ID, profile(10L, "Y", "short"), "환불 규정");
+
+        AnswerCache.Lookup miss = cache.lookup(key);
+        assertEquals(AnswerCache.Status.MISS, miss.status());
+        cache.put(miss, "gpt", "7일 이내 환불");
+
+        AnswerCache.Lookup hit = cache.lookup(key);
+        assertEquals(AnswerCache.Status.HIT, hit.status());
+        assertEquals("7일 이내 환불", hit.answer().text());
+        assertEquals(2, cache.snapshot().lookups());
+        assertEquals(1, cache.snapshot().exactHits());
+    }
+
+    @Test
+    void blankAnswerIsNotStored() {
+        AnswerCache cache = cache(new HashEmbeddingProvider(64), false);
+        AnswerCache.Key key = cache.keyOf(SITE_KEY_ID, profile(10L, "Y", "short"), "환불 규정");
+
+        cache.put(cache.lookup(key), "gpt", " ");
+
+        assertFalse(cache.lookup(key).hit());
+    }
+
+    @Test
+    void semanticTierMatchesParaphraseAboveThreshold() {
+        AnswerCache cache = cache(new FixedEmbeddingProvider(), true);
+        PromptProfile p = profile(10L, "Y", "short");
+        cache.put(cache.lookup(cache.keyOf(SITE_KEY_ID, p, "환불 규정")), "gpt", "7일 이내 환불");
+
+        AnswerCache.Lookup paraphrase = cache.lookup(cache.keyOf(SITE_KEY_ID, p, "환불 정책"));
+        AnswerCache.Lookup unrelated = cache.lookup(cache.keyOf(SITE_KEY_ID, p, "배송 조회"));
+
+        assertEquals(AnswerCache.Status.SEMANTIC_HIT, paraphrase.status());
+        assertEquals("7일 이내 환불", paraphrase.answer().text());
+        assertTrue(paraphrase.similarity() >= 0.92);
+        assertEquals(AnswerCache.Status.MISS, unrelated.status());
+        assertEquals(1, cache.snapshot().semanticHits());
+    }
+
+    @Test
+    void semanticTierStaysOffForLexicalEmbeddings() {
+        AnswerCache cache = cache(new HashEmbeddingProvider(64), true);
+        PromptProfile p = profile(10L, "Y", "short");
+        cache.put(cache.lookup(cache.keyOf(SITE_KEY_ID, p, "환불 규정 안내")), "gpt", "7일 이내 환불");
+
+        AnswerCache.Lookup lookup = cache.lookup(cache.keyOf(SITE_KEY_ID, p, "환불 규정 안내 부탁"));
+
+        assertFalse(cache.snapshot().semanticEnabled());
+        assertFalse(lookup.hit());
+        assertNull(lookup.vector());
+    }
+
+    @Test
+    void documentsVersionChangeInvalidatesKeys() {
+        AnswerCache cache = cache(new HashEmbeddingProvider(64), false);
+        PromptProfile p = profile(10L, "Y", "short");
+        when(knowledgeContextService.documentsVersion(any())).thenReturn(7L);
+        AnswerCache.Key before = cache.keyOf(SITE_KEY_ID, p, "환불 규정");
+        cache.put(cache.lookup(before), "gpt", "7일 이내 환불");
+
+        when(knowledgeContextService.documentsVersion(any())).thenReturn(8L);
+        AnswerCache.Key after = cache.keyOf(SITE_KEY_ID, p, "환불 규정");
+
+        assertNotEquals(before, after);
+        assertFalse(cache.lookup(after).hit());
+    }
+
+    @Test
+    void evictByPromptProfileIdClearsBothTiers() {
+        AnswerCache cache = cache(new FixedEmbeddingProvider(), true);
+        PromptProfile target = profile(10L, "Y", "short");
+        PromptProfile other = profile(20L, "Y", "short");
+        cache.put(cache.lookup(cache.keyOf(SITE_KEY_ID, target, "환불 규정")), "gpt", "a");
+        cache.put(cache.lookup(cache.keyOf(SITE_KEY_ID, other, "환불 규정")), "gpt", "b");
+
+        cache.evictByPromptProfileId(10L);
+
+        assertFalse(cache.lookup(cache.keyOf(SITE_KEY_ID, target, "환불 규정")).hit());
+        assertFalse(cache.lookup(cache.keyOf(SITE_KEY_ID, target, "환불 정책")).hit());
+        assertTrue(cache.lookup(cache.keyOf(SITE_KEY_ID, other, "환불 규정")).hit());
+    }
+
+    private AnswerCache cache(EmbeddingProvider provider, boolean semanticEnabled) {
+        return new AnswerCache(knowledgeContextService, provider, 1000, Duration.ofMinutes(10),
+                semanticEnabled, 0.92, 100, 100);
+    }
+
+    private static PromptProfile profile(Long id, String answerCacheTf, String memoryPolicy) {
+        PromptProfile p = new PromptProfile();
+        p.setId(id);
+        p.setVersion(1);
+        p.setAnswerCacheTf(answerCacheTf);
+        p.setMemoryPolicy(memoryPolicy);
+        return p;
+    }
+
+    /** 질문별로 고정된 단위 벡터 ("환불 규정" ~ "환불 정책" 코사인 0.99, "배송 조회" 와는 직교) */
+    private static final class FixedEmbeddingProvider implements EmbeddingProvider {
+
+        private static final Map<String, float[]> VECTORS = Map.of(
+                "환불 규정", new float[]{1f, 0f},
+                "환불 정책", new float[]{0.99f, 0.14106736f},
+                "배송 조회", new float[]{0f, 1f}
+        );
+
+        @Override
+        public String name() {
+            return "fixed-2";
+        }
+
+        @Override
+        public int dimension() {
+            return 2;
+        }
+
+        @Override
+        public float[] embed(String text) {
+            float[] v = VECTORS.get(text);
+            if (v == null) throw new IllegalArgumentException("no vector for " + text);
+            return v.clone();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.hbs.hsbbo.user.ai.support;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HedgingPolicyTest {
+
+    private static final Duration SLOW = Duration.ofMillis(300);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void disabledPolicyCallsOnce() {
+        HedgingPolicy policy = policy(false, 1.0, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        policy.hedge(HedgingPolicy.UPSTREAM_BRAIN, 1L, slow(calls)).block();
+
+        assertEquals(1, calls.get());
+        assertEquals(0.0, count("hsbs.chat.hedge.calls"));
+    }
+
+    @Test
+    void noHedgeBeforeMinimumSamples() {
+        HedgingPolicy policy = policy(true, 1.0, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        policy.hedge(HedgingPolicy.UPSTREAM_BRAIN, 1L, slow(calls)).block();
+
+        assertEquals(1, calls.get());
+        assertEquals(0.0, count("hsbs.chat.hedge.fired"));
+    }
+
+    @Test
+    void hedgeWinsWhenPrimaryIsSlow() {
+        HedgingPolicy policy = policy(true, 1.0, 10);
+        warmUp(policy, 1);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = policy.hedge(HedgingPolicy.UPSTREAM_BRAIN, 1L, () -> calls.incrementAndGet() == 1
+                ? Mono.delay(Duration.ofSeconds(5)).map(t -> "primary")
+                : Mono.just("hedge")).block(Duration.ofSeconds(2));
+
+        assertEquals("hedge", result);
+        assertEquals(2, calls.get());
+        assertEquals(1.0, count("hsbs.chat.hedge.fired"));
+        assertEquals(1.0, count("hsbs.chat.hedge.won"));
+    }
+
+    @Test
+    void budgetAccruesPerPrimaryCall() {
+        // 1차 호출당 0.5 적립 → 두 번에 한 번만 hedge
+        HedgingPolicy policy = policy(true, 0.5, 1);
+        warmUp(policy, 1);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            policy.hedge(HedgingPolicy.UPSTREAM_BRAIN, 1L, slow(calls)).block();
+        }
+
+        assertEquals(2.0, count("hsbs.chat.hedge.fired"));
+        assertEquals(1.0, count("hsbs.chat.hedge.budget_exhausted"));
+        assertEquals(5, calls.get());
+    }
+
+    @Test
+    void budgetIsCappedAtBurst() {
+        HedgingPolicy policy = policy(true, 1.0, 2);
+        warmUp(policy, 5);
+        AtomicInteger calls = new AtomicInteger();
+
+        List<Mono<String>> concurrent = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            concurrent.add(policy.hedge(HedgingPolicy.UPSTREAM_BRAIN, 1L, slow(calls)));
+        }
+        Mono.when(concurrent).block(Duration.ofSeconds(5));
+
+        assertEquals(2.0, count("hsbs.chat.hedge.fired"));
+        assertEquals(2.0, count("hsbs.chat.hedge.budget_exhausted"));
+    }
+
+    private HedgingPolicy policy(boolean enabled, double budgetRatio, double budgetBurst) {
+        return new HedgingPolicy(registry, enabled, 0.95, 1, Duration.ofMillis(20),
+                budgetRatio, budgetBurst, 100);
+    }
+
+    /** 빠른 응답으로 지연 분포를 채운다 (임계값 → min-delay) */
+    private static void warmUp(HedgingPolicy policy, int n) {
+        for (int i = 0; i < n; i++) {
+            policy.hedge(HedgingPolicy.UPSTREAM_BRAIN, 1L, () -> Mono.just("warm")).block();
+        }
+    }
+
+    private static Supplier<Mono<String>> slow(AtomicInteger calls) {
+        return () -> {
+            calls.incrementAndGet();
+            return Mono.delay(SLOW).map(t -> "slow");
+        };
+    }
+
+    private double count(String name) {
+        return registry.counter(name, "upstream", HedgingPolicy.UPSTREAM_BRAIN).count();
+    }
+}
@@ -0,0 +1,106 @@
+package com.hbs.hsbbo.user.ai.support;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InFlightCoalescerTest {
+
+    private final InFlightCoalescer coalescer = new InFlightCoalescer();
+
+    @Test
+    void nullKeyIsNeverCoalesced() {
+        AtomicInteger calls = new AtomicInteger();
+
+        InFlightCoalescer.Joined<String> a = coalescer.join(null, () -> Mono.fromSupplier(() -> "a" + calls.incrementAndGet()));
+        InFlightCoalescer.Joined<String> b = coalescer.join(null, () -> Mono.fromSupplier(() -> "b" + calls.incrementAndGet()));
+
+        assertFalse(a.coalesced());
+        assertFalse(b.coalesced());
+        assertEquals("a1", a.mono().block());
+        assertEquals("b2", b.mono().block());
+        assertEquals(0, coalescer.inFlightCount());
+    }
+
+    @Test
+    void concurrentCallersShareOneUpstreamCall() {
+        Sinks.One<String> sink = Sinks.one();
+        AtomicInteger calls = new AtomicInteger();
+
+        InFlightCoalescer.Joined<String> leader = coalescer.join("k", () -> {
+            calls.incrementAndGet();
+            return sink.asMono();
+        });
+        InFlightCoalescer.Joined<String> follower = coalescer.join("k", () -> {
+            calls.incrementAndGet();
+            return Mono.just("unexpected");
+        });
+
+        assertFalse(leader.coalesced());
+        assertTrue(follower.coalesced());
+
+        AtomicReference<String> first = new AtomicReference<>();
+        AtomicReference<String> second = new AtomicReference<>();
+        leader.mono().subscribe(first::set);
+        follower.mono().subscribe(second::set);
+        assertEquals(1, coalescer.inFlightCount());
+
+        sink.tryEmitValue("answer");
+
+        assertEquals("answer", first.get());
+        assertEquals("answer", second.get());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void completedCallIsNotReused() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals("1", coalescer.join("k", () -> Mono.fromSupplier(() -> "" + calls.incrementAndGet())).mono().block());
+        assertEquals(0, coalescer.inFlightCount());
+
+        InFlightCoalescer.Joined<String> next = coalescer.join("k", () -> Mono.fromSupplier(() -> "" + calls.incrementAndGet()));
+
+        assertFalse(next.coalesced());
+        assertEquals("2", next.mono().block());
+    }
+
+    @Test
+    void failureReachesEveryCallerAndClearsEntry() {
+        Sinks.One<String> sink = Sinks.one();
+        InFlightCoalescer.Joined<String> leader = coalescer.join("k", sink::asMono);
+        InFlightCoalescer.Joined<String> follower = coalescer.join("k", () -> Mono.just("unexpected"));
+
+        AtomicReference<Throwable> e1 = new AtomicReference<>();
+        AtomicReference<Throwable> e2 = new AtomicReference<>();
+        leader.mono().subscribe(v -> { }, e1::set);
+        follower.mono().subscribe(v -> { }, e2::set);
+
+        IllegalStateException boom = new IllegalStateException("boom");
+        sink.tryEmitError(boom);
+
+        assertSame(boom, e1.get());
+        assertSame(boom, e2.get());
+        assertEquals(0, coalescer.inFlightCount());
+    }
+
+    @Test
+    void differentKeysDoNotShare() {
+        Sinks.One<String> sink = Sinks.one();
+
+        InFlightCoalescer.Joined<String> a = coalescer.join("a", sink::asMono);
+        InFlightCoalescer.Joined<String> b = coalescer.join("b", sink::asMono);
+
+        assertFalse(a.coalesced());
+        assertFalse(b.coalesced());
+        assertEquals(2, coalescer.inFlightCount());
+    }
+}
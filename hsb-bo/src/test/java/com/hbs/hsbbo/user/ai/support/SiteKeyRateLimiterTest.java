@@ -0,0 +1,118 @@
+package com.hbs.hsbbo.user.ai.support;
+
+import com.hbs.hsbbo.user.ai.support.SiteKeyRateLimiter.Bucket;
+import com.hbs.hsbbo.user.ai.support.SiteKeyRateLimiter.Decision;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SiteKeyRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void fullBucketAllowsCapacityThenRejects() {
+        Bucket bucket = new Bucket(5, 1);
+        long now = System.nanoTime();
+
+        Decision first = bucket.tryAcquire(now);
+        assertTrue(first.allowed());
+        assertEquals(4, first.remaining());
+        for (int i = 0; i < 4; i++) assertTrue(bucket.tryAcquire(now).allowed());
+
+        Decision rejected = bucket.tryAcquire(now);
+        assertFalse(rejected.allowed());
+        assertEquals(SECOND / 5, rejected.retryAfterNanos());
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        Bucket bucket = new Bucket(5, 1);
+        long now = System.nanoTime();
+        for (int i = 0; i < 5; i++) bucket.tryAcquire(now);
+
+        long later = now + SECOND / 5;
+        assertTrue(bucket.tryAcquire(later).allowed());
+        assertFalse(bucket.tryAcquire(later).allowed());
+    }
+
+    @Test
+    void idleBucketNeverExceedsCapacity() {
+        Bucket bucket = new Bucket(5, 2);
+        long later = System.nanoTime() + 60 * SECOND;
+
+        int allowed = 0;
+        while (bucket.tryAcquire(later).allowed()) allowed++;
+
+        assertEquals(10, allowed);
+    }
+
+    @Test
+    void concurrentCallersNeverExceedCapacity() throws Exception {
+        Bucket bucket = new Bucket(50, 1);
+        long now = System.nanoTime();
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1_000; i++) {
+            pool.execute(() -> {
+                if (bucket.tryAcquire(now).allowed()) allowed.incrementAndGet();
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(50, allowed.get());
+    }
+
+    @Test
+    void missingOrNonPositiveRpsIsUnlimited() {
+        SiteKeyRateLimiter limiter = new SiteKeyRateLimiter(100, Duration.ofMinutes(10), 1);
+
+        assertFalse(limiter.tryAcquire("site", null).limited());
+        assertFalse(limiter.tryAcquire("site", 0).limited());
+        assertFalse(limiter.tryAcquire(null, 5).limited());
+        assertTrue(limiter.tryAcquire("site", 0).headers().isEmpty());
+    }
+
+    @Test
+    void bucketsAreIsolatedPerSiteKey() {
+        SiteKeyRateLimiter limiter = new SiteKeyRateLimiter(100, Duration.ofMinutes(10), 1);
+
+        assertTrue(limiter.tryAcquire("a", 1).allowed());
+        assertFalse(limiter.tryAcquire("a", 1).allowed());
+        assertTrue(limiter.tryAcquire("b", 1).allowed());
+    }
+
+    @Test
+    void changedRpsReplacesBucket() {
+        SiteKeyRateLimiter limiter = new SiteKeyRateLimiter(100, Duration.ofMinutes(10), 1);
+        assertTrue(limiter.tryAcquire("a", 1).allowed());
+        assertFalse(limiter.tryAcquire("a", 1).allowed());
+
+        Decision raised = limiter.tryAcquire("a", 10);
+
+        assertTrue(raised.allowed());
+        assertEquals(10, raised.limit());
+    }
+
+    @Test
+    void rejectedDecisionCarriesRetryAfterHeader() {
+        SiteKeyRateLimiter limiter = new SiteKeyRateLimiter(100, Duration.ofMinutes(10), 1);
+        limiter.tryAcquire("a", 1);
+
+        HttpHeaders h = limiter.tryAcquire("a", 1).headers();
+
+        assertEquals("1", h.getFirst("X-RateLimit-Limit"));
+        assertEquals("0", h.getFirst("X-RateLimit-Remaining"));
+        assertEquals("1", h.getFirst(HttpHeaders.RETRY_AFTER));
+    }
+}
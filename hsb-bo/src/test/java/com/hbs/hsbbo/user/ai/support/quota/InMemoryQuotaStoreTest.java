@@ -0,0 +1,94 @@
+package com.hbs.hsbbo.user.ai.support.quota;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryQuotaStoreTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 1, 10);
+
+    @Test
+    void allowsUpToLimit() {
+        InMemoryQuotaStore store = new InMemoryQuotaStore(100);
+
+        for (int i = 0; i < 3; i++) assertTrue(store.tryConsume("u1", TODAY, 3));
+        assertFalse(store.tryConsume("u1", TODAY, 3));
+        assertEquals(3, store.used("u1", TODAY));
+    }
+
+    @Test
+    void countersAreIsolatedByKeyAndDay() {
+        InMemoryQuotaStore store = new InMemoryQuotaStore(100);
+
+        assertTrue(store.tryConsume("u1", TODAY, 1));
+        assertFalse(store.tryConsume("u1", TODAY, 1));
+        assertTrue(store.tryConsume("u1", TODAY.plusDays(1), 1));
+        assertTrue(store.tryConsume("u2", TODAY, 1));
+        assertEquals(0, store.used("u3", TODAY));
+    }
+
+    @Test
+    void unlimitedOnlyCounts() {
+        InMemoryQuotaStore store = new InMemoryQuotaStore(100);
+
+        for (int i = 0; i < 5; i++) assertTrue(store.tryConsume("u1", TODAY, null));
+        assertTrue(store.tryConsume("u1", TODAY, 0));
+        assertEquals(6, store.used("u1", TODAY));
+    }
+
+    @Test
+    void pastDaysArePurgedOnRollover() {
+        InMemoryQuotaStore store = new InMemoryQuotaStore(100);
+        assertTrue(store.tryConsume("u1", TODAY, 5));
+
+        assertTrue(store.tryConsume("u2", TODAY.plusDays(1), 5));
+
+        assertEquals(0, store.used("u1", TODAY));
+        assertEquals(1, store.used("u2", TODAY.plusDays(1)));
+    }
+
+    @Test
+    void capRefusesNewKeysButKeepsLiveCounters() {
+        InMemoryQuotaStore store = new InMemoryQuotaStore(2);
+        assertTrue(store.tryConsume("u1", TODAY, 5));
+        assertTrue(store.tryConsume("u2", TODAY, 5));
+
+        assertFalse(store.tryConsume("u3", TODAY, 5));
+        assertTrue(store.tryConsume("u3", TODAY, null));
+        assertEquals(0, store.used("u3", TODAY));
+
+        // 기존 키는 초기화되지 않고 계속 집계
+        for (int i = 0; i < 4; i++) assertTrue(store.tryConsume("u1", TODAY, 5));
+        assertFalse(store.tryConsume("u1", TODAY, 5));
+        assertEquals(5, store.used("u1", TODAY));
+
+        // 날짜가 바뀌면 다시 받는다
+        assertTrue(store.tryConsume("u3", TODAY.plusDays(1), 5));
+    }
+
+    @Test
+    void concurrentConsumersNeverExceedLimit() throws Exception {
+        InMemoryQuotaStore store = new InMemoryQuotaStore(100);
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1_000; i++) {
+            pool.execute(() -> {
+                if (store.tryConsume("u1", TODAY, 50)) allowed.incrementAndGet();
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(50, allowed.get());
+        assertEquals(50, store.used("u1", TODAY));
+    }
+}
@@ -0,0 +1,173 @@
+package com.hbs.hsbbo.user.ai.support.quota;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 블록 임대 / 반납 검증 (ai_daily_quota 를 메모리 맵으로 흉내 낸 JdbcTemplate 사용)
+ */
+class JdbcQuotaStoreTest {
+
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    void largeLimitIsLeasedInBlocks() {
+        FakeQuotaTable db = new FakeQuotaTable();
+        JdbcQuotaStore store = new JdbcQuotaStore(db, 20, 7);
+
+        for (int i = 0; i < 40; i++) assertTrue(store.tryConsume("u1", today, 1000));
+
+        assertEquals(2, db.leaseCalls, "limit 1000 → 블록 20 씩 두 번 임대");
+        assertEquals(40, db.used("u1", today));
+    }
+
+    @Test
+    void blockIsCappedToShareOfLimit() {
+        FakeQuotaTable db = new FakeQuotaTable();
+        JdbcQuotaStore store = new JdbcQuotaStore(db, 20, 7);
+
+        assertTrue(store.tryConsume("u1", today, 40));
+
+        assertEquals(5, db.used("u1", today), "limit 40 → 블록 40/8 = 5");
+    }
+
+    @Test
+    void smallLimitStaysAvailableToOtherNodes() {
+        FakeQuotaTable db = new FakeQuotaTable();
+        JdbcQuotaStore a = new JdbcQuotaStore(db, 20, 7);
+        JdbcQuotaStore b = new JdbcQuotaStore(db, 20, 7);
+
+        // limit 10 → 요청마다 1 씩만 임대, a 가 먼저 써도 b 는 flush 를 기다리지 않는다
+        assertTrue(a.tryConsume("u1", today, 10));
+        assertEquals(1, db.used("u1", today));
+        assertTrue(b.tryConsume("u1", today, 10));
+
+        for (int i = 0; i < 4; i++) assertTrue(a.tryConsume("u1", today, 10));
+        for (int i = 0; i < 4; i++) assertTrue(b.tryConsume("u1", today, 10));
+        assertFalse(a.tryConsume("u1", today, 10));
+        assertFalse(b.tryConsume("u1", today, 10));
+        assertEquals(10, db.used("u1", today));
+    }
+
+    @Test
+    void nodesTogetherNeverExceedLimit() {
+        FakeQuotaTable db = new FakeQuotaTable();
+        JdbcQuotaStore a = new JdbcQuotaStore(db, 4, 7);
+        JdbcQuotaStore b = new JdbcQuotaStore(db, 4, 7);
+
+        int allowed = 0;
+        for (int i = 0; i < 20; i++) {
+            if (a.tryConsume("u1", today, 10)) allowed++;
+            if (b.tryConsume("u1", today, 10)) allowed++;
+        }
+
+        assertEquals(10, allowed);
+        assertEquals(10, db.used("u1", today));
+    }
+
+    @Test
+    void leasesRemainderWhenBlockDoesNotFit() {
+        FakeQuotaTable db = new FakeQuotaTable();
+        db.set("u1", today, 98);
+        JdbcQuotaStore store = new JdbcQuotaStore(db, 5, 7);
+
+        assertTrue(store.tryConsume("u1", today, 100));
+        assertEquals(100, db.used("u1", today), "블록 5 는 안 들어감 → 남은 2 만 임대");
+        assertTrue(store.tryConsume("u1", today, 100));
+        assertFalse(store.tryConsume("u1", today, 100));
+    }
+
+    @Test
+    void flushReturnsUnusedLease() {
+        FakeQuotaTable db = new FakeQuotaTable();
+        db.set("u1", today, 70);
+        JdbcQuotaStore a = new JdbcQuotaStore(db, 10, 7);
+        JdbcQuotaStore b = new JdbcQuotaStore(db, 10, 7);
+
+        assertTrue(a.tryConsume("u1", today, 80));   // a 가 남은 10 전부 임대, 1 사용
+        assertFalse(b.tryConsume("u1", today, 80));  // b 는 받을 몫이 없음
+
+        a.flush();                                    // 9 반납
+        assertEquals(71, db.used("u1", today));
+        assertEquals(71, a.used("u1", today));
+        assertTrue(b.tryConsume("u1", today, 80));
+    }
+
+    @Test
+    void unlimitedKeyIsFlushedAsDelta() {
+        FakeQuotaTable db = new FakeQuotaTable();
+        JdbcQuotaStore store = new JdbcQuotaStore(db, 10, 7);
+
+        for (int i = 0; i < 3; i++) assertTrue(store.tryConsume("u1", today, null));
+        assertEquals(0, db.used("u1", today));
+
+        store.flush();
+        assertEquals(3, db.used("u1", today));
+        assertEquals(0, db.leaseCalls);
+    }
+
+    /** JdbcQuotaStore 가 실행하는 SQL 만 해석하는 가짜 ai_daily_quota */
+    private static final class FakeQuotaTable extends JdbcTemplate {
+
+        private final Map<String, Integer> rows = new HashMap<>();
+        int leaseCalls;
+
+        int used(String key, LocalDate day) {
+            return rows.getOrDefault(key + "|" + day, 0);
+        }
+
+        void set(String key, LocalDate day, int used) {
+            rows.put(key + "|" + day, used);
+        }
+
+        private static String id(Object key, Object day) {
+            return key + "|" + ((Date) day).toLocalDate();
+        }
+
+        @Override
+        public synchronized int update(String sql, Object... args) {
+            if (sql.startsWith("INSERT IGNORE")) {
+                return rows.putIfAbsent(id(args[0], args[1]), 0) == null ? 1 : 0;
+            }
+            if (sql.contains("AND used + ? <=")) {
+                leaseCalls++;
+                String id = id(args[1], args[2]);
+                int n = (Integer) args[0];
+                int cur = rows.getOrDefault(id, 0);
+                if (cur + n > (Integer) args[4]) return 0;
+                rows.put(id, cur + n);
+                return 1;
+            }
+            if (sql.startsWith("DELETE")) return 0;
+            throw new IllegalArgumentException(sql);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public synchronized <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+            return (T) rows.get(id(args[0], args[1]));
+        }
+
+        @Override
+        public synchronized int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            for (Object[] a : batchArgs) {
+                if (sql.contains("GREATEST(used - ?, 0)")) {
+                    rows.merge(id(a[1], a[2]), -(Integer) a[0], (x, y) -> Math.max(0, x + y));
+                } else {
+                    rows.merge(id(a[0], a[1]), (Integer) a[2], Integer::sum);
+                }
+            }
+            return new int[batchArgs.size()];
+        }
+    }
+}